@@ -0,0 +1,63 @@
+/*-
+ * =================================LICENSE_START==================================
+ * horn4j
+ * ====================================SECTION=====================================
+ * Copyright (C) 2024 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.horn4j.benchmarks;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import com.sigpwned.horn4j.AbductiveClosureSolver;
+import com.sigpwned.horn4j.AbductiveWalk;
+import com.sigpwned.horn4j.impl.BackwardChainingAbductiveClosureSolver;
+import com.sigpwned.horn4j.impl.NaiveAbductiveClosureSolver;
+
+/**
+ * Benchmarks computing the abductive closure of one proposition in the last layer of a rule base.
+ * The naive solver walks every walk, so it only runs on small rule bases.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AbductiveClosureSolverBenchmark {
+  private final AbductiveClosureSolver<Integer, Integer> backwardChaining =
+      new BackwardChainingAbductiveClosureSolver<>();
+
+  private final AbductiveClosureSolver<Integer, Integer> naive = new NaiveAbductiveClosureSolver<>();
+
+  @Benchmark
+  public AbductiveWalk<Integer, Integer> backwardChaining(LargeRuleBase rules) {
+    return backwardChaining.abduct(Collections.singleton(rules.getGoal()), rules.getRuleSet());
+  }
+
+  @Benchmark
+  public AbductiveWalk<Integer, Integer> naive(SmallRuleBase rules) {
+    return naive.abduct(Collections.singleton(rules.getGoal()), rules.getRuleSet());
+  }
+}
@@ -0,0 +1,80 @@
+/*-
+ * =================================LICENSE_START==================================
+ * horn4j
+ * ====================================SECTION=====================================
+ * Copyright (C) 2024 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.horn4j.benchmarks;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import com.sigpwned.horn4j.AbductiveMinimalArgumentSolver;
+import com.sigpwned.horn4j.AbductiveWalk;
+import com.sigpwned.horn4j.impl.BitSetAbductiveWalker;
+import com.sigpwned.horn4j.impl.NaiveAbductiveMinimalArgumentSolver;
+import com.sigpwned.horn4j.impl.ParallelBreadthFirstAbductiveWalker;
+
+/**
+ * Benchmarks finding the minimal explanations of one proposition in the last layer of a rule base
+ * by a proposition in the first layer that it depends on. The solver's visitor is not
+ * order-sensitive, so the bitset walker explains each walk along one order only, while the naive
+ * walker explains it along every order. The parallel walker does the same as the bitset walker, on
+ * the common pool.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AbductiveMinimalArgumentSolverBenchmark {
+  private final AbductiveMinimalArgumentSolver<Integer, Integer> naive =
+      new NaiveAbductiveMinimalArgumentSolver<>();
+
+  private final AbductiveMinimalArgumentSolver<Integer, Integer> bitSet =
+      new NaiveAbductiveMinimalArgumentSolver<>(new BitSetAbductiveWalker<>());
+
+  private final AbductiveMinimalArgumentSolver<Integer, Integer> parallel =
+      new NaiveAbductiveMinimalArgumentSolver<>(new ParallelBreadthFirstAbductiveWalker<>());
+
+  @Benchmark
+  public Set<AbductiveWalk<Integer, Integer>> naive(SmallRuleBase rules) {
+    return naive.solve(Collections.singleton(rules.getGoal()), rules.getRuleSet(),
+        Collections.singleton(rules.getSupport()));
+  }
+
+  @Benchmark
+  public Set<AbductiveWalk<Integer, Integer>> bitSet(SmallRuleBase rules) {
+    return bitSet.solve(Collections.singleton(rules.getGoal()), rules.getRuleSet(),
+        Collections.singleton(rules.getSupport()));
+  }
+
+  @Benchmark
+  public Set<AbductiveWalk<Integer, Integer>> parallel(SmallRuleBase rules) {
+    return parallel.solve(Collections.singleton(rules.getGoal()), rules.getRuleSet(),
+        Collections.singleton(rules.getSupport()));
+  }
+}
@@ -0,0 +1,83 @@
+/*-
+ * =================================LICENSE_START==================================
+ * horn4j
+ * ====================================SECTION=====================================
+ * Copyright (C) 2024 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.horn4j.benchmarks;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import com.sigpwned.horn4j.AbductiveWalker;
+import com.sigpwned.horn4j.AbductiveWalker.Instruction;
+import com.sigpwned.horn4j.impl.BitSetAbductiveWalker;
+import com.sigpwned.horn4j.impl.Memoization;
+import com.sigpwned.horn4j.impl.NaiveAbductiveWalker;
+
+/**
+ * Benchmarks walking every abductive walk back from one proposition in the last layer of a rule
+ * base, with and without memoization. The bitset walker visits the same walks as the naive one.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AbductiveWalkerBenchmark {
+  @Param({"Naive", "BitSet"})
+  public String walker;
+
+  @Param({"false", "true"})
+  public boolean memoized;
+
+  private AbductiveWalker<Integer, Integer> abductiveWalker;
+
+  @Setup
+  public void setup() {
+    final Memoization memoization = memoized ? Memoization.enabled() : Memoization.disabled();
+    switch (walker) {
+      case "Naive":
+        abductiveWalker = new NaiveAbductiveWalker<>(memoization);
+        break;
+      case "BitSet":
+        abductiveWalker = new BitSetAbductiveWalker<>(memoization);
+        break;
+      default:
+        throw new IllegalArgumentException(walker);
+    }
+  }
+
+  @Benchmark
+  public void walk(SmallRuleBase rules, Blackhole blackhole) {
+    abductiveWalker.walk(Collections.singleton(rules.getGoal()), rules.getRuleSet(), walk -> {
+      blackhole.consume(walk);
+      return Instruction.CONTINUE;
+    });
+  }
+}
@@ -0,0 +1,76 @@
+/*-
+ * =================================LICENSE_START==================================
+ * horn4j
+ * ====================================SECTION=====================================
+ * Copyright (C) 2024 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.horn4j.benchmarks;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import com.sigpwned.horn4j.DeductiveMinimalArgumentSolver;
+import com.sigpwned.horn4j.DeductiveWalk;
+import com.sigpwned.horn4j.impl.BackwardChainingDeductiveMinimalArgumentSolver;
+import com.sigpwned.horn4j.impl.DirectedPruningDeductiveMinimalArgumentSolver;
+import com.sigpwned.horn4j.impl.NaiveDeductiveMinimalArgumentSolver;
+
+/**
+ * Benchmarks finding the minimal arguments for one proposition in the last layer of a rule base.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DeductiveMinimalArgumentSolverBenchmark {
+  private final DeductiveMinimalArgumentSolver<Integer, Integer> naive =
+      new NaiveDeductiveMinimalArgumentSolver<>();
+
+  private final DeductiveMinimalArgumentSolver<Integer, Integer> directedPruning =
+      new DirectedPruningDeductiveMinimalArgumentSolver<>();
+
+  private final DeductiveMinimalArgumentSolver<Integer, Integer> backwardChaining =
+      new BackwardChainingDeductiveMinimalArgumentSolver<>();
+
+  @Benchmark
+  public Set<DeductiveWalk<Integer, Integer>> naive(SmallRuleBase rules) {
+    return naive.solve(rules.getAssumptions(), rules.getRuleSet(),
+        Collections.singleton(rules.getGoal()));
+  }
+
+  @Benchmark
+  public Set<DeductiveWalk<Integer, Integer>> directedPruning(SmallRuleBase rules) {
+    return directedPruning.solve(rules.getAssumptions(), rules.getRuleSet(),
+        Collections.singleton(rules.getGoal()));
+  }
+
+  @Benchmark
+  public Set<DeductiveWalk<Integer, Integer>> backwardChaining(SmallRuleBase rules) {
+    return backwardChaining.solve(rules.getAssumptions(), rules.getRuleSet(),
+        Collections.singleton(rules.getGoal()));
+  }
+}
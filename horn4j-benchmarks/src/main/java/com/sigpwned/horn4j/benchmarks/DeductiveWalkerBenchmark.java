@@ -0,0 +1,99 @@
+/*-
+ * =================================LICENSE_START==================================
+ * horn4j
+ * ====================================SECTION=====================================
+ * Copyright (C) 2024 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.horn4j.benchmarks;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+import com.sigpwned.horn4j.DeductiveWalker;
+import com.sigpwned.horn4j.DeductiveWalker.Instruction;
+import com.sigpwned.horn4j.impl.NaiveBreadthFirstDeductiveWalker;
+import com.sigpwned.horn4j.impl.NaiveDepthFirstDeductiveWalker;
+import com.sigpwned.horn4j.impl.ParallelBreadthFirstDeductiveWalker;
+import com.sigpwned.horn4j.impl.ParallelDepthFirstDeductiveWalker;
+
+/**
+ * Benchmarks walking every deductive walk of a rule base. The order-insensitive runs show what
+ * partial order reduction saves.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DeductiveWalkerBenchmark {
+  @Param({"NaiveBreadthFirst", "NaiveDepthFirst", "ParallelBreadthFirst", "ParallelDepthFirst"})
+  public String walker;
+
+  @Param({"true", "false"})
+  public boolean orderSensitive;
+
+  private ForkJoinPool pool;
+  private DeductiveWalker<Integer, Integer> deductiveWalker;
+
+  @Setup
+  public void setup() {
+    pool = new ForkJoinPool();
+    switch (walker) {
+      case "NaiveBreadthFirst":
+        deductiveWalker = new NaiveBreadthFirstDeductiveWalker<>();
+        break;
+      case "NaiveDepthFirst":
+        deductiveWalker = new NaiveDepthFirstDeductiveWalker<>();
+        break;
+      case "ParallelBreadthFirst":
+        deductiveWalker = new ParallelBreadthFirstDeductiveWalker<>(pool);
+        break;
+      case "ParallelDepthFirst":
+        deductiveWalker = new ParallelDepthFirstDeductiveWalker<>(pool);
+        break;
+      default:
+        throw new IllegalArgumentException(walker);
+    }
+  }
+
+  @TearDown
+  public void teardown() {
+    pool.shutdown();
+  }
+
+  @Benchmark
+  public void walk(SmallRuleBase rules, Blackhole blackhole) {
+    final DeductiveWalker.Visitor<Integer, Integer> visitor = walk -> {
+      blackhole.consume(walk);
+      return Instruction.CONTINUE;
+    };
+    deductiveWalker.walk(rules.getAssumptions(), rules.getRuleSet(),
+        orderSensitive ? visitor : DeductiveWalker.Visitor.orderInsensitive(visitor));
+  }
+}
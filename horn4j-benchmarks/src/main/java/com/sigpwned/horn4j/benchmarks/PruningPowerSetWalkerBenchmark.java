@@ -0,0 +1,82 @@
+/*-
+ * =================================LICENSE_START==================================
+ * horn4j
+ * ====================================SECTION=====================================
+ * Copyright (C) 2024 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.horn4j.benchmarks;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import com.sigpwned.horn4j.Rule;
+import com.sigpwned.horn4j.util.BitSetPruningPowerSetWalker;
+import com.sigpwned.horn4j.util.PruningPowerSetWalker;
+
+/**
+ * Benchmarks walking the power set of the rules of a rule base, pruning every set of rules that
+ * concludes some proposition twice, the way a search for minimal arguments would.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PruningPowerSetWalkerBenchmark {
+  @Param({"PruningPowerSetWalker", "BitSetPruningPowerSetWalker"})
+  public String implementation;
+
+  private PruningPowerSetWalker<Rule<Integer, Integer>> walker;
+
+  @Setup
+  public void setup() {
+    switch (implementation) {
+      case "PruningPowerSetWalker":
+        walker = new PruningPowerSetWalker<>();
+        break;
+      case "BitSetPruningPowerSetWalker":
+        walker = new BitSetPruningPowerSetWalker<>();
+        break;
+      default:
+        throw new IllegalArgumentException(implementation);
+    }
+  }
+
+  @Benchmark
+  public void prunedWalk(SmallRuleBase rules, Blackhole blackhole) {
+    walker.prunedWalk(rules.getRuleBase().getRules(), subset -> {
+      blackhole.consume(subset);
+      final Set<Integer> consequents = new HashSet<>();
+      for (Rule<Integer, Integer> rule : subset)
+        if (!consequents.add(rule.getConsequent()))
+          return true;
+      return false;
+    });
+  }
+}
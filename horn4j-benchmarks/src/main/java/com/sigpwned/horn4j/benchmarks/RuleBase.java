@@ -0,0 +1,128 @@
+/*-
+ * =================================LICENSE_START==================================
+ * horn4j
+ * ====================================SECTION=====================================
+ * Copyright (C) 2024 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.horn4j.benchmarks;
+
+import static java.util.stream.Collectors.toCollection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.stream.IntStream;
+import com.sigpwned.horn4j.Rule;
+import com.sigpwned.horn4j.impl.SyntheticRuleSets;
+
+/**
+ * A layered rule base for benchmarks, from {@link SyntheticRuleSets#layered}. The propositions in
+ * the first layer are the assumptions, and each rule concludes a proposition in one layer from
+ * {@code fanIn} propositions in the layer before it. Each proposition after the first layer is the
+ * consequent of two rules, where possible, so that walkers and solvers have alternative arguments
+ * to choose between.
+ */
+public final class RuleBase {
+  /**
+   * The seed that benchmarks use unless they have a reason not to.
+   */
+  public static final long DEFAULT_SEED = 0L;
+
+  /**
+   * @param ruleCount the number of rules, at least {@code depth}
+   * @param fanIn the number of antecedents of each rule, at least 1
+   * @param depth the number of layers of rules, at least 1
+   * @param seed the seed for the random number generator
+   */
+  public static RuleBase layered(int ruleCount, int fanIn, int depth, long seed) {
+    if (ruleCount < depth)
+      throw new IllegalArgumentException("ruleCount must be at least depth");
+
+    // Each proposition feeds twice as many rules as each rule has antecedents, so each proposition
+    // is the consequent of two rules.
+    final int fanOut = 2 * fanIn;
+    final int width = SyntheticRuleSets.layerWidth(ruleCount, depth, fanIn, fanOut);
+    final Set<Rule<Integer, Integer>> rules = SyntheticRuleSets
+        .layered(ruleCount, depth, fanIn, fanOut, seed).collect(toCollection(LinkedHashSet::new));
+
+    final int lastLayer =
+        rules.stream().mapToInt(r -> r.getConsequent() / width).max().getAsInt();
+    final Set<Integer> conclusions = rules.stream().map(Rule::getConsequent)
+        .filter(c -> c / width == lastLayer).collect(toCollection(LinkedHashSet::new));
+    final Set<Integer> assumptions =
+        IntStream.range(0, width).boxed().collect(toCollection(LinkedHashSet::new));
+
+    // Follow the first rule for each consequent back from the goal to find an assumption that it
+    // depends on.
+    Integer support = conclusions.iterator().next();
+    for (int d = lastLayer; d >= 1; d--) {
+      final Integer consequent = support;
+      support = rules.stream().filter(r -> r.getConsequent().equals(consequent)).findFirst()
+          .get().getAntecedents().iterator().next();
+    }
+
+    return new RuleBase(rules, assumptions, conclusions, support);
+  }
+
+  private final Set<Rule<Integer, Integer>> rules;
+  private final Set<Integer> assumptions;
+  private final Set<Integer> conclusions;
+  private final Integer support;
+
+  private RuleBase(Set<Rule<Integer, Integer>> rules, Set<Integer> assumptions,
+      Set<Integer> conclusions, Integer support) {
+    this.rules = Collections.unmodifiableSet(rules);
+    this.assumptions = Collections.unmodifiableSet(assumptions);
+    this.conclusions = Collections.unmodifiableSet(conclusions);
+    this.support = support;
+  }
+
+  /**
+   * @return the rules
+   */
+  public Set<Rule<Integer, Integer>> getRules() {
+    return rules;
+  }
+
+  /**
+   * @return the propositions in the first layer
+   */
+  public Set<Integer> getAssumptions() {
+    return assumptions;
+  }
+
+  /**
+   * @return the propositions in the last layer, which every walk that reaches the bottom concludes
+   */
+  public Set<Integer> getConclusions() {
+    return conclusions;
+  }
+
+  /**
+   * @return one proposition in the last layer, as a goal for deduction or a hypothesis for
+   *         abduction
+   */
+  public Integer getGoal() {
+    return conclusions.iterator().next();
+  }
+
+  /**
+   * @return one proposition in the first layer that the {@link #getGoal() goal} depends on, as
+   *         evidence for abduction
+   */
+  public Integer getSupport() {
+    return support;
+  }
+}
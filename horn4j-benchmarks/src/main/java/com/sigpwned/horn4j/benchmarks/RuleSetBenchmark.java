@@ -0,0 +1,127 @@
+/*-
+ * =================================LICENSE_START==================================
+ * horn4j
+ * ====================================SECTION=====================================
+ * Copyright (C) 2024 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.horn4j.benchmarks;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import com.sigpwned.horn4j.IndexedRuleSet;
+import com.sigpwned.horn4j.Rule;
+import com.sigpwned.horn4j.impl.CompiledRuleSet;
+import com.sigpwned.horn4j.impl.DefaultRuleSet;
+
+/**
+ * Benchmarks building the rule set indexes and looking rules up in them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RuleSetBenchmark {
+  @Param({"100", "10000"})
+  public int ruleCount;
+
+  @Param({"1", "4"})
+  public int fanIn;
+
+  @Param({"2", "8"})
+  public int depth;
+
+  @Param({"DefaultRuleSet", "CompiledRuleSet"})
+  public String index;
+
+  private Set<Rule<Integer, Integer>> rules;
+  private IndexedRuleSet<Integer, Integer> ruleset;
+  private Rule<Integer, Integer> rule;
+  private Integer proposition;
+  private Set<Integer> satisfied;
+  private Set<Integer> assumptions;
+
+  @Setup
+  public void setup() {
+    final RuleBase ruleBase = RuleBase.layered(ruleCount, fanIn, depth, RuleBase.DEFAULT_SEED);
+    rules = ruleBase.getRules();
+    ruleset = newRuleSet();
+    rule = rules.iterator().next();
+    assumptions = ruleBase.getAssumptions();
+    proposition = rule.getAntecedents().iterator().next();
+    satisfied = new HashSet<>(assumptions);
+    satisfied.remove(proposition);
+  }
+
+  private IndexedRuleSet<Integer, Integer> newRuleSet() {
+    switch (index) {
+      case "DefaultRuleSet":
+        return new DefaultRuleSet<>(rules);
+      case "CompiledRuleSet":
+        return CompiledRuleSet.fromRules(rules.stream());
+      default:
+        throw new IllegalArgumentException(index);
+    }
+  }
+
+  @Benchmark
+  public IndexedRuleSet<Integer, Integer> build() {
+    return newRuleSet();
+  }
+
+  @Benchmark
+  public Set<Rule<Integer, Integer>> findByExactAntecedents() {
+    return ruleset.findByExactAntecedents(rule.getAntecedents());
+  }
+
+  @Benchmark
+  public Set<Rule<Integer, Integer>> findBySatisfiedAntecedents() {
+    return ruleset.findBySatisfiedAntecedents(assumptions);
+  }
+
+  @Benchmark
+  public Set<Rule<Integer, Integer>> findByAntecedent() {
+    return ruleset.findByAntecedent(proposition);
+  }
+
+  @Benchmark
+  public Set<Rule<Integer, Integer>> findByNewlySatisfiedAntecedents() {
+    return ruleset.findByNewlySatisfiedAntecedents(satisfied, proposition);
+  }
+
+  @Benchmark
+  public Set<Rule<Integer, Integer>> findByConsequent() {
+    return ruleset.findByConsequent(rule.getConsequent());
+  }
+
+  @Benchmark
+  public Set<Rule<Integer, Integer>> findBySignature() {
+    return ruleset.findBySignature(rule.getAntecedents(), rule.getConsequent());
+  }
+}
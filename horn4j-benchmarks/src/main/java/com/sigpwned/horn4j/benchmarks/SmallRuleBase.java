@@ -0,0 +1,74 @@
+/*-
+ * =================================LICENSE_START==================================
+ * horn4j
+ * ====================================SECTION=====================================
+ * Copyright (C) 2024 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.horn4j.benchmarks;
+
+import java.util.Set;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import com.sigpwned.horn4j.RuleSet;
+import com.sigpwned.horn4j.impl.DefaultRuleSet;
+
+/**
+ * A layered rule base small enough for the benchmarks that walk every walk, whose number grows
+ * factorially with the number of rules.
+ */
+@State(Scope.Benchmark)
+public class SmallRuleBase {
+  @Param({"6", "12"})
+  public int ruleCount;
+
+  @Param({"1", "2"})
+  public int fanIn;
+
+  @Param({"2", "3"})
+  public int depth;
+
+  private RuleBase ruleBase;
+  private RuleSet<Integer, Integer> ruleset;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    ruleBase = RuleBase.layered(ruleCount, fanIn, depth, RuleBase.DEFAULT_SEED);
+    ruleset = new DefaultRuleSet<>(ruleBase.getRules());
+  }
+
+  public RuleBase getRuleBase() {
+    return ruleBase;
+  }
+
+  public RuleSet<Integer, Integer> getRuleSet() {
+    return ruleset;
+  }
+
+  public Set<Integer> getAssumptions() {
+    return ruleBase.getAssumptions();
+  }
+
+  public Integer getGoal() {
+    return ruleBase.getGoal();
+  }
+
+  public Integer getSupport() {
+    return ruleBase.getSupport();
+  }
+}
@@ -22,6 +22,15 @@ package com.sigpwned.horn4j;
 import java.util.Set;
 
 public interface AbductiveClosureSolver<RuleIdT, PropositionT> {
-  public AbductiveWalk<RuleIdT, PropositionT> abduct(Set<PropositionT> hypotheses,
-      RuleSet<RuleIdT, PropositionT> rules);
+  public default AbductiveWalk<RuleIdT, PropositionT> abduct(Set<PropositionT> hypotheses,
+      RuleSet<RuleIdT, PropositionT> rules) {
+    return abduct(hypotheses, rules, SearchBudget.unlimited()).getResult();
+  }
+
+  /**
+   * Computes the abductive closure within the given budget. If the solver runs out of budget, then
+   * the partial result contains some of the evidence and the rules that fired to reach it.
+   */
+  public SearchResult<AbductiveWalk<RuleIdT, PropositionT>> abduct(Set<PropositionT> hypotheses,
+      RuleSet<RuleIdT, PropositionT> rules, SearchBudget budget);
 }
@@ -31,6 +31,57 @@ import java.util.Set;
  * @param <PropositionT>
  */
 public interface AbductiveMinimalArgumentSolver<RuleIdT, PropositionT> {
-  Set<AbductiveWalk<RuleIdT, PropositionT>> solve(Set<PropositionT> assumptions,
-      RuleSet<RuleIdT, PropositionT> ruleset, Set<PropositionT> goals);
+  /**
+   * Receives minimal arguments one at a time, as a solver finds them.
+   */
+  @FunctionalInterface
+  public static interface ArgumentListener<RuleIdT, PropositionT> {
+    /**
+     * Called once for each minimal argument. The solver calls this from one thread at a time, and
+     * the thread that calls it does no more searching until it returns, so a slow listener slows
+     * the search down instead of letting arguments pile up.
+     * 
+     * @return {@code true} to keep searching, or {@code false} to stop
+     */
+    public boolean onArgument(AbductiveWalk<RuleIdT, PropositionT> argument);
+  }
+
+  public default Set<AbductiveWalk<RuleIdT, PropositionT>> solve(Set<PropositionT> assumptions,
+      RuleSet<RuleIdT, PropositionT> ruleset, Set<PropositionT> goals) {
+    return solve(assumptions, ruleset, goals, SearchBudget.unlimited()).getResult();
+  }
+
+  /**
+   * Solves for the minimal arguments within the given budget. If the solver runs out of budget,
+   * then the partial result contains the arguments it found that do not contain any other argument
+   * it found. Each one supports the goals, but may not be minimal.
+   */
+  SearchResult<Set<AbductiveWalk<RuleIdT, PropositionT>>> solve(Set<PropositionT> assumptions,
+      RuleSet<RuleIdT, PropositionT> ruleset, Set<PropositionT> goals, SearchBudget budget);
+
+  /**
+   * Solves for the minimal arguments within the given budget, and passes each one to the given
+   * listener as soon as the solver knows that it is minimal, rather than once the search ends. This
+   * suits callers that only want the first few arguments, since the listener can stop the search
+   * at any time. Arguments reach the listener in no particular order. If the solver runs out of
+   * budget, then the listener has seen every argument the solver could show to be minimal so far.
+   * 
+   * <p>
+   * The default implementation solves for every argument first, and then passes them on.
+   * 
+   * @return the limit the solver reached, or {@code null} if it did not run out of budget,
+   *         including if the listener stopped it
+   */
+  public default SearchBudget.Limit solve(Set<PropositionT> assumptions,
+      RuleSet<RuleIdT, PropositionT> ruleset, Set<PropositionT> goals, SearchBudget budget,
+      ArgumentListener<RuleIdT, PropositionT> listener) {
+    if (listener == null)
+      throw new NullPointerException();
+    final SearchResult<Set<AbductiveWalk<RuleIdT, PropositionT>>> result =
+        solve(assumptions, ruleset, goals, budget);
+    for (AbductiveWalk<RuleIdT, PropositionT> argument : result.getResult())
+      if (!listener.onArgument(argument))
+        break;
+    return result.getLimit();
+  }
 }
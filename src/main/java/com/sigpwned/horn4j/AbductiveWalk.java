@@ -25,6 +25,17 @@ import java.util.Objects;
 import java.util.Set;
 import com.sigpwned.horn4j.util.Sets;
 
+/**
+ * Represents an abductive walk starting with a set of hypotheses and iteratively applying rules
+ * backwards, from consequent to antecedents.
+ * 
+ * <p>
+ * Subclasses may store the walk in a different form, as long as they override the getters, and
+ * any other methods they can make faster, consistently.
+ * 
+ * @param <RuleIdT>
+ * @param <PropositionT>
+ */
 public class AbductiveWalk<RuleIdT, PropositionT> {
   public static <RuleIdT, PropositionT> AbductiveWalk<RuleIdT, PropositionT> start(
       Set<PropositionT> hypotheses) {
@@ -118,9 +129,13 @@ public class AbductiveWalk<RuleIdT, PropositionT> {
         && getEvidence().containsAll(other.getEvidence());
   }
 
+  /**
+   * Two walks are equal if they have the same hypotheses, evidence, and fired rules, regardless of
+   * the order the rules fired in or how the walks are represented.
+   */
   @Override
   public int hashCode() {
-    return Objects.hash(evidence, fired, hypotheses);
+    return Objects.hash(getEvidence(), getFired(), getHypotheses());
   }
 
   @Override
@@ -130,16 +145,17 @@ public class AbductiveWalk<RuleIdT, PropositionT> {
       return true;
     if (obj == null)
       return false;
-    if (getClass() != obj.getClass())
+    if (!(obj instanceof AbductiveWalk))
       return false;
     AbductiveWalk other = (AbductiveWalk) obj;
-    return Objects.equals(evidence, other.evidence) && Objects.equals(fired, other.fired)
-        && Objects.equals(hypotheses, other.hypotheses);
+    return Objects.equals(getEvidence(), other.getEvidence())
+        && Objects.equals(getFired(), other.getFired())
+        && Objects.equals(getHypotheses(), other.getHypotheses());
   }
 
   @Override
   public String toString() {
-    return "AbductiveWalk [hypotheses=" + hypotheses + ", fired=" + fired + ", evidence=" + evidence
-        + "]";
+    return "AbductiveWalk [hypotheses=" + getHypotheses() + ", fired=" + getFired() + ", evidence="
+        + getEvidence() + "]";
   }
 }
@@ -52,8 +52,67 @@ public interface AbductiveWalker<RuleIdT, PropositionT> {
      * @return {@code true} if the walk should continue, {@code false} otherwise
      */
     public Instruction step(AbductiveWalk<RuleIdT, PropositionT> walk);
+
+    /**
+     * Returns {@code true} if this visitor cares about the order in which each walk explained its
+     * propositions, or {@code false} if it only cares about which explanations the walk chose. The
+     * default is {@code true}.
+     * 
+     * <p>
+     * When a walk has several propositions left to explain, walkers explain each of them next in
+     * turn, so they build the same explanation once for every order in which its propositions can
+     * be explained. If this method returns {@code false}, then walkers may instead build each
+     * explanation along only one order. In exchange, pruning a walk may also prune every walk that
+     * contains it, since the walker may only reach those walks through the pruned one. That is safe
+     * as long as the visitor has no use for any walk that contains a walk it prunes.
+     * 
+     * @see AbductiveWalker.Visitor#orderInsensitive(Visitor)
+     */
+    public default boolean isOrderSensitive() {
+      return true;
+    }
+
+    /**
+     * Returns a visitor that calls the given visitor for each walk, but that does not care about
+     * the order in which each walk explained its propositions.
+     * 
+     * @see #isOrderSensitive()
+     */
+    public static <RuleIdT, PropositionT> Visitor<RuleIdT, PropositionT> orderInsensitive(
+        Visitor<RuleIdT, PropositionT> visitor) {
+      if (visitor == null)
+        throw new NullPointerException();
+      return new Visitor<RuleIdT, PropositionT>() {
+        @Override
+        public Instruction step(AbductiveWalk<RuleIdT, PropositionT> walk) {
+          return visitor.step(walk);
+        }
+
+        @Override
+        public boolean isOrderSensitive() {
+          return false;
+        }
+      };
+    }
+  }
+
+  /**
+   * Walks the given rules from the given hypotheses, showing each walk to the given visitor, until
+   * there are no more walks or the visitor stops.
+   */
+  public default void walk(Set<PropositionT> hypotheses, RuleSet<RuleIdT, PropositionT> rules,
+      Visitor<RuleIdT, PropositionT> visitor) {
+    walk(hypotheses, rules, visitor, SearchBudget.unlimited());
   }
 
-  public void walk(Set<PropositionT> hypotheses, RuleSet<RuleIdT, PropositionT> rules,
-      Visitor<RuleIdT, PropositionT> visitor);
+  /**
+   * Walks the given rules from the given hypotheses, showing each walk to the given visitor, until
+   * there are no more walks, the visitor stops, or the walker runs out of budget. Running out of
+   * budget stops all walks, just like {@link Instruction#STOP STOP}.
+   *
+   * @return the limit the walker reached, or {@code null} if it did not run out of budget
+   */
+  public SearchBudget.Limit walk(Set<PropositionT> hypotheses,
+      RuleSet<RuleIdT, PropositionT> rules, Visitor<RuleIdT, PropositionT> visitor,
+      SearchBudget budget);
 }
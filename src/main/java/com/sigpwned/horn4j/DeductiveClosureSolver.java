@@ -22,6 +22,15 @@ package com.sigpwned.horn4j;
 import java.util.Set;
 
 public interface DeductiveClosureSolver<RuleIdT, PropositionT> {
-  public DeductiveWalk<RuleIdT, PropositionT> deduct(Set<PropositionT> assumptions,
-      RuleSet<RuleIdT, PropositionT> rules);
+  public default DeductiveWalk<RuleIdT, PropositionT> deduct(Set<PropositionT> assumptions,
+      RuleSet<RuleIdT, PropositionT> rules) {
+    return deduct(assumptions, rules, SearchBudget.unlimited()).getResult();
+  }
+
+  /**
+   * Computes the deductive closure within the given budget. If the solver runs out of budget, then
+   * the partial result contains some of the conclusions and the rules that fired to reach them.
+   */
+  public SearchResult<DeductiveWalk<RuleIdT, PropositionT>> deduct(Set<PropositionT> assumptions,
+      RuleSet<RuleIdT, PropositionT> rules, SearchBudget budget);
 }
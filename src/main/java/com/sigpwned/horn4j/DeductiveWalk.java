@@ -28,10 +28,28 @@ import com.sigpwned.horn4j.util.Sets;
 /**
  * Represents a deductive walk starting with a set of assumptions and iteratively applying rules.
  * 
+ * <p>
+ * Subclasses may store the walk in a different form, as long as they override the getters, and
+ * any other methods they can make faster, consistently.
+ * 
  * @param <RuleIdT>
  * @param <PropositionT>
  */
 public class DeductiveWalk<RuleIdT, PropositionT> {
+  /**
+   * Starts new walks. Walkers use a factory to choose how the walks they build are represented, so
+   * callers can trade time for memory, or the other way around.
+   */
+  @FunctionalInterface
+  public static interface Factory<RuleIdT, PropositionT> {
+    /**
+     * Starts a new walk from the given assumptions over the given rules. The walk has not fired any
+     * rules yet.
+     */
+    public DeductiveWalk<RuleIdT, PropositionT> start(Set<PropositionT> assumptions,
+        RuleSet<RuleIdT, PropositionT> rules);
+  }
+
   public static <RuleIdT, PropositionT> DeductiveWalk<RuleIdT, PropositionT> start(
       Set<PropositionT> assumptions) {
     return new DeductiveWalk<>(assumptions);
@@ -121,9 +139,13 @@ public class DeductiveWalk<RuleIdT, PropositionT> {
         && getFired().containsAll(other.getFired());
   }
 
+  /**
+   * Two walks are equal if they have the same assumptions, conclusions, and fired rules, regardless
+   * of the order the rules fired in or how the walks are represented.
+   */
   @Override
   public int hashCode() {
-    return Objects.hash(assumptions, conclusions, fired);
+    return Objects.hash(getAssumptions(), getConclusions(), getFired());
   }
 
   @Override
@@ -133,16 +155,17 @@ public class DeductiveWalk<RuleIdT, PropositionT> {
       return true;
     if (obj == null)
       return false;
-    if (getClass() != obj.getClass())
+    if (!(obj instanceof DeductiveWalk))
       return false;
     DeductiveWalk other = (DeductiveWalk) obj;
-    return Objects.equals(assumptions, other.assumptions)
-        && Objects.equals(conclusions, other.conclusions) && Objects.equals(fired, other.fired);
+    return Objects.equals(getAssumptions(), other.getAssumptions())
+        && Objects.equals(getConclusions(), other.getConclusions())
+        && Objects.equals(getFired(), other.getFired());
   }
 
   @Override
   public String toString() {
-    return "DeductiveWalk [assumptions=" + assumptions + ", fired=" + fired + ", conclusions="
-        + conclusions + "]";
+    return "DeductiveWalk [assumptions=" + getAssumptions() + ", fired=" + getFired()
+        + ", conclusions=" + getConclusions() + "]";
   }
 }
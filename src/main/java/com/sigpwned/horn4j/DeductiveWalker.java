@@ -39,6 +39,15 @@ public interface DeductiveWalker<RuleIdT, PropositionT> {
     STOP;
   }
 
+  /**
+   * Receives each walk a walker builds.
+   * 
+   * <p>
+   * Unless a walker documents otherwise, it calls its visitor on the thread that called
+   * {@link DeductiveWalker#walk(Set, RuleSet, Visitor)}, one walk at a time. Parallel walkers call
+   * their visitor from many threads at once, so any visitor used with a parallel walker must be
+   * thread-safe. In every case, all calls to the visitor happen before {@code walk} returns.
+   */
   @FunctionalInterface
   public static interface Visitor<RuleIdT, PropositionT> {
     /**
@@ -52,8 +61,67 @@ public interface DeductiveWalker<RuleIdT, PropositionT> {
      * @return {@code true} if the walk should continue, {@code false} otherwise
      */
     public Instruction step(DeductiveWalk<RuleIdT, PropositionT> walk);
+
+    /**
+     * Returns {@code true} if this visitor cares about the order in which each walk fired its
+     * rules, or {@code false} if it only cares about which rules fired. The default is
+     * {@code true}.
+     * 
+     * <p>
+     * When several independent rules can fire at once, walkers visit every order in which they can
+     * fire, and the number of orders grows factorially with the number of rules. If this method
+     * returns {@code false}, then walkers may instead reach each set of fired rules in only one
+     * order. In exchange, pruning a walk may also prune every walk that contains it, since the
+     * walker may only reach those walks through the pruned one. That is safe as long as the
+     * visitor has no use for any walk that contains a walk it prunes.
+     * 
+     * @see DeductiveWalker.Visitor#orderInsensitive(Visitor)
+     */
+    public default boolean isOrderSensitive() {
+      return true;
+    }
+
+    /**
+     * Returns a visitor that calls the given visitor for each walk, but that does not care about
+     * the order in which each walk fired its rules.
+     * 
+     * @see #isOrderSensitive()
+     */
+    public static <RuleIdT, PropositionT> Visitor<RuleIdT, PropositionT> orderInsensitive(
+        Visitor<RuleIdT, PropositionT> visitor) {
+      if (visitor == null)
+        throw new NullPointerException();
+      return new Visitor<RuleIdT, PropositionT>() {
+        @Override
+        public Instruction step(DeductiveWalk<RuleIdT, PropositionT> walk) {
+          return visitor.step(walk);
+        }
+
+        @Override
+        public boolean isOrderSensitive() {
+          return false;
+        }
+      };
+    }
+  }
+
+  /**
+   * Walks the given rules from the given assumptions, showing each walk to the given visitor, until
+   * there are no more walks or the visitor stops.
+   */
+  public default void walk(Set<PropositionT> assumptions, RuleSet<RuleIdT, PropositionT> rules,
+      Visitor<RuleIdT, PropositionT> visitor) {
+    walk(assumptions, rules, visitor, SearchBudget.unlimited());
   }
 
-  public void walk(Set<PropositionT> assumptions, RuleSet<RuleIdT, PropositionT> rules,
-      Visitor<RuleIdT, PropositionT> visitor);
+  /**
+   * Walks the given rules from the given assumptions, showing each walk to the given visitor, until
+   * there are no more walks, the visitor stops, or the walker runs out of budget. Running out of
+   * budget stops all walks, just like {@link Instruction#STOP STOP}.
+   *
+   * @return the limit the walker reached, or {@code null} if it did not run out of budget
+   */
+  public SearchBudget.Limit walk(Set<PropositionT> assumptions,
+      RuleSet<RuleIdT, PropositionT> rules, Visitor<RuleIdT, PropositionT> visitor,
+      SearchBudget budget);
 }
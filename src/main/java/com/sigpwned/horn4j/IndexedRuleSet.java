@@ -0,0 +1,105 @@
+/*-
+ * =================================LICENSE_START==================================
+ * horn4j
+ * ====================================SECTION=====================================
+ * Copyright (C) 2024 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.horn4j;
+
+/**
+ * A {@link RuleSet} that also exposes its rules and indexes in terms of dense integer identifiers,
+ * so solvers can work on {@code int} values and arrays instead of hashing rules and propositions.
+ * 
+ * <p>
+ * Propositions are identified by their identifiers in the rule set's
+ * {@link #getDictionary() dictionary}. Every proposition that appears in a rule has been interned
+ * in the dictionary by the time the rule set is built. Since a dictionary can be shared, it may
+ * also contain propositions that do not appear in this rule set. The lookups below treat those
+ * propositions as appearing in no rules.
+ * 
+ * <p>
+ * Rules are identified by their index in the rule set, from zero to {@link #getRuleCount()}
+ * exclusive. Rule indexes are specific to the rule set.
+ * 
+ * @param <RuleIdT> The type of the rule identifiers.
+ * @param <PropositionT> The type of the propositions.
+ */
+public interface IndexedRuleSet<RuleIdT, PropositionT> extends RuleSet<RuleIdT, PropositionT> {
+  /**
+   * @return the dictionary that identifies this rule set's propositions
+   */
+  public PropositionDictionary<PropositionT> getDictionary();
+
+  /**
+   * @return the number of rules in this rule set
+   */
+  public int getRuleCount();
+
+  /**
+   * Decodes the rule with the given index.
+   */
+  public Rule<RuleIdT, PropositionT> getRule(int rule);
+
+  /**
+   * Returns the index of the given rule, or -1 if the rule is not in this rule set.
+   */
+  public int indexOf(Rule<RuleIdT, PropositionT> rule);
+
+  /**
+   * Returns the proposition identifier of the given rule's consequent.
+   */
+  public int getConsequent(int rule);
+
+  /**
+   * Returns the number of antecedents of the given rule.
+   */
+  public int getAntecedentCount(int rule);
+
+  /**
+   * Returns the proposition identifier of the given rule's {@code index}-th antecedent.
+   */
+  public int getAntecedent(int rule, int index);
+
+  /**
+   * Returns the number of rules that have the given proposition as an antecedent.
+   */
+  public int getRuleCountByAntecedent(int proposition);
+
+  /**
+   * Returns the index of the {@code index}-th rule that has the given proposition as an antecedent.
+   */
+  public int getRuleByAntecedent(int proposition, int index);
+
+  /**
+   * Returns the number of rules that have the given proposition as a consequent.
+   */
+  public int getRuleCountByConsequent(int proposition);
+
+  /**
+   * Returns the index of the {@code index}-th rule that has the given proposition as a consequent.
+   */
+  public int getRuleByConsequent(int proposition, int index);
+
+  /**
+   * Returns the number of rules that have no antecedents.
+   */
+  public int getUnconditionalRuleCount();
+
+  /**
+   * Returns the index of the {@code index}-th rule that has no antecedents.
+   */
+  public int getUnconditionalRule(int index);
+}
@@ -0,0 +1,148 @@
+/*-
+ * =================================LICENSE_START==================================
+ * horn4j
+ * ====================================SECTION=====================================
+ * Copyright (C) 2024 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.horn4j;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Interns propositions to dense integer identifiers, starting from zero, in the order they are
+ * first seen. Once a proposition has an identifier, it never changes, so solvers can work on plain
+ * {@code int} values and arrays internally and only decode identifiers back to propositions when
+ * they build their results. This avoids calling {@link Object#hashCode()} and
+ * {@link Object#equals(Object)} on propositions in the inner loops, which matters when
+ * propositions are large objects, like long strings.
+ * 
+ * <p>
+ * A dictionary can be shared by any number of rule sets, and identifiers are consistent across all
+ * of them. Interning is synchronized, so it is safe to intern from multiple threads, although
+ * normally all propositions are interned once, when a rule set is built. Lookups and decoding take
+ * no locks, and are safe to perform concurrently with each other and with interning.
+ * 
+ * @param <PropositionT> The type of the propositions.
+ */
+public class PropositionDictionary<PropositionT> {
+  /**
+   * Returned by {@link #lookup(Object)} for propositions that have not been interned.
+   */
+  public static final int NO_ID = -1;
+
+  private final Map<PropositionT, Integer> ids;
+
+  /**
+   * The interned propositions, indexed by identifier. Only the first {@link #size} elements are
+   * used. The array is replaced, never modified in place, once it is visible to readers, except to
+   * set elements that readers cannot have an identifier for yet.
+   */
+  private volatile Object[] propositions;
+
+  private volatile int size;
+
+  public PropositionDictionary() {
+    this(16);
+  }
+
+  public PropositionDictionary(int expectedSize) {
+    if (expectedSize < 0)
+      throw new IllegalArgumentException("expectedSize must not be negative");
+    this.ids = new ConcurrentHashMap<>(expectedSize);
+    this.propositions = new Object[Math.max(expectedSize, 1)];
+    this.size = 0;
+  }
+
+  /**
+   * Returns the identifier of the given proposition, assigning the next free identifier if the
+   * proposition has not been interned yet.
+   * 
+   * @param proposition the proposition to intern
+   * @return the identifier of the given proposition
+   * @throws NullPointerException if {@code proposition} is {@code null}
+   */
+  public int intern(PropositionT proposition) {
+    if (proposition == null)
+      throw new NullPointerException();
+
+    // Fast path. Most propositions are interned many times, but only assigned an id once.
+    Integer id = ids.get(proposition);
+    if (id != null)
+      return id.intValue();
+
+    synchronized (this) {
+      id = ids.get(proposition);
+      if (id != null)
+        return id.intValue();
+
+      final int result = size;
+
+      Object[] ps = propositions;
+      if (result == ps.length)
+        ps = Arrays.copyOf(ps, ps.length * 2);
+      ps[result] = proposition;
+
+      // Publish the proposition before its id, so any reader that sees the id can decode it.
+      propositions = ps;
+      size = result + 1;
+      ids.put(proposition, result);
+
+      return result;
+    }
+  }
+
+  /**
+   * Returns the identifier of the given proposition, or {@link #NO_ID} if it has not been interned.
+   * 
+   * @param proposition the proposition to look up
+   * @return the identifier of the given proposition, or {@link #NO_ID}
+   * @throws NullPointerException if {@code proposition} is {@code null}
+   */
+  public int lookup(PropositionT proposition) {
+    if (proposition == null)
+      throw new NullPointerException();
+    Integer id = ids.get(proposition);
+    return id != null ? id.intValue() : NO_ID;
+  }
+
+  /**
+   * Returns the proposition with the given identifier.
+   * 
+   * @param id the identifier
+   * @return the proposition with the given identifier
+   * @throws IndexOutOfBoundsException if no proposition has the given identifier
+   */
+  @SuppressWarnings("unchecked")
+  public PropositionT decode(int id) {
+    if (id < 0 || id >= size)
+      throw new IndexOutOfBoundsException(Integer.toString(id));
+    return (PropositionT) propositions[id];
+  }
+
+  /**
+   * @return the number of interned propositions, which is one more than the largest identifier
+   */
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public String toString() {
+    return "PropositionDictionary [size=" + size + "]";
+  }
+}
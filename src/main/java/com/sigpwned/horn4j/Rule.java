@@ -36,6 +36,12 @@ public class Rule<IdT, PropositionT> {
   private final Set<PropositionT> antecedents;
   private final PropositionT consequent;
 
+  /**
+   * Cached hash code. Rules are used as hash keys in every index and walk, and computing the hash
+   * code requires hashing every antecedent, so we only do it once.
+   */
+  private transient int hashCode;
+
   public Rule(IdT id, Set<PropositionT> antecedents, PropositionT consequent) {
     this.id = requireNonNull(id);
     this.antecedents = unmodifiableSet(antecedents);
@@ -68,7 +74,12 @@ public class Rule<IdT, PropositionT> {
 
   @Override
   public int hashCode() {
-    return Objects.hash(antecedents, consequent, id);
+    int result = hashCode;
+    if (result == 0) {
+      result = Objects.hash(antecedents, consequent, id);
+      hashCode = result;
+    }
+    return result;
   }
 
   @Override
@@ -33,6 +33,20 @@ public interface RuleSet<RuleIdT, PropositionT> {
   public Set<Rule<RuleIdT, PropositionT>> findBySatisfiedAntecedents(
       Set<PropositionT> propositions);
 
+  /**
+   * Find all rules such that the rules' antecedents contain the given proposition.
+   */
+  public Set<Rule<RuleIdT, PropositionT>> findByAntecedent(PropositionT proposition);
+
+  /**
+   * Find all rules such that the rules' antecedents contain the given proposition and are a subset
+   * of the given satisfied propositions plus the given proposition. In other words, find the rules
+   * that adding the given proposition to the given satisfied propositions has just enabled. The
+   * given proposition should not already be in the satisfied propositions.
+   */
+  public Set<Rule<RuleIdT, PropositionT>> findByNewlySatisfiedAntecedents(
+      Set<PropositionT> satisfied, PropositionT proposition);
+
   /**
    * Find all rules such that the rules' consequents are equal to the given proposition.
    */
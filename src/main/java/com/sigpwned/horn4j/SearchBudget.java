@@ -0,0 +1,278 @@
+/*-
+ * =================================LICENSE_START==================================
+ * horn4j
+ * ====================================SECTION=====================================
+ * Copyright (C) 2024 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.horn4j;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Limits how much work one call to a walker or solver may do. A budget can limit the wall-clock
+ * time of the call, the number of walks the walker visits, and the number of walks waiting to be
+ * expanded, which is what a walker holds in memory. It can also ask the walker to stop when the
+ * thread that called it is {@link Thread#interrupt() interrupted}.
+ *
+ * <p>
+ * When a walker runs out of budget, it stops as if its visitor had returned
+ * {@link DeductiveWalker.Instruction#STOP STOP}, and reports which {@link Limit limit} it reached.
+ * Solvers then return a {@link SearchResult partial result} built from what they found so far,
+ * instead of throwing or running on.
+ *
+ * <p>
+ * Budgets are immutable, and the time limit starts counting when each call starts, so one budget
+ * can be used for many calls. The {@link #unlimited() unlimited} budget costs nothing.
+ */
+public final class SearchBudget {
+  /**
+   * The limits a search can reach.
+   */
+  public static enum Limit {
+    /**
+     * The search ran longer than its timeout.
+     */
+    DEADLINE,
+
+    /**
+     * The search visited as many walks as it may.
+     */
+    VISITED,
+
+    /**
+     * The search had more walks waiting to be expanded than it may.
+     */
+    FRONTIER,
+
+    /**
+     * The thread that started the search was interrupted.
+     */
+    INTERRUPTED;
+  }
+
+  private static final SearchBudget UNLIMITED =
+      new SearchBudget(Long.MAX_VALUE, Long.MAX_VALUE, Long.MAX_VALUE, false);
+
+  /**
+   * @return a budget with no limits, which does not check for interrupts
+   */
+  public static SearchBudget unlimited() {
+    return UNLIMITED;
+  }
+
+  private final long timeoutNanos;
+  private final long maxVisited;
+  private final long maxFrontier;
+  private final boolean interruptible;
+
+  private SearchBudget(long timeoutNanos, long maxVisited, long maxFrontier,
+      boolean interruptible) {
+    this.timeoutNanos = timeoutNanos;
+    this.maxVisited = maxVisited;
+    this.maxFrontier = maxFrontier;
+    this.interruptible = interruptible;
+  }
+
+  /**
+   * @return a copy of this budget that stops each search after the given time
+   */
+  public SearchBudget withTimeout(long timeout, TimeUnit unit) {
+    if (unit == null)
+      throw new NullPointerException();
+    if (timeout < 0L)
+      throw new IllegalArgumentException("timeout must not be negative");
+    return new SearchBudget(unit.toNanos(timeout), maxVisited, maxFrontier, interruptible);
+  }
+
+  /**
+   * @return a copy of this budget that stops each search after it visits the given number of walks
+   */
+  public SearchBudget withMaxVisited(long maxVisited) {
+    if (maxVisited < 0L)
+      throw new IllegalArgumentException("maxVisited must not be negative");
+    return new SearchBudget(timeoutNanos, maxVisited, maxFrontier, interruptible);
+  }
+
+  /**
+   * @return a copy of this budget that stops each search when it has more than the given number of
+   *         walks waiting to be expanded
+   */
+  public SearchBudget withMaxFrontier(long maxFrontier) {
+    if (maxFrontier < 0L)
+      throw new IllegalArgumentException("maxFrontier must not be negative");
+    return new SearchBudget(timeoutNanos, maxVisited, maxFrontier, interruptible);
+  }
+
+  /**
+   * @return a copy of this budget that stops each search if the thread that started it is
+   *         interrupted, or not. The search leaves the interrupt status of the thread as it is.
+   */
+  public SearchBudget withInterruptible(boolean interruptible) {
+    return new SearchBudget(timeoutNanos, maxVisited, maxFrontier, interruptible);
+  }
+
+  /**
+   * @return the timeout of each search, in nanoseconds, or {@link Long#MAX_VALUE} if there is none
+   */
+  public long getTimeoutNanos() {
+    return timeoutNanos;
+  }
+
+  /**
+   * @return the most walks each search may visit, or {@link Long#MAX_VALUE} if there is no limit
+   */
+  public long getMaxVisited() {
+    return maxVisited;
+  }
+
+  /**
+   * @return the most walks each search may have waiting to be expanded, or {@link Long#MAX_VALUE}
+   *         if there is no limit
+   */
+  public long getMaxFrontier() {
+    return maxFrontier;
+  }
+
+  /**
+   * @return whether each search stops if the thread that started it is interrupted
+   */
+  public boolean isInterruptible() {
+    return interruptible;
+  }
+
+  /**
+   * @return {@code true} if this budget has no limits and does not check for interrupts, in which
+   *         case walkers and solvers skip all of their bookkeeping for it
+   */
+  public boolean isUnlimited() {
+    return timeoutNanos == Long.MAX_VALUE && maxVisited == Long.MAX_VALUE
+        && maxFrontier == Long.MAX_VALUE && !interruptible;
+  }
+
+  /**
+   * Starts spending this budget on one search from the current thread, which is the thread whose
+   * interrupts the search honors.
+   */
+  public Tracker start() {
+    return new Tracker(this, Thread.currentThread(), System.nanoTime());
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(timeoutNanos, maxVisited, maxFrontier, interruptible);
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj)
+      return true;
+    if (obj == null)
+      return false;
+    if (getClass() != obj.getClass())
+      return false;
+    SearchBudget other = (SearchBudget) obj;
+    return timeoutNanos == other.timeoutNanos && maxVisited == other.maxVisited
+        && maxFrontier == other.maxFrontier && interruptible == other.interruptible;
+  }
+
+  @Override
+  public String toString() {
+    return "SearchBudget [timeoutNanos=" + timeoutNanos + ", maxVisited=" + maxVisited
+        + ", maxFrontier=" + maxFrontier + ", interruptible=" + interruptible + "]";
+  }
+
+  /**
+   * Spends a budget on one search. Walkers call {@link #visit()} before each walk they visit and
+   * {@link #frontier(long)} whenever their frontier grows, and stop as soon as either returns
+   * {@code false}. Trackers are thread-safe, so the workers of a parallel walker can share one.
+   * Once a tracker reaches a limit, it stays there.
+   */
+  public static final class Tracker {
+    private final SearchBudget budget;
+    private final Thread owner;
+    private final long startNanos;
+    private final AtomicLong visited;
+    private final AtomicReference<Limit> limit;
+
+    private Tracker(SearchBudget budget, Thread owner, long startNanos) {
+      this.budget = budget;
+      this.owner = owner;
+      this.startNanos = startNanos;
+      this.visited = new AtomicLong(0L);
+      this.limit = new AtomicReference<>();
+    }
+
+    /**
+     * Spends one visit, unless the search has reached a limit.
+     *
+     * @return {@code true} if the walker may visit another walk, or {@code false} if it must stop
+     */
+    public boolean visit() {
+      if (limit.get() != null)
+        return false;
+      if (visited.incrementAndGet() > budget.getMaxVisited())
+        return reach(Limit.VISITED);
+      if (budget.isInterruptible() && owner.isInterrupted())
+        return reach(Limit.INTERRUPTED);
+      if (budget.getTimeoutNanos() != Long.MAX_VALUE
+          && System.nanoTime() - startNanos > budget.getTimeoutNanos())
+        return reach(Limit.DEADLINE);
+      return true;
+    }
+
+    /**
+     * Checks the size of the frontier, i.e., the number of walks waiting to be expanded.
+     *
+     * @return {@code true} if the walker may go on, or {@code false} if it must stop
+     */
+    public boolean frontier(long size) {
+      if (limit.get() != null)
+        return false;
+      if (size > budget.getMaxFrontier())
+        return reach(Limit.FRONTIER);
+      return true;
+    }
+
+    /**
+     * @return {@code true} if the search has reached a limit
+     */
+    public boolean isExhausted() {
+      return limit.get() != null;
+    }
+
+    /**
+     * @return the first limit the search reached, or {@code null} if it has not reached any
+     */
+    public Limit getLimit() {
+      return limit.get();
+    }
+
+    /**
+     * @return the number of visits spent so far
+     */
+    public long getVisited() {
+      return visited.get();
+    }
+
+    private boolean reach(Limit reached) {
+      limit.compareAndSet(null, reached);
+      return false;
+    }
+  }
+}
@@ -0,0 +1,99 @@
+/*-
+ * =================================LICENSE_START==================================
+ * horn4j
+ * ====================================SECTION=====================================
+ * Copyright (C) 2024 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.horn4j;
+
+import java.util.Objects;
+
+/**
+ * The result of a search that ran on a {@link SearchBudget budget}. If the search finished, then
+ * the result is complete. Otherwise, the result is partial, and holds whatever the search found
+ * before it reached the given limit. Each solver documents what its partial results mean.
+ *
+ * @param <T> the type of the result
+ */
+public final class SearchResult<T> {
+  public static <T> SearchResult<T> complete(T result) {
+    return new SearchResult<>(result, null);
+  }
+
+  public static <T> SearchResult<T> partial(T result, SearchBudget.Limit limit) {
+    if (limit == null)
+      throw new NullPointerException();
+    return new SearchResult<>(result, limit);
+  }
+
+  /**
+   * @return a complete result if the limit is {@code null}, or a partial result otherwise
+   */
+  public static <T> SearchResult<T> of(T result, SearchBudget.Limit limit) {
+    return new SearchResult<>(result, limit);
+  }
+
+  private final T result;
+  private final SearchBudget.Limit limit;
+
+  private SearchResult(T result, SearchBudget.Limit limit) {
+    this.result = result;
+    this.limit = limit;
+  }
+
+  /**
+   * @return the result, which is partial unless {@link #isComplete()}
+   */
+  public T getResult() {
+    return result;
+  }
+
+  /**
+   * @return {@code true} if the search finished within its budget
+   */
+  public boolean isComplete() {
+    return limit == null;
+  }
+
+  /**
+   * @return the limit the search reached, or {@code null} if the result is complete
+   */
+  public SearchBudget.Limit getLimit() {
+    return limit;
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(limit, result);
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj)
+      return true;
+    if (obj == null)
+      return false;
+    if (getClass() != obj.getClass())
+      return false;
+    SearchResult<?> other = (SearchResult<?>) obj;
+    return limit == other.limit && Objects.equals(result, other.result);
+  }
+
+  @Override
+  public String toString() {
+    return "SearchResult [result=" + result + ", limit=" + limit + "]";
+  }
+}
@@ -0,0 +1,127 @@
+/*-
+ * =================================LICENSE_START==================================
+ * horn4j
+ * ====================================SECTION=====================================
+ * Copyright (C) 2024 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.horn4j;
+
+/**
+ * Listens to what walkers and solvers do, so that callers can see where a search spends its time.
+ * Attach an instance to a walker or solver when constructing it. Walkers report every walk they
+ * visit, prune, or skip as a duplicate, the size of their frontier of walks waiting to be expanded,
+ * and the time each walk takes. Solvers report the time they spend searching for solutions and
+ * minimizing them. Both report every lookup they make in a {@link RuleSet}, including the lookups
+ * that walks make to find the rules that can fire next.
+ * 
+ * <p>
+ * Every method has an empty default implementation, so a listener only needs to implement the
+ * methods it cares about. Parallel walkers call these methods from many threads at once, so an
+ * instance that is attached to a parallel walker must be thread-safe. The same instance may be
+ * attached to a solver and its walker, and each lookup is still only reported once.
+ * 
+ * <p>
+ * Walkers and solvers skip all of their bookkeeping for a listener that is not
+ * {@link #isEnabled() enabled}, such as {@link #none()}, so metrics cost nothing unless they are
+ * attached.
+ */
+public interface SolverMetrics {
+  /**
+   * The phases that walkers and solvers time.
+   */
+  public static enum Phase {
+    /**
+     * One call to a walker's {@code walk} method.
+     */
+    WALK,
+
+    /**
+     * The part of a solver's call that searches for solutions, including the walk it runs.
+     */
+    SEARCH,
+
+    /**
+     * The part of a minimal argument solver's call that discards solutions that are not minimal,
+     * for solvers that do so after the search rather than during it.
+     */
+    MINIMIZE;
+  }
+
+  /**
+   * Metrics that are not enabled, and so record nothing.
+   */
+  public static final SolverMetrics NONE = new SolverMetrics() {
+    @Override
+    public boolean isEnabled() {
+      return false;
+    }
+
+    @Override
+    public String toString() {
+      return "SolverMetrics.NONE";
+    }
+  };
+
+  /**
+   * @return metrics that are not enabled, and so record nothing
+   */
+  public static SolverMetrics none() {
+    return NONE;
+  }
+
+  /**
+   * Returns {@code true} if walkers and solvers should report to this listener. The default is
+   * {@code true}.
+   */
+  public default boolean isEnabled() {
+    return true;
+  }
+
+  /**
+   * Called after a walker shows the given number of walks to its visitor.
+   */
+  public default void recordVisited(long walks) {}
+
+  /**
+   * Called after a visitor prunes the given number of walks.
+   */
+  public default void recordPruned(long walks) {}
+
+  /**
+   * Called after a walker skips the given number of walks because it has already reached the same
+   * state by some other path.
+   */
+  public default void recordDeduplicated(long walks) {}
+
+  /**
+   * Called after a walker or solver makes the given number of lookups in a rule set.
+   */
+  public default void recordLookups(long lookups) {}
+
+  /**
+   * Called with the number of walks a walker has waiting to be expanded, whenever that number
+   * grows.
+   */
+  public default void recordFrontier(long size) {}
+
+  /**
+   * Called after a walker or solver finishes the given phase.
+   * 
+   * @param phase the phase
+   * @param nanos how long the phase took, in nanoseconds
+   */
+  public default void recordPhase(Phase phase, long nanos) {}
+}
@@ -0,0 +1,228 @@
+/*-
+ * =================================LICENSE_START==================================
+ * horn4j
+ * ====================================SECTION=====================================
+ * Copyright (C) 2024 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.horn4j.impl;
+
+import static java.util.Objects.requireNonNull;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import com.sigpwned.horn4j.AbductiveClosureSolver;
+import com.sigpwned.horn4j.AbductiveWalk;
+import com.sigpwned.horn4j.IndexedRuleSet;
+import com.sigpwned.horn4j.PropositionDictionary;
+import com.sigpwned.horn4j.Rule;
+import com.sigpwned.horn4j.RuleSet;
+import com.sigpwned.horn4j.SearchBudget;
+import com.sigpwned.horn4j.SearchResult;
+import com.sigpwned.horn4j.SolverMetrics;
+
+/**
+ * Computes the abductive closure of a set of hypotheses by chaining backwards from them once.
+ * 
+ * <p>
+ * The abductive closure is the union of every abductive walk, and every walk only ever explains
+ * propositions that are backward-reachable from the hypotheses, i.e., the hypotheses, the
+ * antecedents of the rules that conclude them, the antecedents of the rules that conclude those,
+ * and so on. Conversely, each such proposition is explained, and each rule that concludes it fires,
+ * in the walk that follows a shortest path back to it. So the closure holds every rule that
+ * concludes a reachable proposition, and its evidence holds every reachable proposition, except
+ * the hypotheses that some rule concludes, which are never lemmas.
+ * 
+ * <p>
+ * The solver finds the reachable propositions with an agenda, using
+ * {@link RuleSet#findByConsequent(Object)}. Each proposition is placed on the agenda at most once,
+ * and each rule is looked at once, when its consequent comes off the agenda, so the solver runs in
+ * time linear in the size of the rules it reaches. By comparison,
+ * {@link NaiveAbductiveClosureSolver} enumerates every walk, of which there can be exponentially
+ * many. The result is the same walk that {@link NaiveAbductiveClosureSolver} returns.
+ * 
+ * <p>
+ * If the rule set is an {@link IndexedRuleSet}, then the solver keeps its agenda in arrays indexed
+ * by proposition identifiers, and only decodes the fired rules and evidence when it builds the
+ * result.
+ * 
+ * @param <RuleIdT> The type of the rule identifiers.
+ * @param <PropositionT> The type of the propositions.
+ */
+public class BackwardChainingAbductiveClosureSolver<RuleIdT, PropositionT>
+    implements AbductiveClosureSolver<RuleIdT, PropositionT> {
+  private final SolverMetrics metrics;
+
+  public BackwardChainingAbductiveClosureSolver() {
+    this(SolverMetrics.none());
+  }
+
+  /**
+   * @param metrics receives what this solver does. The size of the agenda is reported as the
+   *        frontier.
+   */
+  public BackwardChainingAbductiveClosureSolver(SolverMetrics metrics) {
+    this.metrics = requireNonNull(metrics);
+  }
+
+  /**
+   * Each proposition taken off the agenda spends one visit of the budget, and the size of the
+   * agenda counts as the frontier. If the solver runs out of budget, then the partial result holds
+   * the rules that fired and the evidence found so far.
+   */
+  @Override
+  public SearchResult<AbductiveWalk<RuleIdT, PropositionT>> abduct(Set<PropositionT> hypotheses,
+      RuleSet<RuleIdT, PropositionT> rules, SearchBudget budget) {
+    if (hypotheses == null)
+      throw new NullPointerException();
+    if (rules == null)
+      throw new NullPointerException();
+    if (budget == null)
+      throw new NullPointerException();
+
+    final SearchBudget.Tracker tracker = budget.isUnlimited() ? null : budget.start();
+
+    final SolverMetrics metrics = getMetrics();
+    final AbductiveWalk<RuleIdT, PropositionT> result;
+    if (!metrics.isEnabled()) {
+      result = chain(hypotheses, rules, null, tracker);
+    } else {
+      final long start = System.nanoTime();
+      try {
+        result = chain(hypotheses, MeteredRuleSet.of(rules, metrics), metrics, tracker);
+      } finally {
+        metrics.recordPhase(SolverMetrics.Phase.SEARCH, System.nanoTime() - start);
+      }
+    }
+
+    return SearchResult.of(result, tracker != null ? tracker.getLimit() : null);
+  }
+
+  /**
+   * @param metrics the metrics to report to, or {@code null} to report nothing
+   * @param tracker the budget to spend, or {@code null} if the budget is unlimited
+   */
+  private AbductiveWalk<RuleIdT, PropositionT> chain(Set<PropositionT> hypotheses,
+      RuleSet<RuleIdT, PropositionT> rules, SolverMetrics metrics,
+      SearchBudget.Tracker tracker) {
+    if (rules instanceof IndexedRuleSet)
+      return chain(hypotheses, (IndexedRuleSet<RuleIdT, PropositionT>) rules, metrics, tracker);
+
+    final Set<PropositionT> evidence = new LinkedHashSet<>();
+    final LinkedHashSet<Rule<RuleIdT, PropositionT>> fired = new LinkedHashSet<>();
+    final Set<PropositionT> reached = new HashSet<>(hypotheses);
+    final Deque<PropositionT> agenda = new ArrayDeque<>(hypotheses);
+
+    while (!agenda.isEmpty()) {
+      if (metrics != null)
+        metrics.recordFrontier(agenda.size());
+      if (tracker != null && !(tracker.frontier(agenda.size()) && tracker.visit()))
+        break;
+      final PropositionT proposition = agenda.poll();
+
+      final Set<Rule<RuleIdT, PropositionT>> explanations = rules.findByConsequent(proposition);
+      if (explanations.isEmpty()) {
+        // Nothing explains this proposition, so we postulate it.
+        evidence.add(proposition);
+        continue;
+      }
+
+      // We explain this proposition with a lemma, unless we are assuming it already.
+      if (!hypotheses.contains(proposition))
+        evidence.add(proposition);
+
+      for (Rule<RuleIdT, PropositionT> rule : explanations) {
+        fired.add(rule);
+        // Only put each proposition on the agenda once, no matter how many rules need it.
+        for (PropositionT antecedent : rule.getAntecedents())
+          if (reached.add(antecedent))
+            agenda.add(antecedent);
+      }
+    }
+
+    return new AbductiveWalk<>(hypotheses, fired, evidence);
+  }
+
+  private AbductiveWalk<RuleIdT, PropositionT> chain(Set<PropositionT> hypotheses,
+      IndexedRuleSet<RuleIdT, PropositionT> rules, SolverMetrics metrics,
+      SearchBudget.Tracker tracker) {
+    final PropositionDictionary<PropositionT> dictionary = rules.getDictionary();
+
+    // The dictionary may grow while we work if it is shared, but our rules never mention any
+    // propositions added after we start.
+    final int propositionCount = dictionary.size();
+    final boolean[] hypothesized = new boolean[propositionCount];
+    final boolean[] reached = new boolean[propositionCount];
+    final int[] agenda = new int[propositionCount];
+    int head = 0, tail = 0;
+
+    final Set<PropositionT> evidence = new LinkedHashSet<>();
+    for (PropositionT hypothesis : hypotheses) {
+      final int p = dictionary.lookup(hypothesis);
+      if (p != PropositionDictionary.NO_ID && p < propositionCount) {
+        hypothesized[p] = true;
+        reached[p] = true;
+        agenda[tail++] = p;
+      } else {
+        // Hypotheses that are not in the dictionary do not appear in any rules, so nothing
+        // explains them, and we postulate them.
+        evidence.add(hypothesis);
+      }
+    }
+
+    final int[] fired = new int[rules.getRuleCount()];
+    int firedCount = 0;
+
+    while (head < tail) {
+      if (metrics != null)
+        metrics.recordFrontier(tail - head);
+      if (tracker != null && !(tracker.frontier(tail - head) && tracker.visit()))
+        break;
+      final int p = agenda[head++];
+
+      final int n = rules.getRuleCountByConsequent(p);
+      // We postulate this proposition if nothing explains it, and explain it with a lemma
+      // otherwise, unless we are assuming it already.
+      if (n == 0 || !hypothesized[p])
+        evidence.add(dictionary.decode(p));
+
+      for (int i = 0; i < n; i++) {
+        // Each proposition comes off the agenda once, so each rule fires once.
+        final int r = rules.getRuleByConsequent(p, i);
+        fired[firedCount++] = r;
+        for (int j = 0, m = rules.getAntecedentCount(r); j < m; j++) {
+          // Only put each proposition on the agenda once, no matter how many rules need it.
+          final int a = rules.getAntecedent(r, j);
+          if (!reached[a]) {
+            reached[a] = true;
+            agenda[tail++] = a;
+          }
+        }
+      }
+    }
+
+    final LinkedHashSet<Rule<RuleIdT, PropositionT>> firedRules = new LinkedHashSet<>();
+    for (int i = 0; i < firedCount; i++)
+      firedRules.add(rules.getRule(fired[i]));
+
+    return new AbductiveWalk<>(hypotheses, firedRules, evidence);
+  }
+
+  private SolverMetrics getMetrics() {
+    return metrics;
+  }
+}
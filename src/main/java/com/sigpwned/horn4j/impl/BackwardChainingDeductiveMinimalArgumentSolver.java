@@ -0,0 +1,289 @@
+/*-
+ * =================================LICENSE_START==================================
+ * horn4j
+ * ====================================SECTION=====================================
+ * Copyright (C) 2024 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.horn4j.impl;
+
+import static java.util.Collections.unmodifiableSet;
+import static java.util.Objects.requireNonNull;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import com.sigpwned.horn4j.DeductiveMinimalArgumentSolver;
+import com.sigpwned.horn4j.DeductiveWalk;
+import com.sigpwned.horn4j.Rule;
+import com.sigpwned.horn4j.RuleSet;
+import com.sigpwned.horn4j.SearchBudget;
+import com.sigpwned.horn4j.SearchResult;
+import com.sigpwned.horn4j.SolverMetrics;
+import com.sigpwned.horn4j.util.Antichains;
+import com.sigpwned.horn4j.util.Sets;
+
+/**
+ * Solves for minimal arguments by chaining backwards from the goals, instead of walking forwards
+ * from the assumptions.
+ * 
+ * <p>
+ * The solver first collects the cone of the goals, i.e., the rules that conclude a goal, the rules
+ * that conclude one of their antecedents, and so on back to the assumptions, using
+ * {@link RuleSet#findByConsequent(Object)}. Together these form an AND-OR graph, where a
+ * proposition holds if any of its rules fires, and a rule fires if all of its antecedents hold.
+ * Rules outside the cone cannot take part in any argument for the goals, so the solver never looks
+ * at them, while the forward solvers visit every derivation they allow.
+ * 
+ * <p>
+ * For each proposition in the cone, the solver then remembers its support family, i.e., the
+ * minimal sets of rules that conclude it from the assumptions. The supports of a rule's consequent
+ * are the rule plus one support of each of its antecedents, and the family of a proposition keeps
+ * only the supports that contain no other, so it is an antichain. Cycles in the cone make a
+ * proposition's family depend on itself, so the solver recomputes the families until none of them
+ * change. Each family only ever gains smaller supports, so this always ends. The minimal arguments
+ * are then the minimal combinations of one support for each goal.
+ * 
+ * <p>
+ * This finds the same arguments as {@link NaiveDeductiveMinimalArgumentSolver}. In particular, no
+ * rule ever concludes an assumption, so there are no arguments for a goal that is also an
+ * assumption.
+ * 
+ * @param <RuleIdT> The type of the rule identifiers.
+ * @param <PropositionT> The type of the propositions.
+ */
+public class BackwardChainingDeductiveMinimalArgumentSolver<RuleIdT, PropositionT>
+    implements DeductiveMinimalArgumentSolver<RuleIdT, PropositionT> {
+  private final SolverMetrics metrics;
+
+  public BackwardChainingDeductiveMinimalArgumentSolver() {
+    this(SolverMetrics.none());
+  }
+
+  /**
+   * @param metrics receives what this solver does. Each support the solver builds counts as a
+   *        visit, and the number of propositions waiting to join the cone counts as the frontier.
+   */
+  public BackwardChainingDeductiveMinimalArgumentSolver(SolverMetrics metrics) {
+    this.metrics = requireNonNull(metrics);
+  }
+
+  /**
+   * Each support the solver builds spends one visit of the budget, and the number of propositions
+   * waiting to join the cone counts as the frontier. If the solver runs out of budget, then the
+   * partial result holds the arguments it can build from the supports it found so far. Each one
+   * entails the goals, but may not be minimal.
+   */
+  @Override
+  public SearchResult<Set<DeductiveWalk<RuleIdT, PropositionT>>> solve(
+      Set<PropositionT> assumptions, RuleSet<RuleIdT, PropositionT> ruleset,
+      Set<PropositionT> goals, SearchBudget budget) {
+    if (assumptions == null)
+      throw new NullPointerException();
+    if (ruleset == null)
+      throw new NullPointerException();
+    if (goals == null)
+      throw new NullPointerException();
+    if (budget == null)
+      throw new NullPointerException();
+
+    final SearchBudget.Tracker tracker = budget.isUnlimited() ? null : budget.start();
+
+    final SolverMetrics metrics = getMetrics();
+    final Set<DeductiveWalk<RuleIdT, PropositionT>> result;
+    if (!metrics.isEnabled()) {
+      result = chain(assumptions, ruleset, goals, null, tracker);
+    } else {
+      final long start = System.nanoTime();
+      try {
+        result = chain(assumptions, MeteredRuleSet.of(ruleset, metrics), goals, metrics, tracker);
+      } finally {
+        metrics.recordPhase(SolverMetrics.Phase.SEARCH, System.nanoTime() - start);
+      }
+    }
+
+    return SearchResult.of(result, tracker != null ? tracker.getLimit() : null);
+  }
+
+  /**
+   * @param metrics the metrics to report to, or {@code null} to report nothing
+   * @param tracker the budget to spend, or {@code null} if the budget is unlimited
+   */
+  private Set<DeductiveWalk<RuleIdT, PropositionT>> chain(Set<PropositionT> assumptions,
+      RuleSet<RuleIdT, PropositionT> ruleset, Set<PropositionT> goals, SolverMetrics metrics,
+      SearchBudget.Tracker tracker) {
+    // Walks never conclude their assumptions, so no argument concludes a goal that is one.
+    for (PropositionT goal : goals)
+      if (assumptions.contains(goal))
+        return Sets.of();
+
+    // Collect the cone of the goals, and the rules that conclude each proposition in it.
+    final Map<PropositionT, Set<Rule<RuleIdT, PropositionT>>> cone = new LinkedHashMap<>();
+    final Deque<PropositionT> agenda = new ArrayDeque<>(goals);
+    for (PropositionT goal : goals)
+      cone.put(goal, null);
+    while (!agenda.isEmpty()) {
+      if (metrics != null)
+        metrics.recordFrontier(agenda.size());
+      if (tracker != null && !tracker.frontier(agenda.size()))
+        return Sets.of();
+
+      final PropositionT proposition = agenda.poll();
+      final Set<Rule<RuleIdT, PropositionT>> rules = ruleset.findByConsequent(proposition);
+      cone.put(proposition, rules);
+      for (Rule<RuleIdT, PropositionT> rule : rules) {
+        for (PropositionT antecedent : rule.getAntecedents()) {
+          if (!assumptions.contains(antecedent) && !cone.containsKey(antecedent)) {
+            cone.put(antecedent, null);
+            agenda.add(antecedent);
+          }
+        }
+      }
+    }
+
+    // Work from the far end of the cone back to the goals, so that most propositions see the
+    // final families of their antecedents on the first pass, and few families change after it.
+    final List<PropositionT> order = new ArrayList<>(cone.keySet());
+    Collections.reverse(order);
+
+    final Map<PropositionT, List<Set<Rule<RuleIdT, PropositionT>>>> families = new HashMap<>();
+    for (PropositionT proposition : order)
+      families.put(proposition, Collections.emptyList());
+
+    boolean changed;
+    do {
+      changed = false;
+      for (PropositionT proposition : order) {
+        final List<Set<Rule<RuleIdT, PropositionT>>> family = families.get(proposition);
+
+        final List<Set<Rule<RuleIdT, PropositionT>>> candidates = new ArrayList<>(family);
+        for (Rule<RuleIdT, PropositionT> rule : cone.get(proposition)) {
+          final List<List<Set<Rule<RuleIdT, PropositionT>>>> antecedents = new ArrayList<>();
+          for (PropositionT antecedent : rule.getAntecedents())
+            if (!assumptions.contains(antecedent))
+              antecedents.add(families.get(antecedent));
+          if (!combine(antecedents, Collections.singleton(rule), candidates, metrics, tracker))
+            return build(assumptions, goals, families);
+        }
+
+        final List<Set<Rule<RuleIdT, PropositionT>>> newFamily = Antichains.minimal(candidates);
+        if (!new HashSet<>(newFamily).equals(new HashSet<>(family))) {
+          families.put(proposition, newFamily);
+          changed = true;
+        }
+      }
+    } while (changed);
+
+    return build(assumptions, goals, families);
+  }
+
+  /**
+   * Adds to the given list every union of the given base with one set from each of the given
+   * families, or nothing if any family is empty.
+   * 
+   * @return {@code false} if the solver ran out of budget, or {@code true} otherwise
+   */
+  private static <RuleIdT, PropositionT> boolean combine(
+      List<List<Set<Rule<RuleIdT, PropositionT>>>> families,
+      Set<Rule<RuleIdT, PropositionT>> base, List<Set<Rule<RuleIdT, PropositionT>>> result,
+      SolverMetrics metrics, SearchBudget.Tracker tracker) {
+    List<Set<Rule<RuleIdT, PropositionT>>> partials = Collections.singletonList(base);
+    for (List<Set<Rule<RuleIdT, PropositionT>>> family : families) {
+      final List<Set<Rule<RuleIdT, PropositionT>>> newPartials =
+          new ArrayList<>(partials.size() * family.size());
+      for (Set<Rule<RuleIdT, PropositionT>> partial : partials) {
+        for (Set<Rule<RuleIdT, PropositionT>> support : family) {
+          final Set<Rule<RuleIdT, PropositionT>> union =
+              new HashSet<>(partial.size() + support.size());
+          union.addAll(partial);
+          union.addAll(support);
+          newPartials.add(union);
+        }
+      }
+      // Keep the partial unions small as we go, since the product can grow quickly.
+      partials = Antichains.minimal(newPartials);
+    }
+
+    for (Set<Rule<RuleIdT, PropositionT>> partial : partials) {
+      if (tracker != null && !tracker.visit())
+        return false;
+      if (metrics != null)
+        metrics.recordVisited(1L);
+      result.add(partial);
+    }
+
+    return true;
+  }
+
+  /**
+   * @return the minimal combinations of one support for each goal, as walks
+   */
+  private Set<DeductiveWalk<RuleIdT, PropositionT>> build(Set<PropositionT> assumptions,
+      Set<PropositionT> goals,
+      Map<PropositionT, List<Set<Rule<RuleIdT, PropositionT>>>> families) {
+    final List<List<Set<Rule<RuleIdT, PropositionT>>>> goalFamilies = new ArrayList<>();
+    for (PropositionT goal : goals)
+      goalFamilies.add(families.get(goal));
+
+    final List<Set<Rule<RuleIdT, PropositionT>>> arguments = new ArrayList<>();
+    combine(goalFamilies, Collections.emptySet(), arguments, null, null);
+
+    final Set<DeductiveWalk<RuleIdT, PropositionT>> result = new HashSet<>();
+    for (Set<Rule<RuleIdT, PropositionT>> argument : Antichains.minimal(arguments))
+      result.add(walk(assumptions, argument));
+
+    return unmodifiableSet(result);
+  }
+
+  /**
+   * @return a walk that fires the given rules from the given assumptions in an order they can fire
+   */
+  private static <RuleIdT, PropositionT> DeductiveWalk<RuleIdT, PropositionT> walk(
+      Set<PropositionT> assumptions, Set<Rule<RuleIdT, PropositionT>> rules) {
+    final Set<PropositionT> satisfied = new HashSet<>(assumptions);
+    final LinkedHashSet<Rule<RuleIdT, PropositionT>> fired = new LinkedHashSet<>();
+    final LinkedHashSet<PropositionT> conclusions = new LinkedHashSet<>();
+
+    final List<Rule<RuleIdT, PropositionT>> remaining = new ArrayList<>(rules);
+    boolean changed;
+    do {
+      changed = false;
+      for (Iterator<Rule<RuleIdT, PropositionT>> i = remaining.iterator(); i.hasNext();) {
+        final Rule<RuleIdT, PropositionT> rule = i.next();
+        if (satisfied.containsAll(rule.getAntecedents())) {
+          fired.add(rule);
+          satisfied.add(rule.getConsequent());
+          conclusions.add(rule.getConsequent());
+          i.remove();
+          changed = true;
+        }
+      }
+    } while (changed);
+
+    return new DeductiveWalk<>(assumptions, fired, conclusions);
+  }
+
+  private SolverMetrics getMetrics() {
+    return metrics;
+  }
+}
@@ -0,0 +1,334 @@
+/*-
+ * =================================LICENSE_START==================================
+ * horn4j
+ * ====================================SECTION=====================================
+ * Copyright (C) 2024 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.horn4j.impl;
+
+import static java.util.Collections.unmodifiableSet;
+import static java.util.Objects.requireNonNull;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import com.sigpwned.horn4j.AbductiveWalk;
+import com.sigpwned.horn4j.IndexedRuleSet;
+import com.sigpwned.horn4j.PropositionDictionary;
+import com.sigpwned.horn4j.Rule;
+import com.sigpwned.horn4j.util.Bitsets;
+
+/**
+ * An {@link AbductiveWalk} over the identifiers of an {@link IndexedRuleSet}. The hypotheses,
+ * evidence, and fired rules are stored as word-packed bitsets, and the firing order and evidence
+ * order as {@code int} arrays, so {@link #step(Rule)}, {@link #contains(AbductiveWalk)},
+ * {@link #equals(Object)}, and {@link #hashCode()} are word operations instead of set operations.
+ * The {@link Set} getters return lazy views over the bitsets, so this walk can be used anywhere an
+ * {@link AbductiveWalk} can. It is equal to any other walk with the same hypotheses, evidence, and
+ * fired rules, no matter how that walk is represented.
+ * 
+ * @param <RuleIdT> the type of the rule identifiers
+ * @param <PropositionT> the type of the propositions
+ */
+public class BitSetAbductiveWalk<RuleIdT, PropositionT>
+    extends AbductiveWalk<RuleIdT, PropositionT> {
+  public static <RuleIdT, PropositionT> BitSetAbductiveWalk<RuleIdT, PropositionT> start(
+      Set<PropositionT> hypotheses, IndexedRuleSet<RuleIdT, PropositionT> rules) {
+    if (hypotheses == null)
+      throw new NullPointerException();
+    if (rules == null)
+      throw new NullPointerException();
+
+    final PropositionDictionary<PropositionT> dictionary = rules.getDictionary();
+
+    // Hypotheses that are not in the dictionary do not appear in any rules, so no rule can ever
+    // explain them. We still keep them in the hypotheses set, though.
+    final int propositionCount = dictionary.size();
+    final int[] ids = new int[hypotheses.size()];
+    int idCount = 0;
+    for (PropositionT hypothesis : hypotheses) {
+      final int p = dictionary.lookup(hypothesis);
+      if (p != PropositionDictionary.NO_ID && p < propositionCount)
+        ids[idCount++] = p;
+    }
+
+    // Start the bitsets only as large as they need to be, not as large as the dictionary and the
+    // rule base, so each step only copies the words the walk has touched so far.
+    final long[] empty = Bitsets.of(0);
+    return new BitSetAbductiveWalk<>(rules, unmodifiableSet(hypotheses),
+        Bitsets.withAll(empty, Arrays.copyOf(ids, idCount)), empty, empty, new int[0], new int[0],
+        hypotheses.hashCode(), 0, 0);
+  }
+
+  private final IndexedRuleSet<RuleIdT, PropositionT> rules;
+  private final Set<PropositionT> hypotheses;
+  private final long[] hypothesized;
+  private final long[] evident;
+  private final long[] fired;
+
+  /**
+   * The indexes of the fired rules, in the order they fired.
+   */
+  private final int[] order;
+
+  /**
+   * The identifiers of the evidence, in the order it was discovered.
+   */
+  private final int[] evidence;
+
+  /**
+   * The hash codes of the hypotheses, evidence, and fired rules as sets. A set's hash code is the
+   * sum of its elements' hash codes, so we can maintain them as the walk grows.
+   */
+  private final int hypothesesHashCode;
+  private final int evidenceHashCode;
+  private final int firedHashCode;
+
+  private BitSetAbductiveWalk(IndexedRuleSet<RuleIdT, PropositionT> rules,
+      Set<PropositionT> hypotheses, long[] hypothesized, long[] evident, long[] fired, int[] order,
+      int[] evidence, int hypothesesHashCode, int evidenceHashCode, int firedHashCode) {
+    super(hypotheses);
+    this.rules = requireNonNull(rules);
+    this.hypotheses = requireNonNull(hypotheses);
+    this.hypothesized = requireNonNull(hypothesized);
+    this.evident = requireNonNull(evident);
+    this.fired = requireNonNull(fired);
+    this.order = requireNonNull(order);
+    this.evidence = requireNonNull(evidence);
+    this.hypothesesHashCode = hypothesesHashCode;
+    this.evidenceHashCode = evidenceHashCode;
+    this.firedHashCode = firedHashCode;
+  }
+
+  /**
+   * @return the rule set this walk's identifiers refer to
+   */
+  public IndexedRuleSet<RuleIdT, PropositionT> getRules() {
+    return rules;
+  }
+
+  @Override
+  public Set<PropositionT> getHypotheses() {
+    return hypotheses;
+  }
+
+  @Override
+  public Set<Rule<RuleIdT, PropositionT>> getFired() {
+    return new AbstractSet<Rule<RuleIdT, PropositionT>>() {
+      @Override
+      @SuppressWarnings("unchecked")
+      public boolean contains(Object o) {
+        if (!(o instanceof Rule))
+          return false;
+        final int r = rules.indexOf((Rule<RuleIdT, PropositionT>) o);
+        return r != -1 && Bitsets.get(fired, r);
+      }
+
+      @Override
+      public Iterator<Rule<RuleIdT, PropositionT>> iterator() {
+        return new ArrayIterator<Rule<RuleIdT, PropositionT>>(order) {
+          @Override
+          protected Rule<RuleIdT, PropositionT> get(int rule) {
+            return rules.getRule(rule);
+          }
+        };
+      }
+
+      @Override
+      public int size() {
+        return order.length;
+      }
+
+      @Override
+      public int hashCode() {
+        return firedHashCode;
+      }
+    };
+  }
+
+  @Override
+  public Set<PropositionT> getEvidence() {
+    return new AbstractSet<PropositionT>() {
+      @Override
+      @SuppressWarnings("unchecked")
+      public boolean contains(Object o) {
+        if (o == null)
+          return false;
+        final int p = rules.getDictionary().lookup((PropositionT) o);
+        return p != PropositionDictionary.NO_ID && Bitsets.get(evident, p);
+      }
+
+      @Override
+      public Iterator<PropositionT> iterator() {
+        return new ArrayIterator<PropositionT>(evidence) {
+          @Override
+          protected PropositionT get(int proposition) {
+            return rules.getDictionary().decode(proposition);
+          }
+        };
+      }
+
+      @Override
+      public int size() {
+        return evidence.length;
+      }
+
+      @Override
+      public int hashCode() {
+        return evidenceHashCode;
+      }
+    };
+  }
+
+  /**
+   * Returns true if the given proposition is a hypothesis or has been discovered as evidence.
+   */
+  public boolean isDiscovered(int proposition) {
+    return Bitsets.get(hypothesized, proposition) || Bitsets.get(evident, proposition);
+  }
+
+  /**
+   * Returns true if the given rule has fired.
+   */
+  public boolean isFired(int rule) {
+    return Bitsets.get(fired, rule);
+  }
+
+  @Override
+  public BitSetAbductiveWalk<RuleIdT, PropositionT> step(Rule<RuleIdT, PropositionT> step) {
+    if (step == null)
+      throw new NullPointerException();
+    final int r = rules.indexOf(step);
+    if (r == -1)
+      throw new IllegalArgumentException("rule not in rule set: " + step);
+    return step(r, step);
+  }
+
+  /**
+   * Fires the rule with the given index.
+   */
+  public BitSetAbductiveWalk<RuleIdT, PropositionT> step(int rule) {
+    return step(rule, rules.getRule(rule));
+  }
+
+  private BitSetAbductiveWalk<RuleIdT, PropositionT> step(int r,
+      Rule<RuleIdT, PropositionT> step) {
+    if (isFired(r))
+      throw new IllegalArgumentException("rule already fired: " + step);
+
+    final int antecedentCount = rules.getAntecedentCount(r);
+    int newEvidenceCount = 0;
+    boolean discovered = true;
+    for (int i = 0; i < antecedentCount; i++) {
+      final int a = rules.getAntecedent(r, i);
+      if (!Bitsets.get(evident, a))
+        newEvidenceCount = newEvidenceCount + 1;
+      if (!isDiscovered(a))
+        discovered = false;
+    }
+    if (discovered)
+      throw new IllegalArgumentException("antecedents already discovered: " + step);
+
+    if (!isDiscovered(rules.getConsequent(r)))
+      throw new IllegalArgumentException("consequent not satisfied: " + step);
+
+    final int[] newOrder = Arrays.copyOf(order, order.length + 1);
+    newOrder[order.length] = r;
+
+    // Like the default walk, all antecedents become evidence, even ones that are hypotheses. The
+    // antecedents of a rule are distinct, so each one that is not evidence yet is new.
+    final int[] newEvidence = Arrays.copyOf(evidence, evidence.length + newEvidenceCount);
+    int newEvidenceHashCode = evidenceHashCode;
+    for (int i = 0, j = evidence.length; i < antecedentCount; i++) {
+      final int a = rules.getAntecedent(r, i);
+      if (!Bitsets.get(evident, a)) {
+        newEvidence[j++] = a;
+        newEvidenceHashCode = newEvidenceHashCode + rules.getDictionary().decode(a).hashCode();
+      }
+    }
+
+    // Copy the evidence bitset once, however many antecedents are new.
+    final long[] newEvident = newEvidenceCount == 0 ? evident
+        : Bitsets.withAll(evident,
+            Arrays.copyOfRange(newEvidence, evidence.length, newEvidence.length));
+
+    return new BitSetAbductiveWalk<>(rules, hypotheses, hypothesized, newEvident,
+        Bitsets.with(fired, r), newOrder, newEvidence, hypothesesHashCode, newEvidenceHashCode,
+        firedHashCode + step.hashCode());
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public boolean contains(AbductiveWalk<RuleIdT, PropositionT> other) {
+    if (other instanceof BitSetAbductiveWalk
+        && ((BitSetAbductiveWalk<RuleIdT, PropositionT>) other).rules == rules) {
+      final BitSetAbductiveWalk<RuleIdT, PropositionT> that =
+          (BitSetAbductiveWalk<RuleIdT, PropositionT>) other;
+      return Bitsets.containsAll(evident, that.evident) && Bitsets.containsAll(fired, that.fired)
+          && (hypotheses == that.hypotheses || hypotheses.containsAll(that.hypotheses));
+    }
+    return super.contains(other);
+  }
+
+  /**
+   * Same as {@code Objects.hash(evidence, fired, hypotheses)}, without touching the sets.
+   */
+  @Override
+  public int hashCode() {
+    return 31 * (31 * (31 + evidenceHashCode) + firedHashCode) + hypothesesHashCode;
+  }
+
+  @Override
+  @SuppressWarnings("rawtypes")
+  public boolean equals(Object obj) {
+    if (this == obj)
+      return true;
+    if (obj instanceof BitSetAbductiveWalk && ((BitSetAbductiveWalk) obj).rules == rules) {
+      final BitSetAbductiveWalk other = (BitSetAbductiveWalk) obj;
+      return evidenceHashCode == other.evidenceHashCode && firedHashCode == other.firedHashCode
+          && Bitsets.equals(fired, other.fired) && Bitsets.equals(evident, other.evident)
+          && hypotheses.equals(other.hypotheses);
+    }
+    return super.equals(obj);
+  }
+
+  /**
+   * Iterates over an array of identifiers, mapping each identifier to an element.
+   */
+  private abstract static class ArrayIterator<T> implements Iterator<T> {
+    private final int[] ids;
+    private int index = 0;
+
+    public ArrayIterator(int[] ids) {
+      this.ids = ids;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return index < ids.length;
+    }
+
+    @Override
+    public T next() {
+      if (!hasNext())
+        throw new NoSuchElementException();
+      return get(ids[index++]);
+    }
+
+    protected abstract T get(int id);
+  }
+}
@@ -0,0 +1,633 @@
+/*-
+ * =================================LICENSE_START==================================
+ * horn4j
+ * ====================================SECTION=====================================
+ * Copyright (C) 2024 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.horn4j.impl;
+
+import static java.util.Objects.requireNonNull;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.IntFunction;
+import java.util.function.ToIntFunction;
+import com.sigpwned.horn4j.AbductiveWalk;
+import com.sigpwned.horn4j.AbductiveWalker;
+import com.sigpwned.horn4j.Rule;
+import com.sigpwned.horn4j.RuleSet;
+import com.sigpwned.horn4j.SearchBudget;
+import com.sigpwned.horn4j.SolverMetrics;
+import com.sigpwned.horn4j.util.Bitsets;
+
+/**
+ * Walks the given rules abductively in <em>breadth-first</em> order, like
+ * {@link NaiveAbductiveWalker}, but with compact states.
+ * 
+ * <p>
+ * The walker numbers each proposition and rule the first time it meets them, and looks up the rules
+ * that explain each proposition only once per walk. Each state keeps the propositions left to
+ * explain, the lemmas, the postulates, and the fired rules as bitsets over those numbers, so
+ * expanding a state copies a few words instead of four hash sets, and the walker deduplicates each
+ * layer by hashing words instead of sets. The visitor sees each state through an
+ * {@link AbductiveWalk} view, which only decodes the fired rules and evidence if the visitor asks
+ * for them.
+ * 
+ * <p>
+ * This walker visits the same walks in the same layers as {@link NaiveAbductiveWalker}, although
+ * not in the same order within a layer, and supports {@link Memoization memoization} the same way,
+ * with the same fingerprint of propositions left to explain, lemmas, and postulates.
+ * 
+ * <p>
+ * Like {@link NaiveAbductiveWalker}, this walker grows each walk by explaining each of the
+ * propositions it has left to explain, in turn, so it builds each explanation once for every order
+ * in which its propositions can be explained, and only throws the copies away when it deduplicates
+ * the next layer. If the visitor is not {@link Visitor#isOrderSensitive() order-sensitive}, then
+ * the walker builds each explanation along one order only. It ranks the propositions each walk has
+ * left to explain with a {@link Heuristic}, and still grows one new walk per proposition and rule,
+ * but each new walk gives up for good on the propositions that rank ahead of the one it explains,
+ * since its siblings explain those. So the walker decides each proposition once along each path,
+ * explaining it one way or another or never, and still reaches every walk that it would otherwise
+ * reach without passing through a walk the visitor prunes. The one exception is a proposition that
+ * a rule explains with a hypothesis that other rules explain, since firing that rule after
+ * explaining the hypothesis lets the walk explain the hypothesis again. The new walks never give
+ * up on such a proposition, so the walker may still build the walks that explain it along more
+ * than one order.
+ * 
+ * @param <RuleIdT> the type of the rule identifiers
+ * @param <PropositionT> the type of the propositions
+ */
+public class BitSetAbductiveWalker<RuleIdT, PropositionT>
+    implements AbductiveWalker<RuleIdT, PropositionT> {
+  /**
+   * Ranks the propositions that a walk has left to explain, for visitors that are not
+   * {@link Visitor#isOrderSensitive() order-sensitive}. The walker explains the propositions with
+   * the lowest ranks first, and breaks ties in the order it met the propositions.
+   * 
+   * <p>
+   * The ranking does not change which walks the walker visits unless the visitor prunes, but it
+   * does change which walks the visitor prunes its way to. Ranking first the propositions that the
+   * fewest rules explain keeps the walks that do not lead to a solution short, since the walker
+   * makes its forced choices first, and so the visitor rejects them early.
+   * 
+   * @see #fewestExplanationsFirst()
+   */
+  @FunctionalInterface
+  public static interface Heuristic<RuleIdT, PropositionT> {
+    /**
+     * Returns the rank of the given proposition. The walker ranks each proposition once per walk.
+     * 
+     * @param proposition the proposition left to explain
+     * @param explanations the rules whose consequent is the proposition
+     */
+    public int rank(PropositionT proposition, Set<Rule<RuleIdT, PropositionT>> explanations);
+
+    /**
+     * Returns a heuristic that explains the propositions in the order the walker met them.
+     */
+    public static <RuleIdT, PropositionT> Heuristic<RuleIdT, PropositionT> firstMet() {
+      return (proposition, explanations) -> 0;
+    }
+
+    /**
+     * Returns a heuristic that explains the propositions that the fewest rules explain first, i.e.,
+     * the most constrained propositions, starting with the propositions that the walker must
+     * postulate. This is the default.
+     */
+    public static <RuleIdT, PropositionT> Heuristic<RuleIdT, PropositionT>
+        fewestExplanationsFirst() {
+      return (proposition, explanations) -> explanations.size();
+    }
+  }
+
+  /**
+   * Numbers the propositions and rules of one walk as the walker meets them.
+   */
+  private static final class Index<RuleIdT, PropositionT> {
+    private final RuleSet<RuleIdT, PropositionT> ruleset;
+    private final Map<PropositionT, Integer> propositionIds;
+    private final List<PropositionT> propositions;
+
+    /**
+     * The rules that explain each proposition, or {@code null} if we have not looked them up yet.
+     */
+    private final List<int[]> explanations;
+
+    /**
+     * The rank of each proposition whose explanations we have looked up.
+     */
+    private final List<Integer> ranks;
+    private final Heuristic<RuleIdT, PropositionT> heuristic;
+
+    private final Map<Rule<RuleIdT, PropositionT>, Integer> ruleIds;
+    private final List<Rule<RuleIdT, PropositionT>> rules;
+    private final List<int[]> antecedents;
+
+    public Index(RuleSet<RuleIdT, PropositionT> ruleset,
+        Heuristic<RuleIdT, PropositionT> heuristic) {
+      this.ruleset = ruleset;
+      this.heuristic = heuristic;
+      this.propositionIds = new HashMap<>();
+      this.propositions = new ArrayList<>();
+      this.explanations = new ArrayList<>();
+      this.ranks = new ArrayList<>();
+      this.ruleIds = new HashMap<>();
+      this.rules = new ArrayList<>();
+      this.antecedents = new ArrayList<>();
+    }
+
+    public int intern(PropositionT proposition) {
+      Integer result = propositionIds.get(proposition);
+      if (result == null) {
+        result = propositions.size();
+        propositionIds.put(proposition, result);
+        propositions.add(proposition);
+        explanations.add(null);
+        ranks.add(null);
+      }
+      return result;
+    }
+
+    /**
+     * @return the number of the given proposition, or -1 if we have not met it
+     */
+    public int lookupProposition(Object proposition) {
+      final Integer result = propositionIds.get(proposition);
+      return result != null ? result : -1;
+    }
+
+    public PropositionT getProposition(int proposition) {
+      return propositions.get(proposition);
+    }
+
+    /**
+     * @return the rules whose consequent is the given proposition
+     */
+    public int[] getExplanations(int proposition) {
+      int[] result = explanations.get(proposition);
+      if (result == null) {
+        final Set<Rule<RuleIdT, PropositionT>> found =
+            ruleset.findByConsequent(propositions.get(proposition));
+        result = new int[found.size()];
+        int i = 0;
+        for (Rule<RuleIdT, PropositionT> rule : found)
+          result[i++] = intern(rule);
+        explanations.set(proposition, result);
+        ranks.set(proposition, heuristic.rank(propositions.get(proposition), found));
+      }
+      return result;
+    }
+
+    /**
+     * @return the rank of the given proposition
+     */
+    public int getRank(int proposition) {
+      getExplanations(proposition);
+      return ranks.get(proposition);
+    }
+
+    private int intern(Rule<RuleIdT, PropositionT> rule) {
+      Integer result = ruleIds.get(rule);
+      if (result == null) {
+        final int[] ruleAntecedents = new int[rule.getAntecedents().size()];
+        int i = 0;
+        for (PropositionT antecedent : rule.getAntecedents())
+          ruleAntecedents[i++] = intern(antecedent);
+
+        result = rules.size();
+        ruleIds.put(rule, result);
+        rules.add(rule);
+        antecedents.add(ruleAntecedents);
+      }
+      return result;
+    }
+
+    /**
+     * @return the number of the given rule, or -1 if we have not met it
+     */
+    public int lookupRule(Object rule) {
+      final Integer result = ruleIds.get(rule);
+      return result != null ? result : -1;
+    }
+
+    public Rule<RuleIdT, PropositionT> getRule(int rule) {
+      return rules.get(rule);
+    }
+
+    public int[] getAntecedents(int rule) {
+      return antecedents.get(rule);
+    }
+  }
+
+  private static final class WalkState {
+    private final long[] queue;
+    private final long[] lemmas;
+    private final long[] postulates;
+    private final long[] fired;
+
+    /**
+     * The propositions left to explain that this walk has given up on explaining. This is always
+     * empty if the visitor is order-sensitive.
+     */
+    private final long[] skipped;
+
+    private final int hashCode;
+
+    public WalkState(long[] queue, long[] lemmas, long[] postulates, long[] fired,
+        long[] skipped) {
+      this.queue = queue;
+      this.lemmas = lemmas;
+      this.postulates = postulates;
+      this.fired = fired;
+      this.skipped = skipped;
+      this.hashCode = 31 * (31 * (31 * (31 * (31 + Bitsets.hashCode(queue))
+          + Bitsets.hashCode(lemmas)) + Bitsets.hashCode(postulates)) + Bitsets.hashCode(fired))
+          + Bitsets.hashCode(skipped);
+    }
+
+    /**
+     * @return a fingerprint of everything that determines the walks that grow from this one, which
+     *         is everything but the rules fired so far
+     */
+    public Object getFingerprint() {
+      return Arrays.asList(VisitedStateTable.fingerprint(queue),
+          VisitedStateTable.fingerprint(lemmas), VisitedStateTable.fingerprint(postulates),
+          VisitedStateTable.fingerprint(skipped));
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj)
+        return true;
+      if (!(obj instanceof WalkState))
+        return false;
+      WalkState other = (WalkState) obj;
+      return hashCode == other.hashCode && Bitsets.equals(fired, other.fired)
+          && Bitsets.equals(lemmas, other.lemmas) && Bitsets.equals(postulates, other.postulates)
+          && Bitsets.equals(queue, other.queue) && Bitsets.equals(skipped, other.skipped);
+    }
+  }
+
+  /**
+   * A walk state as an {@link AbductiveWalk}, which decodes its fired rules and evidence the first
+   * time someone asks for them. The walker only ever adds to its index, so a view stays valid after
+   * the walk is over.
+   */
+  private static final class WalkView<RuleIdT, PropositionT>
+      extends AbductiveWalk<RuleIdT, PropositionT> {
+    private final Set<PropositionT> hypotheses;
+    private final Index<RuleIdT, PropositionT> index;
+    private final WalkState state;
+    private Set<Rule<RuleIdT, PropositionT>> fired;
+    private Set<PropositionT> evidence;
+
+    public WalkView(Set<PropositionT> hypotheses, Index<RuleIdT, PropositionT> index,
+        WalkState state) {
+      super(hypotheses);
+      this.hypotheses = hypotheses;
+      this.index = index;
+      this.state = state;
+    }
+
+    @Override
+    public Set<PropositionT> getHypotheses() {
+      return hypotheses;
+    }
+
+    @Override
+    public Set<Rule<RuleIdT, PropositionT>> getFired() {
+      if (fired == null)
+        fired = new BitsetView<>(state.fired, index::getRule, index::lookupRule);
+      return fired;
+    }
+
+    @Override
+    public Set<PropositionT> getEvidence() {
+      // Only propositions that no rule explains are postulates, so no lemma is ever a postulate.
+      if (evidence == null)
+        evidence = new BitsetView<>(Bitsets.union(state.lemmas, state.postulates),
+            index::getProposition, index::lookupProposition);
+      return evidence;
+    }
+  }
+
+  /**
+   * The elements whose numbers are set in a bitset.
+   */
+  private static final class BitsetView<E> extends AbstractSet<E> {
+    private final long[] bits;
+    private final IntFunction<E> decode;
+    private final ToIntFunction<Object> lookup;
+    private final int size;
+
+    public BitsetView(long[] bits, IntFunction<E> decode, ToIntFunction<Object> lookup) {
+      this.bits = bits;
+      this.decode = decode;
+      this.lookup = lookup;
+      this.size = Bitsets.cardinality(bits);
+    }
+
+    @Override
+    public boolean contains(Object o) {
+      final int id = lookup.applyAsInt(o);
+      return id != -1 && Bitsets.get(bits, id);
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+      return new Iterator<E>() {
+        private int next = Bitsets.nextSetBit(bits, 0);
+
+        @Override
+        public boolean hasNext() {
+          return next != -1;
+        }
+
+        @Override
+        public E next() {
+          if (!hasNext())
+            throw new NoSuchElementException();
+          final E result = decode.apply(next);
+          next = Bitsets.nextSetBit(bits, next + 1);
+          return result;
+        }
+      };
+    }
+
+    @Override
+    public int size() {
+      return size;
+    }
+  }
+
+  private final Memoization memoization;
+  private final Heuristic<RuleIdT, PropositionT> heuristic;
+  private final SolverMetrics metrics;
+
+  public BitSetAbductiveWalker() {
+    this(Memoization.disabled());
+  }
+
+  /**
+   * @param memoization whether to skip walks whose states this walker has already expanded
+   */
+  public BitSetAbductiveWalker(Memoization memoization) {
+    this(memoization, SolverMetrics.none());
+  }
+
+  /**
+   * @param memoization whether to skip walks whose states this walker has already expanded
+   * @param metrics receives what this walker does. The walker looks up the rules that explain each
+   *        proposition only once per walk, so it reports fewer lookups than
+   *        {@link NaiveAbductiveWalker}.
+   */
+  public BitSetAbductiveWalker(Memoization memoization, SolverMetrics metrics) {
+    this(memoization, Heuristic.fewestExplanationsFirst(), metrics);
+  }
+
+  /**
+   * @param memoization whether to skip walks whose states this walker has already expanded
+   * @param heuristic the order in which to explain the propositions left to explain for visitors
+   *        that are not order-sensitive
+   * @param metrics receives what this walker does
+   */
+  public BitSetAbductiveWalker(Memoization memoization, Heuristic<RuleIdT, PropositionT> heuristic,
+      SolverMetrics metrics) {
+    this.memoization = requireNonNull(memoization);
+    this.heuristic = requireNonNull(heuristic);
+    this.metrics = requireNonNull(metrics);
+  }
+
+  @Override
+  public SearchBudget.Limit walk(Set<PropositionT> hypotheses,
+      RuleSet<RuleIdT, PropositionT> ruleset, Visitor<RuleIdT, PropositionT> visitor,
+      SearchBudget budget) {
+    if (hypotheses == null)
+      throw new NullPointerException();
+    if (ruleset == null)
+      throw new NullPointerException();
+    if (visitor == null)
+      throw new NullPointerException();
+    if (budget == null)
+      throw new NullPointerException();
+
+    final SearchBudget.Tracker tracker = budget.isUnlimited() ? null : budget.start();
+
+    final SolverMetrics metrics = getMetrics();
+    if (!metrics.isEnabled()) {
+      walk(hypotheses, ruleset, visitor, null, tracker);
+    } else {
+      final long start = System.nanoTime();
+      try {
+        walk(hypotheses, MeteredRuleSet.of(ruleset, metrics), visitor, metrics, tracker);
+      } finally {
+        metrics.recordPhase(SolverMetrics.Phase.WALK, System.nanoTime() - start);
+      }
+    }
+
+    return tracker != null ? tracker.getLimit() : null;
+  }
+
+  /**
+   * @param metrics the metrics to report to, or {@code null} to report nothing
+   * @param tracker the budget to spend, or {@code null} if the budget is unlimited
+   */
+  private void walk(Set<PropositionT> hypotheses, RuleSet<RuleIdT, PropositionT> ruleset,
+      Visitor<RuleIdT, PropositionT> visitor, SolverMetrics metrics,
+      SearchBudget.Tracker tracker) {
+    final VisitedStateTable<Object> visited = getMemoization().newTable();
+    final Set<PropositionT> unmodifiableHypotheses = Collections.unmodifiableSet(hypotheses);
+
+    final Index<RuleIdT, PropositionT> index = new Index<>(ruleset, getHeuristic());
+    final boolean orderSensitive = visitor.isOrderSensitive();
+    long[] hypothesized = Bitsets.of(hypotheses.size());
+    for (PropositionT hypothesis : hypotheses)
+      hypothesized = Bitsets.with(hypothesized, index.intern(hypothesis));
+
+    final long[] empty = Bitsets.of(0);
+    Set<WalkState> additions = new HashSet<>();
+    additions.add(new WalkState(hypothesized, empty, empty, empty, empty));
+    do {
+      Set<WalkState> newAdditions = null;
+      long children = 0L;
+
+      for (WalkState walk : additions) {
+        Object fingerprint = null;
+        if (visited != null) {
+          fingerprint = walk.getFingerprint();
+          if (visited.contains(fingerprint)) {
+            // We already expanded a walk in this state, so don't expand this one.
+            if (metrics != null)
+              metrics.recordDeduplicated(1L);
+            if (getMemoization().isReportDuplicates()) {
+              // The visitor still sees this walk, so it still costs a visit.
+              if (tracker != null && !tracker.visit())
+                return;
+              if (metrics != null)
+                metrics.recordVisited(1L);
+              if (visitor.step(new WalkView<>(unmodifiableHypotheses, index, walk))
+                  == Instruction.STOP)
+                return;
+            }
+            continue;
+          }
+        }
+
+        // Stop all walks if we cannot afford to visit this one.
+        if (tracker != null && !tracker.visit())
+          return;
+
+        Instruction instruction =
+            visitor.step(new WalkView<>(unmodifiableHypotheses, index, walk));
+        if (metrics != null)
+          metrics.recordVisited(1L);
+        switch (instruction) {
+          case CONTINUE:
+            // Carry on with this walk. Do nothing.
+            break;
+          case PRUNE:
+            // Stop this walk. Do not add it to the new additions.
+            if (metrics != null)
+              metrics.recordPruned(1L);
+            continue;
+          case STOP:
+            // Stop all walks.
+            return;
+        }
+
+        if (Bitsets.nextSetBit(walk.queue, 0) == -1) {
+          continue;
+        }
+
+        if (visited != null) {
+          // If the table is full, then we just expand duplicates of this walk when we see them.
+          visited.add(fingerprint);
+        }
+
+        if (newAdditions == null) {
+          newAdditions = new HashSet<>();
+        }
+
+        long[] skipped = walk.skipped;
+        for (int candidate : candidates(index, walk, orderSensitive)) {
+          final long[] rest = Bitsets.without(walk.queue, candidate);
+          final int[] explanations = index.getExplanations(candidate);
+          if (explanations.length == 0) {
+            newAdditions.add(new WalkState(rest, walk.lemmas,
+                Bitsets.with(walk.postulates, candidate), walk.fired, skipped));
+            children = children + 1L;
+          } else {
+            final long[] newLemmas = Bitsets.get(hypothesized, candidate) ? walk.lemmas
+                : Bitsets.with(walk.lemmas, candidate);
+            for (int rule : explanations) {
+              newAdditions.add(new WalkState(Bitsets.withAll(rest, index.getAntecedents(rule)),
+                  newLemmas, walk.postulates, Bitsets.with(walk.fired, rule), skipped));
+              children = children + 1L;
+            }
+          }
+
+          // The walks that explain the later candidates leave this one unexplained for good, since
+          // the walks we just built explain it already, as long as explaining it first changes
+          // nothing.
+          if (!orderSensitive && isSkippable(index, hypothesized, candidate))
+            skipped = Bitsets.with(skipped, candidate);
+
+          // Check as the next layer grows, since one layer can be far bigger than the last.
+          if (tracker != null && !tracker.frontier(newAdditions.size()))
+            return;
+        }
+      }
+
+      // Equal walks reached along different paths collapse into one.
+      if (metrics != null && newAdditions != null) {
+        metrics.recordDeduplicated(children - newAdditions.size());
+        metrics.recordFrontier(newAdditions.size());
+      }
+
+      additions = newAdditions;
+    } while (additions != null);
+  }
+
+  /**
+   * Returns {@code true} if a walk may give up on explaining the given proposition because its
+   * siblings explain it first. That is only so if explaining the proposition first builds the same
+   * walk as explaining it later. It does not if a rule that explains it needs a hypothesis that
+   * some rule explains, since explaining that hypothesis first and firing the rule after puts the
+   * hypothesis back on the queue, so the walk can explain it a second way, while firing the rule
+   * first does not.
+   */
+  private static boolean isSkippable(Index<?, ?> index, long[] hypothesized, int proposition) {
+    for (int rule : index.getExplanations(proposition))
+      for (int antecedent : index.getAntecedents(rule))
+        if (Bitsets.get(hypothesized, antecedent) && index.getExplanations(antecedent).length != 0)
+          return false;
+    return true;
+  }
+
+  /**
+   * @return the propositions that the given walk can explain next, in the order to explain them
+   */
+  private static int[] candidates(Index<?, ?> index, WalkState walk, boolean orderSensitive) {
+    int[] result = new int[Bitsets.cardinality(walk.queue)];
+    int size = 0;
+    for (int next = Bitsets.nextSetBit(walk.queue, 0); next != -1; next =
+        Bitsets.nextSetBit(walk.queue, next + 1)) {
+      if (Bitsets.get(walk.postulates, next) || Bitsets.get(walk.lemmas, next)
+          || Bitsets.get(walk.skipped, next)) {
+        continue;
+      }
+      result[size++] = next;
+    }
+    result = Arrays.copyOf(result, size);
+
+    if (!orderSensitive && size > 1) {
+      // Sort by rank, then by number, which is the order we met the propositions.
+      final long[] keys = new long[size];
+      for (int i = 0; i < size; i++)
+        keys[i] = ((long) index.getRank(result[i]) << 32) | result[i];
+      Arrays.sort(keys);
+      for (int i = 0; i < size; i++)
+        result[i] = (int) keys[i];
+    }
+
+    return result;
+  }
+
+  private Heuristic<RuleIdT, PropositionT> getHeuristic() {
+    return heuristic;
+  }
+
+  private Memoization getMemoization() {
+    return memoization;
+  }
+
+  private SolverMetrics getMetrics() {
+    return metrics;
+  }
+}
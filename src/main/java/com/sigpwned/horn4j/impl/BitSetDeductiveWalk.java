@@ -0,0 +1,328 @@
+/*-
+ * =================================LICENSE_START==================================
+ * horn4j
+ * ====================================SECTION=====================================
+ * Copyright (C) 2024 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.horn4j.impl;
+
+import static java.util.Collections.unmodifiableSet;
+import static java.util.Objects.requireNonNull;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import com.sigpwned.horn4j.DeductiveWalk;
+import com.sigpwned.horn4j.IndexedRuleSet;
+import com.sigpwned.horn4j.PropositionDictionary;
+import com.sigpwned.horn4j.Rule;
+import com.sigpwned.horn4j.util.Bitsets;
+
+/**
+ * A {@link DeductiveWalk} over the identifiers of an {@link IndexedRuleSet}. The assumptions,
+ * conclusions, and fired rules are stored as word-packed bitsets, and the firing order as an
+ * {@code int} array, so {@link #step(Rule)}, {@link #contains(DeductiveWalk)},
+ * {@link #equals(Object)}, and {@link #hashCode()} are word operations instead of set operations.
+ * The {@link Set} getters return lazy views over the bitsets, so this walk can be used anywhere a
+ * {@link DeductiveWalk} can. It is equal to any other walk with the same assumptions, conclusions,
+ * and fired rules, no matter how that walk is represented.
+ * 
+ * @param <RuleIdT> the type of the rule identifiers
+ * @param <PropositionT> the type of the propositions
+ */
+public class BitSetDeductiveWalk<RuleIdT, PropositionT>
+    extends DeductiveWalk<RuleIdT, PropositionT> {
+  /**
+   * Starts walks as {@link BitSetDeductiveWalk} objects when the rules are an
+   * {@link IndexedRuleSet}, or as plain {@link DeductiveWalk} objects otherwise. This is the
+   * default for the deductive walkers.
+   */
+  public static <RuleIdT, PropositionT> DeductiveWalk.Factory<RuleIdT, PropositionT> factory() {
+    return (assumptions, rules) -> {
+      if (rules instanceof IndexedRuleSet)
+        return start(assumptions, (IndexedRuleSet<RuleIdT, PropositionT>) rules);
+      return DeductiveWalk.start(assumptions);
+    };
+  }
+
+  public static <RuleIdT, PropositionT> BitSetDeductiveWalk<RuleIdT, PropositionT> start(
+      Set<PropositionT> assumptions, IndexedRuleSet<RuleIdT, PropositionT> rules) {
+    if (assumptions == null)
+      throw new NullPointerException();
+    if (rules == null)
+      throw new NullPointerException();
+
+    final PropositionDictionary<PropositionT> dictionary = rules.getDictionary();
+
+    // Assumptions that are not in the dictionary do not appear in any rules, so they never affect
+    // which rules can fire. We still keep them in the assumptions set, though.
+    final int propositionCount = dictionary.size();
+    final int[] ids = new int[assumptions.size()];
+    int idCount = 0;
+    for (PropositionT assumption : assumptions) {
+      final int p = dictionary.lookup(assumption);
+      if (p != PropositionDictionary.NO_ID && p < propositionCount)
+        ids[idCount++] = p;
+    }
+
+    // Start the bitsets only as large as they need to be, not as large as the dictionary and the
+    // rule base, so each step only copies the words the walk has touched so far.
+    final long[] empty = Bitsets.of(0);
+    return new BitSetDeductiveWalk<>(rules, unmodifiableSet(assumptions),
+        Bitsets.withAll(empty, Arrays.copyOf(ids, idCount)), empty, empty, new int[0],
+        assumptions.hashCode(), 0, 0);
+  }
+
+  private final IndexedRuleSet<RuleIdT, PropositionT> rules;
+  private final Set<PropositionT> assumptions;
+  private final long[] assumed;
+  private final long[] concluded;
+  private final long[] fired;
+
+  /**
+   * The indexes of the fired rules, in the order they fired.
+   */
+  private final int[] order;
+
+  /**
+   * The hash codes of the assumptions, conclusions, and fired rules as sets. A set's hash code is
+   * the sum of its elements' hash codes, so we can maintain them as the walk grows.
+   */
+  private final int assumptionsHashCode;
+  private final int conclusionsHashCode;
+  private final int firedHashCode;
+
+  private BitSetDeductiveWalk(IndexedRuleSet<RuleIdT, PropositionT> rules,
+      Set<PropositionT> assumptions, long[] assumed, long[] concluded, long[] fired, int[] order,
+      int assumptionsHashCode, int conclusionsHashCode, int firedHashCode) {
+    super(assumptions);
+    this.rules = requireNonNull(rules);
+    this.assumptions = requireNonNull(assumptions);
+    this.assumed = requireNonNull(assumed);
+    this.concluded = requireNonNull(concluded);
+    this.fired = requireNonNull(fired);
+    this.order = requireNonNull(order);
+    this.assumptionsHashCode = assumptionsHashCode;
+    this.conclusionsHashCode = conclusionsHashCode;
+    this.firedHashCode = firedHashCode;
+  }
+
+  /**
+   * @return the rule set this walk's identifiers refer to
+   */
+  public IndexedRuleSet<RuleIdT, PropositionT> getRules() {
+    return rules;
+  }
+
+  @Override
+  public Set<PropositionT> getAssumptions() {
+    return assumptions;
+  }
+
+  @Override
+  public Set<Rule<RuleIdT, PropositionT>> getFired() {
+    return new AbstractSet<Rule<RuleIdT, PropositionT>>() {
+      @Override
+      @SuppressWarnings("unchecked")
+      public boolean contains(Object o) {
+        if (!(o instanceof Rule))
+          return false;
+        final int r = rules.indexOf((Rule<RuleIdT, PropositionT>) o);
+        return r != -1 && Bitsets.get(fired, r);
+      }
+
+      @Override
+      public Iterator<Rule<RuleIdT, PropositionT>> iterator() {
+        return new ArrayIterator<Rule<RuleIdT, PropositionT>>(order) {
+          @Override
+          protected Rule<RuleIdT, PropositionT> get(int rule) {
+            return rules.getRule(rule);
+          }
+        };
+      }
+
+      @Override
+      public int size() {
+        return order.length;
+      }
+
+      @Override
+      public int hashCode() {
+        return firedHashCode;
+      }
+    };
+  }
+
+  @Override
+  public Set<PropositionT> getConclusions() {
+    return new AbstractSet<PropositionT>() {
+      @Override
+      @SuppressWarnings("unchecked")
+      public boolean contains(Object o) {
+        if (o == null)
+          return false;
+        final int p = rules.getDictionary().lookup((PropositionT) o);
+        return p != PropositionDictionary.NO_ID && Bitsets.get(concluded, p);
+      }
+
+      @Override
+      public Iterator<PropositionT> iterator() {
+        // Every fired rule concludes a new proposition, so the conclusions are in firing order.
+        return new ArrayIterator<PropositionT>(order) {
+          @Override
+          protected PropositionT get(int rule) {
+            return rules.getDictionary().decode(rules.getConsequent(rule));
+          }
+        };
+      }
+
+      @Override
+      public int size() {
+        return order.length;
+      }
+
+      @Override
+      public int hashCode() {
+        return conclusionsHashCode;
+      }
+    };
+  }
+
+  /**
+   * Returns true if the given proposition has been assumed or concluded.
+   */
+  public boolean isSatisfied(int proposition) {
+    return Bitsets.get(assumed, proposition) || Bitsets.get(concluded, proposition);
+  }
+
+  /**
+   * Returns true if the given rule has fired.
+   */
+  public boolean isFired(int rule) {
+    return Bitsets.get(fired, rule);
+  }
+
+  /**
+   * Returns the bitset of concluded propositions itself, not a copy, so callers must not modify it.
+   */
+  long[] getConcludedBits() {
+    return concluded;
+  }
+
+  @Override
+  public BitSetDeductiveWalk<RuleIdT, PropositionT> step(Rule<RuleIdT, PropositionT> step) {
+    if (step == null)
+      throw new NullPointerException();
+    final int r = rules.indexOf(step);
+    if (r == -1)
+      throw new IllegalArgumentException("rule not in rule set: " + step);
+    return step(r, step);
+  }
+
+  /**
+   * Fires the rule with the given index.
+   */
+  public BitSetDeductiveWalk<RuleIdT, PropositionT> step(int rule) {
+    return step(rule, rules.getRule(rule));
+  }
+
+  private BitSetDeductiveWalk<RuleIdT, PropositionT> step(int r,
+      Rule<RuleIdT, PropositionT> step) {
+    if (isFired(r))
+      throw new IllegalArgumentException("rule already fired: " + step);
+
+    for (int i = 0, n = rules.getAntecedentCount(r); i < n; i++)
+      if (!isSatisfied(rules.getAntecedent(r, i)))
+        throw new IllegalArgumentException("missing antecedents: " + step);
+
+    final int c = rules.getConsequent(r);
+    if (Bitsets.get(assumed, c))
+      throw new IllegalArgumentException("consequent already in assumptions: " + step);
+    if (Bitsets.get(concluded, c))
+      throw new IllegalArgumentException("consequent already in conclusions: " + step);
+
+    final int[] newOrder = Arrays.copyOf(order, order.length + 1);
+    newOrder[order.length] = r;
+
+    return new BitSetDeductiveWalk<>(rules, assumptions, assumed, Bitsets.with(concluded, c),
+        Bitsets.with(fired, r), newOrder, assumptionsHashCode,
+        conclusionsHashCode + step.getConsequent().hashCode(), firedHashCode + step.hashCode());
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public boolean contains(DeductiveWalk<RuleIdT, PropositionT> other) {
+    if (other instanceof BitSetDeductiveWalk
+        && ((BitSetDeductiveWalk<RuleIdT, PropositionT>) other).rules == rules) {
+      final BitSetDeductiveWalk<RuleIdT, PropositionT> that =
+          (BitSetDeductiveWalk<RuleIdT, PropositionT>) other;
+      return Bitsets.containsAll(concluded, that.concluded)
+          && Bitsets.containsAll(fired, that.fired)
+          && (assumptions == that.assumptions || assumptions.containsAll(that.assumptions));
+    }
+    return super.contains(other);
+  }
+
+  /**
+   * Same as {@code Objects.hash(assumptions, conclusions, fired)}, without touching the sets.
+   */
+  @Override
+  public int hashCode() {
+    return 31 * (31 * (31 + assumptionsHashCode) + conclusionsHashCode) + firedHashCode;
+  }
+
+  @Override
+  @SuppressWarnings("rawtypes")
+  public boolean equals(Object obj) {
+    if (this == obj)
+      return true;
+    if (obj instanceof BitSetDeductiveWalk && ((BitSetDeductiveWalk) obj).rules == rules) {
+      final BitSetDeductiveWalk other = (BitSetDeductiveWalk) obj;
+      return conclusionsHashCode == other.conclusionsHashCode
+          && firedHashCode == other.firedHashCode && Bitsets.equals(fired, other.fired)
+          && Bitsets.equals(concluded, other.concluded)
+          && assumptions.equals(other.assumptions);
+    }
+    return super.equals(obj);
+  }
+
+  /**
+   * Iterates over an array of identifiers, mapping each identifier to an element.
+   */
+  private abstract static class ArrayIterator<T> implements Iterator<T> {
+    private final int[] ids;
+    private int index = 0;
+
+    public ArrayIterator(int[] ids) {
+      this.ids = ids;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return index < ids.length;
+    }
+
+    @Override
+    public T next() {
+      if (!hasNext())
+        throw new NoSuchElementException();
+      return get(ids[index++]);
+    }
+
+    protected abstract T get(int id);
+  }
+}
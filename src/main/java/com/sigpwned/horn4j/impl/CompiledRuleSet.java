@@ -0,0 +1,485 @@
+/*-
+ * =================================LICENSE_START==================================
+ * horn4j
+ * ====================================SECTION=====================================
+ * Copyright (C) 2024 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.horn4j.impl;
+
+import static java.util.Collections.unmodifiableSet;
+import static java.util.Objects.requireNonNull;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+import com.sigpwned.horn4j.IndexedRuleSet;
+import com.sigpwned.horn4j.PropositionDictionary;
+import com.sigpwned.horn4j.Rule;
+import com.sigpwned.horn4j.RuleSet;
+import com.sigpwned.horn4j.util.Sets;
+
+/**
+ * An immutable {@link RuleSet} that stores its rules in flat primitive arrays, in compressed sparse
+ * row form, instead of as {@link Rule} objects and hash indexes. Rule {@code r}'s antecedents are
+ * the proposition identifiers {@code antecedents[antecedentOffsets[r]]} up to but not including
+ * {@code antecedents[antecedentOffsets[r+1]]}, in ascending order, and its consequent is
+ * {@code consequents[r]}. The rules that mention a proposition as an antecedent or consequent are
+ * stored the same way, indexed by proposition identifier. Apart from the rule identifiers and the
+ * dictionary, the whole rule set is a handful of {@code int} arrays, which is much smaller than
+ * {@link DefaultRuleSet} for large rule bases and keeps lookups in contiguous memory.
+ * 
+ * <p>
+ * Rules are decoded on demand, so each call to {@link #getRule(int)} or the {@code find} methods
+ * builds new {@link Rule} objects. Solvers that understand {@link IndexedRuleSet} avoid decoding
+ * rules they do not report.
+ * 
+ * <p>
+ * Compiled rule sets are built once, either from another {@link IndexedRuleSet} like
+ * {@link DefaultRuleSet}, or from a stream of rules, which never needs to hold all the rules in
+ * memory as objects. A stream should not contain duplicate rules. Duplicates do not change any
+ * results, but they do take up space.
+ * 
+ * @param <RuleIdT> The type of the rule identifiers
+ * @param <PropositionT> The type of the propositions
+ */
+public class CompiledRuleSet<RuleIdT, PropositionT>
+    implements IndexedRuleSet<RuleIdT, PropositionT> {
+  /**
+   * Compiles the given rule set, reusing its dictionary.
+   */
+  public static <RuleIdT, PropositionT> CompiledRuleSet<RuleIdT, PropositionT> fromRuleSet(
+      IndexedRuleSet<RuleIdT, PropositionT> rules) {
+    if (rules == null)
+      throw new NullPointerException();
+
+    final int ruleCount = rules.getRuleCount();
+    final Object[] ruleIds = new Object[ruleCount];
+    final int[] consequents = new int[ruleCount];
+    final int[] antecedentOffsets = new int[ruleCount + 1];
+    for (int r = 0; r < ruleCount; r++) {
+      ruleIds[r] = rules.getRule(r).getId();
+      consequents[r] = rules.getConsequent(r);
+      antecedentOffsets[r + 1] = antecedentOffsets[r] + rules.getAntecedentCount(r);
+    }
+
+    final int[] antecedents = new int[antecedentOffsets[ruleCount]];
+    for (int r = 0; r < ruleCount; r++) {
+      final int offset = antecedentOffsets[r];
+      for (int i = 0, n = rules.getAntecedentCount(r); i < n; i++)
+        antecedents[offset + i] = rules.getAntecedent(r, i);
+      Arrays.sort(antecedents, offset, antecedentOffsets[r + 1]);
+    }
+
+    return new CompiledRuleSet<>(rules.getDictionary(), ruleIds, consequents, antecedentOffsets,
+        antecedents);
+  }
+
+  /**
+   * Compiles the given rules with a new dictionary.
+   */
+  public static <RuleIdT, PropositionT> CompiledRuleSet<RuleIdT, PropositionT> fromRules(
+      Stream<Rule<RuleIdT, PropositionT>> rules) {
+    return fromRules(rules, new PropositionDictionary<>());
+  }
+
+  /**
+   * Compiles the given rules, interning their propositions in the given dictionary.
+   */
+  public static <RuleIdT, PropositionT> CompiledRuleSet<RuleIdT, PropositionT> fromRules(
+      Stream<Rule<RuleIdT, PropositionT>> rules, PropositionDictionary<PropositionT> dictionary) {
+    if (rules == null)
+      throw new NullPointerException();
+    if (dictionary == null)
+      throw new NullPointerException();
+
+    final List<Object> ruleIds = new ArrayList<>();
+    final IntBuffer consequents = new IntBuffer();
+    final IntBuffer antecedentOffsets = new IntBuffer();
+    final IntBuffer antecedents = new IntBuffer();
+    antecedentOffsets.add(0);
+    rules.forEachOrdered(rule -> {
+      ruleIds.add(rule.getId());
+      consequents.add(dictionary.intern(rule.getConsequent()));
+      final int offset = antecedents.size();
+      for (PropositionT antecedent : rule.getAntecedents())
+        antecedents.add(dictionary.intern(antecedent));
+      antecedents.sort(offset, antecedents.size());
+      antecedentOffsets.add(antecedents.size());
+    });
+
+    return new CompiledRuleSet<>(dictionary, ruleIds.toArray(), consequents.toArray(),
+        antecedentOffsets.toArray(), antecedents.toArray());
+  }
+
+  /**
+   * A growable array of {@code int} values, so we can compile a stream of unknown length without
+   * boxing.
+   */
+  private static final class IntBuffer {
+    private int[] values = new int[16];
+    private int size = 0;
+
+    public void add(int value) {
+      if (size == values.length)
+        values = Arrays.copyOf(values, values.length * 2);
+      values[size++] = value;
+    }
+
+    public void sort(int fromIndex, int toIndex) {
+      Arrays.sort(values, fromIndex, toIndex);
+    }
+
+    public int size() {
+      return size;
+    }
+
+    public int[] toArray() {
+      return Arrays.copyOf(values, size);
+    }
+  }
+
+  private static final int[] EMPTY = new int[0];
+
+  private final PropositionDictionary<PropositionT> dictionary;
+  private final Object[] ruleIds;
+  private final int[] consequents;
+  private final int[] antecedentOffsets;
+  private final int[] antecedents;
+  private final int[] rulesByAntecedentOffsets;
+  private final int[] rulesByAntecedent;
+  private final int[] rulesByConsequentOffsets;
+  private final int[] rulesByConsequent;
+  private final int[] unconditionalRules;
+
+  private CompiledRuleSet(PropositionDictionary<PropositionT> dictionary, Object[] ruleIds,
+      int[] consequents, int[] antecedentOffsets, int[] antecedents) {
+    this.dictionary = requireNonNull(dictionary);
+    this.ruleIds = requireNonNull(ruleIds);
+    this.consequents = requireNonNull(consequents);
+    this.antecedentOffsets = requireNonNull(antecedentOffsets);
+    this.antecedents = requireNonNull(antecedents);
+
+    final int ruleCount = ruleIds.length;
+
+    // Only propositions up to the largest id in our rules can appear in our rules. The dictionary
+    // may be shared, so other rule sets may have interned more since.
+    int propositionCount = 0;
+    int unconditionalCount = 0;
+    for (int r = 0; r < ruleCount; r++) {
+      propositionCount = Math.max(propositionCount, consequents[r] + 1);
+      if (antecedentOffsets[r] == antecedentOffsets[r + 1])
+        unconditionalCount = unconditionalCount + 1;
+    }
+    for (int a : antecedents)
+      propositionCount = Math.max(propositionCount, a + 1);
+
+    // Counting sort the rules by antecedent and by consequent. Visiting the rules in order keeps
+    // each adjacency list in ascending rule order.
+    this.rulesByAntecedentOffsets = new int[propositionCount + 1];
+    this.rulesByConsequentOffsets = new int[propositionCount + 1];
+    for (int c : consequents)
+      rulesByConsequentOffsets[c + 1] += 1;
+    for (int a : antecedents)
+      rulesByAntecedentOffsets[a + 1] += 1;
+    for (int p = 0; p < propositionCount; p++) {
+      rulesByAntecedentOffsets[p + 1] += rulesByAntecedentOffsets[p];
+      rulesByConsequentOffsets[p + 1] += rulesByConsequentOffsets[p];
+    }
+
+    this.rulesByAntecedent = new int[antecedents.length];
+    this.rulesByConsequent = new int[ruleCount];
+    this.unconditionalRules = unconditionalCount == 0 ? EMPTY : new int[unconditionalCount];
+    final int[] antecedentFill = Arrays.copyOf(rulesByAntecedentOffsets, propositionCount);
+    final int[] consequentFill = Arrays.copyOf(rulesByConsequentOffsets, propositionCount);
+    unconditionalCount = 0;
+    for (int r = 0; r < ruleCount; r++) {
+      rulesByConsequent[consequentFill[consequents[r]]++] = r;
+      for (int i = antecedentOffsets[r]; i < antecedentOffsets[r + 1]; i++)
+        rulesByAntecedent[antecedentFill[antecedents[i]]++] = r;
+      if (antecedentOffsets[r] == antecedentOffsets[r + 1])
+        unconditionalRules[unconditionalCount++] = r;
+    }
+  }
+
+  @Override
+  public Set<Rule<RuleIdT, PropositionT>> findByExactAntecedents(Set<PropositionT> propositions) {
+    if (propositions.isEmpty())
+      return decodeRules(unconditionalRules, 0, unconditionalRules.length);
+
+    final int[] ids = lookupAll(propositions);
+    if (ids.length < propositions.size())
+      return Sets.of();
+
+    // Every matching rule mentions the first proposition, so those are the only candidates.
+    final Set<Rule<RuleIdT, PropositionT>> result = new HashSet<>();
+    for (int i = 0, n = getRuleCountByAntecedent(ids[0]); i < n; i++) {
+      final int r = getRuleByAntecedent(ids[0], i);
+      if (hasExactAntecedents(r, ids))
+        result.add(getRule(r));
+    }
+
+    return unmodifiableSet(result);
+  }
+
+  /**
+   * Each rule is checked only once, when we reach its smallest antecedent, and checking a rule is a
+   * binary search of the given propositions for each of its antecedents.
+   */
+  @Override
+  public Set<Rule<RuleIdT, PropositionT>> findBySatisfiedAntecedents(
+      Set<PropositionT> propositions) {
+    final int[] ids = lookupAll(propositions);
+
+    // Rules with no antecedents are satisfied by any set of propositions.
+    final Set<Rule<RuleIdT, PropositionT>> result =
+        new HashSet<>(decodeRules(unconditionalRules, 0, unconditionalRules.length));
+
+    for (int p : ids) {
+      for (int i = 0, n = getRuleCountByAntecedent(p); i < n; i++) {
+        final int r = getRuleByAntecedent(p, i);
+        if (antecedents[antecedentOffsets[r]] == p && isSatisfied(r, ids))
+          result.add(getRule(r));
+      }
+    }
+
+    return unmodifiableSet(result);
+  }
+
+  @Override
+  public Set<Rule<RuleIdT, PropositionT>> findByAntecedent(PropositionT proposition) {
+    final int p = dictionary.lookup(proposition);
+    if (p == PropositionDictionary.NO_ID || p >= rulesByAntecedentOffsets.length - 1)
+      return Sets.of();
+    return decodeRules(rulesByAntecedent, rulesByAntecedentOffsets[p],
+        rulesByAntecedentOffsets[p + 1]);
+  }
+
+  @Override
+  public Set<Rule<RuleIdT, PropositionT>> findByNewlySatisfiedAntecedents(
+      Set<PropositionT> satisfied, PropositionT proposition) {
+    final int p = dictionary.lookup(proposition);
+    if (p == PropositionDictionary.NO_ID)
+      return Sets.of();
+
+    final Set<Rule<RuleIdT, PropositionT>> result = new HashSet<>();
+    for (int i = 0, n = getRuleCountByAntecedent(p); i < n; i++) {
+      final int r = getRuleByAntecedent(p, i);
+      boolean enabled = true;
+      for (int j = antecedentOffsets[r]; enabled && j < antecedentOffsets[r + 1]; j++) {
+        final int a = antecedents[j];
+        enabled = a == p || satisfied.contains(dictionary.decode(a));
+      }
+      if (enabled)
+        result.add(getRule(r));
+    }
+
+    return unmodifiableSet(result);
+  }
+
+  @Override
+  public Set<Rule<RuleIdT, PropositionT>> findByConsequent(PropositionT proposition) {
+    final int p = dictionary.lookup(proposition);
+    if (p == PropositionDictionary.NO_ID || p >= rulesByConsequentOffsets.length - 1)
+      return Sets.of();
+    return decodeRules(rulesByConsequent, rulesByConsequentOffsets[p],
+        rulesByConsequentOffsets[p + 1]);
+  }
+
+  @Override
+  public Set<Rule<RuleIdT, PropositionT>> findBySignature(Set<PropositionT> antecedents,
+      PropositionT consequent) {
+    final int c = dictionary.lookup(consequent);
+    if (c == PropositionDictionary.NO_ID)
+      return Sets.of();
+
+    final int[] ids = lookupAll(antecedents);
+    if (ids.length < antecedents.size())
+      return Sets.of();
+
+    final Set<Rule<RuleIdT, PropositionT>> result = new HashSet<>();
+    for (int i = 0, n = getRuleCountByConsequent(c); i < n; i++) {
+      final int r = getRuleByConsequent(c, i);
+      if (hasExactAntecedents(r, ids))
+        result.add(getRule(r));
+    }
+
+    return unmodifiableSet(result);
+  }
+
+  @Override
+  public PropositionDictionary<PropositionT> getDictionary() {
+    return dictionary;
+  }
+
+  @Override
+  public int getRuleCount() {
+    return ruleIds.length;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public Rule<RuleIdT, PropositionT> getRule(int rule) {
+    final int offset = antecedentOffsets[rule];
+    final int count = antecedentOffsets[rule + 1] - offset;
+    final Set<PropositionT> as;
+    if (count == 0) {
+      as = Sets.of();
+    } else if (count == 1) {
+      as = Sets.of(dictionary.decode(antecedents[offset]));
+    } else {
+      as = new HashSet<>(count * 2);
+      for (int i = offset; i < offset + count; i++)
+        as.add(dictionary.decode(antecedents[i]));
+    }
+    return new Rule<>((RuleIdT) ruleIds[rule], as, dictionary.decode(consequents[rule]));
+  }
+
+  @Override
+  public int indexOf(Rule<RuleIdT, PropositionT> rule) {
+    final int c = dictionary.lookup(rule.getConsequent());
+    if (c == PropositionDictionary.NO_ID)
+      return -1;
+
+    final int[] ids = lookupAll(rule.getAntecedents());
+    if (ids.length < rule.getAntecedents().size())
+      return -1;
+
+    for (int i = 0, n = getRuleCountByConsequent(c); i < n; i++) {
+      final int r = getRuleByConsequent(c, i);
+      if (hasExactAntecedents(r, ids) && ruleIds[r].equals(rule.getId()))
+        return r;
+    }
+
+    return -1;
+  }
+
+  @Override
+  public int getConsequent(int rule) {
+    return consequents[rule];
+  }
+
+  @Override
+  public int getAntecedentCount(int rule) {
+    return antecedentOffsets[rule + 1] - antecedentOffsets[rule];
+  }
+
+  @Override
+  public int getAntecedent(int rule, int index) {
+    if (index < 0 || index >= getAntecedentCount(rule))
+      throw new IndexOutOfBoundsException(Integer.toString(index));
+    return antecedents[antecedentOffsets[rule] + index];
+  }
+
+  @Override
+  public int getRuleCountByAntecedent(int proposition) {
+    if (proposition < 0)
+      throw new IndexOutOfBoundsException(Integer.toString(proposition));
+    if (proposition >= rulesByAntecedentOffsets.length - 1)
+      return 0;
+    return rulesByAntecedentOffsets[proposition + 1] - rulesByAntecedentOffsets[proposition];
+  }
+
+  @Override
+  public int getRuleByAntecedent(int proposition, int index) {
+    if (index < 0 || index >= getRuleCountByAntecedent(proposition))
+      throw new IndexOutOfBoundsException(Integer.toString(index));
+    return rulesByAntecedent[rulesByAntecedentOffsets[proposition] + index];
+  }
+
+  @Override
+  public int getRuleCountByConsequent(int proposition) {
+    if (proposition < 0)
+      throw new IndexOutOfBoundsException(Integer.toString(proposition));
+    if (proposition >= rulesByConsequentOffsets.length - 1)
+      return 0;
+    return rulesByConsequentOffsets[proposition + 1] - rulesByConsequentOffsets[proposition];
+  }
+
+  @Override
+  public int getRuleByConsequent(int proposition, int index) {
+    if (index < 0 || index >= getRuleCountByConsequent(proposition))
+      throw new IndexOutOfBoundsException(Integer.toString(index));
+    return rulesByConsequent[rulesByConsequentOffsets[proposition] + index];
+  }
+
+  @Override
+  public int getUnconditionalRuleCount() {
+    return unconditionalRules.length;
+  }
+
+  @Override
+  public int getUnconditionalRule(int index) {
+    return unconditionalRules[index];
+  }
+
+  /**
+   * Returns the sorted identifiers of the given propositions, skipping any propositions that are
+   * not in the dictionary.
+   */
+  private int[] lookupAll(Set<PropositionT> propositions) {
+    final int[] result = new int[propositions.size()];
+    int size = 0;
+    for (PropositionT proposition : propositions) {
+      final int p = dictionary.lookup(proposition);
+      if (p != PropositionDictionary.NO_ID)
+        result[size++] = p;
+    }
+    Arrays.sort(result, 0, size);
+    return size == result.length ? result : Arrays.copyOf(result, size);
+  }
+
+  /**
+   * Returns true if every antecedent of the given rule is one of the given sorted propositions.
+   */
+  private boolean isSatisfied(int rule, int[] propositions) {
+    for (int i = antecedentOffsets[rule]; i < antecedentOffsets[rule + 1]; i++)
+      if (Arrays.binarySearch(propositions, antecedents[i]) < 0)
+        return false;
+    return true;
+  }
+
+  /**
+   * Returns true if the antecedents of the given rule are exactly the given sorted propositions.
+   */
+  private boolean hasExactAntecedents(int rule, int[] propositions) {
+    final int offset = antecedentOffsets[rule];
+    if (antecedentOffsets[rule + 1] - offset != propositions.length)
+      return false;
+    for (int i = 0; i < propositions.length; i++)
+      if (antecedents[offset + i] != propositions[i])
+        return false;
+    return true;
+  }
+
+  private Set<Rule<RuleIdT, PropositionT>> decodeRules(int[] rules, int fromIndex, int toIndex) {
+    if (fromIndex == toIndex)
+      return Sets.of();
+    if (toIndex - fromIndex == 1)
+      return Sets.of(getRule(rules[fromIndex]));
+    final Set<Rule<RuleIdT, PropositionT>> result = new HashSet<>((toIndex - fromIndex) * 2);
+    for (int i = fromIndex; i < toIndex; i++)
+      result.add(getRule(rules[i]));
+    return unmodifiableSet(result);
+  }
+
+  @Override
+  public String toString() {
+    return "CompiledRuleSet [rules=" + ruleIds.length + ", antecedents=" + antecedents.length
+        + "]";
+  }
+}
@@ -0,0 +1,263 @@
+/*-
+ * =================================LICENSE_START==================================
+ * horn4j
+ * ====================================SECTION=====================================
+ * Copyright (C) 2024 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.horn4j.impl;
+
+import static java.util.Collections.unmodifiableSet;
+import static java.util.Collections.emptySet;
+import static java.util.Objects.requireNonNull;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import com.sigpwned.horn4j.DeductiveWalk;
+import com.sigpwned.horn4j.Rule;
+import com.sigpwned.horn4j.RuleSet;
+import com.sigpwned.horn4j.util.Sets;
+
+/**
+ * A {@link DeductiveWalk} together with the rules that can fire next from it. Each step of a walk
+ * adds exactly one consequent, so the rules that can fire after a step are the rules that could
+ * fire before it, less the rules that conclude the new consequent, plus the rules that the new
+ * consequent just enabled. This lets walkers find fireable rules from what changed at each step
+ * instead of from the whole satisfied set.
+ * 
+ * <p>
+ * A new state does not compute its fireable rules until a walker asks for them, which is when the
+ * walker expands it. Until then, it only keeps a pointer to its parent, whose fireable rules all of
+ * its siblings share. That way, a frontier of states that are waiting to be expanded holds one set
+ * of fireable rules per parent, not one per state.
+ * 
+ * <p>
+ * A state can also carry a <em>sleep set</em> for partial-order reduction. Two rules that can both
+ * fire and that conclude different propositions are independent: firing one does not stop the other
+ * from firing, and firing both in either order gives the same walk. So once we have expanded one
+ * child of a state, its siblings need not fire its rule again, since every walk that does so is
+ * reachable through the first child already. The sleep set holds those rules. It only ever contains
+ * fireable rules, and {@link #expand(boolean) reduced expansion} skips them.
+ * 
+ * <p>
+ * Two states are equal if and only if their walks are equal, since the fireable rules are
+ * determined by the walk. The sleep set does not take part, so use
+ * {@link #merge(DeductiveWalkState)} to combine equal states that were reached along different
+ * paths.
+ * 
+ * @param <RuleIdT> the type of the rule identifiers
+ * @param <PropositionT> the type of the propositions
+ */
+final class DeductiveWalkState<RuleIdT, PropositionT> {
+  public static <RuleIdT, PropositionT> DeductiveWalkState<RuleIdT, PropositionT> start(
+      Set<PropositionT> assumptions, RuleSet<RuleIdT, PropositionT> ruleset,
+      DeductiveWalk.Factory<RuleIdT, PropositionT> walkFactory) {
+    Set<Rule<RuleIdT, PropositionT>> fireable = new HashSet<>();
+    for (Rule<RuleIdT, PropositionT> rule : ruleset.findBySatisfiedAntecedents(assumptions)) {
+      // We're assuming the consequent of this rule is true, so we don't need to prove it.
+      if (!assumptions.contains(rule.getConsequent())) {
+        fireable.add(rule);
+      }
+    }
+    return new DeductiveWalkState<>(walkFactory.start(assumptions, ruleset), ruleset, null, null,
+        unmodifiableSet(fireable), emptySet());
+  }
+
+  private final DeductiveWalk<RuleIdT, PropositionT> walk;
+
+  private final RuleSet<RuleIdT, PropositionT> ruleset;
+
+  /**
+   * The state this state grew from, until we compute our fireable rules. We let go of it after
+   * that, so expanded states do not keep their ancestors alive.
+   */
+  private DeductiveWalkState<RuleIdT, PropositionT> parent;
+
+  /**
+   * The last rule fired, or {@code null} for the first state.
+   */
+  private final Rule<RuleIdT, PropositionT> rule;
+
+  /**
+   * The rules that can fire next, or {@code null} if we have not computed them yet. None of these
+   * rules has fired, and none of their consequents is assumed or concluded yet.
+   */
+  private Set<Rule<RuleIdT, PropositionT>> fireable;
+
+  /**
+   * The fireable rules that reduced expansion skips, because walks that fire them from here are
+   * reachable some other way.
+   */
+  private final Set<Rule<RuleIdT, PropositionT>> sleeping;
+
+  private DeductiveWalkState(DeductiveWalk<RuleIdT, PropositionT> walk,
+      RuleSet<RuleIdT, PropositionT> ruleset, DeductiveWalkState<RuleIdT, PropositionT> parent,
+      Rule<RuleIdT, PropositionT> rule, Set<Rule<RuleIdT, PropositionT>> fireable,
+      Set<Rule<RuleIdT, PropositionT>> sleeping) {
+    this.walk = requireNonNull(walk);
+    this.ruleset = requireNonNull(ruleset);
+    this.parent = parent;
+    this.rule = rule;
+    this.fireable = fireable;
+    this.sleeping = requireNonNull(sleeping);
+  }
+
+  /**
+   * @return the walk
+   */
+  public DeductiveWalk<RuleIdT, PropositionT> getWalk() {
+    return walk;
+  }
+
+  /**
+   * Returns a fingerprint of this state's conclusions, for use as a key in a
+   * {@link VisitedStateTable}. States of the same walk have equal fingerprints if and only if they
+   * have the same conclusions. Such states can fire the same rules next, whichever rules they fired
+   * to get there.
+   */
+  public Object getConclusionsFingerprint() {
+    if (walk instanceof BitSetDeductiveWalk)
+      return VisitedStateTable.fingerprint(((BitSetDeductiveWalk<?, ?>) walk).getConcludedBits());
+    return Sets.copyOf(walk.getConclusions());
+  }
+
+  /**
+   * @return the rules that can fire next
+   */
+  public Set<Rule<RuleIdT, PropositionT>> getFireable() {
+    if (fireable == null) {
+      fireable = computeFireable();
+      parent = null;
+    }
+    return fireable;
+  }
+
+  /**
+   * Fires the given rule, which must be one of this state's fireable rules.
+   */
+  public DeductiveWalkState<RuleIdT, PropositionT> step(Rule<RuleIdT, PropositionT> rule) {
+    return new DeductiveWalkState<>(getWalk().step(rule), ruleset, this, rule, null, emptySet());
+  }
+
+  /**
+   * Fires each fireable rule in turn. If {@code reduced} is {@code false}, then this returns one
+   * child per fireable rule. Otherwise, it skips sleeping rules, and puts each rule it fires to
+   * sleep in the later siblings that it is independent of. Searching with reduced expansion
+   * reaches each set of fired rules along exactly one order of firing, assuming no walk is pruned.
+   * 
+   * @param reduced whether to use partial-order reduction
+   * @return the children of this state
+   */
+  public List<DeductiveWalkState<RuleIdT, PropositionT>> expand(boolean reduced) {
+    final Set<Rule<RuleIdT, PropositionT>> rules = getFireable();
+
+    final List<DeductiveWalkState<RuleIdT, PropositionT>> result = new ArrayList<>(rules.size());
+    if (!reduced) {
+      for (Rule<RuleIdT, PropositionT> r : rules)
+        result.add(step(r));
+      return result;
+    }
+
+    final List<Rule<RuleIdT, PropositionT>> explored = new ArrayList<>(sleeping);
+    for (Rule<RuleIdT, PropositionT> r : rules) {
+      if (sleeping.contains(r))
+        continue;
+
+      // A rule that concludes the same proposition as r can no longer fire after r, so it cannot
+      // sleep. Every other explored rule stays fireable, and firing it commutes with firing r.
+      final Set<Rule<RuleIdT, PropositionT>> childSleeping = new HashSet<>();
+      for (Rule<RuleIdT, PropositionT> e : explored)
+        if (!e.getConsequent().equals(r.getConsequent()))
+          childSleeping.add(e);
+
+      result.add(new DeductiveWalkState<>(getWalk().step(r), ruleset, this, r, null,
+          childSleeping.isEmpty() ? emptySet() : unmodifiableSet(childSleeping)));
+
+      explored.add(r);
+    }
+
+    return result;
+  }
+
+  /**
+   * Combines this state with an equal state that was reached along a different path. A rule may
+   * only sleep in the combined state if it sleeps in both, since each state's sleep set is only
+   * sound for the walks below that state.
+   */
+  public DeductiveWalkState<RuleIdT, PropositionT> merge(
+      DeductiveWalkState<RuleIdT, PropositionT> other) {
+    if (sleeping.isEmpty() || other.sleeping.containsAll(sleeping))
+      return this;
+    if (other.sleeping.isEmpty() || sleeping.containsAll(other.sleeping))
+      return other;
+    final Set<Rule<RuleIdT, PropositionT>> mergedSleeping = new HashSet<>(sleeping);
+    mergedSleeping.retainAll(other.sleeping);
+    return new DeductiveWalkState<>(walk, ruleset, parent, rule, fireable,
+        unmodifiableSet(mergedSleeping));
+  }
+
+  private Set<Rule<RuleIdT, PropositionT>> computeFireable() {
+    final PropositionT consequent = rule.getConsequent();
+    final DeductiveWalk<RuleIdT, PropositionT> parentWalk = parent.getWalk();
+    final Set<PropositionT> satisfied =
+        Sets.unionView(parentWalk.getAssumptions(), parentWalk.getConclusions());
+    final Set<Rule<RuleIdT, PropositionT>> parentFireable = parent.getFireable();
+
+    Set<Rule<RuleIdT, PropositionT>> result = new HashSet<>(parentFireable.size());
+
+    // Every rule that could fire before can still fire, unless it concludes the same consequent.
+    // That includes the rule we just fired.
+    for (Rule<RuleIdT, PropositionT> r : parentFireable) {
+      if (!r.getConsequent().equals(consequent)) {
+        result.add(r);
+      }
+    }
+
+    // The new consequent may also have enabled some rules that could not fire before, unless they
+    // conclude something we have already, which includes the new consequent itself.
+    for (Rule<RuleIdT, PropositionT> r : ruleset.findByNewlySatisfiedAntecedents(satisfied,
+        consequent)) {
+      if (!r.getConsequent().equals(consequent) && !satisfied.contains(r.getConsequent())) {
+        result.add(r);
+      }
+    }
+
+    return unmodifiableSet(result);
+  }
+
+  @Override
+  public int hashCode() {
+    return walk.hashCode();
+  }
+
+  @Override
+  @SuppressWarnings("rawtypes")
+  public boolean equals(Object obj) {
+    if (this == obj)
+      return true;
+    if (obj == null)
+      return false;
+    if (getClass() != obj.getClass())
+      return false;
+    DeductiveWalkState other = (DeductiveWalkState) obj;
+    return walk.equals(other.walk);
+  }
+
+  @Override
+  public String toString() {
+    return "DeductiveWalkState [walk=" + walk + ", fireable=" + fireable + "]";
+  }
+}
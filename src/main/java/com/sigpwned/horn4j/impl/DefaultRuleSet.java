@@ -24,21 +24,36 @@ import static java.util.Collections.unmodifiableSet;
 import static java.util.Objects.requireNonNull;
 import static java.util.stream.Collectors.collectingAndThen;
 import static java.util.stream.Collectors.groupingBy;
+import static java.util.stream.Collectors.mapping;
 import static java.util.stream.Collectors.toSet;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import com.sigpwned.horn4j.IndexedRuleSet;
+import com.sigpwned.horn4j.PropositionDictionary;
 import com.sigpwned.horn4j.Rule;
 import com.sigpwned.horn4j.RuleSet;
+import com.sigpwned.horn4j.util.Maps;
+import com.sigpwned.horn4j.util.Sets;
 
 /**
  * An immutable {@link RuleSet} that contains concrete rules provided eagerly at construction time.
  * 
+ * <p>
+ * All propositions are interned in a {@link PropositionDictionary} at construction time, and rules
+ * are numbered in iteration order, so the rule set can also serve the integer lookups of
+ * {@link IndexedRuleSet}. Rule sets built with the same dictionary share proposition identifiers.
+ * 
  * @param <RuleIdT> The type of the rule identifiers
  * @param <PropositionT> The type of the propositions
  */
-public class DefaultRuleSet<RuleIdT, PropositionT> implements RuleSet<RuleIdT, PropositionT> {
+public class DefaultRuleSet<RuleIdT, PropositionT>
+    implements IndexedRuleSet<RuleIdT, PropositionT> {
+  private static final int[] EMPTY = new int[0];
+
   private static class RuleSignature<PropositionT> {
     public static <PropositionT> RuleSignature<PropositionT> fromRule(Rule<?, PropositionT> rule) {
       return new RuleSignature<>(rule.getAntecedents(), rule.getConsequent());
@@ -80,10 +95,83 @@ public class DefaultRuleSet<RuleIdT, PropositionT> implements RuleSet<RuleIdT, P
   private final Set<Rule<RuleIdT, PropositionT>> rules;
   private transient Map<PropositionT, Set<Rule<RuleIdT, PropositionT>>> rulesByConsequent;
   private transient Map<Set<PropositionT>, Set<Rule<RuleIdT, PropositionT>>> rulesByAntecedents;
+  private transient Map<PropositionT, Set<Rule<RuleIdT, PropositionT>>> rulesByAntecedent;
   private transient Map<RuleSignature<PropositionT>, Set<Rule<RuleIdT, PropositionT>>> rulesBySignature;
 
+  private final PropositionDictionary<PropositionT> dictionary;
+  private final Rule<RuleIdT, PropositionT>[] indexedRules;
+  private final Map<Rule<RuleIdT, PropositionT>, Integer> ruleIndexes;
+  private final int[] consequentIds;
+  private final int[][] antecedentIds;
+  private final int[][] ruleIdsByAntecedent;
+  private final int[][] ruleIdsByConsequent;
+  private final int[] unconditionalRuleIds;
+
   public DefaultRuleSet(Set<Rule<RuleIdT, PropositionT>> rules) {
+    this(rules, new PropositionDictionary<>());
+  }
+
+  @SuppressWarnings("unchecked")
+  public DefaultRuleSet(Set<Rule<RuleIdT, PropositionT>> rules,
+      PropositionDictionary<PropositionT> dictionary) {
     this.rules = unmodifiableSet(rules);
+    this.dictionary = requireNonNull(dictionary);
+
+    final int ruleCount = rules.size();
+    this.indexedRules = (Rule<RuleIdT, PropositionT>[]) rules.toArray(new Rule<?, ?>[ruleCount]);
+    this.consequentIds = new int[ruleCount];
+    this.antecedentIds = new int[ruleCount][];
+    this.ruleIndexes = new HashMap<>(ruleCount * 2);
+
+    // Only propositions up to the largest id we interned can appear in our rules. The dictionary
+    // may be shared, so other rule sets may have interned more since.
+    int propositionCount = 0;
+    int unconditionalCount = 0;
+    for (int r = 0; r < ruleCount; r++) {
+      final Rule<RuleIdT, PropositionT> rule = indexedRules[r];
+      ruleIndexes.put(rule, r);
+      consequentIds[r] = dictionary.intern(rule.getConsequent());
+      propositionCount = Math.max(propositionCount, consequentIds[r] + 1);
+      final int[] as = new int[rule.getAntecedents().size()];
+      int i = 0;
+      for (PropositionT antecedent : rule.getAntecedents()) {
+        as[i] = dictionary.intern(antecedent);
+        propositionCount = Math.max(propositionCount, as[i] + 1);
+        i = i + 1;
+      }
+      antecedentIds[r] = as;
+      if (as.length == 0)
+        unconditionalCount = unconditionalCount + 1;
+    }
+
+    // Count first, then fill, so each adjacency list is allocated exactly once.
+    final int[] antecedentCounts = new int[propositionCount];
+    final int[] consequentCounts = new int[propositionCount];
+    for (int r = 0; r < ruleCount; r++) {
+      consequentCounts[consequentIds[r]] = consequentCounts[consequentIds[r]] + 1;
+      for (int a : antecedentIds[r])
+        antecedentCounts[a] = antecedentCounts[a] + 1;
+    }
+
+    this.ruleIdsByAntecedent = new int[propositionCount][];
+    this.ruleIdsByConsequent = new int[propositionCount][];
+    for (int p = 0; p < propositionCount; p++) {
+      ruleIdsByAntecedent[p] = antecedentCounts[p] == 0 ? EMPTY : new int[antecedentCounts[p]];
+      ruleIdsByConsequent[p] = consequentCounts[p] == 0 ? EMPTY : new int[consequentCounts[p]];
+      antecedentCounts[p] = 0;
+      consequentCounts[p] = 0;
+    }
+
+    this.unconditionalRuleIds = unconditionalCount == 0 ? EMPTY : new int[unconditionalCount];
+    unconditionalCount = 0;
+    for (int r = 0; r < ruleCount; r++) {
+      final int c = consequentIds[r];
+      ruleIdsByConsequent[c][consequentCounts[c]++] = r;
+      for (int a : antecedentIds[r])
+        ruleIdsByAntecedent[a][antecedentCounts[a]++] = r;
+      if (antecedentIds[r].length == 0)
+        unconditionalRuleIds[unconditionalCount++] = r;
+    }
   }
 
   @Override
@@ -91,13 +179,44 @@ public class DefaultRuleSet<RuleIdT, PropositionT> implements RuleSet<RuleIdT, P
     return getRulesByAntecedents().getOrDefault(propositions, Collections.emptySet());
   }
 
+  /**
+   * Uses the inverted index from each antecedent to the rules that mention it, so the cost of a
+   * lookup depends on the rules reachable from the given propositions, not the size of the rule
+   * set. Each rule's antecedent count is the size of its antecedent set, so a rule is satisfied
+   * once it has been reached that many times.
+   */
   @Override
   public Set<Rule<RuleIdT, PropositionT>> findBySatisfiedAntecedents(
       Set<PropositionT> propositions) {
-    return getRulesByAntecedents().entrySet().stream()
-        .filter(e -> propositions.containsAll(e.getKey())).map(Map.Entry::getValue)
-        .flatMap(Set::stream).collect(toSet());
+    // Rules with no antecedents are satisfied by any set of propositions.
+    final Set<Rule<RuleIdT, PropositionT>> result =
+        new HashSet<>(findByExactAntecedents(Sets.of()));
+
+    final Map<Rule<RuleIdT, PropositionT>, Integer> satisfied = new HashMap<>();
+    for (PropositionT proposition : propositions) {
+      for (Rule<RuleIdT, PropositionT> rule : findByAntecedent(proposition)) {
+        int count = satisfied.merge(rule, 1, Integer::sum);
+        if (count == rule.getAntecedents().size()) {
+          result.add(rule);
+        }
+      }
+    }
 
+    return result;
+  }
+
+  @Override
+  public Set<Rule<RuleIdT, PropositionT>> findByAntecedent(PropositionT proposition) {
+    return getRulesByAntecedent().getOrDefault(proposition, Collections.emptySet());
+  }
+
+  @Override
+  public Set<Rule<RuleIdT, PropositionT>> findByNewlySatisfiedAntecedents(
+      Set<PropositionT> satisfied, PropositionT proposition) {
+    return findByAntecedent(proposition).stream()
+        .filter(r -> r.getAntecedents().stream()
+            .allMatch(a -> a.equals(proposition) || satisfied.contains(a)))
+        .collect(toSet());
   }
 
   @Override
@@ -116,6 +235,75 @@ public class DefaultRuleSet<RuleIdT, PropositionT> implements RuleSet<RuleIdT, P
     return rules;
   }
 
+  @Override
+  public PropositionDictionary<PropositionT> getDictionary() {
+    return dictionary;
+  }
+
+  @Override
+  public int getRuleCount() {
+    return indexedRules.length;
+  }
+
+  @Override
+  public Rule<RuleIdT, PropositionT> getRule(int rule) {
+    return indexedRules[rule];
+  }
+
+  @Override
+  public int indexOf(Rule<RuleIdT, PropositionT> rule) {
+    return ruleIndexes.getOrDefault(rule, -1);
+  }
+
+  @Override
+  public int getConsequent(int rule) {
+    return consequentIds[rule];
+  }
+
+  @Override
+  public int getAntecedentCount(int rule) {
+    return antecedentIds[rule].length;
+  }
+
+  @Override
+  public int getAntecedent(int rule, int index) {
+    return antecedentIds[rule][index];
+  }
+
+  @Override
+  public int getRuleCountByAntecedent(int proposition) {
+    if (proposition < 0)
+      throw new IndexOutOfBoundsException(Integer.toString(proposition));
+    return proposition < ruleIdsByAntecedent.length ? ruleIdsByAntecedent[proposition].length : 0;
+  }
+
+  @Override
+  public int getRuleByAntecedent(int proposition, int index) {
+    return ruleIdsByAntecedent[proposition][index];
+  }
+
+  @Override
+  public int getRuleCountByConsequent(int proposition) {
+    if (proposition < 0)
+      throw new IndexOutOfBoundsException(Integer.toString(proposition));
+    return proposition < ruleIdsByConsequent.length ? ruleIdsByConsequent[proposition].length : 0;
+  }
+
+  @Override
+  public int getRuleByConsequent(int proposition, int index) {
+    return ruleIdsByConsequent[proposition][index];
+  }
+
+  @Override
+  public int getUnconditionalRuleCount() {
+    return unconditionalRuleIds.length;
+  }
+
+  @Override
+  public int getUnconditionalRule(int index) {
+    return unconditionalRuleIds[index];
+  }
+
   /**
    * @return the rulesByConsequent
    */
@@ -144,6 +332,21 @@ public class DefaultRuleSet<RuleIdT, PropositionT> implements RuleSet<RuleIdT, P
     return rulesByAntecedents;
   }
 
+  /**
+   * @return the rulesByAntecedent
+   */
+  private Map<PropositionT, Set<Rule<RuleIdT, PropositionT>>> getRulesByAntecedent() {
+    if (rulesByAntecedent == null) {
+      rulesByAntecedent = getRules().stream()
+          .flatMap(r -> r.getAntecedents().stream().map(a -> Maps.entry(a, r)))
+          .collect(collectingAndThen(groupingBy(Map.Entry::getKey,
+              collectingAndThen(mapping(Map.Entry::getValue, toSet()),
+                  xs -> xs.size() == 1 ? singleton(xs.iterator().next()) : unmodifiableSet(xs))),
+              Collections::unmodifiableMap));
+    }
+    return rulesByAntecedent;
+  }
+
   /**
    * @return the rulesBySignature
    */
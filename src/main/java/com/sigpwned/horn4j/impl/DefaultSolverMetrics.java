@@ -0,0 +1,238 @@
+/*-
+ * =================================LICENSE_START==================================
+ * horn4j
+ * ====================================SECTION=====================================
+ * Copyright (C) 2024 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.horn4j.impl;
+
+import static java.util.Collections.unmodifiableMap;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import com.sigpwned.horn4j.SolverMetrics;
+
+/**
+ * Counts what walkers and solvers report, and keeps a {@link LatencyHistogram} of the time spent
+ * in each {@link SolverMetrics.Phase phase}. The counters are {@link LongAdder}s, which spread
+ * contended increments across cells, so one instance can be shared by many threads, walkers, and
+ * solvers at little cost. Take a {@link #snapshot()} to read the metrics, e.g., to export them to a
+ * monitoring system.
+ */
+public final class DefaultSolverMetrics implements SolverMetrics {
+  private final LongAdder visited;
+  private final LongAdder pruned;
+  private final LongAdder deduplicated;
+  private final LongAdder lookups;
+  private final LongAccumulator peakFrontier;
+  private final Map<Phase, LatencyHistogram> phases;
+
+  public DefaultSolverMetrics() {
+    this.visited = new LongAdder();
+    this.pruned = new LongAdder();
+    this.deduplicated = new LongAdder();
+    this.lookups = new LongAdder();
+    this.peakFrontier = new LongAccumulator(Math::max, 0L);
+    this.phases = new EnumMap<>(Phase.class);
+    for (Phase phase : Phase.values())
+      this.phases.put(phase, new LatencyHistogram());
+  }
+
+  @Override
+  public void recordVisited(long walks) {
+    visited.add(walks);
+  }
+
+  @Override
+  public void recordPruned(long walks) {
+    pruned.add(walks);
+  }
+
+  @Override
+  public void recordDeduplicated(long walks) {
+    deduplicated.add(walks);
+  }
+
+  @Override
+  public void recordLookups(long lookups) {
+    this.lookups.add(lookups);
+  }
+
+  @Override
+  public void recordFrontier(long size) {
+    peakFrontier.accumulate(size);
+  }
+
+  @Override
+  public void recordPhase(Phase phase, long nanos) {
+    phases.get(phase).record(nanos);
+  }
+
+  /**
+   * Forgets everything recorded so far. Anything recorded while this runs may or may not be
+   * forgotten.
+   */
+  public void reset() {
+    visited.reset();
+    pruned.reset();
+    deduplicated.reset();
+    lookups.reset();
+    peakFrontier.reset();
+    for (LatencyHistogram histogram : phases.values())
+      histogram.reset();
+  }
+
+  /**
+   * Returns the metrics recorded so far. Anything recorded while this runs may or may not be
+   * included, so the counters are only consistent with each other when nothing is running.
+   */
+  public Snapshot snapshot() {
+    final Map<Phase, LatencyHistogram.Snapshot> phaseSnapshots = new EnumMap<>(Phase.class);
+    for (Map.Entry<Phase, LatencyHistogram> e : phases.entrySet())
+      phaseSnapshots.put(e.getKey(), e.getValue().snapshot());
+    return new Snapshot(visited.sum(), pruned.sum(), deduplicated.sum(), lookups.sum(),
+        peakFrontier.get(), phaseSnapshots);
+  }
+
+  @Override
+  public String toString() {
+    return "DefaultSolverMetrics [" + snapshot() + "]";
+  }
+
+  /**
+   * An immutable copy of the metrics at one point in time.
+   */
+  public static final class Snapshot {
+    private final long visited;
+    private final long pruned;
+    private final long deduplicated;
+    private final long lookups;
+    private final long peakFrontier;
+    private final Map<Phase, LatencyHistogram.Snapshot> phases;
+
+    private Snapshot(long visited, long pruned, long deduplicated, long lookups,
+        long peakFrontier, Map<Phase, LatencyHistogram.Snapshot> phases) {
+      this.visited = visited;
+      this.pruned = pruned;
+      this.deduplicated = deduplicated;
+      this.lookups = lookups;
+      this.peakFrontier = peakFrontier;
+      this.phases = unmodifiableMap(phases);
+    }
+
+    /**
+     * @return the number of walks visited
+     */
+    public long getVisited() {
+      return visited;
+    }
+
+    /**
+     * @return the number of walks pruned
+     */
+    public long getPruned() {
+      return pruned;
+    }
+
+    /**
+     * @return the number of walks skipped as duplicates
+     */
+    public long getDeduplicated() {
+      return deduplicated;
+    }
+
+    /**
+     * @return the number of rule set lookups
+     */
+    public long getLookups() {
+      return lookups;
+    }
+
+    /**
+     * @return the largest frontier reported
+     */
+    public long getPeakFrontier() {
+      return peakFrontier;
+    }
+
+    /**
+     * @return the durations of the given phase
+     */
+    public LatencyHistogram.Snapshot getPhase(Phase phase) {
+      if (phase == null)
+        throw new NullPointerException();
+      return phases.get(phase);
+    }
+
+    /**
+     * Flattens this snapshot into named values, e.g., for a monitoring system. The counters are
+     * named {@code visited}, {@code pruned}, {@code deduplicated}, {@code lookups}, and
+     * {@code peakFrontier}. Each phase contributes {@code <phase>.count},
+     * {@code <phase>.totalNanos}, {@code <phase>.maxNanos}, {@code <phase>.p50Nanos},
+     * {@code <phase>.p90Nanos}, and {@code <phase>.p99Nanos}, where {@code <phase>} is the
+     * lower-case name of the phase.
+     */
+    public Map<String, Long> toMap() {
+      final Map<String, Long> result = new LinkedHashMap<>();
+      result.put("visited", visited);
+      result.put("pruned", pruned);
+      result.put("deduplicated", deduplicated);
+      result.put("lookups", lookups);
+      result.put("peakFrontier", peakFrontier);
+      for (Map.Entry<Phase, LatencyHistogram.Snapshot> e : phases.entrySet()) {
+        final String prefix = e.getKey().name().toLowerCase(Locale.ROOT) + ".";
+        final LatencyHistogram.Snapshot phase = e.getValue();
+        result.put(prefix + "count", phase.getCount());
+        result.put(prefix + "totalNanos", phase.getTotalNanos());
+        result.put(prefix + "maxNanos", phase.getMaxNanos());
+        result.put(prefix + "p50Nanos", phase.getPercentileNanos(50.0));
+        result.put(prefix + "p90Nanos", phase.getPercentileNanos(90.0));
+        result.put(prefix + "p99Nanos", phase.getPercentileNanos(99.0));
+      }
+      return unmodifiableMap(result);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(visited, pruned, deduplicated, lookups, peakFrontier, phases);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj)
+        return true;
+      if (obj == null)
+        return false;
+      if (getClass() != obj.getClass())
+        return false;
+      Snapshot other = (Snapshot) obj;
+      return visited == other.visited && pruned == other.pruned
+          && deduplicated == other.deduplicated && lookups == other.lookups
+          && peakFrontier == other.peakFrontier && Objects.equals(phases, other.phases);
+    }
+
+    @Override
+    public String toString() {
+      return "Snapshot [visited=" + visited + ", pruned=" + pruned + ", deduplicated="
+          + deduplicated + ", lookups=" + lookups + ", peakFrontier=" + peakFrontier
+          + ", phases=" + phases + "]";
+    }
+  }
+}
@@ -26,11 +26,17 @@ import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
 import com.sigpwned.horn4j.DeductiveMinimalArgumentSolver;
 import com.sigpwned.horn4j.DeductiveWalk;
 import com.sigpwned.horn4j.DeductiveWalker;
 import com.sigpwned.horn4j.Rule;
 import com.sigpwned.horn4j.RuleSet;
+import com.sigpwned.horn4j.SearchBudget;
+import com.sigpwned.horn4j.SearchResult;
+import com.sigpwned.horn4j.SolverMetrics;
+import com.sigpwned.horn4j.util.Antichains;
 import com.sigpwned.horn4j.util.Lists;
 import com.sigpwned.horn4j.util.Sets;
 
@@ -56,6 +62,7 @@ import com.sigpwned.horn4j.util.Sets;
 public class DirectedPruningDeductiveMinimalArgumentSolver<RuleIdT, PropositionT>
     implements DeductiveMinimalArgumentSolver<RuleIdT, PropositionT> {
   private final DeductiveWalker<RuleIdT, PropositionT> walker;
+  private final SolverMetrics metrics;
 
   public DirectedPruningDeductiveMinimalArgumentSolver() {
     this(new NaiveBreadthFirstDeductiveWalker<>());
@@ -63,74 +70,187 @@ public class DirectedPruningDeductiveMinimalArgumentSolver<RuleIdT, PropositionT
 
   public DirectedPruningDeductiveMinimalArgumentSolver(
       DeductiveWalker<RuleIdT, PropositionT> walker) {
+    this(walker, SolverMetrics.none());
+  }
+
+  /**
+   * @param walker the walker that searches for solutions
+   * @param metrics receives what this solver does. Attach the same metrics to the walker to see
+   *        what it does, too.
+   */
+  public DirectedPruningDeductiveMinimalArgumentSolver(
+      DeductiveWalker<RuleIdT, PropositionT> walker, SolverMetrics metrics) {
     this.walker = requireNonNull(walker);
+    this.metrics = requireNonNull(metrics);
   }
 
   @Override
-  public Set<DeductiveWalk<RuleIdT, PropositionT>> solve(Set<PropositionT> assumptions,
-      RuleSet<RuleIdT, PropositionT> ruleset, Set<PropositionT> goals) {
-    final Set<DeductiveWalk<RuleIdT, PropositionT>> solutions = new HashSet<>();
-
-    getWalker().walk(assumptions, ruleset, (walk) -> {
-      // If we're done, we're done. Prune.
-      if (walk.getConclusions().containsAll(goals)) {
-        // Once we have a solution, we can prune the search space. There's no need to keep going.
-        solutions.add(walk);
-        return DeductiveWalker.Instruction.PRUNE;
-      }
+  public SearchResult<Set<DeductiveWalk<RuleIdT, PropositionT>>> solve(
+      Set<PropositionT> assumptions, RuleSet<RuleIdT, PropositionT> ruleset,
+      Set<PropositionT> goals, SearchBudget budget) {
+    if (budget == null)
+      throw new NullPointerException();
+
+    final SolverMetrics metrics = getMetrics();
+    if (!metrics.isEnabled()) {
+      final SearchResult<Set<DeductiveWalk<RuleIdT, PropositionT>>> found =
+          search(assumptions, ruleset, goals, budget);
+      return SearchResult.of(minimize(found.getResult()), found.getLimit());
+    }
+
+    final SearchResult<Set<DeductiveWalk<RuleIdT, PropositionT>>> found;
+    long start = System.nanoTime();
+    try {
+      found = search(assumptions, MeteredRuleSet.of(ruleset, metrics), goals, budget);
+    } finally {
+      metrics.recordPhase(SolverMetrics.Phase.SEARCH, System.nanoTime() - start);
+    }
+
+    start = System.nanoTime();
+    try {
+      return SearchResult.of(minimize(found.getResult()), found.getLimit());
+    } finally {
+      metrics.recordPhase(SolverMetrics.Phase.MINIMIZE, System.nanoTime() - start);
+    }
+  }
+
+  /**
+   * Checks each solution on its own as soon as the walk finds it, and passes it on right away if it
+   * is minimal, so the listener does not wait for the rest of the search.
+   */
+  @Override
+  public SearchBudget.Limit solve(Set<PropositionT> assumptions,
+      RuleSet<RuleIdT, PropositionT> ruleset, Set<PropositionT> goals, SearchBudget budget,
+      ArgumentListener<RuleIdT, PropositionT> listener) {
+    if (budget == null)
+      throw new NullPointerException();
+    if (listener == null)
+      throw new NullPointerException();
+
+    final MinimalArguments.Emitter<DeductiveWalk<RuleIdT, PropositionT>> emitter =
+        new MinimalArguments.Emitter<>(listener::onArgument);
+
+    final SolverMetrics metrics = getMetrics();
+    if (!metrics.isEnabled())
+      return search(assumptions, ruleset, goals, budget, emitter);
+
+    final long start = System.nanoTime();
+    try {
+      return search(assumptions, MeteredRuleSet.of(ruleset, metrics), goals, budget, emitter);
+    } finally {
+      metrics.recordPhase(SolverMetrics.Phase.SEARCH, System.nanoTime() - start);
+    }
+  }
+
+  /**
+   * @return every solution the walk finds within the budget, minimal or not
+   */
+  private SearchResult<Set<DeductiveWalk<RuleIdT, PropositionT>>> search(
+      Set<PropositionT> assumptions, RuleSet<RuleIdT, PropositionT> ruleset,
+      Set<PropositionT> goals, SearchBudget budget) {
+    // The walker may be parallel, so use a concurrent set.
+    final Set<DeductiveWalk<RuleIdT, PropositionT>> solutions = ConcurrentHashMap.newKeySet();
 
-      // Otherwise, if we're not done, can we easily get to done from here? Try to satisfy each
-      // missing goal (of which there is at least one, per the above) with a single rule. If we can,
-      // then we can prune the search space. If we can't, then we need to keep going. While this
-      // looks like a lot of work, this is at least a directed walk, which is better than the
-      // undirected walk that we get otherwise. Also, each prune here is a significant reduction in
-      // the search space.
-      Set<PropositionT> satisfied = Sets.union(walk.getAssumptions(), walk.getConclusions());
-      List<PropositionT> unsatisfiedGoals =
-          new ArrayList<>(Sets.difference(goals, walk.getConclusions()));
-      List<Set<Rule<RuleIdT, PropositionT>>> unsatisfiedGoalsCandidates = new ArrayList<>();
-      for (int i = 0; i < unsatisfiedGoals.size(); i++) {
-        // This is the goal we're trying to satisfy.
-        PropositionT unsatisfiedGoal = unsatisfiedGoals.get(i);
-
-        // Find all individual eligible rules that can satisfy this goal with the available
-        // satisfied propositions.
-        Set<Rule<RuleIdT, PropositionT>> unsatisfiedGoalCandidates =
-            ruleset.findByConsequent(unsatisfiedGoal).stream()
-                .filter(r -> satisfied.containsAll(r.getAntecedents()))
-                .filter(r -> !walk.getFired().contains(r)).collect(toSet());
-
-        // Is there at least one rule that can satisfy this goal?
-        if (unsatisfiedGoalCandidates.isEmpty()) {
-          // If we can't satisfy any of our goals with just one rule, then we just bail out and
-          // continue the search.
-          return DeductiveWalker.Instruction.CONTINUE;
-        }
-
-        // Otherwise, we have at least one rule that can satisfy this goal. We need to keep track of
-        // all of the rules that can satisfy this goal, so that we can try all combinations of rules
-        // that can satisfy all of the goals.
-        unsatisfiedGoalsCandidates.add(unsatisfiedGoalCandidates);
+    // We only care which rules fired, but we cannot let the walker skip the other orders of each
+    // walk. We prune a walk as soon as we can finish it in one more step, and a minimal solution
+    // that contains a pruned walk may only be reachable in an order that avoids that walk.
+    final SearchBudget.Limit limit = getWalker().walk(assumptions, ruleset,
+        (walk) -> step(walk, ruleset, goals, (solution) -> {
+          solutions.add(solution);
+          return true;
+        }), budget);
+
+    return SearchResult.of(solutions, limit);
+  }
+
+  /**
+   * Passes each minimal solution the walk finds within the budget to the given emitter.
+   * 
+   * @return the limit the walker reached, or {@code null} if it did not run out of budget
+   */
+  private SearchBudget.Limit search(Set<PropositionT> assumptions,
+      RuleSet<RuleIdT, PropositionT> ruleset, Set<PropositionT> goals, SearchBudget budget,
+      MinimalArguments.Emitter<DeductiveWalk<RuleIdT, PropositionT>> emitter) {
+    // Unlike the other search, this one only keeps the minimal solutions, but it still needs the
+    // walker to visit every order of each walk, for the same reason.
+    return getWalker().walk(assumptions, ruleset, (walk) -> step(walk, ruleset, goals,
+        (solution) -> !MinimalArguments.isMinimal(solution, goals) || emitter.emit(solution)),
+        budget);
+  }
+
+  /**
+   * Visits one walk, and passes each solution it leads to to the given predicate, which returns
+   * {@code false} to stop the walk.
+   */
+  private DeductiveWalker.Instruction step(DeductiveWalk<RuleIdT, PropositionT> walk,
+      RuleSet<RuleIdT, PropositionT> ruleset, Set<PropositionT> goals,
+      Predicate<DeductiveWalk<RuleIdT, PropositionT>> solutions) {
+    // If we're done, we're done. Prune.
+    if (walk.getConclusions().containsAll(goals)) {
+      // Once we have a solution, we can prune the search space. There's no need to keep going.
+      if (!solutions.test(walk))
+        return DeductiveWalker.Instruction.STOP;
+      return DeductiveWalker.Instruction.PRUNE;
+    }
+
+    // Otherwise, if we're not done, can we easily get to done from here? Try to satisfy each
+    // missing goal (of which there is at least one, per the above) with a single rule. If we can,
+    // then we can prune the search space. If we can't, then we need to keep going. While this
+    // looks like a lot of work, this is at least a directed walk, which is better than the
+    // undirected walk that we get otherwise. Also, each prune here is a significant reduction in
+    // the search space.
+    Set<PropositionT> satisfied = Sets.union(walk.getAssumptions(), walk.getConclusions());
+    List<PropositionT> unsatisfiedGoals =
+        new ArrayList<>(Sets.difference(goals, walk.getConclusions()));
+    List<Set<Rule<RuleIdT, PropositionT>>> unsatisfiedGoalsCandidates = new ArrayList<>();
+    for (int i = 0; i < unsatisfiedGoals.size(); i++) {
+      // This is the goal we're trying to satisfy.
+      PropositionT unsatisfiedGoal = unsatisfiedGoals.get(i);
+
+      // Find all individual eligible rules that can satisfy this goal with the available
+      // satisfied propositions.
+      Set<Rule<RuleIdT, PropositionT>> unsatisfiedGoalCandidates =
+          ruleset.findByConsequent(unsatisfiedGoal).stream()
+              .filter(r -> satisfied.containsAll(r.getAntecedents()))
+              .filter(r -> !walk.getFired().contains(r)).collect(toSet());
+
+      // Is there at least one rule that can satisfy this goal?
+      if (unsatisfiedGoalCandidates.isEmpty()) {
+        // If we can't satisfy any of our goals with just one rule, then we just bail out and
+        // continue the search.
+        return DeductiveWalker.Instruction.CONTINUE;
       }
 
-      // Every combination of rules that can satisfy all of the goals is a potential solution.
-      List<Set<Rule<RuleIdT, PropositionT>>> product =
-          Lists.cartesianProduct(unsatisfiedGoalsCandidates);
-
-      // For each combination of rules that can satisfy all of the goals, we need to apply all of
-      // those rules to the current walk and record it as a solution.
-      for (Set<Rule<RuleIdT, PropositionT>> rules : product) {
-        DeductiveWalk<RuleIdT, PropositionT> solution = walk;
-        for (Rule<RuleIdT, PropositionT> rule : rules) {
-          solution = solution.step(rule);
-        }
-        solutions.add(solution);
+      // Otherwise, we have at least one rule that can satisfy this goal. We need to keep track of
+      // all of the rules that can satisfy this goal, so that we can try all combinations of rules
+      // that can satisfy all of the goals.
+      unsatisfiedGoalsCandidates.add(unsatisfiedGoalCandidates);
+    }
+
+    // Every combination of rules that can satisfy all of the goals is a potential solution.
+    List<Set<Rule<RuleIdT, PropositionT>>> product =
+        Lists.cartesianProduct(unsatisfiedGoalsCandidates);
+
+    // For each combination of rules that can satisfy all of the goals, we need to apply all of
+    // those rules to the current walk and record it as a solution.
+    for (Set<Rule<RuleIdT, PropositionT>> rules : product) {
+      DeductiveWalk<RuleIdT, PropositionT> solution = walk;
+      for (Rule<RuleIdT, PropositionT> rule : rules) {
+        solution = solution.step(rule);
       }
+      if (!solutions.test(solution))
+        return DeductiveWalker.Instruction.STOP;
+    }
 
-      // Prune the space!
-      return DeductiveWalker.Instruction.PRUNE;
-    });
+    // Prune the space!
+    return DeductiveWalker.Instruction.PRUNE;
+  }
 
+  /**
+   * @return the solutions that do not contain any other solution
+   */
+  private Set<DeductiveWalk<RuleIdT, PropositionT>> minimize(
+      Set<DeductiveWalk<RuleIdT, PropositionT>> solutions) {
     // If there are no solutions, then return an empty set.
     if (solutions.isEmpty()) {
       return Sets.of();
@@ -143,15 +263,20 @@ public class DirectedPruningDeductiveMinimalArgumentSolver<RuleIdT, PropositionT
       return Sets.of(solution);
     }
 
-    // Otherwise, we need to filter out any solutions that are subsumed by other solutions.
-    final Set<DeductiveWalk<RuleIdT, PropositionT>> minimalSolutions = solutions.stream()
-        .filter(s1 -> solutions.stream().noneMatch(s2 -> s2 != s1 && s1.contains(s2)))
-        .collect(toSet());
+    // Otherwise, we need to filter out any solutions that are subsumed by other solutions. Every
+    // solution starts from the same assumptions, and concludes exactly the consequents of the rules
+    // it fired, so one solution contains another if and only if its rules do.
+    final List<DeductiveWalk<RuleIdT, PropositionT>> minimalSolutions =
+        Antichains.minimal(solutions, DeductiveWalk::getFired);
 
-    return unmodifiableSet(minimalSolutions);
+    return unmodifiableSet(new HashSet<>(minimalSolutions));
   }
 
   private DeductiveWalker<RuleIdT, PropositionT> getWalker() {
     return walker;
   }
+
+  private SolverMetrics getMetrics() {
+    return metrics;
+  }
 }
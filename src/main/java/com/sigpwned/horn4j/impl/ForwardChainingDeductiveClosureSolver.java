@@ -0,0 +1,435 @@
+/*-
+ * =================================LICENSE_START==================================
+ * horn4j
+ * ====================================SECTION=====================================
+ * Copyright (C) 2024 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.horn4j.impl;
+
+import static java.util.Objects.requireNonNull;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import com.sigpwned.horn4j.DeductiveClosureSolver;
+import com.sigpwned.horn4j.DeductiveWalk;
+import com.sigpwned.horn4j.IndexedRuleSet;
+import com.sigpwned.horn4j.PropositionDictionary;
+import com.sigpwned.horn4j.Rule;
+import com.sigpwned.horn4j.RuleSet;
+import com.sigpwned.horn4j.SearchBudget;
+import com.sigpwned.horn4j.SearchResult;
+import com.sigpwned.horn4j.SolverMetrics;
+import com.sigpwned.horn4j.util.Sets;
+
+/**
+ * Computes the deductive closure of a set of assumptions by forward chaining, after Dowling and
+ * Gallier's linear-time algorithm for Horn satisfiability.
+ * 
+ * <p>
+ * Each rule keeps a counter of its antecedents that are not satisfied yet. Every newly-satisfied
+ * proposition goes onto an agenda, and taking a proposition off the agenda decrements the counter
+ * of each rule that mentions it. A rule fires when its counter reaches zero. Each proposition is
+ * placed on the agenda at most once, and each antecedent of each rule is counted down at most once,
+ * so the solver runs in time linear in the total size of the rule set. By comparison,
+ * {@link NaiveDeductiveClosureSolver} enumerates every order in which the rules can fire.
+ * 
+ * <p>
+ * The result is the same walk that {@link NaiveDeductiveClosureSolver} returns, with the rules
+ * listed in the order they fired. A rule fires in some walk if and only if its antecedents follow
+ * from the assumptions without its consequent, since no walk concludes a proposition twice. That
+ * is always so for a rule whose antecedents were all satisfied before its consequent, because the
+ * solver only ever derives a proposition from propositions it satisfied earlier. A rule whose
+ * counter only reaches zero after its consequent is satisfied may be circular, though, e.g., if
+ * one of its antecedents follows from its own consequent. The solver sets such rules aside, and
+ * once the agenda is empty, checks them with one more pass per consequent that never concludes
+ * that consequent, and lists the rules that pass last. So the solver takes linear time, plus one
+ * linear pass for each consequent that some rule only reaches after it is satisfied.
+ * 
+ * <p>
+ * If the rule set is an {@link IndexedRuleSet}, then the solver keeps its counters and agenda in
+ * arrays indexed by rule and proposition identifiers, and only decodes the fired rules when it
+ * builds the result.
+ * 
+ * @param <RuleIdT> The type of the rule identifiers.
+ * @param <PropositionT> The type of the propositions.
+ */
+public class ForwardChainingDeductiveClosureSolver<RuleIdT, PropositionT>
+    implements DeductiveClosureSolver<RuleIdT, PropositionT> {
+  private final SolverMetrics metrics;
+
+  public ForwardChainingDeductiveClosureSolver() {
+    this(SolverMetrics.none());
+  }
+
+  /**
+   * @param metrics receives what this solver does. The size of the agenda is reported as the
+   *        frontier.
+   */
+  public ForwardChainingDeductiveClosureSolver(SolverMetrics metrics) {
+    this.metrics = requireNonNull(metrics);
+  }
+
+  /**
+   * Each proposition taken off the agenda spends one visit of the budget, including in the passes
+   * that check rules that may be circular, and the size of the agenda counts as the frontier. If
+   * the solver runs out of budget, then the partial result holds the rules that fired and the
+   * propositions they concluded so far.
+   */
+  @Override
+  public SearchResult<DeductiveWalk<RuleIdT, PropositionT>> deduct(Set<PropositionT> assumptions,
+      RuleSet<RuleIdT, PropositionT> rules, SearchBudget budget) {
+    if (assumptions == null)
+      throw new NullPointerException();
+    if (rules == null)
+      throw new NullPointerException();
+    if (budget == null)
+      throw new NullPointerException();
+
+    final SearchBudget.Tracker tracker = budget.isUnlimited() ? null : budget.start();
+
+    final SolverMetrics metrics = getMetrics();
+    final DeductiveWalk<RuleIdT, PropositionT> result;
+    if (!metrics.isEnabled()) {
+      result = chain(assumptions, rules, null, tracker);
+    } else {
+      final long start = System.nanoTime();
+      try {
+        result = chain(assumptions, MeteredRuleSet.of(rules, metrics), metrics, tracker);
+      } finally {
+        metrics.recordPhase(SolverMetrics.Phase.SEARCH, System.nanoTime() - start);
+      }
+    }
+
+    return SearchResult.of(result, tracker != null ? tracker.getLimit() : null);
+  }
+
+  /**
+   * @param metrics the metrics to report to, or {@code null} to report nothing
+   * @param tracker the budget to spend, or {@code null} if the budget is unlimited
+   */
+  private DeductiveWalk<RuleIdT, PropositionT> chain(Set<PropositionT> assumptions,
+      RuleSet<RuleIdT, PropositionT> rules, SolverMetrics metrics,
+      SearchBudget.Tracker tracker) {
+    if (rules instanceof IndexedRuleSet)
+      return chain(assumptions, (IndexedRuleSet<RuleIdT, PropositionT>) rules, metrics, tracker);
+
+    final Set<PropositionT> conclusions = new LinkedHashSet<>();
+    final LinkedHashSet<Rule<RuleIdT, PropositionT>> fired = new LinkedHashSet<>();
+    final Deque<PropositionT> agenda = new ArrayDeque<>(assumptions);
+    final Map<Rule<RuleIdT, PropositionT>, Integer> unsatisfied = new HashMap<>();
+
+    // When each proposition was satisfied. The assumptions come first, then each conclusion.
+    final Map<PropositionT, Integer> satisfiedAt = new HashMap<>();
+    for (PropositionT assumption : assumptions)
+      satisfiedAt.put(assumption, 0);
+
+    // The rules that may be circular, by consequent.
+    final Map<PropositionT, List<Rule<RuleIdT, PropositionT>>> circular = new LinkedHashMap<>();
+
+    // Rules with no antecedents are satisfied before we learn anything at all.
+    for (Rule<RuleIdT, PropositionT> rule : rules.findByExactAntecedents(Sets.of())) {
+      fire(rule, assumptions, fired, conclusions, agenda, satisfiedAt);
+    }
+
+    while (!agenda.isEmpty()) {
+      if (metrics != null)
+        metrics.recordFrontier(agenda.size());
+      if (tracker != null && !(tracker.frontier(agenda.size()) && tracker.visit()))
+        break;
+      PropositionT proposition = agenda.poll();
+      for (Rule<RuleIdT, PropositionT> rule : rules.findByAntecedent(proposition)) {
+        // The first time we see a rule, its counter starts at its number of antecedents.
+        int remaining = unsatisfied.compute(rule,
+            (r, n) -> (n == null ? r.getAntecedents().size() : n.intValue()) - 1);
+        if (remaining == 0) {
+          if (isCircular(rule, assumptions, satisfiedAt)) {
+            circular.computeIfAbsent(rule.getConsequent(), c -> new ArrayList<>()).add(rule);
+          } else {
+            fire(rule, assumptions, fired, conclusions, agenda, satisfiedAt);
+          }
+        }
+      }
+    }
+
+    // A rule that may be circular fires if its antecedents follow without its consequent.
+    for (Map.Entry<PropositionT, List<Rule<RuleIdT, PropositionT>>> entry : circular.entrySet()) {
+      final Set<PropositionT> closure = closureWithout(assumptions, rules, entry.getKey(), tracker);
+      if (closure == null)
+        break;
+      for (Rule<RuleIdT, PropositionT> rule : entry.getValue())
+        if (closure.containsAll(rule.getAntecedents()))
+          fired.add(rule);
+    }
+
+    return new DeductiveWalk<>(assumptions, fired, conclusions);
+  }
+
+  /**
+   * @return {@code true} if the given rule, whose antecedents are all satisfied, has a consequent
+   *         that some rule concluded no later than one of those antecedents
+   */
+  private static <RuleIdT, PropositionT> boolean isCircular(Rule<RuleIdT, PropositionT> rule,
+      Set<PropositionT> assumptions, Map<PropositionT, Integer> satisfiedAt) {
+    final PropositionT consequent = rule.getConsequent();
+    if (assumptions.contains(consequent))
+      return false;
+    final Integer concludedAt = satisfiedAt.get(consequent);
+    if (concludedAt == null)
+      return false;
+    for (PropositionT antecedent : rule.getAntecedents())
+      if (satisfiedAt.get(antecedent) >= concludedAt)
+        return true;
+    return false;
+  }
+
+  /**
+   * @return the propositions that follow from the given assumptions without ever concluding the
+   *         given proposition, or {@code null} if the budget runs out first
+   */
+  private static <RuleIdT, PropositionT> Set<PropositionT> closureWithout(
+      Set<PropositionT> assumptions, RuleSet<RuleIdT, PropositionT> rules, PropositionT excluded,
+      SearchBudget.Tracker tracker) {
+    final Set<PropositionT> result = new HashSet<>(assumptions);
+    final Deque<PropositionT> agenda = new ArrayDeque<>(assumptions);
+    final Map<Rule<RuleIdT, PropositionT>, Integer> unsatisfied = new HashMap<>();
+
+    for (Rule<RuleIdT, PropositionT> rule : rules.findByExactAntecedents(Sets.of()))
+      if (!rule.getConsequent().equals(excluded) && result.add(rule.getConsequent()))
+        agenda.add(rule.getConsequent());
+
+    while (!agenda.isEmpty()) {
+      if (tracker != null && !tracker.visit())
+        return null;
+      final PropositionT proposition = agenda.poll();
+      for (Rule<RuleIdT, PropositionT> rule : rules.findByAntecedent(proposition)) {
+        final int remaining = unsatisfied.compute(rule,
+            (r, n) -> (n == null ? r.getAntecedents().size() : n.intValue()) - 1);
+        if (remaining == 0 && !rule.getConsequent().equals(excluded)
+            && result.add(rule.getConsequent()))
+          agenda.add(rule.getConsequent());
+      }
+    }
+
+    return result;
+  }
+
+  private DeductiveWalk<RuleIdT, PropositionT> chain(Set<PropositionT> assumptions,
+      IndexedRuleSet<RuleIdT, PropositionT> rules, SolverMetrics metrics,
+      SearchBudget.Tracker tracker) {
+    final PropositionDictionary<PropositionT> dictionary = rules.getDictionary();
+
+    // The dictionary may grow while we work if it is shared, but our rules never mention any
+    // propositions added after we start.
+    final int propositionCount = dictionary.size();
+    final boolean[] assumed = new boolean[propositionCount];
+    final boolean[] satisfied = new boolean[propositionCount];
+    final int[] agenda = new int[propositionCount];
+    int head = 0, tail = 0;
+
+    // Each proposition goes on the agenda when it is satisfied, so its place on the agenda tells
+    // us when that was, and the assumptions come first.
+    final int[] satisfiedAt = new int[propositionCount];
+
+    for (PropositionT assumption : assumptions) {
+      // Assumptions that are not in the dictionary do not appear in any rules.
+      final int p = dictionary.lookup(assumption);
+      if (p != PropositionDictionary.NO_ID && p < propositionCount && !satisfied[p]) {
+        assumed[p] = true;
+        satisfied[p] = true;
+        satisfiedAt[p] = tail;
+        agenda[tail++] = p;
+      }
+    }
+    final int assumedCount = tail;
+
+    final int ruleCount = rules.getRuleCount();
+    final int[] unsatisfied = new int[ruleCount];
+    for (int r = 0; r < ruleCount; r++)
+      unsatisfied[r] = rules.getAntecedentCount(r);
+
+    final int[] fired = new int[ruleCount];
+    int firedCount = 0;
+
+    // Rules with no antecedents are satisfied before we learn anything at all.
+    for (int i = 0, n = rules.getUnconditionalRuleCount(); i < n; i++) {
+      final int r = rules.getUnconditionalRule(i);
+      final int c = rules.getConsequent(r);
+      // We're assuming the consequent of this rule is true, so we never need to prove it.
+      if (!assumed[c]) {
+        fired[firedCount++] = r;
+        if (!satisfied[c]) {
+          satisfied[c] = true;
+          satisfiedAt[c] = tail;
+          agenda[tail++] = c;
+        }
+      }
+    }
+
+    // The rules that may be circular.
+    int[] circular = new int[0];
+    int circularCount = 0;
+
+    while (head < tail) {
+      if (metrics != null)
+        metrics.recordFrontier(tail - head);
+      if (tracker != null && !(tracker.frontier(tail - head) && tracker.visit()))
+        break;
+      final int p = agenda[head++];
+      for (int i = 0, n = rules.getRuleCountByAntecedent(p); i < n; i++) {
+        final int r = rules.getRuleByAntecedent(p, i);
+        unsatisfied[r] = unsatisfied[r] - 1;
+        if (unsatisfied[r] == 0) {
+          final int c = rules.getConsequent(r);
+          if (assumed[c])
+            continue;
+          if (!satisfied[c]) {
+            fired[firedCount++] = r;
+            // Only put each proposition on the agenda once, no matter how many rules conclude it.
+            satisfied[c] = true;
+            satisfiedAt[c] = tail;
+            agenda[tail++] = c;
+          } else if (isCircular(rules, r, satisfiedAt)) {
+            if (circularCount == circular.length)
+              circular = Arrays.copyOf(circular, Math.max(4, circularCount * 2));
+            circular[circularCount++] = r;
+          } else {
+            fired[firedCount++] = r;
+          }
+        }
+      }
+    }
+
+    // A rule that may be circular fires if its antecedents follow without its consequent. Check
+    // the rules with the same consequent together, in the order we found them.
+    final long[] byConsequent = new long[circularCount];
+    for (int i = 0; i < circularCount; i++)
+      byConsequent[i] = ((long) rules.getConsequent(circular[i]) << 32) | i;
+    Arrays.sort(byConsequent);
+    boolean[] closure = null;
+    for (int i = 0; i < circularCount; i++) {
+      final int r = circular[(int) byConsequent[i]];
+      final int c = rules.getConsequent(r);
+      if (i == 0 || c != rules.getConsequent(circular[(int) byConsequent[i - 1]])) {
+        closure = closureWithout(rules, agenda, assumedCount, propositionCount, c, tracker);
+        if (closure == null)
+          break;
+      }
+      boolean follows = true;
+      for (int j = 0, n = rules.getAntecedentCount(r); j < n && follows; j++)
+        follows = closure[rules.getAntecedent(r, j)];
+      if (follows)
+        fired[firedCount++] = r;
+    }
+
+    final LinkedHashSet<Rule<RuleIdT, PropositionT>> firedRules = new LinkedHashSet<>();
+    final Set<PropositionT> conclusions = new LinkedHashSet<>();
+    for (int i = 0; i < firedCount; i++) {
+      final Rule<RuleIdT, PropositionT> rule = rules.getRule(fired[i]);
+      firedRules.add(rule);
+      conclusions.add(rule.getConsequent());
+    }
+
+    return new DeductiveWalk<>(assumptions, firedRules, conclusions);
+  }
+
+  /**
+   * @return {@code true} if the given rule, whose antecedents and consequent are all satisfied,
+   *         has an antecedent that was satisfied no earlier than its consequent
+   */
+  private static boolean isCircular(IndexedRuleSet<?, ?> rules, int r, int[] satisfiedAt) {
+    final int concludedAt = satisfiedAt[rules.getConsequent(r)];
+    for (int j = 0, n = rules.getAntecedentCount(r); j < n; j++)
+      if (satisfiedAt[rules.getAntecedent(r, j)] >= concludedAt)
+        return true;
+    return false;
+  }
+
+  /**
+   * @param assumptions holds the identifiers of the assumptions in its first {@code assumedCount}
+   *        elements
+   * @return which propositions follow from the given assumptions without ever concluding the given
+   *         proposition, or {@code null} if the budget runs out first
+   */
+  private static boolean[] closureWithout(IndexedRuleSet<?, ?> rules, int[] assumptions,
+      int assumedCount, int propositionCount, int excluded, SearchBudget.Tracker tracker) {
+    final boolean[] result = new boolean[propositionCount];
+    final int[] agenda = new int[propositionCount];
+    int head = 0, tail = 0;
+
+    for (int i = 0; i < assumedCount; i++) {
+      result[assumptions[i]] = true;
+      agenda[tail++] = assumptions[i];
+    }
+
+    for (int i = 0, n = rules.getUnconditionalRuleCount(); i < n; i++) {
+      final int c = rules.getConsequent(rules.getUnconditionalRule(i));
+      if (c != excluded && !result[c]) {
+        result[c] = true;
+        agenda[tail++] = c;
+      }
+    }
+
+    final int[] unsatisfied = new int[rules.getRuleCount()];
+    for (int r = 0; r < unsatisfied.length; r++)
+      unsatisfied[r] = rules.getAntecedentCount(r);
+
+    while (head < tail) {
+      if (tracker != null && !tracker.visit())
+        return null;
+      final int p = agenda[head++];
+      for (int i = 0, n = rules.getRuleCountByAntecedent(p); i < n; i++) {
+        final int r = rules.getRuleByAntecedent(p, i);
+        unsatisfied[r] = unsatisfied[r] - 1;
+        final int c = rules.getConsequent(r);
+        if (unsatisfied[r] == 0 && c != excluded && !result[c]) {
+          result[c] = true;
+          agenda[tail++] = c;
+        }
+      }
+    }
+
+    return result;
+  }
+
+  private void fire(Rule<RuleIdT, PropositionT> rule, Set<PropositionT> assumptions,
+      Set<Rule<RuleIdT, PropositionT>> fired, Set<PropositionT> conclusions,
+      Deque<PropositionT> agenda, Map<PropositionT, Integer> satisfiedAt) {
+    if (assumptions.contains(rule.getConsequent())) {
+      // We're assuming the consequent of this rule is true, so we never need to prove it.
+      return;
+    }
+
+    fired.add(rule);
+
+    // Only put each proposition on the agenda once, no matter how many rules conclude it.
+    if (conclusions.add(rule.getConsequent())) {
+      satisfiedAt.put(rule.getConsequent(), conclusions.size());
+      agenda.add(rule.getConsequent());
+    }
+  }
+
+  private SolverMetrics getMetrics() {
+    return metrics;
+  }
+}
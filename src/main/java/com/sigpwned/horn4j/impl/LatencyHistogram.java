@@ -0,0 +1,206 @@
+/*-
+ * =================================LICENSE_START==================================
+ * horn4j
+ * ====================================SECTION=====================================
+ * Copyright (C) 2024 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.horn4j.impl;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A histogram of durations in nanoseconds, with one bucket per power of two. Bucket {@code 0} holds
+ * durations of zero, and bucket {@code i > 0} holds durations from {@code 2^(i-1)} to
+ * {@code 2^i - 1}, inclusive. Percentiles are only accurate to within a factor of two, but
+ * recording a duration costs a couple of uncontended increments, whatever the number of threads
+ * recording at once.
+ */
+public final class LatencyHistogram {
+  /**
+   * The number of buckets, enough for any non-negative {@code long}.
+   */
+  public static final int BUCKET_COUNT = 64;
+
+  /**
+   * @return the bucket that holds the given duration
+   */
+  public static int bucketOf(long nanos) {
+    return nanos <= 0L ? 0 : 64 - Long.numberOfLeadingZeros(nanos);
+  }
+
+  /**
+   * @return the largest duration that the given bucket holds
+   */
+  public static long bucketUpperBound(int bucket) {
+    if (bucket < 0 || bucket >= BUCKET_COUNT)
+      throw new IndexOutOfBoundsException(Integer.toString(bucket));
+    return bucket == BUCKET_COUNT - 1 ? Long.MAX_VALUE : (1L << bucket) - 1L;
+  }
+
+  private final LongAdder[] buckets;
+  private final LongAdder sum;
+  private final LongAccumulator max;
+
+  public LatencyHistogram() {
+    this.buckets = new LongAdder[BUCKET_COUNT];
+    for (int i = 0; i < BUCKET_COUNT; i++)
+      this.buckets[i] = new LongAdder();
+    this.sum = new LongAdder();
+    this.max = new LongAccumulator(Math::max, 0L);
+  }
+
+  /**
+   * Records the given duration. Negative durations, which a clock that is not monotonic may
+   * produce, count as zero.
+   */
+  public void record(long nanos) {
+    final long duration = Math.max(0L, nanos);
+    buckets[bucketOf(duration)].increment();
+    sum.add(duration);
+    max.accumulate(duration);
+  }
+
+  /**
+   * Forgets every duration recorded so far. Durations recorded while this runs may or may not be
+   * forgotten.
+   */
+  public void reset() {
+    for (LongAdder bucket : buckets)
+      bucket.reset();
+    sum.reset();
+    max.reset();
+  }
+
+  /**
+   * Returns the durations recorded so far. Durations recorded while this runs may or may not be
+   * included.
+   */
+  public Snapshot snapshot() {
+    final long[] counts = new long[BUCKET_COUNT];
+    for (int i = 0; i < BUCKET_COUNT; i++)
+      counts[i] = buckets[i].sum();
+    return new Snapshot(counts, sum.sum(), max.get());
+  }
+
+  @Override
+  public String toString() {
+    return "LatencyHistogram [" + snapshot() + "]";
+  }
+
+  /**
+   * An immutable copy of a histogram at one point in time.
+   */
+  public static final class Snapshot {
+    private final long[] counts;
+    private final long count;
+    private final long totalNanos;
+    private final long maxNanos;
+
+    private Snapshot(long[] counts, long totalNanos, long maxNanos) {
+      this.counts = counts;
+      this.count = Arrays.stream(counts).sum();
+      this.totalNanos = totalNanos;
+      this.maxNanos = maxNanos;
+    }
+
+    /**
+     * @return the number of durations recorded
+     */
+    public long getCount() {
+      return count;
+    }
+
+    /**
+     * @return the number of durations in the given bucket
+     */
+    public long getBucketCount(int bucket) {
+      if (bucket < 0 || bucket >= BUCKET_COUNT)
+        throw new IndexOutOfBoundsException(Integer.toString(bucket));
+      return counts[bucket];
+    }
+
+    /**
+     * @return the sum of the durations recorded, in nanoseconds
+     */
+    public long getTotalNanos() {
+      return totalNanos;
+    }
+
+    /**
+     * @return the longest duration recorded, in nanoseconds, or zero if there are none
+     */
+    public long getMaxNanos() {
+      return maxNanos;
+    }
+
+    /**
+     * @return the mean duration, in nanoseconds, or zero if there are none
+     */
+    public double getMeanNanos() {
+      return count == 0L ? 0.0 : (double) totalNanos / count;
+    }
+
+    /**
+     * Returns an upper bound for the given percentile of the durations recorded, i.e., the upper
+     * bound of the bucket that holds it, but never more than the longest duration recorded.
+     * 
+     * @param percentile the percentile, from 0 to 100
+     * @return the upper bound, in nanoseconds, or zero if there are no durations
+     */
+    public long getPercentileNanos(double percentile) {
+      if (!(percentile >= 0.0 && percentile <= 100.0))
+        throw new IllegalArgumentException("percentile must be between 0 and 100");
+      if (count == 0L)
+        return 0L;
+      final long rank = Math.max(1L, (long) Math.ceil(percentile / 100.0 * count));
+      long seen = 0L;
+      for (int i = 0; i < BUCKET_COUNT; i++) {
+        seen = seen + counts[i];
+        if (seen >= rank)
+          return Math.min(bucketUpperBound(i), maxNanos);
+      }
+      return maxNanos;
+    }
+
+    @Override
+    public int hashCode() {
+      return Arrays.hashCode(counts) * 31 + Long.hashCode(totalNanos) * 17
+          + Long.hashCode(maxNanos);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj)
+        return true;
+      if (obj == null)
+        return false;
+      if (getClass() != obj.getClass())
+        return false;
+      Snapshot other = (Snapshot) obj;
+      return Arrays.equals(counts, other.counts) && totalNanos == other.totalNanos
+          && maxNanos == other.maxNanos;
+    }
+
+    @Override
+    public String toString() {
+      return "Snapshot [count=" + count + ", totalNanos=" + totalNanos + ", maxNanos=" + maxNanos
+          + ", p50Nanos=" + getPercentileNanos(50.0) + ", p99Nanos=" + getPercentileNanos(99.0)
+          + "]";
+    }
+  }
+}
@@ -0,0 +1,137 @@
+/*-
+ * =================================LICENSE_START==================================
+ * horn4j
+ * ====================================SECTION=====================================
+ * Copyright (C) 2024 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.horn4j.impl;
+
+import java.util.Objects;
+
+/**
+ * Tells a walker whether to remember the states it has already expanded, so that it can skip
+ * expanding them again when it reaches them along a different path. This pays off on rule bases
+ * with many diamonds, where most of the states a walker reaches are duplicates.
+ * 
+ * <p>
+ * A walker remembers states by a fingerprint that leaves out the order and choice of rules that
+ * led to them. The walker documents what its fingerprint contains. Every walk that grows from a
+ * skipped state is also skipped, so a visitor that uses memoization must be content to see the
+ * walks that grow from only one walk per fingerprint. A visitor that collects every rule that fires
+ * should ask the walker to report duplicates, since the last rule of a duplicate walk may not fire
+ * in any other walk.
+ * 
+ * <p>
+ * The table of remembered states is bounded by an estimate of its memory use. Once it is full, the
+ * walker stops remembering new states and expands them as if memoization were disabled, so a
+ * small budget costs time, but never correctness.
+ */
+public final class Memoization {
+  /**
+   * The default memory budget for the table of remembered states, in bytes.
+   */
+  public static final long DEFAULT_MAX_BYTES = 64L * 1024L * 1024L;
+
+  private static final Memoization DISABLED = new Memoization(false, 0L, false);
+
+  /**
+   * @return memoization that never remembers any states
+   */
+  public static Memoization disabled() {
+    return DISABLED;
+  }
+
+  /**
+   * @return memoization with the default memory budget, which does not report duplicates
+   */
+  public static Memoization enabled() {
+    return enabled(DEFAULT_MAX_BYTES, false);
+  }
+
+  /**
+   * @param maxBytes the memory budget for the table of remembered states, in bytes
+   * @param reportDuplicates whether to show duplicate states to the visitor, even though they are
+   *        not expanded. Each duplicate shown still spends a visit of the search budget.
+   */
+  public static Memoization enabled(long maxBytes, boolean reportDuplicates) {
+    if (maxBytes < 0L)
+      throw new IllegalArgumentException("maxBytes must not be negative");
+    return new Memoization(true, maxBytes, reportDuplicates);
+  }
+
+  private final boolean enabled;
+  private final long maxBytes;
+  private final boolean reportDuplicates;
+
+  private Memoization(boolean enabled, long maxBytes, boolean reportDuplicates) {
+    this.enabled = enabled;
+    this.maxBytes = maxBytes;
+    this.reportDuplicates = reportDuplicates;
+  }
+
+  /**
+   * @return whether walkers should remember the states they expand
+   */
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * @return the memory budget for the table of remembered states, in bytes
+   */
+  public long getMaxBytes() {
+    return maxBytes;
+  }
+
+  /**
+   * @return whether walkers should show duplicate states to the visitor
+   */
+  public boolean isReportDuplicates() {
+    return reportDuplicates;
+  }
+
+  /**
+   * @return a new, empty table that follows this policy, or {@code null} if memoization is
+   *         disabled
+   */
+  <K> VisitedStateTable<K> newTable() {
+    return isEnabled() ? new VisitedStateTable<>(getMaxBytes()) : null;
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(enabled, maxBytes, reportDuplicates);
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj)
+      return true;
+    if (obj == null)
+      return false;
+    if (getClass() != obj.getClass())
+      return false;
+    Memoization other = (Memoization) obj;
+    return enabled == other.enabled && maxBytes == other.maxBytes
+        && reportDuplicates == other.reportDuplicates;
+  }
+
+  @Override
+  public String toString() {
+    return "Memoization [enabled=" + enabled + ", maxBytes=" + maxBytes + ", reportDuplicates="
+        + reportDuplicates + "]";
+  }
+}
@@ -0,0 +1,189 @@
+/*-
+ * =================================LICENSE_START==================================
+ * horn4j
+ * ====================================SECTION=====================================
+ * Copyright (C) 2024 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.horn4j.impl;
+
+import static java.util.Objects.requireNonNull;
+import java.util.Set;
+import com.sigpwned.horn4j.IndexedRuleSet;
+import com.sigpwned.horn4j.PropositionDictionary;
+import com.sigpwned.horn4j.Rule;
+import com.sigpwned.horn4j.RuleSet;
+import com.sigpwned.horn4j.SolverMetrics;
+
+/**
+ * A {@link RuleSet} that reports each lookup to a {@link SolverMetrics}, and otherwise defers to
+ * another rule set. A lookup is a call to one of the {@code find} methods, or, for an
+ * {@link IndexedRuleSet}, a call that starts a scan of one of its indexes, i.e., a call to
+ * {@link IndexedRuleSet#getRuleCountByAntecedent(int)},
+ * {@link IndexedRuleSet#getRuleCountByConsequent(int)}, or
+ * {@link IndexedRuleSet#getUnconditionalRuleCount()}. Reading the rules or the entries of an index
+ * is not a lookup.
+ * 
+ * @param <RuleIdT> the type of the rule identifiers
+ * @param <PropositionT> the type of the propositions
+ */
+class MeteredRuleSet<RuleIdT, PropositionT> implements RuleSet<RuleIdT, PropositionT> {
+  /**
+   * Wraps the given rule set so that it reports its lookups to the given metrics. If the rule set
+   * is an {@link IndexedRuleSet}, then so is the result. If the rule set already reports to the
+   * given metrics, e.g., because a solver passed it to its walker, then it is returned as is, so
+   * that each lookup is only reported once.
+   */
+  @SuppressWarnings("unchecked")
+  public static <RuleIdT, PropositionT> RuleSet<RuleIdT, PropositionT> of(
+      RuleSet<RuleIdT, PropositionT> delegate, SolverMetrics metrics) {
+    if (delegate instanceof MeteredRuleSet
+        && ((MeteredRuleSet<RuleIdT, PropositionT>) delegate).metrics == metrics)
+      return delegate;
+    if (delegate instanceof IndexedRuleSet)
+      return new Indexed<>((IndexedRuleSet<RuleIdT, PropositionT>) delegate, metrics);
+    return new MeteredRuleSet<>(delegate, metrics);
+  }
+
+  private final RuleSet<RuleIdT, PropositionT> delegate;
+  protected final SolverMetrics metrics;
+
+  private MeteredRuleSet(RuleSet<RuleIdT, PropositionT> delegate, SolverMetrics metrics) {
+    this.delegate = requireNonNull(delegate);
+    this.metrics = requireNonNull(metrics);
+  }
+
+  @Override
+  public Set<Rule<RuleIdT, PropositionT>> findByExactAntecedents(Set<PropositionT> propositions) {
+    metrics.recordLookups(1L);
+    return delegate.findByExactAntecedents(propositions);
+  }
+
+  @Override
+  public Set<Rule<RuleIdT, PropositionT>> findBySatisfiedAntecedents(
+      Set<PropositionT> propositions) {
+    metrics.recordLookups(1L);
+    return delegate.findBySatisfiedAntecedents(propositions);
+  }
+
+  @Override
+  public Set<Rule<RuleIdT, PropositionT>> findByAntecedent(PropositionT proposition) {
+    metrics.recordLookups(1L);
+    return delegate.findByAntecedent(proposition);
+  }
+
+  @Override
+  public Set<Rule<RuleIdT, PropositionT>> findByNewlySatisfiedAntecedents(
+      Set<PropositionT> satisfied, PropositionT proposition) {
+    metrics.recordLookups(1L);
+    return delegate.findByNewlySatisfiedAntecedents(satisfied, proposition);
+  }
+
+  @Override
+  public Set<Rule<RuleIdT, PropositionT>> findByConsequent(PropositionT proposition) {
+    metrics.recordLookups(1L);
+    return delegate.findByConsequent(proposition);
+  }
+
+  @Override
+  public Set<Rule<RuleIdT, PropositionT>> findBySignature(Set<PropositionT> antecedents,
+      PropositionT consequent) {
+    metrics.recordLookups(1L);
+    return delegate.findBySignature(antecedents, consequent);
+  }
+
+  @Override
+  public String toString() {
+    return "MeteredRuleSet [delegate=" + delegate + "]";
+  }
+
+  private static class Indexed<RuleIdT, PropositionT> extends MeteredRuleSet<RuleIdT, PropositionT>
+      implements IndexedRuleSet<RuleIdT, PropositionT> {
+    private final IndexedRuleSet<RuleIdT, PropositionT> delegate;
+
+    public Indexed(IndexedRuleSet<RuleIdT, PropositionT> delegate, SolverMetrics metrics) {
+      super(delegate, metrics);
+      this.delegate = delegate;
+    }
+
+    @Override
+    public PropositionDictionary<PropositionT> getDictionary() {
+      return delegate.getDictionary();
+    }
+
+    @Override
+    public int getRuleCount() {
+      return delegate.getRuleCount();
+    }
+
+    @Override
+    public Rule<RuleIdT, PropositionT> getRule(int rule) {
+      return delegate.getRule(rule);
+    }
+
+    @Override
+    public int indexOf(Rule<RuleIdT, PropositionT> rule) {
+      return delegate.indexOf(rule);
+    }
+
+    @Override
+    public int getConsequent(int rule) {
+      return delegate.getConsequent(rule);
+    }
+
+    @Override
+    public int getAntecedentCount(int rule) {
+      return delegate.getAntecedentCount(rule);
+    }
+
+    @Override
+    public int getAntecedent(int rule, int index) {
+      return delegate.getAntecedent(rule, index);
+    }
+
+    @Override
+    public int getRuleCountByAntecedent(int proposition) {
+      metrics.recordLookups(1L);
+      return delegate.getRuleCountByAntecedent(proposition);
+    }
+
+    @Override
+    public int getRuleByAntecedent(int proposition, int index) {
+      return delegate.getRuleByAntecedent(proposition, index);
+    }
+
+    @Override
+    public int getRuleCountByConsequent(int proposition) {
+      metrics.recordLookups(1L);
+      return delegate.getRuleCountByConsequent(proposition);
+    }
+
+    @Override
+    public int getRuleByConsequent(int proposition, int index) {
+      return delegate.getRuleByConsequent(proposition, index);
+    }
+
+    @Override
+    public int getUnconditionalRuleCount() {
+      metrics.recordLookups(1L);
+      return delegate.getUnconditionalRuleCount();
+    }
+
+    @Override
+    public int getUnconditionalRule(int index) {
+      return delegate.getUnconditionalRule(index);
+    }
+  }
+}
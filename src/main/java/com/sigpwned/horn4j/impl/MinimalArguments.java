@@ -0,0 +1,181 @@
+/*-
+ * =================================LICENSE_START==================================
+ * horn4j
+ * ====================================SECTION=====================================
+ * Copyright (C) 2024 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.horn4j.impl;
+
+import static java.util.Objects.requireNonNull;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+import com.sigpwned.horn4j.AbductiveWalk;
+import com.sigpwned.horn4j.DeductiveWalk;
+import com.sigpwned.horn4j.Rule;
+
+/**
+ * Checks whether a single argument is minimal without looking at any other argument, so that a
+ * solver can pass each argument on as soon as it finds it, instead of waiting for the search to end
+ * and comparing every argument it found with every other.
+ * 
+ * <p>
+ * An argument is minimal if no proper part of it also reaches the goals. Adding steps to an
+ * argument never takes away anything it reaches, so it is enough to check, for each step, whether
+ * everything that still holds together without that step reaches the goals. That costs a few passes
+ * over the argument for each of its steps, which is cheap next to the search, since arguments are
+ * small.
+ */
+final class MinimalArguments {
+  private MinimalArguments() {}
+
+  /**
+   * @return {@code true} if no proper subset of the rules the given argument fired concludes all
+   *         of the given goals from its assumptions
+   */
+  public static <RuleIdT, PropositionT> boolean isMinimal(
+      DeductiveWalk<RuleIdT, PropositionT> argument, Set<PropositionT> goals) {
+    final List<Rule<RuleIdT, PropositionT>> rules = new ArrayList<>(argument.getFired());
+    for (int skip = 0; skip < rules.size(); skip++)
+      if (concludes(argument.getAssumptions(), rules, skip, goals))
+        return false;
+    return true;
+  }
+
+  /**
+   * @return {@code true} if the given rules, except the one at the given index, conclude all of the
+   *         given goals from the given assumptions
+   */
+  private static <RuleIdT, PropositionT> boolean concludes(Set<PropositionT> assumptions,
+      List<Rule<RuleIdT, PropositionT>> rules, int skip, Set<PropositionT> goals) {
+    final Set<PropositionT> satisfied = new HashSet<>(assumptions);
+    final boolean[] fired = new boolean[rules.size()];
+    fired[skip] = true;
+
+    boolean changed;
+    do {
+      changed = false;
+      for (int i = 0; i < rules.size(); i++) {
+        final Rule<RuleIdT, PropositionT> rule = rules.get(i);
+        if (!fired[i] && satisfied.containsAll(rule.getAntecedents())) {
+          fired[i] = true;
+          satisfied.add(rule.getConsequent());
+          changed = true;
+        }
+      }
+    } while (changed);
+
+    return satisfied.containsAll(goals);
+  }
+
+  /**
+   * @return {@code true} if no proper part of the given argument, i.e., no subset of its rules and
+   *         postulates that still explains back to its hypotheses, has evidence that contains all
+   *         of the given goals
+   */
+  public static <RuleIdT, PropositionT> boolean isMinimal(
+      AbductiveWalk<RuleIdT, PropositionT> argument, Set<PropositionT> goals) {
+    final Set<PropositionT> hypotheses = argument.getHypotheses();
+    final List<Rule<RuleIdT, PropositionT>> rules = new ArrayList<>(argument.getFired());
+
+    // The evidence is made of lemmas, which the rules concluded, and postulates, which the walk
+    // assumed because nothing explains them.
+    final Set<PropositionT> lemmas = new HashSet<>();
+    for (Rule<RuleIdT, PropositionT> rule : rules)
+      if (!hypotheses.contains(rule.getConsequent()))
+        lemmas.add(rule.getConsequent());
+    final List<PropositionT> postulates = new ArrayList<>();
+    for (PropositionT proposition : argument.getEvidence())
+      if (!lemmas.contains(proposition))
+        postulates.add(proposition);
+
+    // Steps 0 to rules.size() - 1 are rules, and the rest are postulates.
+    for (int skip = 0; skip < rules.size() + postulates.size(); skip++)
+      if (explains(hypotheses, rules, postulates, skip, goals))
+        return false;
+    return true;
+  }
+
+  /**
+   * @return {@code true} if the given rules and postulates, except the step at the given index,
+   *         explain back to the given hypotheses with evidence that contains all of the given goals
+   */
+  private static <RuleIdT, PropositionT> boolean explains(Set<PropositionT> hypotheses,
+      List<Rule<RuleIdT, PropositionT>> rules, List<PropositionT> postulates, int skip,
+      Set<PropositionT> goals) {
+    // A step only holds together if the proposition it explains needs explaining, i.e., if it is a
+    // hypothesis or an antecedent of a rule that holds together. Work forward from the hypotheses,
+    // so that rules that only explain each other do not count.
+    final Set<PropositionT> queued = new HashSet<>(hypotheses);
+    final boolean[] fired = new boolean[rules.size()];
+    if (skip < rules.size())
+      fired[skip] = true;
+
+    boolean changed;
+    do {
+      changed = false;
+      for (int i = 0; i < rules.size(); i++) {
+        final Rule<RuleIdT, PropositionT> rule = rules.get(i);
+        if (!fired[i] && queued.contains(rule.getConsequent())) {
+          fired[i] = true;
+          queued.addAll(rule.getAntecedents());
+          changed = true;
+        }
+      }
+    } while (changed);
+
+    final Set<PropositionT> evidence = new HashSet<>();
+    for (int i = 0; i < rules.size(); i++)
+      if (fired[i] && i != skip && !hypotheses.contains(rules.get(i).getConsequent()))
+        evidence.add(rules.get(i).getConsequent());
+    for (int i = 0; i < postulates.size(); i++)
+      if (rules.size() + i != skip && queued.contains(postulates.get(i)))
+        evidence.add(postulates.get(i));
+
+    return evidence.containsAll(goals);
+  }
+
+  /**
+   * Passes arguments on to a listener, once each, from one thread at a time, until the listener
+   * asks to stop. Solvers with parallel walkers call this from many threads at once.
+   */
+  public static final class Emitter<T> {
+    private final Predicate<T> listener;
+    private final Set<T> emitted;
+    private boolean stopped;
+
+    public Emitter(Predicate<T> listener) {
+      this.listener = requireNonNull(listener);
+      this.emitted = new HashSet<>();
+    }
+
+    /**
+     * Passes the given argument to the listener, unless the listener has already seen it or asked
+     * to stop.
+     * 
+     * @return {@code false} if the listener has asked to stop, or {@code true} otherwise
+     */
+    public synchronized boolean emit(T argument) {
+      if (stopped)
+        return false;
+      if (emitted.add(argument) && !listener.test(argument))
+        stopped = true;
+      return !stopped;
+    }
+  }
+}
@@ -19,6 +19,7 @@
  */
 package com.sigpwned.horn4j.impl;
 
+import static java.util.Objects.requireNonNull;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.Set;
@@ -27,26 +28,81 @@ import com.sigpwned.horn4j.AbductiveWalk;
 import com.sigpwned.horn4j.AbductiveWalker;
 import com.sigpwned.horn4j.Rule;
 import com.sigpwned.horn4j.RuleSet;
+import com.sigpwned.horn4j.SearchBudget;
+import com.sigpwned.horn4j.SearchResult;
+import com.sigpwned.horn4j.SolverMetrics;
 
 public class NaiveAbductiveClosureSolver<RuleIdT, PropositionT>
     implements AbductiveClosureSolver<RuleIdT, PropositionT> {
+  private final AbductiveWalker<RuleIdT, PropositionT> walker;
+  private final SolverMetrics metrics;
+
+  public NaiveAbductiveClosureSolver() {
+    this(new NaiveAbductiveWalker<>());
+  }
+
+  public NaiveAbductiveClosureSolver(AbductiveWalker<RuleIdT, PropositionT> walker) {
+    this(walker, SolverMetrics.none());
+  }
+
+  /**
+   * @param walker the walker that searches for evidence
+   * @param metrics receives what this solver does. Attach the same metrics to the walker to see
+   *        what it does, too.
+   */
+  public NaiveAbductiveClosureSolver(AbductiveWalker<RuleIdT, PropositionT> walker,
+      SolverMetrics metrics) {
+    this.walker = requireNonNull(walker);
+    this.metrics = requireNonNull(metrics);
+  }
 
   @Override
-  public AbductiveWalk<RuleIdT, PropositionT> abduct(Set<PropositionT> hypotheses,
-      RuleSet<RuleIdT, PropositionT> rules) {
+  public SearchResult<AbductiveWalk<RuleIdT, PropositionT>> abduct(Set<PropositionT> hypotheses,
+      RuleSet<RuleIdT, PropositionT> rules, SearchBudget budget) {
     if (hypotheses == null)
       throw new NullPointerException();
     if (rules == null)
       throw new NullPointerException();
+    if (budget == null)
+      throw new NullPointerException();
 
+    final SolverMetrics metrics = getMetrics();
+    if (!metrics.isEnabled())
+      return search(hypotheses, rules, budget);
+
+    final long start = System.nanoTime();
+    try {
+      return search(hypotheses, MeteredRuleSet.of(rules, metrics), budget);
+    } finally {
+      metrics.recordPhase(SolverMetrics.Phase.SEARCH, System.nanoTime() - start);
+    }
+  }
+
+  /**
+   * @return the union of the walks the walker visits within the budget
+   */
+  private SearchResult<AbductiveWalk<RuleIdT, PropositionT>> search(
+      Set<PropositionT> hypotheses, RuleSet<RuleIdT, PropositionT> rules, SearchBudget budget) {
     final Set<PropositionT> evidence = new HashSet<>();
     final LinkedHashSet<Rule<RuleIdT, PropositionT>> fired = new LinkedHashSet<>();
-    new NaiveAbductiveWalker<RuleIdT, PropositionT>().walk(hypotheses, rules, (walk) -> {
-      evidence.addAll(walk.getEvidence());
-      fired.addAll(walk.getFired());
+    final SearchBudget.Limit limit = getWalker().walk(hypotheses, rules, (walk) -> {
+      // The walker may be parallel, so guard our results.
+      synchronized (fired) {
+        evidence.addAll(walk.getEvidence());
+        fired.addAll(walk.getFired());
+      }
       return AbductiveWalker.Instruction.CONTINUE;
-    });
+    }, budget);
+
+    return SearchResult.of(new AbductiveWalk<RuleIdT, PropositionT>(hypotheses, fired, evidence),
+        limit);
+  }
+
+  private AbductiveWalker<RuleIdT, PropositionT> getWalker() {
+    return walker;
+  }
 
-    return new AbductiveWalk<RuleIdT, PropositionT>(hypotheses, fired, evidence);
+  private SolverMetrics getMetrics() {
+    return metrics;
   }
 }
@@ -21,59 +21,144 @@ package com.sigpwned.horn4j.impl;
 
 import static java.util.Collections.unmodifiableSet;
 import static java.util.Objects.requireNonNull;
-import static java.util.stream.Collectors.toSet;
 import java.util.HashSet;
 import java.util.Set;
 import com.sigpwned.horn4j.AbductiveMinimalArgumentSolver;
 import com.sigpwned.horn4j.AbductiveWalk;
 import com.sigpwned.horn4j.AbductiveWalker;
 import com.sigpwned.horn4j.RuleSet;
-import com.sigpwned.horn4j.util.Sets;
+import com.sigpwned.horn4j.SearchBudget;
+import com.sigpwned.horn4j.SearchResult;
+import com.sigpwned.horn4j.SolverMetrics;
+import com.sigpwned.horn4j.util.Antichain;
 
 public class NaiveAbductiveMinimalArgumentSolver<RuleIdT, PropositionT>
     implements AbductiveMinimalArgumentSolver<RuleIdT, PropositionT> {
   private final AbductiveWalker<RuleIdT, PropositionT> walker;
+  private final SolverMetrics metrics;
 
   public NaiveAbductiveMinimalArgumentSolver() {
     this(new NaiveAbductiveWalker<>());
   }
 
   public NaiveAbductiveMinimalArgumentSolver(AbductiveWalker<RuleIdT, PropositionT> walker) {
+    this(walker, SolverMetrics.none());
+  }
+
+  /**
+   * @param walker the walker that searches for solutions
+   * @param metrics receives what this solver does. Attach the same metrics to the walker to see
+   *        what it does, too.
+   */
+  public NaiveAbductiveMinimalArgumentSolver(AbductiveWalker<RuleIdT, PropositionT> walker,
+      SolverMetrics metrics) {
     this.walker = requireNonNull(walker);
+    this.metrics = requireNonNull(metrics);
   }
 
   @Override
-  public Set<AbductiveWalk<RuleIdT, PropositionT>> solve(Set<PropositionT> assumptions,
-      RuleSet<RuleIdT, PropositionT> ruleset, Set<PropositionT> goals) {
-    final Set<AbductiveWalk<RuleIdT, PropositionT>> solutions = new HashSet<>();
-
-    getWalker().walk(assumptions, ruleset, (walk) -> {
-      if (walk.getEvidence().containsAll(goals)) {
-        // Once we see a solution, we can prune the search space. There's no need to keep going.
-        solutions.add(walk);
-        return AbductiveWalker.Instruction.PRUNE;
-      }
-      return AbductiveWalker.Instruction.CONTINUE;
-    });
+  public SearchResult<Set<AbductiveWalk<RuleIdT, PropositionT>>> solve(
+      Set<PropositionT> assumptions, RuleSet<RuleIdT, PropositionT> ruleset,
+      Set<PropositionT> goals, SearchBudget budget) {
+    if (budget == null)
+      throw new NullPointerException();
+
+    final SolverMetrics metrics = getMetrics();
+    if (!metrics.isEnabled())
+      return search(assumptions, ruleset, goals, budget);
 
-    // If there are no solutions, then return an empty set.
-    if (solutions.isEmpty()) {
-      return Sets.of();
+    final long start = System.nanoTime();
+    try {
+      return search(assumptions, MeteredRuleSet.of(ruleset, metrics), goals, budget);
+    } finally {
+      metrics.recordPhase(SolverMetrics.Phase.SEARCH, System.nanoTime() - start);
     }
+  }
+
+  /**
+   * Checks each solution on its own as soon as the walk finds it, and passes it on right away if it
+   * is minimal, so the listener does not wait for the rest of the search.
+   */
+  @Override
+  public SearchBudget.Limit solve(Set<PropositionT> assumptions,
+      RuleSet<RuleIdT, PropositionT> ruleset, Set<PropositionT> goals, SearchBudget budget,
+      ArgumentListener<RuleIdT, PropositionT> listener) {
+    if (budget == null)
+      throw new NullPointerException();
+    if (listener == null)
+      throw new NullPointerException();
+
+    final MinimalArguments.Emitter<AbductiveWalk<RuleIdT, PropositionT>> emitter =
+        new MinimalArguments.Emitter<>(listener::onArgument);
 
-    // If there is only one solution, then it is minimal by definition, since there is no other
-    // solution that could be smaller.
-    if (solutions.size() == 1) {
-      AbductiveWalk<RuleIdT, PropositionT> solution = solutions.iterator().next();
-      return Sets.of(solution);
+    final SolverMetrics metrics = getMetrics();
+    if (!metrics.isEnabled())
+      return search(assumptions, ruleset, goals, budget, emitter);
+
+    final long start = System.nanoTime();
+    try {
+      return search(assumptions, MeteredRuleSet.of(ruleset, metrics), goals, budget, emitter);
+    } finally {
+      metrics.recordPhase(SolverMetrics.Phase.SEARCH, System.nanoTime() - start);
     }
+  }
+
+  /**
+   * @return the solutions the walk finds within the budget that contain no other solution it found
+   */
+  private SearchResult<Set<AbductiveWalk<RuleIdT, PropositionT>>> search(
+      Set<PropositionT> assumptions, RuleSet<RuleIdT, PropositionT> ruleset,
+      Set<PropositionT> goals, SearchBudget budget) {
+    // Every solution starts from the same hypotheses, so one solution contains another if and only
+    // if its rules and evidence, taken together, do. Rules are only ever equal to other rules, so
+    // the two never get mixed up. Keep only the solutions that contain no other solution found so
+    // far, evicting any that turn out to contain a new one, so the solutions are minimal as soon as
+    // the walk ends.
+    final Antichain<AbductiveWalk<RuleIdT, PropositionT>> solutions = new Antichain<>((walk) -> {
+      final Set<Object> elements =
+          new HashSet<>(walk.getFired().size() + walk.getEvidence().size());
+      elements.addAll(walk.getFired());
+      elements.addAll(walk.getEvidence());
+      return elements;
+    });
 
-    // Otherwise, we need to filter out any solutions that are subsumed by other solutions.
-    final Set<AbductiveWalk<RuleIdT, PropositionT>> minimalSolutions = solutions.stream()
-        .filter(s1 -> solutions.stream().noneMatch(s2 -> s2 != s1 && s1.contains(s2)))
-        .collect(toSet());
+    // We only care which explanations each walk chose, not in what order. Also, every walk that
+    // contains a solution is a solution too, but not a minimal one, so we never need any walk that
+    // contains a walk we pruned. That lets the walker skip the other orders of each walk.
+    final SearchBudget.Limit limit = getWalker().walk(assumptions, ruleset,
+        AbductiveWalker.Visitor.orderInsensitive((walk) -> {
+          if (walk.getEvidence().containsAll(goals)) {
+            // Once we see a solution, we can prune the search space. There's no need to keep going.
+            // If it contains a solution we already have, then it is not minimal, and the antichain
+            // drops it.
+            solutions.add(walk);
+            return AbductiveWalker.Instruction.PRUNE;
+          }
+          return AbductiveWalker.Instruction.CONTINUE;
+        }), budget);
 
-    return unmodifiableSet(minimalSolutions);
+    return SearchResult.of(unmodifiableSet(new HashSet<>(solutions.toList())), limit);
+  }
+
+  /**
+   * Passes each minimal solution the walk finds within the budget to the given emitter.
+   * 
+   * @return the limit the walker reached, or {@code null} if it did not run out of budget
+   */
+  private SearchBudget.Limit search(Set<PropositionT> assumptions,
+      RuleSet<RuleIdT, PropositionT> ruleset, Set<PropositionT> goals, SearchBudget budget,
+      MinimalArguments.Emitter<AbductiveWalk<RuleIdT, PropositionT>> emitter) {
+    // This prunes exactly the same walks as the other search, so the walker can skip the other
+    // orders of each walk here, too.
+    return getWalker().walk(assumptions, ruleset,
+        AbductiveWalker.Visitor.orderInsensitive((walk) -> {
+          if (walk.getEvidence().containsAll(goals)) {
+            if (MinimalArguments.isMinimal(walk, goals) && !emitter.emit(walk))
+              return AbductiveWalker.Instruction.STOP;
+            return AbductiveWalker.Instruction.PRUNE;
+          }
+          return AbductiveWalker.Instruction.CONTINUE;
+        }), budget);
   }
 
   /**
@@ -82,4 +167,8 @@ public class NaiveAbductiveMinimalArgumentSolver<RuleIdT, PropositionT>
   private AbductiveWalker<RuleIdT, PropositionT> getWalker() {
     return walker;
   }
+
+  private SolverMetrics getMetrics() {
+    return metrics;
+  }
 }
@@ -19,7 +19,9 @@
  */
 package com.sigpwned.horn4j.impl;
 
+import static java.util.Objects.requireNonNull;
 import static java.util.stream.Collectors.toSet;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.Objects;
@@ -28,11 +30,19 @@ import com.sigpwned.horn4j.AbductiveWalk;
 import com.sigpwned.horn4j.AbductiveWalker;
 import com.sigpwned.horn4j.Rule;
 import com.sigpwned.horn4j.RuleSet;
+import com.sigpwned.horn4j.SearchBudget;
+import com.sigpwned.horn4j.SolverMetrics;
 import com.sigpwned.horn4j.util.Sets;
 
 /**
  * Walks the given rules abductively in <em>breadth-first</em> order.
  * 
+ * <p>
+ * With {@link Memoization memoization} enabled, this walker expands only the first walk it visits
+ * with each combination of propositions left to explain, lemmas, and postulates, which together
+ * determine everything the walk can do next. The same combination can come up again in a later
+ * layer, so the walker remembers states for the whole walk.
+ * 
  * @param <RuleIdT> the type of the rule identifiers
  * @param <PropositionT> the type of the propositions
  */
@@ -85,6 +95,22 @@ public class NaiveAbductiveWalker<RuleIdT, PropositionT>
       return fired;
     }
 
+    /**
+     * @return this state as a walk from the given hypotheses
+     */
+    public AbductiveWalk<RuleIdT, PropositionT> toWalk(Set<PropositionT> hypotheses) {
+      return new AbductiveWalk<>(hypotheses, new LinkedHashSet<>(fired),
+          Sets.union(postulates, lemmas));
+    }
+
+    /**
+     * @return a fingerprint of everything that determines the walks that grow from this one, which
+     *         is everything but the rules fired so far
+     */
+    public Object getFingerprint() {
+      return Arrays.asList(queue, lemmas, postulates);
+    }
+
     @Override
     public int hashCode() {
       return Objects.hash(fired, lemmas, postulates, queue);
@@ -111,9 +137,33 @@ public class NaiveAbductiveWalker<RuleIdT, PropositionT>
     }
   }
 
+  private final Memoization memoization;
+  private final SolverMetrics metrics;
+
+  public NaiveAbductiveWalker() {
+    this(Memoization.disabled());
+  }
+
+  /**
+   * @param memoization whether to skip walks whose states this walker has already expanded
+   */
+  public NaiveAbductiveWalker(Memoization memoization) {
+    this(memoization, SolverMetrics.none());
+  }
+
+  /**
+   * @param memoization whether to skip walks whose states this walker has already expanded
+   * @param metrics receives what this walker does
+   */
+  public NaiveAbductiveWalker(Memoization memoization, SolverMetrics metrics) {
+    this.memoization = requireNonNull(memoization);
+    this.metrics = requireNonNull(metrics);
+  }
+
   @Override
-  public void walk(Set<PropositionT> hypotheses, RuleSet<RuleIdT, PropositionT> ruleset,
-      Visitor<RuleIdT, PropositionT> visitor) {
+  public SearchBudget.Limit walk(Set<PropositionT> hypotheses,
+      RuleSet<RuleIdT, PropositionT> ruleset, Visitor<RuleIdT, PropositionT> visitor,
+      SearchBudget budget) {
     if (hypotheses == null)
       throw new NullPointerException();
     if (ruleset == null)
@@ -121,21 +171,77 @@ public class NaiveAbductiveWalker<RuleIdT, PropositionT>
     if (visitor == null)
       throw new NullPointerException();
 
+    if (budget == null)
+      throw new NullPointerException();
+
+    final SearchBudget.Tracker tracker = budget.isUnlimited() ? null : budget.start();
+
+    final SolverMetrics metrics = getMetrics();
+    if (!metrics.isEnabled()) {
+      walk(hypotheses, ruleset, visitor, null, tracker);
+    } else {
+      final long start = System.nanoTime();
+      try {
+        walk(hypotheses, MeteredRuleSet.of(ruleset, metrics), visitor, metrics, tracker);
+      } finally {
+        metrics.recordPhase(SolverMetrics.Phase.WALK, System.nanoTime() - start);
+      }
+    }
+
+    return tracker != null ? tracker.getLimit() : null;
+  }
+
+  /**
+   * @param metrics the metrics to report to, or {@code null} to report nothing
+   * @param tracker the budget to spend, or {@code null} if the budget is unlimited
+   */
+  private void walk(Set<PropositionT> hypotheses, RuleSet<RuleIdT, PropositionT> ruleset,
+      Visitor<RuleIdT, PropositionT> visitor, SolverMetrics metrics,
+      SearchBudget.Tracker tracker) {
+    final VisitedStateTable<Object> visited = getMemoization().newTable();
+
     Set<WalkState<RuleIdT, PropositionT>> additions = new HashSet<>();
     additions.add(WalkState.start(hypotheses));
     do {
       Set<WalkState<RuleIdT, PropositionT>> newAdditions = null;
+      long children = 0L;
 
       for (WalkState<RuleIdT, PropositionT> walk : additions) {
-        Instruction instruction =
-            visitor.step(new AbductiveWalk<>(hypotheses, new LinkedHashSet<>(walk.getFired()),
-                Sets.union(walk.getPostulates(), walk.getLemmas())));
+        Object fingerprint = null;
+        if (visited != null) {
+          fingerprint = walk.getFingerprint();
+          if (visited.contains(fingerprint)) {
+            // We already expanded a walk in this state, so don't expand this one.
+            if (metrics != null)
+              metrics.recordDeduplicated(1L);
+            if (getMemoization().isReportDuplicates()) {
+              // The visitor still sees this walk, so it still costs a visit.
+              if (tracker != null && !tracker.visit())
+                return;
+              if (metrics != null)
+                metrics.recordVisited(1L);
+              if (visitor.step(walk.toWalk(hypotheses)) == Instruction.STOP)
+                return;
+            }
+            continue;
+          }
+        }
+
+        // Stop all walks if we cannot afford to visit this one.
+        if (tracker != null && !tracker.visit())
+          return;
+
+        Instruction instruction = visitor.step(walk.toWalk(hypotheses));
+        if (metrics != null)
+          metrics.recordVisited(1L);
         switch (instruction) {
           case CONTINUE:
             // Carry on with this walk. Do nothing.
             break;
           case PRUNE:
             // Stop this walk. Do not add it to the new additions.
+            if (metrics != null)
+              metrics.recordPruned(1L);
             continue;
           case STOP:
             // Stop all walks.
@@ -146,6 +252,11 @@ public class NaiveAbductiveWalker<RuleIdT, PropositionT>
           continue;
         }
 
+        if (visited != null) {
+          // If the table is full, then we just expand duplicates of this walk when we see them.
+          visited.add(fingerprint);
+        }
+
         if (newAdditions == null) {
           newAdditions = new HashSet<>();
         }
@@ -168,6 +279,7 @@ public class NaiveAbductiveWalker<RuleIdT, PropositionT>
 
             newAdditions
                 .add(new WalkState<>(newQueue, walk.getLemmas(), newPostulates, walk.getFired()));
+            children = children + 1L;
           } else {
             for (Rule<RuleIdT, PropositionT> rule : fireableRules) {
               Set<PropositionT> newQueue = new HashSet<>(walk.getQueue());
@@ -187,12 +299,31 @@ public class NaiveAbductiveWalker<RuleIdT, PropositionT>
 
               newAdditions
                   .add(new WalkState<>(newQueue, newLemmas, walk.getPostulates(), newFired));
+              children = children + 1L;
             }
           }
+
+          // Check as the next layer grows, since one layer can be far bigger than the last.
+          if (tracker != null && !tracker.frontier(newAdditions.size()))
+            return;
         }
       }
 
+      // Equal walks reached along different paths collapse into one.
+      if (metrics != null && newAdditions != null) {
+        metrics.recordDeduplicated(children - newAdditions.size());
+        metrics.recordFrontier(newAdditions.size());
+      }
+
       additions = newAdditions;
     } while (additions != null);
   }
+
+  private Memoization getMemoization() {
+    return memoization;
+  }
+
+  private SolverMetrics getMetrics() {
+    return metrics;
+  }
 }
@@ -19,71 +19,204 @@
  */
 package com.sigpwned.horn4j.impl;
 
-import java.util.HashSet;
+import static java.util.Objects.requireNonNull;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Set;
 import com.sigpwned.horn4j.DeductiveWalk;
 import com.sigpwned.horn4j.DeductiveWalker;
-import com.sigpwned.horn4j.Rule;
 import com.sigpwned.horn4j.RuleSet;
-import com.sigpwned.horn4j.util.Sets;
+import com.sigpwned.horn4j.SearchBudget;
+import com.sigpwned.horn4j.SolverMetrics;
 
 /**
  * Walks the given rules deductively in <em>breadth-first</em> order.
  * 
+ * <p>
+ * With {@link Memoization memoization} enabled, this walker expands only the first walk it visits
+ * with each set of conclusions. Walks with the same conclusions can fire the same rules next, so
+ * the others would only reach the same conclusions again by different rules. Every walk fires one
+ * rule per step and concludes one new proposition per rule, so all walks with the same conclusions
+ * are in the same layer, and the walker only needs to remember one layer at a time.
+ * 
  * @param <RuleIdT> the type of the rule identifiers
  * @param <PropositionT> the type of the propositions
  */
 public class NaiveBreadthFirstDeductiveWalker<RuleIdT, PropositionT>
     implements DeductiveWalker<RuleIdT, PropositionT> {
+  private final DeductiveWalk.Factory<RuleIdT, PropositionT> walkFactory;
+  private final Memoization memoization;
+  private final SolverMetrics metrics;
+
+  public NaiveBreadthFirstDeductiveWalker() {
+    this(BitSetDeductiveWalk.factory());
+  }
+
+  /**
+   * @param walkFactory starts the walks this walker builds, e.g.,
+   *        {@link PersistentDeductiveWalk#factory()} to share memory between walks
+   */
+  public NaiveBreadthFirstDeductiveWalker(
+      DeductiveWalk.Factory<RuleIdT, PropositionT> walkFactory) {
+    this(walkFactory, Memoization.disabled());
+  }
+
+  /**
+   * @param walkFactory starts the walks this walker builds
+   * @param memoization whether to skip walks whose conclusions this walker has already expanded
+   */
+  public NaiveBreadthFirstDeductiveWalker(DeductiveWalk.Factory<RuleIdT, PropositionT> walkFactory,
+      Memoization memoization) {
+    this(walkFactory, memoization, SolverMetrics.none());
+  }
+
+  /**
+   * @param walkFactory starts the walks this walker builds
+   * @param memoization whether to skip walks whose conclusions this walker has already expanded
+   * @param metrics receives what this walker does
+   */
+  public NaiveBreadthFirstDeductiveWalker(DeductiveWalk.Factory<RuleIdT, PropositionT> walkFactory,
+      Memoization memoization, SolverMetrics metrics) {
+    this.walkFactory = requireNonNull(walkFactory);
+    this.memoization = requireNonNull(memoization);
+    this.metrics = requireNonNull(metrics);
+  }
+
   @Override
-  public void walk(Set<PropositionT> assumptions, RuleSet<RuleIdT, PropositionT> ruleset,
-      Visitor<RuleIdT, PropositionT> visitor) {
-    Set<DeductiveWalk<RuleIdT, PropositionT>> additions = new HashSet<>();
-    additions.add(DeductiveWalk.start(assumptions));
+  public SearchBudget.Limit walk(Set<PropositionT> assumptions,
+      RuleSet<RuleIdT, PropositionT> ruleset, Visitor<RuleIdT, PropositionT> visitor,
+      SearchBudget budget) {
+    if (budget == null)
+      throw new NullPointerException();
+
+    final SearchBudget.Tracker tracker = budget.isUnlimited() ? null : budget.start();
+
+    final SolverMetrics metrics = getMetrics();
+    if (!metrics.isEnabled()) {
+      walk(assumptions, ruleset, visitor, null, tracker);
+    } else {
+      final long start = System.nanoTime();
+      try {
+        walk(assumptions, MeteredRuleSet.of(ruleset, metrics), visitor, metrics, tracker);
+      } finally {
+        metrics.recordPhase(SolverMetrics.Phase.WALK, System.nanoTime() - start);
+      }
+    }
+
+    return tracker != null ? tracker.getLimit() : null;
+  }
+
+  /**
+   * @param metrics the metrics to report to, or {@code null} to report nothing
+   * @param tracker the budget to spend, or {@code null} if the budget is unlimited
+   */
+  private void walk(Set<PropositionT> assumptions, RuleSet<RuleIdT, PropositionT> ruleset,
+      Visitor<RuleIdT, PropositionT> visitor, SolverMetrics metrics,
+      SearchBudget.Tracker tracker) {
+    final VisitedStateTable<Object> visited = getMemoization().newTable();
+
+    // If the visitor does not care about order, then only walk one order of each set of rules.
+    // Sleep sets are only sound for the walks below the state that carries them, though, so they
+    // do not mix with skipping states that we have seen before.
+    final boolean reduced = !visitor.isOrderSensitive() && visited == null;
+
+    Collection<DeductiveWalkState<RuleIdT, PropositionT>> additions =
+        Collections.singleton(DeductiveWalkState.start(assumptions, ruleset, getWalkFactory()));
     do {
-      Set<DeductiveWalk<RuleIdT, PropositionT>> newAdditions = null;
+      Map<DeductiveWalkState<RuleIdT, PropositionT>, DeductiveWalkState<RuleIdT, PropositionT>> newAdditions =
+          null;
+      long children = 0L;
+
+      for (DeductiveWalkState<RuleIdT, PropositionT> state : additions) {
+        Object fingerprint = null;
+        if (visited != null) {
+          fingerprint = state.getConclusionsFingerprint();
+          if (visited.contains(fingerprint)) {
+            // We already expanded a walk with these conclusions, so don't expand this one.
+            if (metrics != null)
+              metrics.recordDeduplicated(1L);
+            if (getMemoization().isReportDuplicates()) {
+              // The visitor still sees this walk, so it still costs a visit.
+              if (tracker != null && !tracker.visit())
+                return;
+              if (metrics != null)
+                metrics.recordVisited(1L);
+              if (visitor.step(state.getWalk()) == Instruction.STOP)
+                return;
+            }
+            continue;
+          }
+        }
 
-      for (DeductiveWalk<RuleIdT, PropositionT> walk : additions) {
-        Instruction instruction = visitor.step(walk);
+        // Stop all walks if we cannot afford to visit this one.
+        if (tracker != null && !tracker.visit())
+          return;
+
+        Instruction instruction = visitor.step(state.getWalk());
+        if (metrics != null)
+          metrics.recordVisited(1L);
         switch (instruction) {
           case CONTINUE:
             // Carry on with this walk. Do nothing.
             break;
           case PRUNE:
             // Stop this walk only. Do not take any new steps on this walk.
+            if (metrics != null)
+              metrics.recordPruned(1L);
             continue;
           case STOP:
             // Stop all walks. Do not take any new steps on any walk.
             return;
         }
 
-        Set<Rule<RuleIdT, PropositionT>> fireableRules = ruleset
-            .findBySatisfiedAntecedents(Sets.union(walk.getAssumptions(), walk.getConclusions()));
-
-        for (Rule<RuleIdT, PropositionT> rule : fireableRules) {
-          if (walk.getAssumptions().contains(rule.getConsequent())) {
-            // We're assuming the consequent of this rule is true, so we don't need to prove it.
-            // Skip this rule.
-            continue;
-          }
-          if (walk.getConclusions().contains(rule.getConsequent())) {
-            // We've already proven the consequent of this rule is true. Skip this rule.
-            continue;
-          }
-          if (walk.getFired().contains(rule)) {
-            // We've already fired this rule. Skip this rule.
-            continue;
-          }
+        if (visited != null) {
+          // If the table is full, then we just expand duplicates of this walk when we see them.
+          visited.add(fingerprint);
+        }
 
+        // The state already tracks which rules can fire, so there is no need to check whether
+        // each rule has already fired or whether its consequent is already assumed or concluded.
+        for (DeductiveWalkState<RuleIdT, PropositionT> newState : state.expand(reduced)) {
           if (newAdditions == null) {
-            newAdditions = new HashSet<>();
+            newAdditions = new HashMap<>();
           }
 
-          newAdditions.add(walk.step(rule));
+          // Equal walks reached along different paths collapse into one.
+          newAdditions.merge(newState, newState, DeductiveWalkState::merge);
+          children = children + 1L;
+
+          // Check as the next layer grows, since one layer can be far bigger than the last.
+          if (tracker != null && !tracker.frontier(newAdditions.size()))
+            return;
         }
       }
 
-      additions = newAdditions;
+      if (metrics != null && newAdditions != null) {
+        metrics.recordDeduplicated(children - newAdditions.size());
+        metrics.recordFrontier(newAdditions.size());
+      }
+
+      // The next layer has one more conclusion than this one, so nothing in it is a duplicate of
+      // anything in this one.
+      if (visited != null) {
+        visited.clear();
+      }
+
+      additions = newAdditions != null ? newAdditions.values() : null;
     } while (additions != null);
   }
+
+  private DeductiveWalk.Factory<RuleIdT, PropositionT> getWalkFactory() {
+    return walkFactory;
+  }
+
+  private Memoization getMemoization() {
+    return memoization;
+  }
+
+  private SolverMetrics getMetrics() {
+    return metrics;
+  }
 }
@@ -29,10 +29,14 @@ import com.sigpwned.horn4j.DeductiveWalk;
 import com.sigpwned.horn4j.DeductiveWalker;
 import com.sigpwned.horn4j.Rule;
 import com.sigpwned.horn4j.RuleSet;
+import com.sigpwned.horn4j.SearchBudget;
+import com.sigpwned.horn4j.SearchResult;
+import com.sigpwned.horn4j.SolverMetrics;
 
 public class NaiveDeductiveClosureSolver<RuleIdT, PropositionT>
     implements DeductiveClosureSolver<RuleIdT, PropositionT> {
   private final Supplier<DeductiveWalker<RuleIdT, PropositionT>> deductiveWalkerFactory;
+  private final SolverMetrics metrics;
 
   public NaiveDeductiveClosureSolver() {
     this(NaiveDepthFirstDeductiveWalker::new);
@@ -40,29 +44,71 @@ public class NaiveDeductiveClosureSolver<RuleIdT, PropositionT>
 
   public NaiveDeductiveClosureSolver(
       Supplier<DeductiveWalker<RuleIdT, PropositionT>> deductiveWalkerFactory) {
+    this(deductiveWalkerFactory, SolverMetrics.none());
+  }
+
+  /**
+   * @param deductiveWalkerFactory creates the walker for each call
+   * @param metrics receives what this solver does. Attach the same metrics to the walkers to
+   *        see what they do, too.
+   */
+  public NaiveDeductiveClosureSolver(
+      Supplier<DeductiveWalker<RuleIdT, PropositionT>> deductiveWalkerFactory,
+      SolverMetrics metrics) {
     this.deductiveWalkerFactory = requireNonNull(deductiveWalkerFactory);
+    this.metrics = requireNonNull(metrics);
   }
 
   @Override
-  public DeductiveWalk<RuleIdT, PropositionT> deduct(Set<PropositionT> assumptions,
-      RuleSet<RuleIdT, PropositionT> rules) {
+  public SearchResult<DeductiveWalk<RuleIdT, PropositionT>> deduct(Set<PropositionT> assumptions,
+      RuleSet<RuleIdT, PropositionT> rules, SearchBudget budget) {
     if (assumptions == null)
       throw new NullPointerException();
     if (rules == null)
       throw new NullPointerException();
+    if (budget == null)
+      throw new NullPointerException();
+
+    final SolverMetrics metrics = getMetrics();
+    if (!metrics.isEnabled())
+      return search(assumptions, rules, getDeductiveWalkerFactory().get(), budget);
 
+    final long start = System.nanoTime();
+    try {
+      return search(assumptions, MeteredRuleSet.of(rules, metrics),
+          getDeductiveWalkerFactory().get(), budget);
+    } finally {
+      metrics.recordPhase(SolverMetrics.Phase.SEARCH, System.nanoTime() - start);
+    }
+  }
+
+  /**
+   * @return the union of the walks the walker visits within the budget
+   */
+  private SearchResult<DeductiveWalk<RuleIdT, PropositionT>> search(
+      Set<PropositionT> assumptions, RuleSet<RuleIdT, PropositionT> rules,
+      DeductiveWalker<RuleIdT, PropositionT> walker, SearchBudget budget) {
     final Set<PropositionT> conclusions = new HashSet<>();
     final LinkedHashSet<Rule<RuleIdT, PropositionT>> fired = new LinkedHashSet<>();
-    getDeductiveWalkerFactory().get().walk(assumptions, rules, (walk) -> {
-      conclusions.addAll(walk.getConclusions());
-      fired.addAll(walk.getFired());
-      return DeductiveWalker.Instruction.CONTINUE;
-    });
+    // We only collect which rules fired, so the walker can skip the other orders of each walk.
+    final SearchBudget.Limit limit = walker.walk(assumptions, rules,
+        DeductiveWalker.Visitor.orderInsensitive((walk) -> {
+          // The walker may be parallel, so guard our results.
+          synchronized (fired) {
+            conclusions.addAll(walk.getConclusions());
+            fired.addAll(walk.getFired());
+          }
+          return DeductiveWalker.Instruction.CONTINUE;
+        }), budget);
 
-    return new DeductiveWalk<>(assumptions, fired, conclusions);
+    return SearchResult.of(new DeductiveWalk<>(assumptions, fired, conclusions), limit);
   }
 
   protected Supplier<DeductiveWalker<RuleIdT, PropositionT>> getDeductiveWalkerFactory() {
     return deductiveWalkerFactory;
   }
+
+  protected SolverMetrics getMetrics() {
+    return metrics;
+  }
 }
@@ -21,63 +21,146 @@ package com.sigpwned.horn4j.impl;
 
 import static java.util.Collections.unmodifiableSet;
 import static java.util.Objects.requireNonNull;
-import static java.util.stream.Collectors.toSet;
 import java.util.HashSet;
 import java.util.Set;
 import com.sigpwned.horn4j.DeductiveMinimalArgumentSolver;
 import com.sigpwned.horn4j.DeductiveWalk;
 import com.sigpwned.horn4j.DeductiveWalker;
 import com.sigpwned.horn4j.RuleSet;
-import com.sigpwned.horn4j.util.Sets;
+import com.sigpwned.horn4j.SearchBudget;
+import com.sigpwned.horn4j.SearchResult;
+import com.sigpwned.horn4j.SolverMetrics;
+import com.sigpwned.horn4j.util.Antichain;
 
 public class NaiveDeductiveMinimalArgumentSolver<RuleIdT, PropositionT>
     implements DeductiveMinimalArgumentSolver<RuleIdT, PropositionT> {
   private final DeductiveWalker<RuleIdT, PropositionT> walker;
+  private final SolverMetrics metrics;
 
   public NaiveDeductiveMinimalArgumentSolver() {
     this(new NaiveDepthFirstDeductiveWalker<>());
   }
 
   public NaiveDeductiveMinimalArgumentSolver(DeductiveWalker<RuleIdT, PropositionT> walker) {
+    this(walker, SolverMetrics.none());
+  }
+
+  /**
+   * @param walker the walker that searches for solutions
+   * @param metrics receives what this solver does. Attach the same metrics to the walker to see
+   *        what it does, too.
+   */
+  public NaiveDeductiveMinimalArgumentSolver(DeductiveWalker<RuleIdT, PropositionT> walker,
+      SolverMetrics metrics) {
     this.walker = requireNonNull(walker);
+    this.metrics = requireNonNull(metrics);
   }
 
   @Override
-  public Set<DeductiveWalk<RuleIdT, PropositionT>> solve(Set<PropositionT> assumptions,
-      RuleSet<RuleIdT, PropositionT> ruleset, Set<PropositionT> goals) {
-    final Set<DeductiveWalk<RuleIdT, PropositionT>> solutions = new HashSet<>();
-
-    getWalker().walk(assumptions, ruleset, (walk) -> {
-      if (walk.getConclusions().containsAll(goals)) {
-        // Once we have a solution, we can prune the search space. There's no need to keep going.
-        solutions.add(walk);
-        return DeductiveWalker.Instruction.PRUNE;
-      }
-      return DeductiveWalker.Instruction.CONTINUE;
-
-    });
-
-    // If there are no solutions, then return an empty set.
-    if (solutions.isEmpty()) {
-      return Sets.of();
+  public SearchResult<Set<DeductiveWalk<RuleIdT, PropositionT>>> solve(
+      Set<PropositionT> assumptions, RuleSet<RuleIdT, PropositionT> ruleset,
+      Set<PropositionT> goals, SearchBudget budget) {
+    if (budget == null)
+      throw new NullPointerException();
+
+    final SolverMetrics metrics = getMetrics();
+    if (!metrics.isEnabled())
+      return search(assumptions, ruleset, goals, budget);
+
+    final long start = System.nanoTime();
+    try {
+      return search(assumptions, MeteredRuleSet.of(ruleset, metrics), goals, budget);
+    } finally {
+      metrics.recordPhase(SolverMetrics.Phase.SEARCH, System.nanoTime() - start);
     }
+  }
+
+  /**
+   * Checks each solution on its own as soon as the walk finds it, and passes it on right away if it
+   * is minimal, so the listener does not wait for the rest of the search.
+   */
+  @Override
+  public SearchBudget.Limit solve(Set<PropositionT> assumptions,
+      RuleSet<RuleIdT, PropositionT> ruleset, Set<PropositionT> goals, SearchBudget budget,
+      ArgumentListener<RuleIdT, PropositionT> listener) {
+    if (budget == null)
+      throw new NullPointerException();
+    if (listener == null)
+      throw new NullPointerException();
+
+    final MinimalArguments.Emitter<DeductiveWalk<RuleIdT, PropositionT>> emitter =
+        new MinimalArguments.Emitter<>(listener::onArgument);
 
-    // If there is only one solution, then it is minimal by definition, since there is no other
-    // solution that could be smaller.
-    if (solutions.size() == 1) {
-      DeductiveWalk<RuleIdT, PropositionT> solution = solutions.iterator().next();
-      return Sets.of(solution);
+    final SolverMetrics metrics = getMetrics();
+    if (!metrics.isEnabled())
+      return search(assumptions, ruleset, goals, budget, emitter);
+
+    final long start = System.nanoTime();
+    try {
+      return search(assumptions, MeteredRuleSet.of(ruleset, metrics), goals, budget, emitter);
+    } finally {
+      metrics.recordPhase(SolverMetrics.Phase.SEARCH, System.nanoTime() - start);
     }
+  }
 
-    // Otherwise, we need to filter out any solutions that are subsumed by other solutions.
-    final Set<DeductiveWalk<RuleIdT, PropositionT>> minimalSolutions = solutions.stream()
-        .filter(s1 -> solutions.stream().noneMatch(s2 -> s2 != s1 && s1.contains(s2)))
-        .collect(toSet());
+  /**
+   * @return the solutions the walk finds within the budget that contain no other solution it found
+   */
+  private SearchResult<Set<DeductiveWalk<RuleIdT, PropositionT>>> search(
+      Set<PropositionT> assumptions, RuleSet<RuleIdT, PropositionT> ruleset,
+      Set<PropositionT> goals, SearchBudget budget) {
+    // Every solution starts from the same assumptions, and concludes exactly the consequents of the
+    // rules it fired, so one solution contains another if and only if its rules do. Keep only the
+    // solutions that contain no other solution found so far, evicting any that turn out to contain
+    // a new one, so the solutions are minimal as soon as the walk ends. The antichain is
+    // thread-safe, so the walker may be parallel.
+    final Antichain<DeductiveWalk<RuleIdT, PropositionT>> solutions =
+        new Antichain<>(DeductiveWalk::getFired);
 
-    return unmodifiableSet(minimalSolutions);
+    // We only care which rules fired, not in what order. Also, every walk that contains a solution
+    // is a solution too, but not a minimal one, so we never need any walk that contains a walk we
+    // pruned. That lets the walker skip the other orders of each walk.
+    final SearchBudget.Limit limit = getWalker().walk(assumptions, ruleset,
+        DeductiveWalker.Visitor.orderInsensitive((walk) -> {
+          if (walk.getConclusions().containsAll(goals)) {
+            // Once we have a solution, we can prune the search space. There's no need to keep
+            // going. If it contains a solution we already have, then it is not minimal, and the
+            // antichain drops it.
+            solutions.add(walk);
+            return DeductiveWalker.Instruction.PRUNE;
+          }
+          return DeductiveWalker.Instruction.CONTINUE;
+        }), budget);
+
+    return SearchResult.of(unmodifiableSet(new HashSet<>(solutions.toList())), limit);
+  }
+
+  /**
+   * Passes each minimal solution the walk finds within the budget to the given emitter.
+   * 
+   * @return the limit the walker reached, or {@code null} if it did not run out of budget
+   */
+  private SearchBudget.Limit search(Set<PropositionT> assumptions,
+      RuleSet<RuleIdT, PropositionT> ruleset, Set<PropositionT> goals, SearchBudget budget,
+      MinimalArguments.Emitter<DeductiveWalk<RuleIdT, PropositionT>> emitter) {
+    // This prunes exactly the same walks as the other search, so the walker can skip the other
+    // orders of each walk here, too.
+    return getWalker().walk(assumptions, ruleset,
+        DeductiveWalker.Visitor.orderInsensitive((walk) -> {
+          if (walk.getConclusions().containsAll(goals)) {
+            if (MinimalArguments.isMinimal(walk, goals) && !emitter.emit(walk))
+              return DeductiveWalker.Instruction.STOP;
+            return DeductiveWalker.Instruction.PRUNE;
+          }
+          return DeductiveWalker.Instruction.CONTINUE;
+        }), budget);
   }
 
   private DeductiveWalker<RuleIdT, PropositionT> getWalker() {
     return walker;
   }
+
+  private SolverMetrics getMetrics() {
+    return metrics;
+  }
 }
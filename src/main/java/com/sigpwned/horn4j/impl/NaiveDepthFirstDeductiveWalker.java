@@ -19,13 +19,14 @@
  */
 package com.sigpwned.horn4j.impl;
 
+import static java.util.Objects.requireNonNull;
 import java.util.Set;
 import java.util.Stack;
 import com.sigpwned.horn4j.DeductiveWalk;
 import com.sigpwned.horn4j.DeductiveWalker;
-import com.sigpwned.horn4j.Rule;
 import com.sigpwned.horn4j.RuleSet;
-import com.sigpwned.horn4j.util.Sets;
+import com.sigpwned.horn4j.SearchBudget;
+import com.sigpwned.horn4j.SolverMetrics;
 
 /**
  * Walks the given rules deductively in <em>breadth-first</em> order.
@@ -35,50 +36,113 @@ import com.sigpwned.horn4j.util.Sets;
  */
 public class NaiveDepthFirstDeductiveWalker<RuleIdT, PropositionT>
     implements DeductiveWalker<RuleIdT, PropositionT> {
+  private final DeductiveWalk.Factory<RuleIdT, PropositionT> walkFactory;
+  private final SolverMetrics metrics;
+
+  public NaiveDepthFirstDeductiveWalker() {
+    this(BitSetDeductiveWalk.factory());
+  }
+
+  /**
+   * @param walkFactory starts the walks this walker builds, e.g.,
+   *        {@link PersistentDeductiveWalk#factory()} to share memory between walks
+   */
+  public NaiveDepthFirstDeductiveWalker(
+      DeductiveWalk.Factory<RuleIdT, PropositionT> walkFactory) {
+    this(walkFactory, SolverMetrics.none());
+  }
+
+  /**
+   * @param walkFactory starts the walks this walker builds
+   * @param metrics receives what this walker does
+   */
+  public NaiveDepthFirstDeductiveWalker(DeductiveWalk.Factory<RuleIdT, PropositionT> walkFactory,
+      SolverMetrics metrics) {
+    this.walkFactory = requireNonNull(walkFactory);
+    this.metrics = requireNonNull(metrics);
+  }
 
   @Override
-  public void walk(Set<PropositionT> assumptions, RuleSet<RuleIdT, PropositionT> ruleset,
-      Visitor<RuleIdT, PropositionT> visitor) {
+  public SearchBudget.Limit walk(Set<PropositionT> assumptions,
+      RuleSet<RuleIdT, PropositionT> ruleset, Visitor<RuleIdT, PropositionT> visitor,
+      SearchBudget budget) {
+    if (budget == null)
+      throw new NullPointerException();
+
+    final SearchBudget.Tracker tracker = budget.isUnlimited() ? null : budget.start();
+
+    final SolverMetrics metrics = getMetrics();
+    if (!metrics.isEnabled()) {
+      walk(assumptions, ruleset, visitor, null, tracker);
+    } else {
+      final long start = System.nanoTime();
+      try {
+        walk(assumptions, MeteredRuleSet.of(ruleset, metrics), visitor, metrics, tracker);
+      } finally {
+        metrics.recordPhase(SolverMetrics.Phase.WALK, System.nanoTime() - start);
+      }
+    }
+
+    return tracker != null ? tracker.getLimit() : null;
+  }
+
+  /**
+   * @param metrics the metrics to report to, or {@code null} to report nothing
+   * @param tracker the budget to spend, or {@code null} if the budget is unlimited
+   */
+  private void walk(Set<PropositionT> assumptions, RuleSet<RuleIdT, PropositionT> ruleset,
+      Visitor<RuleIdT, PropositionT> visitor, SolverMetrics metrics,
+      SearchBudget.Tracker tracker) {
+    // If the visitor does not care about order, then only walk one order of each set of rules.
+    final boolean reduced = !visitor.isOrderSensitive();
 
     // Use a stack to manage the DFS
-    Stack<DeductiveWalk<RuleIdT, PropositionT>> stack = new Stack<>();
-    stack.push(DeductiveWalk.start(assumptions));
+    Stack<DeductiveWalkState<RuleIdT, PropositionT>> stack = new Stack<>();
+    stack.push(DeductiveWalkState.start(assumptions, ruleset, getWalkFactory()));
 
     while (!stack.isEmpty()) {
-      DeductiveWalk<RuleIdT, PropositionT> currentWalk = stack.pop();
+      DeductiveWalkState<RuleIdT, PropositionT> currentState = stack.pop();
+
+      // Stop all walks if we cannot afford to visit this one.
+      if (tracker != null && !tracker.visit())
+        return;
 
       // Visit the current state of this walk
-      Instruction instruction = visitor.step(currentWalk);
+      Instruction instruction = visitor.step(currentState.getWalk());
+      if (metrics != null)
+        metrics.recordVisited(1L);
       switch (instruction) {
         case CONTINUE:
           // Carry on with this walk. Do nothing.
           break;
         case PRUNE:
           // Stop this walk only. Do not take any new steps on this walk.
+          if (metrics != null)
+            metrics.recordPruned(1L);
           continue;
         case STOP:
           // Stop all walks. Do not take any new steps on any walk.
           return;
       }
 
-      // Find all rules that can fire given the current assumptions and conclusions
-      Set<Rule<RuleIdT, PropositionT>> fireableRules = ruleset.findBySatisfiedAntecedents(
-          Sets.union(currentWalk.getAssumptions(), currentWalk.getConclusions()));
-
-      for (Rule<RuleIdT, PropositionT> rule : fireableRules) {
-        if (currentWalk.getAssumptions().contains(rule.getConsequent())) {
-          continue; // Skip as the consequent is already assumed
-        }
-        if (currentWalk.getConclusions().contains(rule.getConsequent())) {
-          continue; // Skip as the consequent is already concluded
-        }
-        if (currentWalk.getFired().contains(rule)) {
-          continue; // Skip as the rule has already been fired
-        }
-
+      // The state tracks all rules that can fire given the current assumptions and conclusions,
+      // excluding rules that have already fired or whose consequents are already known.
+      for (DeductiveWalkState<RuleIdT, PropositionT> nextState : currentState.expand(reduced)) {
         // Push a new walk to the stack to dive deeper into this path
-        stack.push(currentWalk.step(rule));
+        stack.push(nextState);
       }
+      if (metrics != null)
+        metrics.recordFrontier(stack.size());
+      if (tracker != null && !tracker.frontier(stack.size()))
+        return;
     }
   }
+
+  private DeductiveWalk.Factory<RuleIdT, PropositionT> getWalkFactory() {
+    return walkFactory;
+  }
+
+  private SolverMetrics getMetrics() {
+    return metrics;
+  }
 }
@@ -44,6 +44,17 @@ public class NullRuleSet<RuleIdT, PropositionT> implements RuleSet<RuleIdT, Prop
     return Sets.of();
   }
 
+  @Override
+  public Set<Rule<RuleIdT, PropositionT>> findByAntecedent(PropositionT proposition) {
+    return Sets.of();
+  }
+
+  @Override
+  public Set<Rule<RuleIdT, PropositionT>> findByNewlySatisfiedAntecedents(
+      Set<PropositionT> satisfied, PropositionT proposition) {
+    return Sets.of();
+  }
+
   @Override
   public Set<Rule<RuleIdT, PropositionT>> findByConsequent(PropositionT proposition) {
     return Sets.of();
@@ -0,0 +1,426 @@
+/*-
+ * =================================LICENSE_START==================================
+ * horn4j
+ * ====================================SECTION=====================================
+ * Copyright (C) 2024 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.horn4j.impl;
+
+import static java.util.Objects.requireNonNull;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import com.sigpwned.horn4j.AbductiveWalk;
+import com.sigpwned.horn4j.AbductiveWalker;
+import com.sigpwned.horn4j.Rule;
+import com.sigpwned.horn4j.RuleSet;
+import com.sigpwned.horn4j.SearchBudget;
+import com.sigpwned.horn4j.SolverMetrics;
+import com.sigpwned.horn4j.util.Sets;
+
+/**
+ * Walks the given rules abductively in <em>breadth-first</em> order, expanding the walks in each
+ * layer in parallel on a {@link ForkJoinPool}. This visits the same walks as
+ * {@link NaiveAbductiveWalker} without memoization, and every walk in one layer is visited before
+ * any walk in the next layer, but the walks within a layer are visited in no particular order.
+ * 
+ * <p>
+ * If the visitor is not {@link Visitor#isOrderSensitive() order-sensitive}, then this walker
+ * builds each explanation along one order only, the same way {@link BitSetAbductiveWalker} does,
+ * explaining the propositions that the fewest rules explain first.
+ * 
+ * <p>
+ * The visitor is called from many threads at once, so it must be thread-safe, and so must the rule
+ * set. If the visitor returns {@link AbductiveWalker.Instruction#STOP STOP}, then no worker starts
+ * visiting another walk, although calls that are already in progress on other threads run to
+ * completion. No calls to the visitor happen after {@code walk} returns. If the visitor throws an
+ * exception, then the walk stops and {@code walk} rethrows it.
+ * 
+ * @param <RuleIdT> the type of the rule identifiers
+ * @param <PropositionT> the type of the propositions
+ */
+public class ParallelBreadthFirstAbductiveWalker<RuleIdT, PropositionT>
+    implements AbductiveWalker<RuleIdT, PropositionT> {
+  /**
+   * How many tasks to split each layer into per worker thread. More tasks balance uneven work
+   * better, at the price of more scheduling overhead.
+   */
+  private static final int TASKS_PER_THREAD = 4;
+
+  private static class WalkState<RuleIdT, PropositionT> {
+    public static <RuleIdT, PropositionT> WalkState<RuleIdT, PropositionT> start(
+        Set<PropositionT> hypotheses) {
+      return new WalkState<>(Sets.copyOf(hypotheses), Sets.of(), Sets.of(), Sets.of(), Sets.of());
+    }
+
+    private final Set<PropositionT> queue;
+    private final Set<PropositionT> lemmas;
+    private final Set<PropositionT> postulates;
+    private final Set<Rule<RuleIdT, PropositionT>> fired;
+
+    /**
+     * The propositions left to explain that this walk has given up on explaining. This is always
+     * empty if the visitor is order-sensitive.
+     */
+    private final Set<PropositionT> skipped;
+
+    public WalkState(Set<PropositionT> queue, Set<PropositionT> lemmas,
+        Set<PropositionT> postulates, Set<Rule<RuleIdT, PropositionT>> fired,
+        Set<PropositionT> skipped) {
+      this.queue = queue;
+      this.lemmas = lemmas;
+      this.postulates = postulates;
+      this.fired = fired;
+      this.skipped = skipped;
+    }
+
+    /**
+     * Returns the walks that explain one more of the propositions this walk has left to explain.
+     * If {@code reduced} is {@code true}, then each new walk also gives up on explaining the
+     * propositions that its siblings explain, so no two walks grown this way are ever equal.
+     */
+    public List<WalkState<RuleIdT, PropositionT>> expand(Set<PropositionT> hypotheses,
+        RuleSet<RuleIdT, PropositionT> ruleset, boolean reduced) {
+      final List<PropositionT> candidates = new ArrayList<>(queue.size());
+      for (PropositionT next : queue)
+        if (!postulates.contains(next) && !lemmas.contains(next) && !skipped.contains(next))
+          candidates.add(next);
+
+      final Map<PropositionT, Set<Rule<RuleIdT, PropositionT>>> explanations = new HashMap<>();
+      for (PropositionT candidate : candidates)
+        explanations.put(candidate, ruleset.findByConsequent(candidate));
+
+      // Make the forced choices first, so the walks that lead nowhere stay short.
+      if (reduced)
+        candidates.sort(Comparator.comparingInt(candidate -> explanations.get(candidate).size()));
+
+      final List<WalkState<RuleIdT, PropositionT>> result = new ArrayList<>();
+      Set<PropositionT> newSkipped = skipped;
+      for (PropositionT next : candidates) {
+        final Set<PropositionT> rest = new HashSet<>(queue);
+        rest.remove(next);
+
+        final Set<Rule<RuleIdT, PropositionT>> fireableRules = explanations.get(next);
+        if (fireableRules.isEmpty()) {
+          final Set<PropositionT> newPostulates = new HashSet<>(postulates);
+          newPostulates.add(next);
+          result.add(new WalkState<>(rest, lemmas, newPostulates, fired, newSkipped));
+        } else {
+          final Set<PropositionT> newLemmas;
+          if (!hypotheses.contains(next)) {
+            newLemmas = new HashSet<>(lemmas);
+            newLemmas.add(next);
+          } else {
+            newLemmas = lemmas;
+          }
+
+          for (Rule<RuleIdT, PropositionT> rule : fireableRules) {
+            final Set<PropositionT> newQueue = new HashSet<>(rest);
+            newQueue.addAll(rule.getAntecedents());
+
+            final Set<Rule<RuleIdT, PropositionT>> newFired = new HashSet<>(fired);
+            newFired.add(rule);
+
+            result.add(new WalkState<>(newQueue, newLemmas, postulates, newFired, newSkipped));
+          }
+        }
+
+        if (reduced && isSkippable(hypotheses, ruleset, fireableRules)) {
+          newSkipped = new HashSet<>(newSkipped);
+          newSkipped.add(next);
+        }
+      }
+
+      return result;
+    }
+
+    /**
+     * Returns {@code true} if the siblings of a walk may explain a proposition that the given rules
+     * explain for it. That is only so if none of the rules needs a hypothesis that some rule
+     * explains, for the same reason as in {@link BitSetAbductiveWalker}.
+     */
+    private static <RuleIdT, PropositionT> boolean isSkippable(Set<PropositionT> hypotheses,
+        RuleSet<RuleIdT, PropositionT> ruleset, Set<Rule<RuleIdT, PropositionT>> explanations) {
+      for (Rule<RuleIdT, PropositionT> rule : explanations)
+        for (PropositionT antecedent : rule.getAntecedents())
+          if (hypotheses.contains(antecedent) && !ruleset.findByConsequent(antecedent).isEmpty())
+            return false;
+      return true;
+    }
+
+    /**
+     * @return this state as a walk from the given hypotheses
+     */
+    public AbductiveWalk<RuleIdT, PropositionT> toWalk(Set<PropositionT> hypotheses) {
+      return new AbductiveWalk<>(hypotheses, new LinkedHashSet<>(fired),
+          Sets.union(postulates, lemmas));
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(fired, lemmas, postulates, queue, skipped);
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public boolean equals(Object obj) {
+      if (this == obj)
+        return true;
+      if (obj == null)
+        return false;
+      if (getClass() != obj.getClass())
+        return false;
+      WalkState other = (WalkState) obj;
+      return Objects.equals(fired, other.fired) && Objects.equals(lemmas, other.lemmas)
+          && Objects.equals(postulates, other.postulates) && Objects.equals(queue, other.queue)
+          && Objects.equals(skipped, other.skipped);
+    }
+
+    @Override
+    public String toString() {
+      return "WalkState [queue=" + queue + ", lemmas=" + lemmas + ", postulates=" + postulates
+          + ", fired=" + fired + ", skipped=" + skipped + "]";
+    }
+  }
+
+  private final ForkJoinPool pool;
+  private final SolverMetrics metrics;
+
+  public ParallelBreadthFirstAbductiveWalker() {
+    this(ForkJoinPool.commonPool());
+  }
+
+  public ParallelBreadthFirstAbductiveWalker(ForkJoinPool pool) {
+    this(pool, SolverMetrics.none());
+  }
+
+  /**
+   * @param pool the pool to expand layers on
+   * @param metrics receives what this walker does, from many threads at once
+   */
+  public ParallelBreadthFirstAbductiveWalker(ForkJoinPool pool, SolverMetrics metrics) {
+    this.pool = requireNonNull(pool);
+    this.metrics = requireNonNull(metrics);
+  }
+
+  @Override
+  public SearchBudget.Limit walk(Set<PropositionT> hypotheses,
+      RuleSet<RuleIdT, PropositionT> ruleset, Visitor<RuleIdT, PropositionT> visitor,
+      SearchBudget budget) {
+    if (hypotheses == null)
+      throw new NullPointerException();
+    if (ruleset == null)
+      throw new NullPointerException();
+    if (visitor == null)
+      throw new NullPointerException();
+
+    if (budget == null)
+      throw new NullPointerException();
+
+    final SearchBudget.Tracker tracker = budget.isUnlimited() ? null : budget.start();
+
+    final SolverMetrics metrics = getMetrics();
+    if (!metrics.isEnabled()) {
+      walk(hypotheses, ruleset, visitor, null, tracker);
+    } else {
+      final long start = System.nanoTime();
+      try {
+        walk(hypotheses, MeteredRuleSet.of(ruleset, metrics), visitor, metrics, tracker);
+      } finally {
+        metrics.recordPhase(SolverMetrics.Phase.WALK, System.nanoTime() - start);
+      }
+    }
+
+    return tracker != null ? tracker.getLimit() : null;
+  }
+
+  /**
+   * @param metrics the metrics to report to, or {@code null} to report nothing
+   * @param tracker the budget to spend, or {@code null} if the budget is unlimited
+   */
+  private void walk(Set<PropositionT> hypotheses, RuleSet<RuleIdT, PropositionT> ruleset,
+      Visitor<RuleIdT, PropositionT> visitor, SolverMetrics metrics,
+      SearchBudget.Tracker tracker) {
+    // If the visitor does not care about order, then only build one order of each explanation.
+    final boolean reduced = !visitor.isOrderSensitive();
+
+    final AtomicBoolean stopped = new AtomicBoolean(false);
+
+    List<WalkState<RuleIdT, PropositionT>> additions = new ArrayList<>();
+    additions.add(WalkState.start(hypotheses));
+    do {
+      // Equal walks reached from different parents collapse into one here, just like they do in
+      // the sequential walker.
+      final Set<WalkState<RuleIdT, PropositionT>> newAdditions = ConcurrentHashMap.newKeySet();
+
+      // Only count the walks that collapse into others if someone is listening.
+      final LongAdder children = metrics != null ? new LongAdder() : null;
+
+      final int threshold =
+          Math.max(1, additions.size() / (getPool().getParallelism() * TASKS_PER_THREAD));
+      getPool().invoke(new LayerTask<>(hypotheses, ruleset, additions, 0, additions.size(),
+          threshold, visitor, reduced, newAdditions, stopped, metrics, children, tracker));
+
+      if (stopped.get())
+        return;
+
+      if (metrics != null && !newAdditions.isEmpty()) {
+        metrics.recordDeduplicated(children.sum() - newAdditions.size());
+        metrics.recordFrontier(newAdditions.size());
+      }
+
+      additions = new ArrayList<>(newAdditions);
+    } while (!additions.isEmpty());
+  }
+
+  /**
+   * Visits and expands a slice of one layer, splitting it in half until it is small enough.
+   */
+  private static class LayerTask<RuleIdT, PropositionT> extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+
+    private final Set<PropositionT> hypotheses;
+    private final RuleSet<RuleIdT, PropositionT> ruleset;
+    private final List<WalkState<RuleIdT, PropositionT>> layer;
+    private final int fromIndex;
+    private final int toIndex;
+    private final int threshold;
+    private final Visitor<RuleIdT, PropositionT> visitor;
+    private final boolean reduced;
+    private final Set<WalkState<RuleIdT, PropositionT>> newAdditions;
+    private final AtomicBoolean stopped;
+    private final SolverMetrics metrics;
+    private final LongAdder children;
+    private final SearchBudget.Tracker tracker;
+
+    public LayerTask(Set<PropositionT> hypotheses, RuleSet<RuleIdT, PropositionT> ruleset,
+        List<WalkState<RuleIdT, PropositionT>> layer, int fromIndex, int toIndex, int threshold,
+        Visitor<RuleIdT, PropositionT> visitor, boolean reduced,
+        Set<WalkState<RuleIdT, PropositionT>> newAdditions, AtomicBoolean stopped,
+        SolverMetrics metrics, LongAdder children, SearchBudget.Tracker tracker) {
+      this.hypotheses = hypotheses;
+      this.ruleset = ruleset;
+      this.layer = layer;
+      this.fromIndex = fromIndex;
+      this.toIndex = toIndex;
+      this.threshold = threshold;
+      this.visitor = visitor;
+      this.reduced = reduced;
+      this.newAdditions = newAdditions;
+      this.stopped = stopped;
+      this.metrics = metrics;
+      this.children = children;
+      this.tracker = tracker;
+    }
+
+    @Override
+    protected void compute() {
+      try {
+        visitAndExpand();
+      } catch (RuntimeException | Error e) {
+        // Keep the other workers from visiting any more walks before we rethrow.
+        stopped.set(true);
+        throw e;
+      }
+    }
+
+    private void visitAndExpand() {
+      if (stopped.get())
+        return;
+
+      if (toIndex - fromIndex > threshold) {
+        final int middle = (fromIndex + toIndex) >>> 1;
+        final LayerTask<RuleIdT, PropositionT> left = new LayerTask<>(hypotheses, ruleset, layer,
+            fromIndex, middle, threshold, visitor, reduced, newAdditions, stopped, metrics,
+            children, tracker);
+        final LayerTask<RuleIdT, PropositionT> right = new LayerTask<>(hypotheses, ruleset, layer,
+            middle, toIndex, threshold, visitor, reduced, newAdditions, stopped, metrics, children,
+            tracker);
+        right.fork();
+        left.quietlyInvoke();
+        right.quietlyJoin();
+        // Only rethrow once both halves are done, so no call to the visitor is still running on
+        // another thread when walk throws.
+        left.join();
+        right.join();
+        return;
+      }
+
+      for (int i = fromIndex; i < toIndex; i++) {
+        // Check before every walk, so a STOP anywhere ends the search promptly everywhere.
+        if (stopped.get())
+          return;
+
+        // Stop all walks if we cannot afford to visit this one.
+        if (tracker != null && !tracker.visit()) {
+          stopped.set(true);
+          return;
+        }
+
+        final WalkState<RuleIdT, PropositionT> state = layer.get(i);
+        Instruction instruction = visitor.step(state.toWalk(hypotheses));
+        if (metrics != null)
+          metrics.recordVisited(1L);
+        switch (instruction) {
+          case CONTINUE:
+            // Carry on with this walk. Do nothing.
+            break;
+          case PRUNE:
+            // Stop this walk only. Do not take any new steps on this walk.
+            if (metrics != null)
+              metrics.recordPruned(1L);
+            continue;
+          case STOP:
+            // Stop all walks. Do not take any new steps on any walk.
+            stopped.set(true);
+            return;
+        }
+
+        for (WalkState<RuleIdT, PropositionT> newState : state.expand(hypotheses, ruleset,
+            reduced)) {
+          newAdditions.add(newState);
+          if (children != null)
+            children.increment();
+
+          // Check as the next layer grows, since one layer can be far bigger than the last.
+          if (tracker != null && !tracker.frontier(newAdditions.size())) {
+            stopped.set(true);
+            return;
+          }
+        }
+      }
+    }
+  }
+
+  private ForkJoinPool getPool() {
+    return pool;
+  }
+
+  private SolverMetrics getMetrics() {
+    return metrics;
+  }
+}
@@ -0,0 +1,289 @@
+/*-
+ * =================================LICENSE_START==================================
+ * horn4j
+ * ====================================SECTION=====================================
+ * Copyright (C) 2024 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.horn4j.impl;
+
+import static java.util.Objects.requireNonNull;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import com.sigpwned.horn4j.DeductiveWalk;
+import com.sigpwned.horn4j.DeductiveWalker;
+import com.sigpwned.horn4j.RuleSet;
+import com.sigpwned.horn4j.SearchBudget;
+import com.sigpwned.horn4j.SolverMetrics;
+
+/**
+ * Walks the given rules deductively in <em>breadth-first</em> order, expanding the walks in each
+ * layer in parallel on a {@link ForkJoinPool}. This visits the same walks as
+ * {@link NaiveBreadthFirstDeductiveWalker}, and every walk in one layer is visited before any walk
+ * in the next layer, but the walks within a layer are visited in no particular order.
+ * 
+ * <p>
+ * The visitor is called from many threads at once, so it must be thread-safe. If the visitor
+ * returns {@link DeductiveWalker.Instruction#STOP STOP}, then no worker starts visiting another
+ * walk, although calls that are already in progress on other threads run to completion. No calls
+ * to the visitor happen after {@code walk} returns. If the visitor throws an exception, then the
+ * walk stops and {@code walk} rethrows it.
+ * 
+ * @param <RuleIdT> the type of the rule identifiers
+ * @param <PropositionT> the type of the propositions
+ */
+public class ParallelBreadthFirstDeductiveWalker<RuleIdT, PropositionT>
+    implements DeductiveWalker<RuleIdT, PropositionT> {
+  /**
+   * How many tasks to split each layer into per worker thread. More tasks balance uneven work
+   * better, at the price of more scheduling overhead.
+   */
+  private static final int TASKS_PER_THREAD = 4;
+
+  private final ForkJoinPool pool;
+  private final DeductiveWalk.Factory<RuleIdT, PropositionT> walkFactory;
+  private final SolverMetrics metrics;
+
+  public ParallelBreadthFirstDeductiveWalker() {
+    this(ForkJoinPool.commonPool());
+  }
+
+  public ParallelBreadthFirstDeductiveWalker(ForkJoinPool pool) {
+    this(pool, BitSetDeductiveWalk.factory());
+  }
+
+  /**
+   * @param pool the pool to expand layers on
+   * @param walkFactory starts the walks this walker builds
+   */
+  public ParallelBreadthFirstDeductiveWalker(ForkJoinPool pool,
+      DeductiveWalk.Factory<RuleIdT, PropositionT> walkFactory) {
+    this(pool, walkFactory, SolverMetrics.none());
+  }
+
+  /**
+   * @param pool the pool to expand layers on
+   * @param walkFactory starts the walks this walker builds
+   * @param metrics receives what this walker does, from many threads at once
+   */
+  public ParallelBreadthFirstDeductiveWalker(ForkJoinPool pool,
+      DeductiveWalk.Factory<RuleIdT, PropositionT> walkFactory, SolverMetrics metrics) {
+    this.pool = requireNonNull(pool);
+    this.walkFactory = requireNonNull(walkFactory);
+    this.metrics = requireNonNull(metrics);
+  }
+
+  @Override
+  public SearchBudget.Limit walk(Set<PropositionT> assumptions,
+      RuleSet<RuleIdT, PropositionT> ruleset, Visitor<RuleIdT, PropositionT> visitor,
+      SearchBudget budget) {
+    if (assumptions == null)
+      throw new NullPointerException();
+    if (ruleset == null)
+      throw new NullPointerException();
+    if (visitor == null)
+      throw new NullPointerException();
+
+    if (budget == null)
+      throw new NullPointerException();
+
+    final SearchBudget.Tracker tracker = budget.isUnlimited() ? null : budget.start();
+
+    final SolverMetrics metrics = getMetrics();
+    if (!metrics.isEnabled()) {
+      walk(assumptions, ruleset, visitor, null, tracker);
+    } else {
+      final long start = System.nanoTime();
+      try {
+        walk(assumptions, MeteredRuleSet.of(ruleset, metrics), visitor, metrics, tracker);
+      } finally {
+        metrics.recordPhase(SolverMetrics.Phase.WALK, System.nanoTime() - start);
+      }
+    }
+
+    return tracker != null ? tracker.getLimit() : null;
+  }
+
+  /**
+   * @param metrics the metrics to report to, or {@code null} to report nothing
+   * @param tracker the budget to spend, or {@code null} if the budget is unlimited
+   */
+  private void walk(Set<PropositionT> assumptions, RuleSet<RuleIdT, PropositionT> ruleset,
+      Visitor<RuleIdT, PropositionT> visitor, SolverMetrics metrics,
+      SearchBudget.Tracker tracker) {
+    // If the visitor does not care about order, then only walk one order of each set of rules.
+    final boolean reduced = !visitor.isOrderSensitive();
+
+    final AtomicBoolean stopped = new AtomicBoolean(false);
+
+    List<DeductiveWalkState<RuleIdT, PropositionT>> additions = new ArrayList<>();
+    additions.add(DeductiveWalkState.start(assumptions, ruleset, getWalkFactory()));
+    do {
+      // Equal walks reached from different parents collapse into one here, just like they do in
+      // the sequential walker.
+      final ConcurrentMap<DeductiveWalkState<RuleIdT, PropositionT>, DeductiveWalkState<RuleIdT, PropositionT>> newAdditions =
+          new ConcurrentHashMap<>();
+
+      // Only count the walks that collapse into others if someone is listening.
+      final LongAdder children = metrics != null ? new LongAdder() : null;
+
+      final int threshold =
+          Math.max(1, additions.size() / (getPool().getParallelism() * TASKS_PER_THREAD));
+      getPool().invoke(new LayerTask<>(additions, 0, additions.size(), threshold, visitor,
+          reduced, newAdditions, stopped, metrics, children, tracker));
+
+      if (stopped.get())
+        return;
+
+      if (metrics != null && !newAdditions.isEmpty()) {
+        metrics.recordDeduplicated(children.sum() - newAdditions.size());
+        metrics.recordFrontier(newAdditions.size());
+      }
+
+      additions = new ArrayList<>(newAdditions.values());
+    } while (!additions.isEmpty());
+  }
+
+  /**
+   * Visits and expands a slice of one layer, splitting it in half until it is small enough.
+   */
+  private static class LayerTask<RuleIdT, PropositionT> extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+
+    private final List<DeductiveWalkState<RuleIdT, PropositionT>> layer;
+    private final int fromIndex;
+    private final int toIndex;
+    private final int threshold;
+    private final Visitor<RuleIdT, PropositionT> visitor;
+    private final boolean reduced;
+    private final ConcurrentMap<DeductiveWalkState<RuleIdT, PropositionT>, DeductiveWalkState<RuleIdT, PropositionT>> newAdditions;
+    private final AtomicBoolean stopped;
+    private final SolverMetrics metrics;
+    private final LongAdder children;
+    private final SearchBudget.Tracker tracker;
+
+    public LayerTask(List<DeductiveWalkState<RuleIdT, PropositionT>> layer, int fromIndex,
+        int toIndex, int threshold, Visitor<RuleIdT, PropositionT> visitor, boolean reduced,
+        ConcurrentMap<DeductiveWalkState<RuleIdT, PropositionT>, DeductiveWalkState<RuleIdT, PropositionT>> newAdditions,
+        AtomicBoolean stopped, SolverMetrics metrics, LongAdder children,
+        SearchBudget.Tracker tracker) {
+      this.layer = layer;
+      this.fromIndex = fromIndex;
+      this.toIndex = toIndex;
+      this.threshold = threshold;
+      this.visitor = visitor;
+      this.reduced = reduced;
+      this.newAdditions = newAdditions;
+      this.stopped = stopped;
+      this.metrics = metrics;
+      this.children = children;
+      this.tracker = tracker;
+    }
+
+    @Override
+    protected void compute() {
+      try {
+        visitAndExpand();
+      } catch (RuntimeException | Error e) {
+        // Keep the other workers from visiting any more walks before we rethrow.
+        stopped.set(true);
+        throw e;
+      }
+    }
+
+    private void visitAndExpand() {
+      if (stopped.get())
+        return;
+
+      if (toIndex - fromIndex > threshold) {
+        final int middle = (fromIndex + toIndex) >>> 1;
+        final LayerTask<RuleIdT, PropositionT> left = new LayerTask<>(layer, fromIndex, middle,
+            threshold, visitor, reduced, newAdditions, stopped, metrics, children, tracker);
+        final LayerTask<RuleIdT, PropositionT> right = new LayerTask<>(layer, middle, toIndex,
+            threshold, visitor, reduced, newAdditions, stopped, metrics, children, tracker);
+        right.fork();
+        left.quietlyInvoke();
+        right.quietlyJoin();
+        // Only rethrow once both halves are done, so no call to the visitor is still running on
+        // another thread when walk throws.
+        left.join();
+        right.join();
+        return;
+      }
+
+      for (int i = fromIndex; i < toIndex; i++) {
+        // Check before every walk, so a STOP anywhere ends the search promptly everywhere.
+        if (stopped.get())
+          return;
+
+        // Stop all walks if we cannot afford to visit this one.
+        if (tracker != null && !tracker.visit()) {
+          stopped.set(true);
+          return;
+        }
+
+        final DeductiveWalkState<RuleIdT, PropositionT> state = layer.get(i);
+        Instruction instruction = visitor.step(state.getWalk());
+        if (metrics != null)
+          metrics.recordVisited(1L);
+        switch (instruction) {
+          case CONTINUE:
+            // Carry on with this walk. Do nothing.
+            break;
+          case PRUNE:
+            // Stop this walk only. Do not take any new steps on this walk.
+            if (metrics != null)
+              metrics.recordPruned(1L);
+            continue;
+          case STOP:
+            // Stop all walks. Do not take any new steps on any walk.
+            stopped.set(true);
+            return;
+        }
+
+        for (DeductiveWalkState<RuleIdT, PropositionT> newState : state.expand(reduced)) {
+          newAdditions.merge(newState, newState, DeductiveWalkState::merge);
+          if (children != null)
+            children.increment();
+
+          // Check as the next layer grows, since one layer can be far bigger than the last.
+          if (tracker != null && !tracker.frontier(newAdditions.size())) {
+            stopped.set(true);
+            return;
+          }
+        }
+      }
+    }
+  }
+
+  private ForkJoinPool getPool() {
+    return pool;
+  }
+
+  private DeductiveWalk.Factory<RuleIdT, PropositionT> getWalkFactory() {
+    return walkFactory;
+  }
+
+  private SolverMetrics getMetrics() {
+    return metrics;
+  }
+}
@@ -0,0 +1,265 @@
+/*-
+ * =================================LICENSE_START==================================
+ * horn4j
+ * ====================================SECTION=====================================
+ * Copyright (C) 2024 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.horn4j.impl;
+
+import static java.util.Objects.requireNonNull;
+import java.util.Set;
+import java.util.concurrent.CountedCompleter;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import com.sigpwned.horn4j.DeductiveWalk;
+import com.sigpwned.horn4j.DeductiveWalker;
+import com.sigpwned.horn4j.RuleSet;
+import com.sigpwned.horn4j.SearchBudget;
+import com.sigpwned.horn4j.SolverMetrics;
+
+/**
+ * Walks the given rules deductively in <em>depth-first</em> order on many threads at once. This
+ * visits the same walks as {@link NaiveDepthFirstDeductiveWalker}, but not in the same order.
+ * 
+ * <p>
+ * Each worker thread of the {@link ForkJoinPool} keeps its own deque of pending walks. A worker
+ * dives into the first child of each walk it expands and pushes the other children onto its deque,
+ * so it works depth-first and its deque holds about one level of siblings per step of depth, just
+ * like the stack of the sequential walker. An idle worker steals the oldest, which is to say the
+ * shallowest, pending walk from a busy worker, so thieves take the biggest chunks of work and
+ * steal rarely. This keeps memory close to the sequential depth-first walker while using all
+ * cores, unlike {@link ParallelBreadthFirstDeductiveWalker}, which holds whole layers in memory.
+ * 
+ * <p>
+ * The visitor is called from many threads at once, so it must be thread-safe. If the visitor
+ * returns {@link DeductiveWalker.Instruction#STOP STOP}, then no worker starts visiting another
+ * walk, although calls that are already in progress on other threads run to completion. No calls
+ * to the visitor happen after {@code walk} returns. If the visitor throws an exception, then the
+ * walk stops and {@code walk} rethrows it.
+ * 
+ * @param <RuleIdT> the type of the rule identifiers
+ * @param <PropositionT> the type of the propositions
+ */
+public class ParallelDepthFirstDeductiveWalker<RuleIdT, PropositionT>
+    implements DeductiveWalker<RuleIdT, PropositionT> {
+  private final ForkJoinPool pool;
+  private final DeductiveWalk.Factory<RuleIdT, PropositionT> walkFactory;
+  private final SolverMetrics metrics;
+
+  public ParallelDepthFirstDeductiveWalker() {
+    this(ForkJoinPool.commonPool());
+  }
+
+  public ParallelDepthFirstDeductiveWalker(ForkJoinPool pool) {
+    this(pool, BitSetDeductiveWalk.factory());
+  }
+
+  /**
+   * @param pool the pool whose workers walk and steal from each other
+   * @param walkFactory starts the walks this walker builds
+   */
+  public ParallelDepthFirstDeductiveWalker(ForkJoinPool pool,
+      DeductiveWalk.Factory<RuleIdT, PropositionT> walkFactory) {
+    this(pool, walkFactory, SolverMetrics.none());
+  }
+
+  /**
+   * @param pool the pool whose workers walk and steal from each other
+   * @param walkFactory starts the walks this walker builds
+   * @param metrics receives what this walker does, from many threads at once
+   */
+  public ParallelDepthFirstDeductiveWalker(ForkJoinPool pool,
+      DeductiveWalk.Factory<RuleIdT, PropositionT> walkFactory, SolverMetrics metrics) {
+    this.pool = requireNonNull(pool);
+    this.walkFactory = requireNonNull(walkFactory);
+    this.metrics = requireNonNull(metrics);
+  }
+
+  @Override
+  public SearchBudget.Limit walk(Set<PropositionT> assumptions,
+      RuleSet<RuleIdT, PropositionT> ruleset, Visitor<RuleIdT, PropositionT> visitor,
+      SearchBudget budget) {
+    if (assumptions == null)
+      throw new NullPointerException();
+    if (ruleset == null)
+      throw new NullPointerException();
+    if (visitor == null)
+      throw new NullPointerException();
+
+    if (budget == null)
+      throw new NullPointerException();
+
+    final SearchBudget.Tracker tracker = budget.isUnlimited() ? null : budget.start();
+
+    final SolverMetrics metrics = getMetrics();
+    if (!metrics.isEnabled()) {
+      walk(assumptions, ruleset, visitor, null, tracker);
+    } else {
+      final long start = System.nanoTime();
+      try {
+        walk(assumptions, MeteredRuleSet.of(ruleset, metrics), visitor, metrics, tracker);
+      } finally {
+        metrics.recordPhase(SolverMetrics.Phase.WALK, System.nanoTime() - start);
+      }
+    }
+
+    return tracker != null ? tracker.getLimit() : null;
+  }
+
+  /**
+   * @param metrics the metrics to report to, or {@code null} to report nothing
+   * @param tracker the budget to spend, or {@code null} if the budget is unlimited
+   */
+  private void walk(Set<PropositionT> assumptions, RuleSet<RuleIdT, PropositionT> ruleset,
+      Visitor<RuleIdT, PropositionT> visitor, SolverMetrics metrics,
+      SearchBudget.Tracker tracker) {
+    // If the visitor does not care about order, then only walk one order of each set of rules.
+    final boolean reduced = !visitor.isOrderSensitive();
+
+    // Only track the walks waiting on the deques if someone is listening or counting.
+    final AtomicLong pending = metrics != null || tracker != null ? new AtomicLong(0L) : null;
+
+    final AtomicReference<Throwable> failure = new AtomicReference<>();
+    getPool().invoke(new WalkTask<>(null,
+        DeductiveWalkState.start(assumptions, ruleset, getWalkFactory()), visitor, reduced,
+        new AtomicBoolean(false), failure, metrics, pending, tracker));
+
+    // Rethrow the first exception the visitor threw, now that no worker is calling it anymore.
+    final Throwable e = failure.get();
+    if (e instanceof RuntimeException)
+      throw (RuntimeException) e;
+    if (e instanceof Error)
+      throw (Error) e;
+  }
+
+  /**
+   * Walks depth-first from one state, forking off all children but the first for other workers to
+   * steal. The task completes when it and all the tasks it forked have completed, so the root task
+   * completes when the whole walk is done. We never join, so the Java stack does not grow with the
+   * depth of the walk. If the visitor throws, then the task records the exception and completes
+   * normally, so the root task still waits for the other tasks to stop before the walk rethrows it.
+   */
+  private static class WalkTask<RuleIdT, PropositionT> extends CountedCompleter<Void> {
+    private static final long serialVersionUID = 1L;
+
+    private final DeductiveWalkState<RuleIdT, PropositionT> state;
+    private final Visitor<RuleIdT, PropositionT> visitor;
+    private final boolean reduced;
+    private final AtomicBoolean stopped;
+    private final AtomicReference<Throwable> failure;
+    private final SolverMetrics metrics;
+    private final AtomicLong pending;
+    private final SearchBudget.Tracker tracker;
+
+    public WalkTask(CountedCompleter<?> completer, DeductiveWalkState<RuleIdT, PropositionT> state,
+        Visitor<RuleIdT, PropositionT> visitor, boolean reduced, AtomicBoolean stopped,
+        AtomicReference<Throwable> failure, SolverMetrics metrics, AtomicLong pending,
+        SearchBudget.Tracker tracker) {
+      super(completer);
+      this.state = state;
+      this.visitor = visitor;
+      this.reduced = reduced;
+      this.stopped = stopped;
+      this.failure = failure;
+      this.metrics = metrics;
+      this.pending = pending;
+      this.tracker = tracker;
+    }
+
+    @Override
+    public void compute() {
+      // Our walk is no longer waiting on a deque.
+      if (pending != null && getCompleter() != null)
+        pending.decrementAndGet();
+
+      try {
+        visitAndExpand();
+      } catch (RuntimeException | Error e) {
+        // Stop all walks, and keep the first exception for the walker to rethrow.
+        failure.compareAndSet(null, e);
+        stopped.set(true);
+      }
+      tryComplete();
+    }
+
+    private void visitAndExpand() {
+      DeductiveWalkState<RuleIdT, PropositionT> currentState = state;
+      while (currentState != null && !stopped.get()) {
+        // Stop all walks if we cannot afford to visit this one.
+        if (tracker != null && !tracker.visit()) {
+          stopped.set(true);
+          break;
+        }
+
+        // Visit the current state of this walk
+        Instruction instruction = visitor.step(currentState.getWalk());
+        if (metrics != null)
+          metrics.recordVisited(1L);
+        switch (instruction) {
+          case CONTINUE:
+            // Carry on with this walk. Do nothing.
+            break;
+          case PRUNE:
+            // Stop this walk only. Do not take any new steps on this walk.
+            if (metrics != null)
+              metrics.recordPruned(1L);
+            currentState = null;
+            continue;
+          case STOP:
+            // Stop all walks. Do not take any new steps on any walk.
+            stopped.set(true);
+            currentState = null;
+            continue;
+        }
+
+        // Dive into the first child ourselves, and leave the rest on our deque. We pop them
+        // newest first once this dive is done, unless another worker steals them first.
+        DeductiveWalkState<RuleIdT, PropositionT> nextState = null;
+        for (DeductiveWalkState<RuleIdT, PropositionT> child : currentState.expand(reduced)) {
+          if (nextState == null) {
+            nextState = child;
+          } else {
+            addToPendingCount(1);
+            if (pending != null) {
+              final long frontier = pending.incrementAndGet();
+              if (metrics != null)
+                metrics.recordFrontier(frontier);
+              if (tracker != null && !tracker.frontier(frontier))
+                stopped.set(true);
+            }
+            new WalkTask<>(this, child, visitor, reduced, stopped, failure, metrics, pending,
+                tracker).fork();
+          }
+        }
+        currentState = nextState;
+      }
+    }
+  }
+
+  private ForkJoinPool getPool() {
+    return pool;
+  }
+
+  private DeductiveWalk.Factory<RuleIdT, PropositionT> getWalkFactory() {
+    return walkFactory;
+  }
+
+  private SolverMetrics getMetrics() {
+    return metrics;
+  }
+}
@@ -0,0 +1,296 @@
+/*-
+ * =================================LICENSE_START==================================
+ * horn4j
+ * ====================================SECTION=====================================
+ * Copyright (C) 2024 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.horn4j.impl;
+
+import static java.util.Collections.unmodifiableSet;
+import static java.util.Objects.requireNonNull;
+import java.util.AbstractSet;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import com.sigpwned.horn4j.DeductiveWalk;
+import com.sigpwned.horn4j.Rule;
+
+/**
+ * A persistent {@link DeductiveWalk} that stores only its parent walk and the last rule it fired.
+ * Walks that grow from the same parent share everything but their last step, so a frontier of
+ * walks takes memory proportional to the number of walks, not the number of walks times their
+ * length, and {@link #step(Rule)} allocates one small object no matter how long the walk is.
+ * 
+ * <p>
+ * The price is paid in lookups. The {@link Set} getters return lazy views, and checking whether a
+ * view contains an element, like checking whether a step is valid, walks the parent chain, which
+ * takes time linear in the length of the walk. Iterating over a view, comparing two walks, and
+ * {@link #contains(DeductiveWalk)} are linear as well. {@link #hashCode()} is maintained as the
+ * walk grows, so it is constant. This trade is a good one for large searches over short walks,
+ * which run out of memory long before they run out of time.
+ * 
+ * @param <RuleIdT> the type of the rule identifiers
+ * @param <PropositionT> the type of the propositions
+ */
+public class PersistentDeductiveWalk<RuleIdT, PropositionT>
+    extends DeductiveWalk<RuleIdT, PropositionT> {
+  /**
+   * Starts walks as {@link PersistentDeductiveWalk} objects, for use with the deductive walkers.
+   */
+  public static <RuleIdT, PropositionT> DeductiveWalk.Factory<RuleIdT, PropositionT> factory() {
+    return (assumptions, rules) -> start(assumptions);
+  }
+
+  public static <RuleIdT, PropositionT> PersistentDeductiveWalk<RuleIdT, PropositionT> start(
+      Set<PropositionT> assumptions) {
+    if (assumptions == null)
+      throw new NullPointerException();
+    return new PersistentDeductiveWalk<>(unmodifiableSet(assumptions), assumptions.hashCode(), null,
+        null, 0, 0, 0);
+  }
+
+  private final Set<PropositionT> assumptions;
+
+  /**
+   * The walk this walk grew from, or {@code null} if this walk has not fired any rules.
+   */
+  private final PersistentDeductiveWalk<RuleIdT, PropositionT> parent;
+
+  /**
+   * The last rule fired, or {@code null} if this walk has not fired any rules.
+   */
+  private final Rule<RuleIdT, PropositionT> rule;
+
+  /**
+   * The number of rules fired, which is also the number of conclusions.
+   */
+  private final int size;
+
+  /**
+   * The hash codes of the assumptions, conclusions, and fired rules as sets. A set's hash code is
+   * the sum of its elements' hash codes, so we can maintain them as the walk grows.
+   */
+  private final int assumptionsHashCode;
+  private final int conclusionsHashCode;
+  private final int firedHashCode;
+
+  private PersistentDeductiveWalk(Set<PropositionT> assumptions, int assumptionsHashCode,
+      PersistentDeductiveWalk<RuleIdT, PropositionT> parent, Rule<RuleIdT, PropositionT> rule,
+      int size, int conclusionsHashCode, int firedHashCode) {
+    super(assumptions);
+    this.assumptions = requireNonNull(assumptions);
+    this.assumptionsHashCode = assumptionsHashCode;
+    this.parent = parent;
+    this.rule = rule;
+    this.size = size;
+    this.conclusionsHashCode = conclusionsHashCode;
+    this.firedHashCode = firedHashCode;
+  }
+
+  @Override
+  public Set<PropositionT> getAssumptions() {
+    return assumptions;
+  }
+
+  @Override
+  public Set<Rule<RuleIdT, PropositionT>> getFired() {
+    return new AbstractSet<Rule<RuleIdT, PropositionT>>() {
+      @Override
+      public boolean contains(Object o) {
+        PersistentDeductiveWalk<RuleIdT, PropositionT> w = PersistentDeductiveWalk.this;
+        for (; w.parent != null; w = w.parent)
+          if (w.rule.equals(o))
+            return true;
+        return false;
+      }
+
+      @Override
+      public Iterator<Rule<RuleIdT, PropositionT>> iterator() {
+        return new ChainIterator<Rule<RuleIdT, PropositionT>>() {
+          @Override
+          protected Rule<RuleIdT, PropositionT> get(Rule<RuleIdT, PropositionT> rule) {
+            return rule;
+          }
+        };
+      }
+
+      @Override
+      public int size() {
+        return size;
+      }
+
+      @Override
+      public int hashCode() {
+        return firedHashCode;
+      }
+    };
+  }
+
+  @Override
+  public Set<PropositionT> getConclusions() {
+    return new AbstractSet<PropositionT>() {
+      @Override
+      public boolean contains(Object o) {
+        PersistentDeductiveWalk<RuleIdT, PropositionT> w = PersistentDeductiveWalk.this;
+        for (; w.parent != null; w = w.parent)
+          if (w.rule.getConsequent().equals(o))
+            return true;
+        return false;
+      }
+
+      @Override
+      public Iterator<PropositionT> iterator() {
+        // Every fired rule concludes a new proposition, so the conclusions are in firing order.
+        return new ChainIterator<PropositionT>() {
+          @Override
+          protected PropositionT get(Rule<RuleIdT, PropositionT> rule) {
+            return rule.getConsequent();
+          }
+        };
+      }
+
+      @Override
+      public int size() {
+        return size;
+      }
+
+      @Override
+      public int hashCode() {
+        return conclusionsHashCode;
+      }
+    };
+  }
+
+  /**
+   * @return the walk this walk grew from, or {@code null} if this walk has not fired any rules
+   */
+  public PersistentDeductiveWalk<RuleIdT, PropositionT> getParent() {
+    return parent;
+  }
+
+  /**
+   * @return the last rule fired, or {@code null} if this walk has not fired any rules
+   */
+  public Rule<RuleIdT, PropositionT> getRule() {
+    return rule;
+  }
+
+  /**
+   * Checks the step in one pass over the parent chain.
+   */
+  @Override
+  public PersistentDeductiveWalk<RuleIdT, PropositionT> step(Rule<RuleIdT, PropositionT> step) {
+    if (step == null)
+      throw new NullPointerException();
+
+    if (getAssumptions().contains(step.getConsequent()))
+      throw new IllegalArgumentException("consequent already in assumptions: " + step);
+
+    int missing = 0;
+    for (PropositionT antecedent : step.getAntecedents())
+      if (!getAssumptions().contains(antecedent))
+        missing = missing + 1;
+
+    for (PersistentDeductiveWalk<RuleIdT, PropositionT> w = this; w.parent != null; w = w.parent) {
+      final Rule<RuleIdT, PropositionT> fired = w.rule;
+      if (fired.equals(step))
+        throw new IllegalArgumentException("rule already fired: " + step);
+      if (fired.getConsequent().equals(step.getConsequent()))
+        throw new IllegalArgumentException("consequent already in conclusions: " + step);
+      if (step.getAntecedents().contains(fired.getConsequent()))
+        missing = missing - 1;
+    }
+
+    if (missing != 0)
+      throw new IllegalArgumentException("missing antecedents: " + step);
+
+    return new PersistentDeductiveWalk<>(assumptions, assumptionsHashCode, this, step, size + 1,
+        conclusionsHashCode + step.getConsequent().hashCode(), firedHashCode + step.hashCode());
+  }
+
+  @Override
+  public boolean contains(DeductiveWalk<RuleIdT, PropositionT> other) {
+    // Copy our sets once, so each membership test is a hash lookup instead of a chain walk.
+    return getAssumptions().containsAll(other.getAssumptions())
+        && new HashSet<>(getConclusions()).containsAll(other.getConclusions())
+        && new HashSet<>(getFired()).containsAll(other.getFired());
+  }
+
+  /**
+   * Same as {@code Objects.hash(assumptions, conclusions, fired)}, without touching the sets.
+   */
+  @Override
+  public int hashCode() {
+    return 31 * (31 * (31 + assumptionsHashCode) + conclusionsHashCode) + firedHashCode;
+  }
+
+  @Override
+  @SuppressWarnings("rawtypes")
+  public boolean equals(Object obj) {
+    if (this == obj)
+      return true;
+    if (obj instanceof PersistentDeductiveWalk) {
+      final PersistentDeductiveWalk other = (PersistentDeductiveWalk) obj;
+      if (size != other.size || conclusionsHashCode != other.conclusionsHashCode
+          || firedHashCode != other.firedHashCode
+          || assumptionsHashCode != other.assumptionsHashCode)
+        return false;
+      if (parent == other.parent && parent != null)
+        return rule.equals(other.rule);
+    }
+    if (!(obj instanceof DeductiveWalk))
+      return false;
+
+    // Copy our sets once, so each membership test is a hash lookup instead of a chain walk.
+    final DeductiveWalk other = (DeductiveWalk) obj;
+    return getAssumptions().equals(other.getAssumptions())
+        && new HashSet<>(getConclusions()).equals(other.getConclusions())
+        && new HashSet<>(getFired()).equals(other.getFired());
+  }
+
+  /**
+   * Iterates over the fired rules in firing order, mapping each rule to an element. The parent
+   * chain runs from last to first, so we copy it into an array before we start.
+   */
+  private abstract class ChainIterator<T> implements Iterator<T> {
+    private final Object[] rules;
+    private int index = 0;
+
+    public ChainIterator() {
+      this.rules = new Object[size];
+      int i = size;
+      PersistentDeductiveWalk<RuleIdT, PropositionT> w = PersistentDeductiveWalk.this;
+      for (; w.parent != null; w = w.parent)
+        rules[--i] = w.rule;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return index < rules.length;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T next() {
+      if (!hasNext())
+        throw new NoSuchElementException();
+      return get((Rule<RuleIdT, PropositionT>) rules[index++]);
+    }
+
+    protected abstract T get(Rule<RuleIdT, PropositionT> rule);
+  }
+}
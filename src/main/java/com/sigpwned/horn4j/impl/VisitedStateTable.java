@@ -0,0 +1,171 @@
+/*-
+ * =================================LICENSE_START==================================
+ * horn4j
+ * ====================================SECTION=====================================
+ * Copyright (C) 2024 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.horn4j.impl;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import com.sigpwned.horn4j.util.Bitsets;
+
+/**
+ * The states a walker has already expanded, by fingerprint, with a memory budget. The memory use
+ * is an estimate based on the usual layout of a 64-bit JVM with compressed pointers. It counts the
+ * fingerprints and the table's own entries, but not the elements the fingerprints refer to, which
+ * the walks share anyway.
+ * 
+ * <p>
+ * Once adding a fingerprint would exceed the budget, the table stops accepting new fingerprints,
+ * but keeps the ones it has. A walker that cannot remember a state simply expands it again later,
+ * so a full table only costs time.
+ * 
+ * @param <K> the type of the fingerprints
+ */
+final class VisitedStateTable<K> {
+  /**
+   * The estimated size of one entry in the table itself, i.e., a {@code HashMap} node plus its
+   * share of the bucket array.
+   */
+  private static final long ENTRY_BYTES = 40L;
+
+  /**
+   * The estimated size of an object header plus the fields of a small wrapper object.
+   */
+  private static final long OBJECT_BYTES = 16L;
+
+  /**
+   * Estimates the size of the given fingerprint. Collections count their own entries, and
+   * collections inside them, but not their other elements.
+   */
+  public static long estimateBytes(Object fingerprint) {
+    if (fingerprint instanceof BitsetFingerprint)
+      return 2L * OBJECT_BYTES + 8L * ((BitsetFingerprint) fingerprint).words.length;
+    if (fingerprint instanceof Collection) {
+      long result = 3L * OBJECT_BYTES;
+      for (Object element : (Collection<?>) fingerprint) {
+        result = result + ENTRY_BYTES;
+        if (element instanceof Collection || element instanceof BitsetFingerprint)
+          result = result + estimateBytes(element);
+      }
+      return result;
+    }
+    return OBJECT_BYTES;
+  }
+
+  /**
+   * Wraps a bitset as a fingerprint. Two fingerprints are equal if they have the same bits set,
+   * even if their arrays have different lengths. The bitset must not change afterwards.
+   */
+  public static BitsetFingerprint fingerprint(long[] words) {
+    return new BitsetFingerprint(words);
+  }
+
+  private final long maxBytes;
+  private final Set<K> fingerprints;
+  private long bytes;
+
+  public VisitedStateTable(long maxBytes) {
+    if (maxBytes < 0L)
+      throw new IllegalArgumentException("maxBytes must not be negative");
+    this.maxBytes = maxBytes;
+    this.fingerprints = new HashSet<>();
+    this.bytes = 0L;
+  }
+
+  /**
+   * @return true if a state with the given fingerprint has been added
+   */
+  public boolean contains(K fingerprint) {
+    return fingerprints.contains(fingerprint);
+  }
+
+  /**
+   * Remembers the given fingerprint, if there is room for it.
+   * 
+   * @param fingerprint the fingerprint
+   * @return true if the fingerprint is in the table now, or false if there was no room for it
+   */
+  public boolean add(K fingerprint) {
+    if (fingerprints.contains(fingerprint))
+      return true;
+    final long newBytes = bytes + estimateBytes(fingerprint) + ENTRY_BYTES;
+    if (newBytes > maxBytes)
+      return false;
+    fingerprints.add(fingerprint);
+    bytes = newBytes;
+    return true;
+  }
+
+  /**
+   * Forgets every fingerprint, e.g., when the walker knows that none of them can come up again.
+   */
+  public void clear() {
+    fingerprints.clear();
+    bytes = 0L;
+  }
+
+  /**
+   * @return the number of fingerprints in the table
+   */
+  public int size() {
+    return fingerprints.size();
+  }
+
+  /**
+   * @return the estimated memory use of the table, in bytes
+   */
+  public long getBytes() {
+    return bytes;
+  }
+
+  /**
+   * @return the memory budget of the table, in bytes
+   */
+  public long getMaxBytes() {
+    return maxBytes;
+  }
+
+  /**
+   * A bitset as a fingerprint.
+   */
+  public static final class BitsetFingerprint {
+    private final long[] words;
+    private final int hashCode;
+
+    private BitsetFingerprint(long[] words) {
+      this.words = words;
+      this.hashCode = Bitsets.hashCode(words);
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj)
+        return true;
+      if (!(obj instanceof BitsetFingerprint))
+        return false;
+      BitsetFingerprint other = (BitsetFingerprint) obj;
+      return hashCode == other.hashCode && Bitsets.equals(words, other.words);
+    }
+  }
+}
@@ -0,0 +1,114 @@
+/*-
+ * =================================LICENSE_START==================================
+ * horn4j
+ * ====================================SECTION=====================================
+ * Copyright (C) 2024 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.horn4j.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * An antichain that grows as candidates arrive, i.e., a collection of candidates none of which
+ * contains another, where one candidate contains another if its elements are a superset of the
+ * other's.
+ * 
+ * <p>
+ * Unlike {@link Antichains#minimal(Collection, Function)}, which needs all the candidates up front,
+ * this class takes the candidates one at a time, in any order. It rejects each candidate that
+ * contains a member, and evicts each member that contains a candidate it accepts, so it is an
+ * antichain at all times. Both checks use a {@link SetTrie}, so they only follow the members
+ * whose elements can still match the candidate, although in the worst case that is all of them.
+ * 
+ * <p>
+ * This class is thread-safe.
+ * 
+ * @param <T> the type of the candidates
+ */
+public final class Antichain<T> {
+  private final Function<? super T, ? extends Collection<?>> elements;
+  private final SetTrie<Object> trie;
+
+  /**
+   * The members, by their elements.
+   */
+  private final Map<Set<Object>, T> members;
+
+  /**
+   * @param elements the elements of each candidate, which must not contain duplicates
+   */
+  public Antichain(Function<? super T, ? extends Collection<?>> elements) {
+    if (elements == null)
+      throw new NullPointerException();
+    this.elements = elements;
+    this.trie = new SetTrie<>();
+    this.members = new HashMap<>();
+  }
+
+  /**
+   * Adds the given candidate unless it contains a member, and evicts every member that contains it.
+   * Of several candidates with the same elements, only the first is kept.
+   * 
+   * @return {@code true} if the candidate is now a member, or {@code false} if it contains a member
+   */
+  public synchronized boolean add(T candidate) {
+    if (candidate == null)
+      throw new NullPointerException();
+
+    final Collection<?> candidateElements = elements.apply(candidate);
+    if (trie.containsSubsetOf(candidateElements))
+      return false;
+
+    for (Set<Object> superset : trie.removeSupersetsOf(candidateElements))
+      members.remove(superset);
+
+    trie.add(candidateElements);
+    members.put(new HashSet<>(candidateElements), candidate);
+
+    return true;
+  }
+
+  /**
+   * @return {@code true} if the given candidate contains a member, and so would not be added
+   */
+  public synchronized boolean containsSubsetOf(T candidate) {
+    if (candidate == null)
+      throw new NullPointerException();
+    return trie.containsSubsetOf(elements.apply(candidate));
+  }
+
+  /**
+   * @return the members, in no particular order
+   */
+  public synchronized List<T> toList() {
+    return new ArrayList<>(members.values());
+  }
+
+  public synchronized int size() {
+    return members.size();
+  }
+
+  public synchronized boolean isEmpty() {
+    return members.isEmpty();
+  }
+}
@@ -0,0 +1,83 @@
+/*-
+ * =================================LICENSE_START==================================
+ * horn4j
+ * ====================================SECTION=====================================
+ * Copyright (C) 2024 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.horn4j.util;
+
+import static java.util.Comparator.comparingInt;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Filters collections down to antichains, i.e., to the members that contain no other member.
+ */
+public final class Antichains {
+  private Antichains() {}
+
+  /**
+   * @return the given sets that contain no other given set, once each, from smallest to largest
+   */
+  public static <E> List<Set<E>> minimal(Collection<Set<E>> sets) {
+    return minimal(sets, Function.<Set<E>>identity());
+  }
+
+  /**
+   * Returns the given candidates that contain no other candidate, where one candidate contains
+   * another if its elements are a superset of the other's. Of several candidates with the same
+   * elements, only the first is kept.
+   * 
+   * <p>
+   * The candidates are sorted by size, since a candidate can only contain candidates no larger than
+   * itself, and each candidate that survives goes into a {@link SetTrie}, which finds whether any
+   * of them is a subset of the next candidate without scanning them all. Each check only visits the
+   * nodes of the trie whose paths are subsets of the next candidate, so it skips every kept
+   * candidate with an element the next one lacks. In the worst case, the check still costs as much
+   * as the total size of the candidates kept, like comparing against each of them.
+   * 
+   * @param candidates the candidates to filter
+   * @param elements the elements of each candidate, which must not contain duplicates
+   * @return the candidates that contain no other candidate, from smallest to largest
+   */
+  public static <T, E> List<T> minimal(Collection<T> candidates,
+      Function<? super T, ? extends Collection<? extends E>> elements) {
+    if (candidates == null)
+      throw new NullPointerException();
+    if (elements == null)
+      throw new NullPointerException();
+
+    final List<T> sorted = new ArrayList<>(candidates);
+    if (sorted.size() <= 1)
+      return sorted;
+    sorted.sort(comparingInt(candidate -> elements.apply(candidate).size()));
+
+    final SetTrie<E> minimal = new SetTrie<>();
+    final List<T> result = new ArrayList<>();
+    for (T candidate : sorted) {
+      final Collection<? extends E> candidateElements = elements.apply(candidate);
+      if (!minimal.containsSubsetOf(candidateElements)) {
+        minimal.add(candidateElements);
+        result.add(candidate);
+      }
+    }
+
+    return result;
+  }
+}
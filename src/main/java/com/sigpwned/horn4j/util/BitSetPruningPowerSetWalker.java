@@ -0,0 +1,285 @@
+/*-
+ * =================================LICENSE_START==================================
+ * horn4j
+ * ====================================SECTION=====================================
+ * Copyright (C) 2024 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.horn4j.util;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Performs the same pruned walk of the power set of a given set as {@link PruningPowerSetWalker},
+ * but keeps each subset as a bitmask over the elements, so it is much faster for small sets.
+ * 
+ * <p>
+ * The walker numbers the elements that survive the walk of singletons, and keeps the current subset
+ * in two {@code long} words, so it handles sets of up to {@link #MAX_ELEMENTS} elements. It walks
+ * larger sets the same way {@link PruningPowerSetWalker} does. Adding an element to the current
+ * subset sets a bit, and the walker only has to check the pruned subsets whose highest-numbered
+ * element is the one it just added, since the current subset already contained no pruned subset
+ * before. Each of those checks is a mask test. The visitor sees every subset through the same view
+ * of the two words, so the walk allocates nothing per subset, unless the visitor iterates over it.
+ * 
+ * <p>
+ * This walker does not enumerate the subsets of each size with Gosper's hack, even though that is
+ * the usual way to step through k-subsets as bitmasks. Gosper's hack visits every k-subset in
+ * turn, and cannot skip the subsets that contain a pruned subset as a block, while backtracking
+ * skips all of them at once, and that is what makes walking large sets feasible.
+ * 
+ * @param <T> the type of elements in the set
+ */
+public class BitSetPruningPowerSetWalker<T> extends PruningPowerSetWalker<T> {
+  /**
+   * The most elements that a set can have for this walker to walk it as bitmasks.
+   */
+  public static final int MAX_ELEMENTS = 2 * Long.SIZE;
+
+  /**
+   * Walks the power set of the given set like
+   * {@link PruningPowerSetWalker#prunedWalk(Set, Visitor) PruningPowerSetWalker}. The subsets of
+   * each size are visited in the iteration order of the given set.
+   * 
+   * @param xs the set to walk
+   * @param handler the visitor to call for each subset
+   */
+  @Override
+  public void prunedWalk(Set<T> xs, Visitor<T> handler) {
+    if (xs == null)
+      throw new NullPointerException();
+    if (handler == null)
+      throw new NullPointerException();
+
+    if (xs.size() > MAX_ELEMENTS) {
+      super.prunedWalk(xs, handler);
+      return;
+    }
+
+    // The empty set is a subset of every set, so if we prune it, then we're done.
+    if (handler.visit(Sets.of()))
+      return;
+
+    if (xs.isEmpty())
+      return;
+
+    if (xs.size() == 1) {
+      handler.visit(xs);
+      return;
+    }
+
+    // Every set that contains a pruned singleton contains its element, so drop those elements.
+    final Object[] elements = new Object[xs.size()];
+    int n = 0;
+    for (T element : xs)
+      if (!handler.visit(Sets.of(element)))
+        elements[n++] = element;
+
+    final Walk<T> walk = new Walk<>(Arrays.copyOf(elements, n), handler);
+    for (int k = 2; k <= n; k++)
+      walk.backtrack(0, k);
+  }
+
+  /**
+   * The state of one walk, which is the current subset and the pruned subsets, as bitmasks.
+   */
+  private static final class Walk<T> {
+    private final Object[] elements;
+    private final Visitor<T> handler;
+    private final MaskView<T> view;
+
+    /**
+     * The current subset. Element {@code i} is bit {@code i} of {@code lo} if {@code i < 64}, and
+     * bit {@code i - 64} of {@code hi} otherwise.
+     */
+    private long lo;
+    private long hi;
+    private int size;
+
+    /**
+     * The pruned subsets, grouped by their highest-numbered element.
+     */
+    private final long[][] prunedLos;
+    private final long[][] prunedHis;
+    private final int[] prunedCounts;
+
+    public Walk(Object[] elements, Visitor<T> handler) {
+      this.elements = elements;
+      this.handler = handler;
+      this.view = new MaskView<>(this);
+      this.prunedLos = new long[elements.length][];
+      this.prunedHis = new long[elements.length][];
+      this.prunedCounts = new int[elements.length];
+    }
+
+    /**
+     * Extends the current subset with elements numbered {@code start} and up until it has
+     * {@code k} elements, and visits each subset that contains no pruned subset.
+     */
+    public void backtrack(int start, int k) {
+      // There is no point in starting a subset that cannot reach size k with the elements left.
+      for (int i = start; i <= elements.length - (k - size); i++) {
+        add(i);
+        try {
+          if (!containsPrunedEndingAt(i)) {
+            if (size == k) {
+              if (handler.visit(view))
+                prune(i);
+            } else {
+              backtrack(i + 1, k);
+            }
+          }
+        } finally {
+          remove(i);
+        }
+      }
+    }
+
+    /**
+     * Returns {@code true} if the current subset contains a pruned subset whose highest-numbered
+     * element is the given element. We add elements in ascending order, so this is the only kind of
+     * pruned subset the current subset can have just started to contain.
+     */
+    private boolean containsPrunedEndingAt(int i) {
+      final long[] los = prunedLos[i];
+      final long[] his = prunedHis[i];
+      for (int j = 0, n = prunedCounts[i]; j < n; j++)
+        if ((lo & los[j]) == los[j] && (hi & his[j]) == his[j])
+          return true;
+      return false;
+    }
+
+    /**
+     * Records the current subset as pruned. Its highest-numbered element is the given element.
+     */
+    private void prune(int i) {
+      final int n = prunedCounts[i];
+      if (prunedLos[i] == null) {
+        prunedLos[i] = new long[4];
+        prunedHis[i] = new long[4];
+      } else if (n == prunedLos[i].length) {
+        prunedLos[i] = Arrays.copyOf(prunedLos[i], n * 2);
+        prunedHis[i] = Arrays.copyOf(prunedHis[i], n * 2);
+      }
+      prunedLos[i][n] = lo;
+      prunedHis[i][n] = hi;
+      prunedCounts[i] = n + 1;
+    }
+
+    private void add(int i) {
+      if (i < Long.SIZE)
+        lo |= 1L << i;
+      else
+        hi |= 1L << (i - Long.SIZE);
+      size = size + 1;
+    }
+
+    private void remove(int i) {
+      if (i < Long.SIZE)
+        lo &= ~(1L << i);
+      else
+        hi &= ~(1L << (i - Long.SIZE));
+      size = size - 1;
+    }
+
+    private boolean get(int i) {
+      if (i < Long.SIZE)
+        return (lo & (1L << i)) != 0L;
+      else
+        return (hi & (1L << (i - Long.SIZE))) != 0L;
+    }
+
+    /**
+     * @return the lowest element number at or after the given one in the current subset, or -1 if
+     *         there is none
+     */
+    private int nextSetBit(int from) {
+      if (from < Long.SIZE) {
+        final long word = lo & (-1L << from);
+        if (word != 0L)
+          return Long.numberOfTrailingZeros(word);
+        from = Long.SIZE;
+      }
+      if (from < MAX_ELEMENTS) {
+        final long word = hi & (-1L << (from - Long.SIZE));
+        if (word != 0L)
+          return Long.SIZE + Long.numberOfTrailingZeros(word);
+      }
+      return -1;
+    }
+  }
+
+  /**
+   * The current subset of a walk, as an unmodifiable set. The walker only ever creates one view per
+   * walk, so the view changes as the walk goes on.
+   */
+  private static final class MaskView<T> extends AbstractSet<T> {
+    private final Walk<T> walk;
+
+    /**
+     * The element numbers, which we only build if someone asks whether the view contains an
+     * element.
+     */
+    private Map<Object, Integer> numbers;
+
+    public MaskView(Walk<T> walk) {
+      this.walk = walk;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+      if (numbers == null) {
+        numbers = new HashMap<>();
+        for (int i = 0; i < walk.elements.length; i++)
+          numbers.put(walk.elements[i], i);
+      }
+      final Integer i = numbers.get(o);
+      return i != null && walk.get(i);
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+      return new Iterator<T>() {
+        private int next = walk.nextSetBit(0);
+
+        @Override
+        public boolean hasNext() {
+          return next != -1;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T next() {
+          if (!hasNext())
+            throw new NoSuchElementException();
+          final T result = (T) walk.elements[next];
+          next = walk.nextSetBit(next + 1);
+          return result;
+        }
+      };
+    }
+
+    @Override
+    public int size() {
+      return walk.size;
+    }
+  }
+}
@@ -0,0 +1,183 @@
+/*-
+ * =================================LICENSE_START==================================
+ * horn4j
+ * ====================================SECTION=====================================
+ * Copyright (C) 2024 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.horn4j.util;
+
+import java.util.Arrays;
+
+/**
+ * Operations on bitsets packed into {@code long[]} words, least significant bit first, like
+ * {@link java.util.BitSet}. Unlike {@code BitSet}, these bitsets are plain arrays, so they are
+ * cheap to copy and compare. Arrays of different lengths are treated as if they were padded with
+ * zero words.
+ */
+public final class Bitsets {
+  private Bitsets() {}
+
+  private static final long[] EMPTY = new long[0];
+
+  /**
+   * @return the number of words needed to hold the given number of bits
+   */
+  public static int words(int bits) {
+    if (bits < 0)
+      throw new IllegalArgumentException("bits must not be negative");
+    return (bits + 63) >>> 6;
+  }
+
+  /**
+   * @return a new bitset with room for the given number of bits, all clear
+   */
+  public static long[] of(int bits) {
+    final int words = words(bits);
+    return words == 0 ? EMPTY : new long[words];
+  }
+
+  public static boolean get(long[] bits, int index) {
+    final int word = index >>> 6;
+    return word < bits.length && (bits[word] & (1L << index)) != 0L;
+  }
+
+  /**
+   * Sets the given bit in place. The bitset must be large enough to hold it.
+   */
+  public static void set(long[] bits, int index) {
+    bits[index >>> 6] |= 1L << index;
+  }
+
+  /**
+   * Returns a copy of the given bitset with the given bit set, growing it if needed. The given
+   * bitset is not modified.
+   */
+  public static long[] with(long[] bits, int index) {
+    final long[] result = Arrays.copyOf(bits, Math.max(bits.length, (index >>> 6) + 1));
+    set(result, index);
+    return result;
+  }
+
+  /**
+   * Returns a copy of the given bitset with all of the given bits set, growing it if needed. The
+   * given bitset is not modified.
+   */
+  public static long[] withAll(long[] bits, int[] indexes) {
+    int words = bits.length;
+    for (int index : indexes)
+      words = Math.max(words, (index >>> 6) + 1);
+    final long[] result = Arrays.copyOf(bits, words);
+    for (int index : indexes)
+      set(result, index);
+    return result;
+  }
+
+  /**
+   * Returns a copy of the given bitset with the given bit clear. The given bitset is not modified.
+   */
+  public static long[] without(long[] bits, int index) {
+    final long[] result = bits.clone();
+    final int word = index >>> 6;
+    if (word < result.length)
+      result[word] &= ~(1L << index);
+    return result;
+  }
+
+  /**
+   * @return a new bitset with the bits set in either of the given bitsets
+   */
+  public static long[] union(long[] xs, long[] ys) {
+    final long[] result = Arrays.copyOf(xs, Math.max(xs.length, ys.length));
+    for (int i = 0; i < ys.length; i++)
+      result[i] |= ys[i];
+    return result;
+  }
+
+  /**
+   * Returns true if every bit set in {@code ys} is also set in {@code xs}.
+   */
+  public static boolean containsAll(long[] xs, long[] ys) {
+    final int n = Math.min(xs.length, ys.length);
+    for (int i = 0; i < n; i++)
+      if ((ys[i] & ~xs[i]) != 0L)
+        return false;
+    for (int i = n; i < ys.length; i++)
+      if (ys[i] != 0L)
+        return false;
+    return true;
+  }
+
+  /**
+   * Returns true if no bit is set in both {@code xs} and {@code ys}.
+   */
+  public static boolean disjoint(long[] xs, long[] ys) {
+    final int n = Math.min(xs.length, ys.length);
+    for (int i = 0; i < n; i++)
+      if ((xs[i] & ys[i]) != 0L)
+        return false;
+    return true;
+  }
+
+  /**
+   * Returns true if the given bitsets have the same bits set.
+   */
+  public static boolean equals(long[] xs, long[] ys) {
+    if (xs.length == ys.length)
+      return Arrays.equals(xs, ys);
+    return containsAll(xs, ys) && containsAll(ys, xs);
+  }
+
+  /**
+   * Returns a hash code that depends only on which bits are set, so that bitsets that are
+   * {@link #equals(long[], long[]) equal} have the same hash code, whatever their lengths.
+   */
+  public static int hashCode(long[] bits) {
+    int n = bits.length;
+    while (n > 0 && bits[n - 1] == 0L)
+      n = n - 1;
+    int result = 1;
+    for (int i = 0; i < n; i++)
+      result = 31 * result + Long.hashCode(bits[i]);
+    return result;
+  }
+
+  /**
+   * @return the number of bits set
+   */
+  public static int cardinality(long[] bits) {
+    int result = 0;
+    for (long word : bits)
+      result = result + Long.bitCount(word);
+    return result;
+  }
+
+  /**
+   * @return the index of the first bit set at or after the given index, or -1 if there is none
+   */
+  public static int nextSetBit(long[] bits, int fromIndex) {
+    int word = fromIndex >>> 6;
+    if (word >= bits.length)
+      return -1;
+    long current = bits[word] & (-1L << fromIndex);
+    while (current == 0L) {
+      word = word + 1;
+      if (word == bits.length)
+        return -1;
+      current = bits[word];
+    }
+    return (word << 6) + Long.numberOfTrailingZeros(current);
+  }
+}
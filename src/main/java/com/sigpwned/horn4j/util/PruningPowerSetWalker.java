@@ -20,7 +20,6 @@
 package com.sigpwned.horn4j.util;
 
 import static java.util.Collections.unmodifiableSet;
-import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -103,9 +102,6 @@ public class PruningPowerSetWalker<T> {
     // Just a rename of xs for clarity
     final Set<T> originalSet = xs;
 
-    // List to store matched subsets that should prune their supersets.
-    List<Set<T>> matchedSubsets = new ArrayList<>();
-
     // Do a walk of elements of size 1. We do this explicitly because sets of size 1 have a special
     // property: If the handler returns true for a set of size 1, then we can just remove it from
     // the set of elements to consider, since we don't need to visit any supersets of that set, and
@@ -114,9 +110,7 @@ public class PruningPowerSetWalker<T> {
     for (T element : originalSet) {
       Set<T> singletonSet = Sets.of(element);
       boolean shouldPruneSingletonSet = handler.visit(singletonSet);
-      if (shouldPruneSingletonSet) {
-        matchedSubsets.add(singletonSet);
-      } else {
+      if (!shouldPruneSingletonSet) {
         prunedSet.add(element);
       }
     }
@@ -124,43 +118,52 @@ public class PruningPowerSetWalker<T> {
     // Convert the newly-pruned set to a list for easier indexed access
     List<T> prunedList = Lists.copyOf(prunedSet);
 
+    // Trie to store matched subsets that should prune their supersets. We always add elements to
+    // the current set in list order, so the trie numbers them in that order, too, and the cursor
+    // can check each partial subset incrementally as we push and pop elements.
+    SetTrie<T> matchedSubsets = new SetTrie<>(prunedList);
+    SetTrie<T>.Cursor cursor = matchedSubsets.cursor();
+
     // DeductiveWalk subsets of increasing lengths from 2 to |originalSet|. We start at 2 because we already
     // visited subsets of size 1 above.
     for (int k = 2; k <= xs.size(); k++) {
-      backtrack(new HashSet<>(), 0, k, prunedList, matchedSubsets, handler);
+      backtrack(new HashSet<>(), 0, k, prunedList, matchedSubsets, cursor, handler);
     }
   }
 
   /**
    * Backtracking function to generate subsets dynamically and invoke the handler. It prunes any
-   * supersets of previously matched subsets (where the handler returned true).
+   * supersets of previously matched subsets (where the handler returned true). The cursor holds the
+   * same elements as the current set.
    */
   private void backtrack(Set<T> currentSet, int start, int k, List<T> elements,
-      List<Set<T>> matchedSubsets, Visitor<T> handler) {
+      SetTrie<T> matchedSubsets, SetTrie<T>.Cursor cursor, Visitor<T> handler) {
     // Base case: if the current set has reached the desired size `k`
     if (currentSet.size() == k) {
       // Call the handler with the current subset. If the handler returns true, prune supersets
       // of this subset.
       boolean shouldPrune = handler.visit(unmodifiableSet(currentSet));
       if (shouldPrune) {
-        matchedSubsets.add(Sets.copyOf(currentSet));
+        matchedSubsets.add(currentSet);
       }
     } else {
-      // Iterate over the remaining elements to generate subsets dynamically
-      for (int i = start; i < elements.size(); i++) {
+      // Iterate over the remaining elements to generate subsets dynamically. There is no point in
+      // starting a subset that cannot reach size k with the elements we have left.
+      for (int i = start; i <= elements.size() - (k - currentSet.size()); i++) {
         // Get the next element to add to the current set
         T nextElement = elements.get(i);
 
         // Add the next element to the current set
         currentSet.add(nextElement);
+        boolean containsMatchedSubset = cursor.push(nextElement);
         try {
           // Only proceed if the current set is not a superset of any matched subset
-          if (!matchedSubsets.stream()
-              .anyMatch(matchedSubset -> currentSet.containsAll(matchedSubset))) {
-            backtrack(currentSet, i + 1, k, elements, matchedSubsets, handler);
+          if (!containsMatchedSubset) {
+            backtrack(currentSet, i + 1, k, elements, matchedSubsets, cursor, handler);
           }
         } finally {
           // Remove the next element from the current set to backtrack
+          cursor.pop();
           currentSet.remove(nextElement);
         }
       }
@@ -0,0 +1,431 @@
+/*-
+ * =================================LICENSE_START==================================
+ * horn4j
+ * ====================================SECTION=====================================
+ * Copyright (C) 2024 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.horn4j.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A set of sets, stored as a trie, which quickly answers whether any of its sets is a subset of a
+ * given set.
+ * 
+ * <p>
+ * The trie numbers each element the first time it sees it, and stores each set as the path of its
+ * element numbers in ascending order. To find a subset of a given set, it only follows the edges
+ * for elements of the given set, so the search only visits nodes whose paths are subsets of the
+ * given set, and never looks at a stored set that contains an element the given set does not. In
+ * the worst case, when most stored sets share elements with the given set, that is still most of
+ * the trie, so the cost is bounded by the total size of the stored sets, not by the depth of the
+ * trie. It can also remove every stored set that contains a given set, which keeps the trie an
+ * antichain as smaller sets arrive.
+ * 
+ * <p>
+ * A {@link Cursor} answers the same question for a set that grows and shrinks one element at a
+ * time, as in a backtracking search. It keeps the nodes whose paths are subsets of the set, so
+ * pushing an element costs one step from each of those nodes, rather than a new search from the
+ * root each time.
+ * 
+ * <p>
+ * Elements must have consistent {@code equals} and {@code hashCode} methods. This class is not
+ * thread-safe.
+ * 
+ * @param <E> the type of the elements of the sets
+ */
+public final class SetTrie<E> {
+  private static final int[] NO_KEYS = new int[0];
+  private static final Node[] NO_CHILDREN = new Node[0];
+
+  private static final class Node {
+    /**
+     * The element numbers of the children, in ascending order.
+     */
+    private int[] keys = NO_KEYS;
+    private Node[] children = NO_CHILDREN;
+    private int childCount;
+
+    /**
+     * Whether the path to this node is a stored set.
+     */
+    private boolean terminal;
+
+    public Node child(int key) {
+      final int index = Arrays.binarySearch(keys, 0, childCount, key);
+      return index >= 0 ? children[index] : null;
+    }
+
+    public Node getOrAddChild(int key) {
+      int index = Arrays.binarySearch(keys, 0, childCount, key);
+      if (index >= 0)
+        return children[index];
+
+      index = -(index + 1);
+      if (childCount == keys.length) {
+        final int capacity = Math.max(2, childCount * 2);
+        keys = Arrays.copyOf(keys, capacity);
+        children = Arrays.copyOf(children, capacity);
+      }
+      System.arraycopy(keys, index, keys, index + 1, childCount - index);
+      System.arraycopy(children, index, children, index + 1, childCount - index);
+
+      final Node result = new Node();
+      keys[index] = key;
+      children[index] = result;
+      childCount = childCount + 1;
+
+      return result;
+    }
+
+    public void removeChild(int index) {
+      System.arraycopy(keys, index + 1, keys, index, childCount - index - 1);
+      System.arraycopy(children, index + 1, children, index, childCount - index - 1);
+      childCount = childCount - 1;
+      children[childCount] = null;
+    }
+  }
+
+  private final Map<E, Integer> ids;
+
+  /**
+   * The elements, by number.
+   */
+  private final List<E> elements;
+  private final Node root;
+  private int size;
+
+  public SetTrie() {
+    this.ids = new HashMap<>();
+    this.elements = new ArrayList<>();
+    this.root = new Node();
+  }
+
+  /**
+   * Creates an empty trie that numbers the given elements in iteration order, ahead of any other
+   * elements, so a {@link Cursor} can take them in that order.
+   * 
+   * @param order the elements to number first. Duplicate elements are ignored.
+   */
+  public SetTrie(Collection<? extends E> order) {
+    this();
+    if (order == null)
+      throw new NullPointerException();
+    for (E element : order)
+      intern(element);
+  }
+
+  /**
+   * Adds the given set.
+   * 
+   * @param set the set to add. Duplicate elements are ignored.
+   * @return {@code true} if the trie did not already hold the given set
+   */
+  public boolean add(Collection<? extends E> set) {
+    if (set == null)
+      throw new NullPointerException();
+
+    final int[] path = new int[set.size()];
+    int length = 0;
+    for (E element : set)
+      path[length++] = intern(element);
+    Arrays.sort(path, 0, length);
+
+    Node node = root;
+    for (int i = 0; i < length; i++)
+      if (i == 0 || path[i] != path[i - 1])
+        node = node.getOrAddChild(path[i]);
+
+    if (node.terminal)
+      return false;
+    node.terminal = true;
+    size = size + 1;
+
+    return true;
+  }
+
+  /**
+   * @return {@code true} if the trie holds the given set
+   */
+  public boolean contains(Collection<?> set) {
+    if (set == null)
+      throw new NullPointerException();
+
+    final int[] path = path(set);
+    if (path == null)
+      return false;
+
+    Node node = root;
+    for (int i = 0; i < path.length && node != null; i++)
+      node = node.child(path[i]);
+
+    return node != null && node.terminal;
+  }
+
+  /**
+   * @return {@code true} if the trie holds a subset of the given set, including the given set
+   *         itself or the empty set
+   */
+  public boolean containsSubsetOf(Collection<?> set) {
+    if (set == null)
+      throw new NullPointerException();
+
+    // Elements the trie has never seen cannot be in any of its sets, so skip them.
+    final int[] query = new int[set.size()];
+    int length = 0;
+    for (Object element : set) {
+      final Integer id = ids.get(element);
+      if (id != null)
+        query[length++] = id;
+    }
+    Arrays.sort(query, 0, length);
+
+    return containsSubsetOf(root, query, 0, length);
+  }
+
+  private static boolean containsSubsetOf(Node node, int[] query, int from, int to) {
+    if (node.terminal)
+      return true;
+
+    // Both the children and the query are sorted, so walk them together.
+    int i = from, j = 0;
+    while (i < to && j < node.childCount) {
+      if (query[i] < node.keys[j]) {
+        i = i + 1;
+      } else if (query[i] > node.keys[j]) {
+        j = j + 1;
+      } else {
+        if (containsSubsetOf(node.children[j], query, i + 1, to))
+          return true;
+        i = i + 1;
+        j = j + 1;
+      }
+    }
+
+    return false;
+  }
+
+  /**
+   * Removes every stored set that contains the given set, including the given set itself.
+   * 
+   * @return the sets removed
+   */
+  public List<Set<E>> removeSupersetsOf(Collection<?> set) {
+    if (set == null)
+      throw new NullPointerException();
+
+    // If the trie has never seen one of the elements, then none of its sets contains the given set.
+    final int[] query = path(set);
+    if (query == null)
+      return Collections.emptyList();
+
+    final List<Set<E>> result = new ArrayList<>();
+    removeSupersetsOf(root, query, 0, new ArrayList<>(), result);
+
+    return result;
+  }
+
+  private void removeSupersetsOf(Node node, int[] query, int from, List<E> prefix,
+      List<Set<E>> result) {
+    if (from == query.length && node.terminal) {
+      node.terminal = false;
+      size = size - 1;
+      result.add(new HashSet<>(prefix));
+    }
+
+    // Paths are sorted, so once we pass the next element of the query, no path below can hold it.
+    for (int j = 0; j < node.childCount; j++) {
+      final int key = node.keys[j];
+      if (from < query.length && key > query[from])
+        break;
+
+      final Node child = node.children[j];
+      prefix.add(elements.get(key));
+      removeSupersetsOf(child, query, from < query.length && key == query[from] ? from + 1 : from,
+          prefix, result);
+      prefix.remove(prefix.size() - 1);
+
+      // Drop branches that no longer lead to any set.
+      if (!child.terminal && child.childCount == 0) {
+        node.removeChild(j);
+        j = j - 1;
+      }
+    }
+  }
+
+  /**
+   * Returns a cursor over a set that starts out empty. The cursor sees the sets stored in this
+   * trie at the time each element is pushed.
+   */
+  public Cursor cursor() {
+    return new Cursor();
+  }
+
+  /**
+   * A set that grows and shrinks one element at a time, like a stack, and that knows whether it
+   * contains any set stored in the trie.
+   * 
+   * <p>
+   * The cursor keeps every node of the trie whose path is a subset of its set. Each push follows
+   * the edge for the new element from each of those nodes, and each pop forgets the nodes the
+   * matching push found. This only finds every such node if the elements are pushed in ascending
+   * order of their numbers, so the elements must be pushed in the order given to
+   * {@link SetTrie#SetTrie(Collection)}.
+   */
+  public final class Cursor {
+    private Node[] nodes;
+    private int nodeCount;
+
+    /**
+     * For each element pushed, the number of nodes before it was pushed, whether the set contained
+     * a stored set before it was pushed, and the greatest number of any element pushed so far.
+     */
+    private int[] nodeCounts;
+    private boolean[] matches;
+    private int[] keys;
+    private int depth;
+
+    private boolean matched;
+
+    private Cursor() {
+      this.nodes = new Node[] {root};
+      this.nodeCount = 1;
+      this.nodeCounts = new int[8];
+      this.matches = new boolean[8];
+      this.keys = new int[8];
+      this.matched = root.terminal;
+    }
+
+    /**
+     * Adds the given element to the set.
+     * 
+     * @return {@code true} if the set now contains a stored set
+     * @throws IllegalArgumentException if the trie numbers the element before an element already
+     *         in the set
+     */
+    public boolean push(E element) {
+      final Integer id = ids.get(element);
+      final int last = depth > 0 ? keys[depth - 1] : -1;
+      if (id != null && id <= last)
+        throw new IllegalArgumentException("element out of order");
+
+      if (depth == keys.length) {
+        nodeCounts = Arrays.copyOf(nodeCounts, depth * 2);
+        matches = Arrays.copyOf(matches, depth * 2);
+        keys = Arrays.copyOf(keys, depth * 2);
+      }
+      nodeCounts[depth] = nodeCount;
+      matches[depth] = matched;
+      keys[depth] = id != null ? id : last;
+      depth = depth + 1;
+
+      // Elements the trie has never seen cannot be in any of its sets, so they lead nowhere.
+      if (id != null) {
+        for (int i = 0, n = nodeCount; i < n; i++) {
+          final Node child = nodes[i].child(id);
+          if (child != null) {
+            if (nodeCount == nodes.length)
+              nodes = Arrays.copyOf(nodes, nodeCount * 2);
+            nodes[nodeCount++] = child;
+            matched = matched || child.terminal;
+          }
+        }
+      }
+
+      return matched;
+    }
+
+    /**
+     * Removes the element pushed last from the set.
+     * 
+     * @throws IllegalStateException if the set is empty
+     */
+    public void pop() {
+      if (depth == 0)
+        throw new IllegalStateException("empty");
+      depth = depth - 1;
+      Arrays.fill(nodes, nodeCounts[depth], nodeCount, null);
+      nodeCount = nodeCounts[depth];
+      matched = matches[depth];
+    }
+
+    /**
+     * @return {@code true} if the set contains a stored set
+     */
+    public boolean containsSubset() {
+      return matched;
+    }
+
+    /**
+     * @return the number of elements in the set
+     */
+    public int size() {
+      return depth;
+    }
+  }
+
+  /**
+   * @return the number of sets in the trie
+   */
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  private int intern(E element) {
+    Integer result = ids.get(element);
+    if (result == null) {
+      result = ids.size();
+      ids.put(element, result);
+      elements.add(element);
+    }
+    return result;
+  }
+
+  /**
+   * @return the sorted, distinct element numbers of the given set, or {@code null} if the trie has
+   *         never seen one of its elements
+   */
+  private int[] path(Collection<?> set) {
+    final int[] result = new int[set.size()];
+    int length = 0;
+    for (Object element : set) {
+      final Integer id = ids.get(element);
+      if (id == null)
+        return null;
+      result[length++] = id;
+    }
+    Arrays.sort(result, 0, length);
+
+    int distinct = 0;
+    for (int i = 0; i < length; i++)
+      if (i == 0 || result[i] != result[i - 1])
+        result[distinct++] = result[i];
+
+    return distinct == result.length ? result : Arrays.copyOf(result, distinct);
+  }
+}
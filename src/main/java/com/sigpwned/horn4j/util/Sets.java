@@ -22,10 +22,13 @@ package com.sigpwned.horn4j.util;
 import static java.util.Collections.emptySet;
 import static java.util.Collections.singleton;
 import static java.util.Collections.unmodifiableSet;
+import java.util.AbstractSet;
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.Set;
+import java.util.stream.Stream;
 
 public final class Sets {
   private Sets() {}
@@ -126,6 +129,41 @@ public final class Sets {
     return union(Lists.of(xs, ys));
   }
 
+  /**
+   * Returns an unmodifiable view of the union of the given sets. Unlike {@link #union(Set, Set)},
+   * this does not copy either set, so membership tests are cheap, but {@link Set#size()} and
+   * iteration must skip elements of {@code ys} that are also in {@code xs}. The view reflects any
+   * later changes to the given sets. Inspired by Guava's {@code Sets#union(Set, Set)}.
+   * 
+   * @param <T> the type of elements in the sets
+   * @param xs the first set
+   * @param ys the second set
+   * @return a view of the union of the given sets
+   * @throws NullPointerException if {@code xs} or {@code ys} is {@code null}
+   */
+  public static <T> Set<T> unionView(Set<T> xs, Set<T> ys) {
+    if (xs == null)
+      throw new NullPointerException();
+    if (ys == null)
+      throw new NullPointerException();
+    return new AbstractSet<T>() {
+      @Override
+      public boolean contains(Object o) {
+        return xs.contains(o) || ys.contains(o);
+      }
+
+      @Override
+      public Iterator<T> iterator() {
+        return Stream.concat(xs.stream(), ys.stream().filter(y -> !xs.contains(y))).iterator();
+      }
+
+      @Override
+      public int size() {
+        return xs.size() + (int) ys.stream().filter(y -> !xs.contains(y)).count();
+      }
+    };
+  }
+
   /**
    * Returns true if the given sets are disjoint, i.e., if they have no elements in common, or false
    * otherwise.
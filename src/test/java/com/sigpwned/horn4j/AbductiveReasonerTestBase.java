@@ -21,6 +21,8 @@
 package com.sigpwned.horn4j;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import java.util.LinkedHashSet;
 import java.util.Set;
 import org.junit.Test;
@@ -30,12 +32,16 @@ import com.sigpwned.horn4j.util.Sets;
 public abstract class AbductiveReasonerTestBase {
   public abstract AbductiveClosureSolver<String, String> newAbductiveReasoner();
 
+  public RuleSet<String, String> newRuleSet(Set<Rule<String, String>> rules) {
+    return new DefaultRuleSet<>(rules);
+  }
+
   @Test
   public void givenEmptyHypotheses_whenAbduct_thenEmptyClosure() {
     AbductiveClosureSolver<String, String> reasoner = newAbductiveReasoner();
     Set<String> hypotheses = Sets.of();
     Set<Rule<String, String>> rules = Sets.of(new Rule<>("0", Sets.of("a"), "b"));
-    RuleSet<String, String> ruleSet = new DefaultRuleSet<>(rules);
+    RuleSet<String, String> ruleSet = newRuleSet(rules);
     AbductiveWalk<String, String> result = reasoner.abduct(hypotheses, ruleSet);
     assertEquals(new AbductiveWalk<>(hypotheses), result);
   }
@@ -45,7 +51,7 @@ public abstract class AbductiveReasonerTestBase {
     AbductiveClosureSolver<String, String> reasoner = newAbductiveReasoner();
     Set<String> hypotheses = Sets.of("b");
     Set<Rule<String, String>> rules = Sets.of(new Rule<>("0", Sets.of("a"), "b"));
-    RuleSet<String, String> ruleSet = new DefaultRuleSet<>(rules);
+    RuleSet<String, String> ruleSet = newRuleSet(rules);
     AbductiveWalk<String, String> result = reasoner.abduct(hypotheses, ruleSet);
     assertEquals(new AbductiveWalk<>(hypotheses, Sets.newLinkedHashSet(rules), Sets.of("a")),
         result);
@@ -57,7 +63,7 @@ public abstract class AbductiveReasonerTestBase {
     Set<String> hypotheses = Sets.of("c");
     Set<Rule<String, String>> rules =
         Sets.of(new Rule<>("0", Sets.of("a"), "b"), new Rule<>("1", Sets.of("b"), "c"));
-    RuleSet<String, String> ruleSet = new DefaultRuleSet<>(rules);
+    RuleSet<String, String> ruleSet = newRuleSet(rules);
     AbductiveWalk<String, String> result = reasoner.abduct(hypotheses, ruleSet);
     assertEquals(new AbductiveWalk<>(hypotheses, Sets.newLinkedHashSet(rules), Sets.of("a", "b")),
         result);
@@ -68,7 +74,7 @@ public abstract class AbductiveReasonerTestBase {
     AbductiveClosureSolver<String, String> reasoner = newAbductiveReasoner();
     Set<String> hypotheses = Sets.of("a");
     Set<Rule<String, String>> rules = Sets.of(new Rule<>("0", Sets.of("x"), "y"));
-    RuleSet<String, String> ruleSet = new DefaultRuleSet<>(rules);
+    RuleSet<String, String> ruleSet = newRuleSet(rules);
     AbductiveWalk<String, String> result = reasoner.abduct(hypotheses, ruleSet);
     assertEquals(new AbductiveWalk<>(hypotheses, Sets.newLinkedHashSet(), Sets.of("a")), result);
   }
@@ -80,7 +86,7 @@ public abstract class AbductiveReasonerTestBase {
     Set<Rule<String, String>> rules = Sets.of(new Rule<>("0", Sets.of("a"), "b"),
         new Rule<>("1", Sets.of("b"), "c"), new Rule<>("2", Sets.of("d"), "e"),
         new Rule<>("3", Sets.of("e"), "f"), new Rule<>("4", Sets.of("x"), "y"));
-    RuleSet<String, String> ruleSet = new DefaultRuleSet<>(rules);
+    RuleSet<String, String> ruleSet = newRuleSet(rules);
     AbductiveWalk<String, String> result = reasoner.abduct(hypotheses, ruleSet);
 
     LinkedHashSet<Rule<String, String>> expectedFired = new LinkedHashSet<>();
@@ -100,7 +106,7 @@ public abstract class AbductiveReasonerTestBase {
     Set<Rule<String, String>> rules = Sets.of(new Rule<>("0", Sets.of("a"), "b"),
         new Rule<>("1", Sets.of("b"), "c"), new Rule<>("2", Sets.of("d"), "e"),
         new Rule<>("3", Sets.of("e"), "f"), new Rule<>("4", Sets.of("b", "d"), "g"));
-    RuleSet<String, String> ruleSet = new DefaultRuleSet<>(rules);
+    RuleSet<String, String> ruleSet = newRuleSet(rules);
     AbductiveWalk<String, String> result = reasoner.abduct(hypotheses, ruleSet);
 
     LinkedHashSet<Rule<String, String>> expectedFired = new LinkedHashSet<>();
@@ -119,9 +125,35 @@ public abstract class AbductiveReasonerTestBase {
     Set<String> hypotheses = Sets.of("a", "d");
     Set<Rule<String, String>> rules = Sets.of(new Rule<>("0", Sets.of("x"), "y"),
         new Rule<>("1", Sets.of("y"), "z"), new Rule<>("2", Sets.of("z"), "w"));
-    RuleSet<String, String> ruleSet = new DefaultRuleSet<>(rules);
+    RuleSet<String, String> ruleSet = newRuleSet(rules);
     AbductiveWalk<String, String> result = reasoner.abduct(hypotheses, ruleSet);
     assertEquals(new AbductiveWalk<>(hypotheses, Sets.newLinkedHashSet(), Sets.of("a", "d")),
         result);
   }
+
+  private static Set<Rule<String, String>> chainRules() {
+    return Sets.of(new Rule<>("0", Sets.of("a"), "b"), new Rule<>("1", Sets.of("b"), "c"),
+        new Rule<>("2", Sets.of("c"), "d"), new Rule<>("3", Sets.of("d"), "e"));
+  }
+
+  @Test
+  public void givenUnlimitedBudget_whenAbduct_thenCompleteClosure() {
+    AbductiveClosureSolver<String, String> reasoner = newAbductiveReasoner();
+    RuleSet<String, String> ruleSet = newRuleSet(chainRules());
+    SearchResult<AbductiveWalk<String, String>> result =
+        reasoner.abduct(Sets.of("e"), ruleSet, SearchBudget.unlimited());
+    assertTrue(result.isComplete());
+    assertEquals(4, result.getResult().getFired().size());
+  }
+
+  @Test
+  public void givenVisitBudget_whenAbduct_thenPartialClosure() {
+    AbductiveClosureSolver<String, String> reasoner = newAbductiveReasoner();
+    RuleSet<String, String> ruleSet = newRuleSet(chainRules());
+    SearchResult<AbductiveWalk<String, String>> result =
+        reasoner.abduct(Sets.of("e"), ruleSet, SearchBudget.unlimited().withMaxVisited(1L));
+    assertFalse(result.isComplete());
+    assertEquals(SearchBudget.Limit.VISITED, result.getLimit());
+    assertTrue(result.getResult().getFired().size() < 4);
+  }
 }
@@ -21,6 +21,8 @@
 package com.sigpwned.horn4j;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import java.util.Set;
 import org.junit.Test;
 import com.sigpwned.horn4j.impl.DefaultRuleSet;
@@ -29,12 +31,16 @@ import com.sigpwned.horn4j.util.Sets;
 public abstract class DeductiveReasonerTestBase {
   public abstract DeductiveClosureSolver<String, String> newDeductiveReasoner();
 
+  public RuleSet<String, String> newRuleSet(Set<Rule<String, String>> rules) {
+    return new DefaultRuleSet<>(rules);
+  }
+
   @Test
   public void givenEmptyAssumptions_whenDeduct_thenEmptyClosure() {
     DeductiveClosureSolver<String, String> reasoner = newDeductiveReasoner();
     Set<String> assumptions = Sets.of();
     Set<Rule<String, String>> rules = Sets.of(new Rule<>("0", Sets.of("a"), "b"));
-    RuleSet<String, String> ruleSet = new DefaultRuleSet<>(rules);
+    RuleSet<String, String> ruleSet = newRuleSet(rules);
     DeductiveWalk<String, String> result = reasoner.deduct(assumptions, ruleSet);
     assertEquals(new DeductiveWalk<>(assumptions), result);
   }
@@ -44,7 +50,7 @@ public abstract class DeductiveReasonerTestBase {
     DeductiveClosureSolver<String, String> reasoner = newDeductiveReasoner();
     Set<String> assumptions = Sets.of("a");
     Set<Rule<String, String>> rules = Sets.of(new Rule<>("0", Sets.of("a"), "b"));
-    RuleSet<String, String> ruleSet = new DefaultRuleSet<>(rules);
+    RuleSet<String, String> ruleSet = newRuleSet(rules);
     DeductiveWalk<String, String> result = reasoner.deduct(assumptions, ruleSet);
     assertEquals(new DeductiveWalk<>(assumptions, Sets.newLinkedHashSet(rules), Sets.of("b")),
         result);
@@ -56,7 +62,7 @@ public abstract class DeductiveReasonerTestBase {
     Set<String> assumptions = Sets.of("a");
     Set<Rule<String, String>> rules =
         Sets.of(new Rule<>("0", Sets.of("a"), "b"), new Rule<>("1", Sets.of("b"), "c"));
-    RuleSet<String, String> ruleSet = new DefaultRuleSet<>(rules);
+    RuleSet<String, String> ruleSet = newRuleSet(rules);
     DeductiveWalk<String, String> result = reasoner.deduct(assumptions, ruleSet);
     assertEquals(new DeductiveWalk<>(assumptions, Sets.newLinkedHashSet(rules), Sets.of("b", "c")),
         result);
@@ -67,7 +73,7 @@ public abstract class DeductiveReasonerTestBase {
     DeductiveClosureSolver<String, String> reasoner = newDeductiveReasoner();
     Set<String> assumptions = Sets.of("a");
     Set<Rule<String, String>> rules = Sets.of(new Rule<>("0", Sets.of("x"), "y"));
-    RuleSet<String, String> ruleSet = new DefaultRuleSet<>(rules);
+    RuleSet<String, String> ruleSet = newRuleSet(rules);
     DeductiveWalk<String, String> result = reasoner.deduct(assumptions, ruleSet);
     assertEquals(new DeductiveWalk<>(assumptions), result);
   }
@@ -79,7 +85,7 @@ public abstract class DeductiveReasonerTestBase {
     Set<Rule<String, String>> rules = Sets.of(new Rule<>("0", Sets.of("a"), "b"),
         new Rule<>("1", Sets.of("b"), "c"), new Rule<>("2", Sets.of("d"), "e"),
         new Rule<>("3", Sets.of("e"), "f"), new Rule<>("4", Sets.of("x"), "y"));
-    RuleSet<String, String> ruleSet = new DefaultRuleSet<>(rules);
+    RuleSet<String, String> ruleSet = newRuleSet(rules);
     DeductiveWalk<String, String> result = reasoner.deduct(assumptions, ruleSet);
     assertEquals(new DeductiveWalk<>(assumptions,
         Sets.newLinkedHashSet(new Rule<>("0", Sets.of("a"), "b"),
@@ -95,7 +101,7 @@ public abstract class DeductiveReasonerTestBase {
     Set<Rule<String, String>> rules = Sets.of(new Rule<>("0", Sets.of("a"), "b"),
         new Rule<>("1", Sets.of("b"), "c"), new Rule<>("2", Sets.of("d"), "e"),
         new Rule<>("3", Sets.of("e"), "f"), new Rule<>("4", Sets.of("b", "d"), "g"));
-    RuleSet<String, String> ruleSet = new DefaultRuleSet<>(rules);
+    RuleSet<String, String> ruleSet = newRuleSet(rules);
     DeductiveWalk<String, String> result = reasoner.deduct(assumptions, ruleSet);
     assertEquals(new DeductiveWalk<>(assumptions,
         Sets.newLinkedHashSet(new Rule<>("0", Sets.of("a"), "b"),
@@ -110,8 +116,50 @@ public abstract class DeductiveReasonerTestBase {
     Set<String> assumptions = Sets.of("a", "d");
     Set<Rule<String, String>> rules = Sets.of(new Rule<>("0", Sets.of("x"), "y"),
         new Rule<>("1", Sets.of("y"), "z"), new Rule<>("2", Sets.of("z"), "w"));
-    RuleSet<String, String> ruleSet = new DefaultRuleSet<>(rules);
+    RuleSet<String, String> ruleSet = newRuleSet(rules);
     DeductiveWalk<String, String> result = reasoner.deduct(assumptions, ruleSet);
     assertEquals(new DeductiveWalk<>(assumptions), result);
   }
+
+  private static Set<Rule<String, String>> chainRules() {
+    return Sets.of(new Rule<>("0", Sets.of("a"), "b"), new Rule<>("1", Sets.of("b"), "c"),
+        new Rule<>("2", Sets.of("c"), "d"), new Rule<>("3", Sets.of("d"), "e"));
+  }
+
+  @Test
+  public void givenUnlimitedBudget_whenDeduct_thenCompleteClosure() {
+    DeductiveClosureSolver<String, String> reasoner = newDeductiveReasoner();
+    RuleSet<String, String> ruleSet = newRuleSet(chainRules());
+    SearchResult<DeductiveWalk<String, String>> result =
+        reasoner.deduct(Sets.of("a"), ruleSet, SearchBudget.unlimited());
+    assertTrue(result.isComplete());
+    assertEquals(Sets.of("b", "c", "d", "e"), result.getResult().getConclusions());
+  }
+
+  @Test
+  public void givenVisitBudget_whenDeduct_thenPartialClosure() {
+    DeductiveClosureSolver<String, String> reasoner = newDeductiveReasoner();
+    RuleSet<String, String> ruleSet = newRuleSet(chainRules());
+    SearchResult<DeductiveWalk<String, String>> result =
+        reasoner.deduct(Sets.of("a"), ruleSet, SearchBudget.unlimited().withMaxVisited(1L));
+    assertFalse(result.isComplete());
+    assertEquals(SearchBudget.Limit.VISITED, result.getLimit());
+    assertTrue(Sets.of("b", "c", "d", "e").containsAll(result.getResult().getConclusions()));
+    assertTrue(result.getResult().getConclusions().size() < 4);
+  }
+
+  @Test
+  public void givenInterruptibleBudgetAndInterruptedThread_whenDeduct_thenStop() {
+    DeductiveClosureSolver<String, String> reasoner = newDeductiveReasoner();
+    RuleSet<String, String> ruleSet = newRuleSet(chainRules());
+    Thread.currentThread().interrupt();
+    try {
+      SearchResult<DeductiveWalk<String, String>> result = reasoner.deduct(Sets.of("a"),
+          ruleSet, SearchBudget.unlimited().withInterruptible(true));
+      assertEquals(SearchBudget.Limit.INTERRUPTED, result.getLimit());
+      assertTrue(Thread.currentThread().isInterrupted());
+    } finally {
+      Thread.interrupted();
+    }
+  }
 }
@@ -0,0 +1,66 @@
+/*-
+ * =================================LICENSE_START==================================
+ * horn4j
+ * ====================================SECTION=====================================
+ * Copyright (C) 2024 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.horn4j;
+
+import static org.junit.Assert.assertEquals;
+import org.junit.Test;
+
+public class PropositionDictionaryTest {
+  @Test
+  public void givenNewPropositions_whenIntern_thenAssignDenseIds() {
+    PropositionDictionary<String> dictionary = new PropositionDictionary<>(1);
+    assertEquals(0, dictionary.intern("a"));
+    assertEquals(1, dictionary.intern("b"));
+    assertEquals(2, dictionary.intern("c"));
+    assertEquals(3, dictionary.size());
+  }
+
+  @Test
+  public void givenInternedProposition_whenIntern_thenReturnSameId() {
+    PropositionDictionary<String> dictionary = new PropositionDictionary<>();
+    int id = dictionary.intern("a");
+    dictionary.intern("b");
+    assertEquals(id, dictionary.intern("a"));
+    assertEquals(2, dictionary.size());
+  }
+
+  @Test
+  public void givenInternedProposition_whenLookupAndDecode_thenRoundTrip() {
+    PropositionDictionary<String> dictionary = new PropositionDictionary<>();
+    dictionary.intern("a");
+    dictionary.intern("b");
+    assertEquals(1, dictionary.lookup("b"));
+    assertEquals("b", dictionary.decode(1));
+  }
+
+  @Test
+  public void givenUnknownProposition_whenLookup_thenReturnNoId() {
+    PropositionDictionary<String> dictionary = new PropositionDictionary<>();
+    dictionary.intern("a");
+    assertEquals(PropositionDictionary.NO_ID, dictionary.lookup("x"));
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void givenUnknownId_whenDecode_thenThrowException() {
+    PropositionDictionary<String> dictionary = new PropositionDictionary<>();
+    dictionary.intern("a");
+    dictionary.decode(1);
+  }
+}
@@ -0,0 +1,90 @@
+/*-
+ * =================================LICENSE_START==================================
+ * horn4j
+ * ====================================SECTION=====================================
+ * Copyright (C) 2024 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.horn4j;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.Test;
+
+public class SearchBudgetTest {
+  @Test
+  public void givenUnlimitedBudget_whenIsUnlimited_thenTrue() {
+    assertThat(SearchBudget.unlimited().isUnlimited(), is(true));
+    assertThat(SearchBudget.unlimited().withMaxVisited(10L).isUnlimited(), is(false));
+    assertThat(SearchBudget.unlimited().withInterruptible(true).isUnlimited(), is(false));
+  }
+
+  @Test
+  public void givenVisitBudget_whenVisit_thenStopAfterLimit() {
+    final SearchBudget.Tracker tracker = SearchBudget.unlimited().withMaxVisited(2L).start();
+    assertThat(tracker.visit(), is(true));
+    assertThat(tracker.visit(), is(true));
+    assertThat(tracker.getLimit(), is(nullValue()));
+    assertThat(tracker.visit(), is(false));
+    assertThat(tracker.getLimit(), is(SearchBudget.Limit.VISITED));
+
+    // Once a tracker reaches a limit, it stays there.
+    assertThat(tracker.frontier(0L), is(false));
+    assertThat(tracker.isExhausted(), is(true));
+  }
+
+  @Test
+  public void givenFrontierBudget_whenFrontier_thenStopAboveLimit() {
+    final SearchBudget.Tracker tracker = SearchBudget.unlimited().withMaxFrontier(5L).start();
+    assertThat(tracker.frontier(5L), is(true));
+    assertThat(tracker.frontier(6L), is(false));
+    assertThat(tracker.getLimit(), is(SearchBudget.Limit.FRONTIER));
+  }
+
+  @Test
+  public void givenTimeout_whenVisitAfterDeadline_thenStop() throws InterruptedException {
+    final SearchBudget.Tracker tracker =
+        SearchBudget.unlimited().withTimeout(1L, TimeUnit.MILLISECONDS).start();
+    Thread.sleep(5L);
+    assertThat(tracker.visit(), is(false));
+    assertThat(tracker.getLimit(), is(SearchBudget.Limit.DEADLINE));
+  }
+
+  @Test
+  public void givenInterruptibleBudget_whenOwnerInterrupted_thenStopFromAnyThread() {
+    final SearchBudget.Tracker tracker = SearchBudget.unlimited().withInterruptible(true).start();
+    Thread.currentThread().interrupt();
+    try {
+      final AtomicBoolean visited = new AtomicBoolean(true);
+      final Thread worker = new Thread(() -> visited.set(tracker.visit()));
+      worker.start();
+      // We cannot join while we are interrupted, so wait by hand.
+      while (worker.isAlive())
+        Thread.yield();
+      assertThat(visited.get(), is(false));
+      assertThat(tracker.getLimit(), is(SearchBudget.Limit.INTERRUPTED));
+    } finally {
+      Thread.interrupted();
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void givenNegativeMaxVisited_whenWithMaxVisited_thenThrow() {
+    SearchBudget.unlimited().withMaxVisited(-1L);
+  }
+}
@@ -0,0 +1,78 @@
+/*-
+ * =================================LICENSE_START==================================
+ * horn4j
+ * ====================================SECTION=====================================
+ * Copyright (C) 2024 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.horn4j.impl;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import java.lang.reflect.Proxy;
+import org.junit.Test;
+import com.sigpwned.horn4j.AbductiveClosureSolver;
+import com.sigpwned.horn4j.AbductiveReasonerTestBase;
+import com.sigpwned.horn4j.IndexedRuleSet;
+import com.sigpwned.horn4j.RuleSet;
+import com.sigpwned.horn4j.util.Sets;
+
+public class BackwardChainingAbductiveReasonerTest extends AbductiveReasonerTestBase {
+  /**
+   * @return a view of the given rule set that is not an {@link IndexedRuleSet}
+   */
+  @SuppressWarnings("unchecked")
+  private static <RuleIdT, PropositionT> RuleSet<RuleIdT, PropositionT> unindexed(
+      RuleSet<RuleIdT, PropositionT> rules) {
+    return (RuleSet<RuleIdT, PropositionT>) Proxy.newProxyInstance(RuleSet.class.getClassLoader(),
+        new Class<?>[] {RuleSet.class}, (proxy, method, args) -> method.invoke(rules, args));
+  }
+
+  @Override
+  public AbductiveClosureSolver<String, String> newAbductiveReasoner() {
+    return new BackwardChainingAbductiveClosureSolver<String, String>();
+  }
+
+  @Test
+  public void givenRandomRules_whenAbduct_thenSameClosureAsNaiveSolver() {
+    for (long seed = 0L; seed < 20L; seed++) {
+      final DefaultRuleSet<Integer, Integer> rules =
+          SyntheticRuleSets.toRuleSet(SyntheticRuleSets.powerLaw(12, 10, 2, 1.0, seed));
+      for (int goal = 0; goal < 10; goal++) {
+        assertThat(
+            new BackwardChainingAbductiveClosureSolver<Integer, Integer>().abduct(Sets.of(goal),
+                rules),
+            is(new NaiveAbductiveClosureSolver<Integer, Integer>().abduct(Sets.of(goal), rules)));
+        assertThat(
+            new BackwardChainingAbductiveClosureSolver<Integer, Integer>()
+                .abduct(Sets.of(goal, 9 - goal), unindexed(rules)),
+            is(new NaiveAbductiveClosureSolver<Integer, Integer>().abduct(Sets.of(goal, 9 - goal),
+                rules)));
+      }
+    }
+  }
+
+  @Test
+  public void givenCycles_whenAbduct_thenSameClosureAsNaiveSolver() {
+    final RuleSet<Integer, Integer> rules =
+        SyntheticRuleSets.toRuleSet(SyntheticRuleSets.cycles(12, 3, 0L));
+    for (int goal = 0; goal < 9; goal++) {
+      assertThat(
+          new BackwardChainingAbductiveClosureSolver<Integer, Integer>().abduct(Sets.of(goal),
+              rules),
+          is(new NaiveAbductiveClosureSolver<Integer, Integer>().abduct(Sets.of(goal), rules)));
+    }
+  }
+}
@@ -0,0 +1,144 @@
+/*-
+ * =================================LICENSE_START==================================
+ * horn4j
+ * ====================================SECTION=====================================
+ * Copyright (C) 2024 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.horn4j.impl;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.junit.Test;
+import com.sigpwned.horn4j.DeductiveMinimalArgumentSolver;
+import com.sigpwned.horn4j.DeductiveWalk;
+import com.sigpwned.horn4j.Rule;
+import com.sigpwned.horn4j.RuleSet;
+import com.sigpwned.horn4j.SearchBudget;
+import com.sigpwned.horn4j.SearchResult;
+import com.sigpwned.horn4j.util.Sets;
+
+public class BackwardChainingDeductiveMinimalArgumentSolverTest {
+  /**
+   * The graph looks like this:
+   * 
+   * <pre>
+   *   A -> B -> D
+   *   A -> C -> D
+   *   B, C -> E
+   *   X -> Y
+   * </pre>
+   */
+  private static RuleSet<String, String> simpleRules() {
+    final Set<Rule<String, String>> rules = new HashSet<>();
+    rules.add(new Rule<>("AB", Sets.of("A"), "B"));
+    rules.add(new Rule<>("AC", Sets.of("A"), "C"));
+    rules.add(new Rule<>("BD", Sets.of("B"), "D"));
+    rules.add(new Rule<>("CD", Sets.of("C"), "D"));
+    rules.add(new Rule<>("BCE", Sets.of("B", "C"), "E"));
+    rules.add(new Rule<>("XY", Sets.of("X"), "Y"));
+    return new DefaultRuleSet<>(rules);
+  }
+
+  @Test
+  public void givenSimpleRules_whenSolve_thenFindEveryMinimalArgument() {
+    final Set<DeductiveWalk<String, String>> solutions =
+        new BackwardChainingDeductiveMinimalArgumentSolver<String, String>().solve(Sets.of("A"),
+            simpleRules(), Sets.of("D", "E"));
+
+    // E needs both B and C, so either rule for D makes the other redundant.
+    assertThat(solutions.size(), is(2));
+    for (DeductiveWalk<String, String> solution : solutions)
+      assertThat(solution.getFired().size(), is(4));
+  }
+
+  @Test
+  public void givenGoalIsAssumption_whenSolve_thenNoArguments() {
+    assertThat(new BackwardChainingDeductiveMinimalArgumentSolver<String, String>()
+        .solve(Sets.of("A"), simpleRules(), Sets.of("A")), is(Sets.of()));
+  }
+
+  @Test
+  public void givenCycles_whenSolve_thenSameArgumentsAsNaiveSolver() {
+    final RuleSet<Integer, Integer> rules =
+        SyntheticRuleSets.toRuleSet(SyntheticRuleSets.cycles(12, 3, 0L));
+    for (int goal = 1; goal < 9; goal++) {
+      assertThat(
+          new BackwardChainingDeductiveMinimalArgumentSolver<Integer, Integer>().solve(Sets.of(0),
+              rules, Sets.of(goal)),
+          is(new NaiveDeductiveMinimalArgumentSolver<Integer, Integer>().solve(Sets.of(0), rules,
+              Sets.of(goal))));
+    }
+  }
+
+  @Test
+  public void givenRandomRules_whenSolve_thenSameArgumentsAsNaiveSolver() {
+    for (long seed = 0L; seed < 20L; seed++) {
+      final RuleSet<Integer, Integer> rules =
+          SyntheticRuleSets.toRuleSet(SyntheticRuleSets.powerLaw(12, 10, 2, 1.0, seed));
+      for (int goal = 2; goal < 10; goal++) {
+        assertThat(
+            new BackwardChainingDeductiveMinimalArgumentSolver<Integer, Integer>()
+                .solve(Sets.of(0, 1), rules, Sets.of(goal)),
+            is(new NaiveDeductiveMinimalArgumentSolver<Integer, Integer>().solve(Sets.of(0, 1),
+                rules, Sets.of(goal))));
+      }
+    }
+  }
+
+  @Test
+  public void givenIrrelevantRules_whenSolve_thenOnlyLookUpCone() {
+    // The cone of D is D, B, and C. The solver never looks up E or Y.
+    final DefaultSolverMetrics metrics = new DefaultSolverMetrics();
+    new BackwardChainingDeductiveMinimalArgumentSolver<String, String>(metrics)
+        .solve(Sets.of("A"), simpleRules(), Sets.of("D"));
+    assertThat(metrics.snapshot().getLookups(), is(3L));
+  }
+
+  @Test
+  public void givenVisitBudget_whenSolve_thenReturnPartialResult() {
+    final SearchResult<Set<DeductiveWalk<String, String>>> result =
+        new BackwardChainingDeductiveMinimalArgumentSolver<String, String>().solve(Sets.of("A"),
+            simpleRules(), Sets.of("D"), SearchBudget.unlimited().withMaxVisited(2L));
+
+    assertThat(result.getLimit(), is(SearchBudget.Limit.VISITED));
+    for (DeductiveWalk<String, String> solution : result.getResult())
+      assertThat(solution.getConclusions().contains("D"), is(true));
+  }
+
+  @Test
+  public void givenRandomRules_whenSolveWithListener_thenSameArgumentsAsSolve() {
+    for (long seed = 0L; seed < 20L; seed++) {
+      final RuleSet<Integer, Integer> rules =
+          SyntheticRuleSets.toRuleSet(SyntheticRuleSets.powerLaw(12, 10, 2, 1.0, seed));
+      for (int goal = 2; goal < 10; goal++) {
+        final DeductiveMinimalArgumentSolver<Integer, Integer> solver =
+            new BackwardChainingDeductiveMinimalArgumentSolver<>();
+        final List<DeductiveWalk<Integer, Integer>> emitted = new ArrayList<>();
+        final SearchBudget.Limit limit = solver.solve(Sets.of(0, 1), rules, Sets.of(goal),
+            SearchBudget.unlimited(), emitted::add);
+
+        assertThat(limit, is((SearchBudget.Limit) null));
+        assertThat(new HashSet<>(emitted).size(), is(emitted.size()));
+        assertThat(new HashSet<>(emitted),
+            is(solver.solve(Sets.of(0, 1), rules, Sets.of(goal))));
+      }
+    }
+  }
+}
@@ -0,0 +1,91 @@
+/*-
+ * =================================LICENSE_START==================================
+ * horn4j
+ * ====================================SECTION=====================================
+ * Copyright (C) 2024 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.horn4j.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import org.junit.Test;
+import com.sigpwned.horn4j.AbductiveWalk;
+import com.sigpwned.horn4j.Rule;
+import com.sigpwned.horn4j.util.Lists;
+import com.sigpwned.horn4j.util.Sets;
+
+public class BitSetAbductiveWalkTest {
+  private static final Rule<String, String> AB = new Rule<>("0", Sets.of("a"), "b");
+  private static final Rule<String, String> BC = new Rule<>("1", Sets.of("b"), "c");
+  private static final Rule<String, String> XYC = new Rule<>("2", Sets.of("x", "y"), "c");
+
+  private final DefaultRuleSet<String, String> rules = new DefaultRuleSet<>(Sets.of(AB, BC, XYC));
+
+  @Test
+  public void givenSteps_whenStep_thenEqualToDefaultWalk() {
+    AbductiveWalk<String, String> expected =
+        AbductiveWalk.<String, String>start(Sets.of("c")).step(BC).step(AB);
+    AbductiveWalk<String, String> result =
+        BitSetAbductiveWalk.start(Sets.of("c"), rules).step(BC).step(AB);
+    assertEquals(expected, result);
+    assertEquals(result, expected);
+    assertEquals(expected.hashCode(), result.hashCode());
+    assertEquals(Lists.of(BC, AB), new ArrayList<>(result.getFired()));
+    assertEquals(Lists.of("b", "a"), new ArrayList<>(result.getEvidence()));
+  }
+
+  @Test
+  public void givenLongerWalk_whenContains_thenTrue() {
+    AbductiveWalk<String, String> walk = BitSetAbductiveWalk.start(Sets.of("c"), rules).step(BC);
+    AbductiveWalk<String, String> longer = walk.step(XYC);
+    assertTrue(longer.contains(walk));
+    assertFalse(walk.contains(longer));
+    assertEquals(Sets.of("b", "x", "y"), longer.getEvidence());
+  }
+
+  @Test
+  public void givenManyRules_whenStep_thenGrowAndStayEqualToDefaultWalk() {
+    // A chain of 200 rules from p0 to p200, so the walk outgrows the first word of each bitset.
+    final List<Rule<String, String>> chain = new ArrayList<>();
+    for (int i = 0; i < 200; i++)
+      chain.add(new Rule<>("r" + i, Sets.of("p" + i), "p" + (i + 1)));
+    final DefaultRuleSet<String, String> manyRules = new DefaultRuleSet<>(new HashSet<>(chain));
+
+    AbductiveWalk<String, String> expected = AbductiveWalk.start(Sets.of("p200"));
+    AbductiveWalk<String, String> result = BitSetAbductiveWalk.start(Sets.of("p200"), manyRules);
+    AbductiveWalk<String, String> half = null;
+    for (int i = chain.size() - 1; i >= 0; i--) {
+      expected = expected.step(chain.get(i));
+      result = result.step(chain.get(i));
+      if (half == null && result.getFired().size() == chain.size() / 2)
+        half = result;
+    }
+
+    assertEquals(expected, result);
+    assertEquals(expected.hashCode(), result.hashCode());
+    assertTrue(result.contains(half));
+    assertFalse(half.contains(result));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void givenUnsatisfiedConsequent_whenStep_thenThrowException() {
+    BitSetAbductiveWalk.start(Sets.of("c"), rules).step(AB);
+  }
+}
@@ -0,0 +1,267 @@
+/*-
+ * =================================LICENSE_START==================================
+ * horn4j
+ * ====================================SECTION=====================================
+ * Copyright (C) 2024 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.horn4j.impl;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+import com.sigpwned.horn4j.AbductiveWalk;
+import com.sigpwned.horn4j.AbductiveWalker;
+import com.sigpwned.horn4j.AbductiveWalker.Instruction;
+import com.sigpwned.horn4j.Rule;
+import com.sigpwned.horn4j.RuleSet;
+import com.sigpwned.horn4j.SearchBudget;
+import com.sigpwned.horn4j.SolverMetrics;
+import com.sigpwned.horn4j.util.Sets;
+
+public class BitSetAbductiveWalkerTest {
+  /**
+   * Two rules explain G the same way, so the walks that fire them reach the same state.
+   */
+  private static RuleSet<String, String> diamondRules() {
+    final Set<Rule<String, String>> rules = new HashSet<>();
+    rules.add(new Rule<>("G1", Sets.of("X"), "G"));
+    rules.add(new Rule<>("G2", Sets.of("X"), "G"));
+    return new DefaultRuleSet<>(rules);
+  }
+
+  private static int countVisits(AbductiveWalker<String, String> walker) {
+    final AtomicInteger visited = new AtomicInteger();
+    walker.walk(Sets.of("G"), diamondRules(), walk -> {
+      visited.incrementAndGet();
+      return Instruction.CONTINUE;
+    });
+    return visited.get();
+  }
+
+  /**
+   * @return how many times the walker visits each walk, as plain walks
+   */
+  private static Map<AbductiveWalk<Integer, Integer>, Integer> visits(
+      AbductiveWalker<Integer, Integer> walker, Set<Integer> hypotheses,
+      RuleSet<Integer, Integer> rules) {
+    return visits(walker, hypotheses, rules, true);
+  }
+
+  private static Map<AbductiveWalk<Integer, Integer>, Integer> visits(
+      AbductiveWalker<Integer, Integer> walker, Set<Integer> hypotheses,
+      RuleSet<Integer, Integer> rules, boolean orderSensitive) {
+    final Map<AbductiveWalk<Integer, Integer>, Integer> result = new HashMap<>();
+    final AbductiveWalker.Visitor<Integer, Integer> visitor = walk -> {
+      final AbductiveWalk<Integer, Integer> copy = new AbductiveWalk<>(walk.getHypotheses(),
+          Sets.newLinkedHashSet(walk.getFired()), new HashSet<>(walk.getEvidence()));
+      result.merge(copy, 1, Integer::sum);
+      return Instruction.CONTINUE;
+    };
+    walker.walk(hypotheses, rules,
+        orderSensitive ? visitor : AbductiveWalker.Visitor.orderInsensitive(visitor));
+    return result;
+  }
+
+  @Test
+  public void givenDiamondRules_whenWalk_thenVisitEveryPath() {
+    // The start, one walk per rule, then one walk per rule that postulates X.
+    assertThat(countVisits(new BitSetAbductiveWalker<>()), is(5));
+  }
+
+  @Test
+  public void givenDiamondRules_whenWalkMemoized_thenExpandEachStateOnce() {
+    assertThat(countVisits(new BitSetAbductiveWalker<>(Memoization.enabled())), is(3));
+    assertThat(countVisits(new BitSetAbductiveWalker<>(
+        Memoization.enabled(Memoization.DEFAULT_MAX_BYTES, true))), is(4));
+    assertThat(countVisits(new BitSetAbductiveWalker<>(Memoization.enabled(0L, false))), is(5));
+  }
+
+  @Test
+  public void givenFrontierBudget_whenWalk_thenStopAtLimit() {
+    final AtomicInteger visited = new AtomicInteger();
+    final SearchBudget.Limit limit = new BitSetAbductiveWalker<String, String>().walk(Sets.of("G"),
+        diamondRules(), walk -> {
+          visited.incrementAndGet();
+          return Instruction.CONTINUE;
+        }, SearchBudget.unlimited().withMaxFrontier(1L));
+
+    assertThat(limit, is(SearchBudget.Limit.FRONTIER));
+    assertThat(visited.get(), is(1));
+  }
+
+  @Test
+  public void givenVisitBudget_whenWalkMemoizedAndReportDuplicates_thenChargeDuplicates() {
+    final DefaultSolverMetrics metrics = new DefaultSolverMetrics();
+    final AtomicInteger visited = new AtomicInteger();
+    final SearchBudget.Limit limit = new BitSetAbductiveWalker<String, String>(
+        Memoization.enabled(Memoization.DEFAULT_MAX_BYTES, true), metrics).walk(Sets.of("G"),
+            diamondRules(), walk -> {
+              visited.incrementAndGet();
+              return Instruction.CONTINUE;
+            }, SearchBudget.unlimited().withMaxVisited(2L));
+
+    // The start, one walk per rule, and the second of those is a duplicate.
+    assertThat(limit, is(SearchBudget.Limit.VISITED));
+    assertThat(visited.get(), is(2));
+    assertThat(metrics.snapshot().getVisited(), is(2L));
+  }
+
+  @Test
+  public void givenRandomRules_whenWalk_thenSameWalksAsNaiveWalker() {
+    for (long seed = 0L; seed < 10L; seed++) {
+      final RuleSet<Integer, Integer> rules =
+          SyntheticRuleSets.toRuleSet(SyntheticRuleSets.powerLaw(10, 8, 2, 1.0, seed));
+      for (int goal = 0; goal < 8; goal++) {
+        // 100 is not in any rule, so both walkers must postulate it.
+        final Set<Integer> hypotheses = Sets.of(goal, 100);
+        assertThat(visits(new BitSetAbductiveWalker<>(), hypotheses, rules),
+            is(visits(new NaiveAbductiveWalker<>(), hypotheses, rules)));
+      }
+    }
+  }
+
+  @Test
+  public void givenRandomRules_whenWalkOrderInsensitive_thenSameWalksWithFewerChildren() {
+    for (long seed = 0L; seed < 10L; seed++) {
+      final RuleSet<Integer, Integer> rules =
+          SyntheticRuleSets.toRuleSet(SyntheticRuleSets.powerLaw(10, 8, 2, 1.0, seed));
+      for (int goal = 0; goal < 8; goal++) {
+        final Set<Integer> hypotheses = Sets.of(goal, 100);
+
+        final DefaultSolverMetrics sensitive = new DefaultSolverMetrics();
+        final Map<AbductiveWalk<Integer, Integer>, Integer> expected =
+            visits(new BitSetAbductiveWalker<>(Memoization.disabled(), sensitive), hypotheses,
+                rules, true);
+
+        final DefaultSolverMetrics insensitive = new DefaultSolverMetrics();
+        final Map<AbductiveWalk<Integer, Integer>, Integer> actual =
+            visits(new BitSetAbductiveWalker<>(Memoization.disabled(), insensitive), hypotheses,
+                rules, false);
+
+        // Every walk is still there, but the walker no longer builds it once per order.
+        assertThat(actual.keySet(), is(expected.keySet()));
+        final DefaultSolverMetrics.Snapshot before = sensitive.snapshot();
+        final DefaultSolverMetrics.Snapshot after = insensitive.snapshot();
+        assertThat(after.getDeduplicated() <= before.getDeduplicated(), is(true));
+        assertThat(after.getVisited() <= before.getVisited(), is(true));
+      }
+    }
+  }
+
+  /**
+   * @return a few random rules over propositions 0 to 5, each of which only needs propositions with
+   *         higher numbers, so rules explain hypotheses 0 and 1 with each other, too
+   */
+  private static RuleSet<Integer, Integer> randomAcyclicRules(Random random) {
+    final Set<Rule<Integer, Integer>> rules = new HashSet<>();
+    for (int i = 0, n = 2 + random.nextInt(4); i < n; i++) {
+      final int consequent = random.nextInt(4);
+      final Set<Integer> antecedents = new HashSet<>();
+      for (int j = 0, m = 1 + random.nextInt(2); j < m; j++)
+        antecedents.add(consequent + 1 + random.nextInt(5 - consequent));
+      rules.add(new Rule<>(i, antecedents, consequent));
+    }
+    return new DefaultRuleSet<>(rules);
+  }
+
+  @Test
+  public void givenRuleThatNeedsExplainedHypothesis_whenSolve_thenFindEveryArgument() {
+    // Explaining 1 with R2, then 0 with R0, puts 1 back on the queue, so R3 can explain it again.
+    final Set<Rule<Integer, Integer>> rules = new HashSet<>();
+    rules.add(new Rule<>(0, Sets.of(1), 0));
+    rules.add(new Rule<>(1, Sets.of(4), 0));
+    rules.add(new Rule<>(2, Sets.of(4), 1));
+    rules.add(new Rule<>(3, Sets.of(2), 1));
+    final RuleSet<Integer, Integer> ruleset = new DefaultRuleSet<>(rules);
+
+    final Set<AbductiveWalk<Integer, Integer>> arguments =
+        new NaiveAbductiveMinimalArgumentSolver<Integer, Integer>(new BitSetAbductiveWalker<>())
+            .solve(Sets.of(0, 1), ruleset, Sets.of(2, 4));
+
+    assertThat(arguments.size(), is(2));
+    assertThat(arguments, is(new NaiveAbductiveMinimalArgumentSolver<Integer, Integer>()
+        .solve(Sets.of(0, 1), ruleset, Sets.of(2, 4))));
+  }
+
+  @Test
+  public void givenRandomRulesThatExplainHypotheses_whenWalkOrderInsensitive_thenSameAsNaive() {
+    final List<BitSetAbductiveWalker.Heuristic<Integer, Integer>> heuristics = new ArrayList<>();
+    heuristics.add(BitSetAbductiveWalker.Heuristic.firstMet());
+    heuristics.add(BitSetAbductiveWalker.Heuristic.fewestExplanationsFirst());
+
+    final Random random = new Random(0L);
+    for (int i = 0; i < 1000; i++) {
+      final RuleSet<Integer, Integer> rules = randomAcyclicRules(random);
+      final Set<Integer> hypotheses = Sets.of(0, 1);
+      final Set<Integer> goals = Sets.of(2 + random.nextInt(4), 2 + random.nextInt(4));
+
+      final Set<AbductiveWalk<Integer, Integer>> expectedWalks =
+          visits(new NaiveAbductiveWalker<>(), hypotheses, rules).keySet();
+      final Set<AbductiveWalk<Integer, Integer>> expectedArguments =
+          new NaiveAbductiveMinimalArgumentSolver<Integer, Integer>().solve(hypotheses, rules,
+              goals);
+
+      for (BitSetAbductiveWalker.Heuristic<Integer, Integer> heuristic : heuristics) {
+        final BitSetAbductiveWalker<Integer, Integer> walker =
+            new BitSetAbductiveWalker<>(Memoization.disabled(), heuristic, SolverMetrics.none());
+        assertThat(visits(walker, hypotheses, rules, false).keySet(), is(expectedWalks));
+        assertThat(new NaiveAbductiveMinimalArgumentSolver<Integer, Integer>(walker)
+            .solve(hypotheses, rules, goals), is(expectedArguments));
+      }
+    }
+  }
+
+  @Test
+  public void givenRandomRules_whenSolve_thenSameArgumentsAsNaiveWalker() {
+    for (long seed = 0L; seed < 10L; seed++) {
+      final RuleSet<Integer, Integer> rules =
+          SyntheticRuleSets.toRuleSet(SyntheticRuleSets.powerLaw(12, 10, 2, 1.0, seed));
+      for (int goal = 2; goal < 10; goal++) {
+        assertThat(
+            new NaiveAbductiveMinimalArgumentSolver<Integer, Integer>(
+                new BitSetAbductiveWalker<>()).solve(Sets.of(goal), rules, Sets.of(1)),
+            is(new NaiveAbductiveMinimalArgumentSolver<Integer, Integer>().solve(Sets.of(goal),
+                rules, Sets.of(1))));
+      }
+    }
+  }
+
+  @Test
+  public void givenWalk_whenVisit_thenViewBehavesLikeSet() {
+    final List<AbductiveWalk<String, String>> walks = new ArrayList<>();
+    new BitSetAbductiveWalker<String, String>().walk(Sets.of("G"), diamondRules(), walk -> {
+      walks.add(walk);
+      return Instruction.CONTINUE;
+    });
+
+    for (AbductiveWalk<String, String> walk : walks) {
+      final AbductiveWalk<String, String> copy = new AbductiveWalk<>(walk.getHypotheses(),
+          Sets.newLinkedHashSet(walk.getFired()), new HashSet<>(walk.getEvidence()));
+      assertThat(walk, is(copy));
+      assertThat(walk.hashCode(), is(copy.hashCode()));
+      assertThat(walk.getEvidence().contains("Y"), is(false));
+      assertThat(walk.getEvidence().contains("X"), is(walk.getEvidence().size() == 1));
+    }
+  }
+}
@@ -0,0 +1,106 @@
+/*-
+ * =================================LICENSE_START==================================
+ * horn4j
+ * ====================================SECTION=====================================
+ * Copyright (C) 2024 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.horn4j.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import org.junit.Test;
+import com.sigpwned.horn4j.DeductiveWalk;
+import com.sigpwned.horn4j.Rule;
+import com.sigpwned.horn4j.util.Lists;
+import com.sigpwned.horn4j.util.Sets;
+
+public class BitSetDeductiveWalkTest {
+  private static final Rule<String, String> AB = new Rule<>("0", Sets.of("a"), "b");
+  private static final Rule<String, String> BC = new Rule<>("1", Sets.of("b"), "c");
+  private static final Rule<String, String> AD = new Rule<>("2", Sets.of("a"), "d");
+
+  private final DefaultRuleSet<String, String> rules = new DefaultRuleSet<>(Sets.of(AB, BC, AD));
+
+  @Test
+  public void givenSteps_whenStep_thenEqualToDefaultWalk() {
+    DeductiveWalk<String, String> expected = DeductiveWalk.<String, String>start(Sets.of("a"))
+        .step(AB).step(BC);
+    DeductiveWalk<String, String> result =
+        BitSetDeductiveWalk.start(Sets.of("a"), rules).step(AB).step(BC);
+    assertEquals(expected, result);
+    assertEquals(result, expected);
+    assertEquals(expected.hashCode(), result.hashCode());
+    assertEquals(Lists.of(AB, BC), new ArrayList<>(result.getFired()));
+    assertEquals(Lists.of("b", "c"), new ArrayList<>(result.getConclusions()));
+  }
+
+  @Test
+  public void givenDifferentOrders_whenStep_thenEqual() {
+    DeductiveWalk<String, String> walk1 =
+        BitSetDeductiveWalk.start(Sets.of("a"), rules).step(AB).step(AD);
+    DeductiveWalk<String, String> walk2 =
+        BitSetDeductiveWalk.start(Sets.of("a"), rules).step(AD).step(AB);
+    assertEquals(walk1, walk2);
+    assertEquals(walk1.hashCode(), walk2.hashCode());
+  }
+
+  @Test
+  public void givenLongerWalk_whenContains_thenTrue() {
+    DeductiveWalk<String, String> walk = BitSetDeductiveWalk.start(Sets.of("a"), rules).step(AB);
+    DeductiveWalk<String, String> longer = walk.step(BC);
+    assertTrue(longer.contains(walk));
+    assertFalse(walk.contains(longer));
+    assertTrue(longer.contains(DeductiveWalk.<String, String>start(Sets.of("a")).step(AB)));
+  }
+
+  @Test
+  public void givenManyRules_whenStep_thenGrowAndStayEqualToDefaultWalk() {
+    // A chain of 200 rules from p0 to p200, so the walk outgrows the first word of each bitset.
+    final List<Rule<String, String>> chain = new ArrayList<>();
+    for (int i = 0; i < 200; i++)
+      chain.add(new Rule<>("r" + i, Sets.of("p" + i), "p" + (i + 1)));
+    final DefaultRuleSet<String, String> manyRules = new DefaultRuleSet<>(new HashSet<>(chain));
+
+    DeductiveWalk<String, String> expected = DeductiveWalk.start(Sets.of("p0"));
+    DeductiveWalk<String, String> result = BitSetDeductiveWalk.start(Sets.of("p0"), manyRules);
+    DeductiveWalk<String, String> half = null;
+    for (Rule<String, String> rule : chain) {
+      expected = expected.step(rule);
+      result = result.step(rule);
+      if (half == null && result.getFired().size() == chain.size() / 2)
+        half = result;
+    }
+
+    assertEquals(expected, result);
+    assertEquals(expected.hashCode(), result.hashCode());
+    assertTrue(result.contains(half));
+    assertFalse(half.contains(result));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void givenMissingAntecedents_whenStep_thenThrowException() {
+    BitSetDeductiveWalk.start(Sets.of("a"), rules).step(BC);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void givenFiredRule_whenStep_thenThrowException() {
+    BitSetDeductiveWalk.start(Sets.of("a"), rules).step(AB).step(AB);
+  }
+}
@@ -0,0 +1,107 @@
+/*-
+ * =================================LICENSE_START==================================
+ * horn4j
+ * ====================================SECTION=====================================
+ * Copyright (C) 2024 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.horn4j.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import java.util.Set;
+import org.junit.Test;
+import com.sigpwned.horn4j.DeductiveWalk;
+import com.sigpwned.horn4j.Rule;
+import com.sigpwned.horn4j.util.Sets;
+
+public class CompiledRuleSetTest {
+  @Test
+  public void givenEmptyRuleSet_whenFindBySatisfiedAntecedents_thenReturnEmptySet() {
+    CompiledRuleSet<String, String> ruleSet =
+        CompiledRuleSet.fromRules(Sets.<Rule<String, String>>of().stream());
+    Set<Rule<String, String>> result = ruleSet.findBySatisfiedAntecedents(Sets.of("a"));
+    assertTrue(result.isEmpty());
+  }
+
+  @Test
+  public void givenNonEmptyRuleSet_whenFindByExactAntecedents_thenReturnMatchingRules() {
+    CompiledRuleSet<String, String> ruleSet =
+        CompiledRuleSet.fromRules(Sets.of(new Rule<>("0", Sets.of("a", "b"), "c"),
+            new Rule<>("1", Sets.of("a"), "d"), new Rule<>("2", Sets.of(), "e")).stream());
+    assertEquals(Sets.of(new Rule<>("0", Sets.of("a", "b"), "c")),
+        ruleSet.findByExactAntecedents(Sets.of("b", "a")));
+    assertEquals(Sets.of(new Rule<>("2", Sets.of(), "e")),
+        ruleSet.findByExactAntecedents(Sets.of()));
+    assertTrue(ruleSet.findByExactAntecedents(Sets.of("a", "x")).isEmpty());
+  }
+
+  @Test
+  public void givenPartiallySatisfiedAntecedents_whenFindBySatisfiedAntecedents_thenReturnOnlySatisfiedRules() {
+    CompiledRuleSet<String, String> ruleSet =
+        CompiledRuleSet.fromRules(Sets.of(new Rule<>("0", Sets.of("a"), "b"),
+            new Rule<>("1", Sets.of("a", "c"), "d"), new Rule<>("2", Sets.of(), "e")).stream());
+    Set<Rule<String, String>> result = ruleSet.findBySatisfiedAntecedents(Sets.of("a", "x"));
+    assertEquals(Sets.of(new Rule<>("0", Sets.of("a"), "b"), new Rule<>("2", Sets.of(), "e")),
+        result);
+  }
+
+  @Test
+  public void givenNonEmptyRuleSet_whenFindByNewlySatisfiedAntecedents_thenReturnNewlyEnabledRules() {
+    CompiledRuleSet<String, String> ruleSet = CompiledRuleSet.fromRules(Sets.of(
+        new Rule<>("0", Sets.of("a"), "b"), new Rule<>("1", Sets.of("a", "c"), "d"),
+        new Rule<>("2", Sets.of("c", "x"), "e"), new Rule<>("3", Sets.of("b"), "f")).stream());
+    Set<Rule<String, String>> result =
+        ruleSet.findByNewlySatisfiedAntecedents(Sets.of("a", "b"), "c");
+    assertEquals(Sets.of(new Rule<>("1", Sets.of("a", "c"), "d")), result);
+  }
+
+  @Test
+  public void givenNonEmptyRuleSet_whenFindByConsequentAndSignature_thenReturnMatchingRules() {
+    CompiledRuleSet<String, String> ruleSet = CompiledRuleSet.fromRules(Sets
+        .of(new Rule<>("0", Sets.of("a"), "b"), new Rule<>("1", Sets.of("c"), "b")).stream());
+    assertEquals(
+        Sets.of(new Rule<>("0", Sets.of("a"), "b"), new Rule<>("1", Sets.of("c"), "b")),
+        ruleSet.findByConsequent("b"));
+    assertEquals(Sets.of(new Rule<>("1", Sets.of("c"), "b")),
+        ruleSet.findBySignature(Sets.of("c"), "b"));
+    assertTrue(ruleSet.findByConsequent("x").isEmpty());
+  }
+
+  @Test
+  public void givenDefaultRuleSet_whenFromRuleSet_thenShareDictionaryAndRules() {
+    DefaultRuleSet<String, String> rules = new DefaultRuleSet<>(
+        Sets.of(new Rule<>("0", Sets.of("a", "b"), "c"), new Rule<>("1", Sets.of("c"), "d")));
+    CompiledRuleSet<String, String> ruleSet = CompiledRuleSet.fromRuleSet(rules);
+    assertTrue(ruleSet.getDictionary() == rules.getDictionary());
+    assertEquals(rules.getRuleCount(), ruleSet.getRuleCount());
+    for (int r = 0; r < ruleSet.getRuleCount(); r++) {
+      assertEquals(rules.getRule(r), ruleSet.getRule(r));
+    }
+  }
+
+  @Test
+  public void givenCompiledRuleSet_whenForwardChain_thenCorrectClosure() {
+    CompiledRuleSet<String, String> ruleSet = CompiledRuleSet.fromRules(Sets.of(
+        new Rule<>("0", Sets.of("a"), "b"), new Rule<>("1", Sets.of("a", "b"), "c"),
+        new Rule<>("2", Sets.of("x"), "y")).stream());
+    DeductiveWalk<String, String> result =
+        new ForwardChainingDeductiveClosureSolver<String, String>().deduct(Sets.of("a"), ruleSet);
+    assertEquals(new DeductiveWalk<>(Sets.of("a"),
+        Sets.newLinkedHashSet(new Rule<>("0", Sets.of("a"), "b"),
+            new Rule<>("1", Sets.of("a", "b"), "c")),
+        Sets.of("b", "c")), result);
+  }
+}
@@ -21,8 +21,10 @@ package com.sigpwned.horn4j.impl;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
+import java.util.HashSet;
 import java.util.Set;
 import org.junit.Test;
+import com.sigpwned.horn4j.PropositionDictionary;
 import com.sigpwned.horn4j.Rule;
 import com.sigpwned.horn4j.util.Sets;
 
@@ -48,6 +50,13 @@ public class DefaultRuleSetTest {
     assertTrue(result.isEmpty());
   }
 
+  @Test
+  public void givenEmptyRuleSet_whenFindByAntecedent_thenReturnEmptySet() {
+    DefaultRuleSet<String, String> ruleSet = new DefaultRuleSet<>(Sets.of());
+    Set<Rule<String, String>> result = ruleSet.findByAntecedent("a");
+    assertTrue(result.isEmpty());
+  }
+
   @Test
   public void givenEmptyRuleSet_whenFindBySignature_thenReturnEmptySet() {
     DefaultRuleSet<String, String> ruleSet = new DefaultRuleSet<>(Sets.of());
@@ -80,6 +89,37 @@ public class DefaultRuleSetTest {
         result);
   }
 
+  @Test
+  public void givenPartiallySatisfiedAntecedents_whenFindBySatisfiedAntecedents_thenReturnOnlySatisfiedRules() {
+    DefaultRuleSet<String, String> ruleSet =
+        new DefaultRuleSet<>(Sets.of(new Rule<>("0", Sets.of("a"), "b"),
+            new Rule<>("1", Sets.of("a", "c"), "d"), new Rule<>("2", Sets.of(), "e")));
+    Set<Rule<String, String>> result = ruleSet.findBySatisfiedAntecedents(Sets.of("a", "x"));
+    assertEquals(Sets.of(new Rule<>("0", Sets.of("a"), "b"), new Rule<>("2", Sets.of(), "e")),
+        result);
+  }
+
+  @Test
+  public void givenNonEmptyRuleSet_whenFindByAntecedent_thenReturnMatchingRules() {
+    DefaultRuleSet<String, String> ruleSet =
+        new DefaultRuleSet<>(Sets.of(new Rule<>("0", Sets.of("a"), "b"),
+            new Rule<>("1", Sets.of("b"), "c"), new Rule<>("2", Sets.of("a", "c"), "d")));
+    Set<Rule<String, String>> result = ruleSet.findByAntecedent("a");
+    assertEquals(
+        Sets.of(new Rule<>("0", Sets.of("a"), "b"), new Rule<>("2", Sets.of("a", "c"), "d")),
+        result);
+  }
+
+  @Test
+  public void givenNonEmptyRuleSet_whenFindByNewlySatisfiedAntecedents_thenReturnNewlyEnabledRules() {
+    DefaultRuleSet<String, String> ruleSet = new DefaultRuleSet<>(Sets.of(
+        new Rule<>("0", Sets.of("a"), "b"), new Rule<>("1", Sets.of("a", "c"), "d"),
+        new Rule<>("2", Sets.of("c", "x"), "e"), new Rule<>("3", Sets.of("b"), "f")));
+    Set<Rule<String, String>> result =
+        ruleSet.findByNewlySatisfiedAntecedents(Sets.of("a", "b"), "c");
+    assertEquals(Sets.of(new Rule<>("1", Sets.of("a", "c"), "d")), result);
+  }
+
   @Test
   public void givenNonEmptyRuleSet_whenFindBySignature_thenReturnMatchingRules() {
     DefaultRuleSet<String, String> ruleSet = new DefaultRuleSet<>(
@@ -112,6 +152,14 @@ public class DefaultRuleSetTest {
     assertTrue(result.isEmpty());
   }
 
+  @Test
+  public void givenNonMatchingAntecedent_whenFindByAntecedent_thenReturnEmptySet() {
+    DefaultRuleSet<String, String> ruleSet = new DefaultRuleSet<>(
+        Sets.of(new Rule<>("0", Sets.of("a"), "b"), new Rule<>("1", Sets.of("b"), "c")));
+    Set<Rule<String, String>> result = ruleSet.findByAntecedent("c");
+    assertTrue(result.isEmpty());
+  }
+
   @Test
   public void givenNonMatchingSignature_whenFindBySignature_thenReturnEmptySet() {
     DefaultRuleSet<String, String> ruleSet = new DefaultRuleSet<>(
@@ -119,4 +167,46 @@ public class DefaultRuleSetTest {
     Set<Rule<String, String>> result = ruleSet.findBySignature(Sets.of("x"), "y");
     assertTrue(result.isEmpty());
   }
+
+  @Test
+  public void givenNonEmptyRuleSet_whenGetRuleByAntecedent_thenReturnMatchingRuleIndexes() {
+    DefaultRuleSet<String, String> ruleSet =
+        new DefaultRuleSet<>(Sets.of(new Rule<>("0", Sets.of("a"), "b"),
+            new Rule<>("1", Sets.of("b"), "c"), new Rule<>("2", Sets.of("a", "c"), "d")));
+    int a = ruleSet.getDictionary().lookup("a");
+    Set<Rule<String, String>> result = new HashSet<>();
+    for (int i = 0; i < ruleSet.getRuleCountByAntecedent(a); i++) {
+      result.add(ruleSet.getRule(ruleSet.getRuleByAntecedent(a, i)));
+    }
+    assertEquals(
+        Sets.of(new Rule<>("0", Sets.of("a"), "b"), new Rule<>("2", Sets.of("a", "c"), "d")),
+        result);
+  }
+
+  @Test
+  public void givenNonEmptyRuleSet_whenGetConsequent_thenDecodeToRuleConsequent() {
+    DefaultRuleSet<String, String> ruleSet = new DefaultRuleSet<>(
+        Sets.of(new Rule<>("0", Sets.of("a"), "b"), new Rule<>("1", Sets.of(), "c")));
+    for (int r = 0; r < ruleSet.getRuleCount(); r++) {
+      assertEquals(ruleSet.getRule(r).getConsequent(),
+          ruleSet.getDictionary().decode(ruleSet.getConsequent(r)));
+    }
+    assertEquals(1, ruleSet.getUnconditionalRuleCount());
+    assertEquals(new Rule<>("1", Sets.of(), "c"),
+        ruleSet.getRule(ruleSet.getUnconditionalRule(0)));
+  }
+
+  @Test
+  public void givenSharedDictionary_whenBuildRuleSets_thenShareIds() {
+    PropositionDictionary<String> dictionary = new PropositionDictionary<>();
+    DefaultRuleSet<String, String> ruleSet1 =
+        new DefaultRuleSet<>(Sets.of(new Rule<>("0", Sets.of("a"), "b")), dictionary);
+    DefaultRuleSet<String, String> ruleSet2 =
+        new DefaultRuleSet<>(Sets.of(new Rule<>("0", Sets.of("b"), "c")), dictionary);
+    assertEquals(3, dictionary.size());
+    assertEquals(ruleSet1.getConsequent(0), ruleSet2.getAntecedent(0, 0));
+
+    // The first rule set never mentions c, even though the dictionary knows about it now.
+    assertEquals(0, ruleSet1.getRuleCountByAntecedent(dictionary.lookup("c")));
+  }
 }
@@ -0,0 +1,122 @@
+/*-
+ * =================================LICENSE_START==================================
+ * horn4j
+ * ====================================SECTION=====================================
+ * Copyright (C) 2024 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.horn4j.impl;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.hasEntry;
+import static org.hamcrest.Matchers.is;
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.Test;
+import com.sigpwned.horn4j.Rule;
+import com.sigpwned.horn4j.SolverMetrics;
+import com.sigpwned.horn4j.util.Sets;
+
+public class DefaultSolverMetricsTest {
+  private static Set<Rule<String, String>> diamondRules() {
+    final Set<Rule<String, String>> rules = new HashSet<>();
+    rules.add(new Rule<>("B1", Sets.of("A"), "B"));
+    rules.add(new Rule<>("B2", Sets.of("A"), "B"));
+    rules.add(new Rule<>("C", Sets.of("B"), "C"));
+    return rules;
+  }
+
+  @Test
+  public void givenRecords_whenSnapshot_thenSum() {
+    final DefaultSolverMetrics metrics = new DefaultSolverMetrics();
+    metrics.recordVisited(3L);
+    metrics.recordVisited(2L);
+    metrics.recordPruned(1L);
+    metrics.recordDeduplicated(4L);
+    metrics.recordLookups(7L);
+    metrics.recordFrontier(10L);
+    metrics.recordFrontier(6L);
+    metrics.recordPhase(SolverMetrics.Phase.WALK, 100L);
+
+    final DefaultSolverMetrics.Snapshot snapshot = metrics.snapshot();
+    assertThat(snapshot.getVisited(), is(5L));
+    assertThat(snapshot.getPruned(), is(1L));
+    assertThat(snapshot.getDeduplicated(), is(4L));
+    assertThat(snapshot.getLookups(), is(7L));
+    assertThat(snapshot.getPeakFrontier(), is(10L));
+    assertThat(snapshot.getPhase(SolverMetrics.Phase.WALK).getCount(), is(1L));
+    assertThat(snapshot.getPhase(SolverMetrics.Phase.SEARCH).getCount(), is(0L));
+
+    assertThat(snapshot.toMap(), hasEntry("visited", 5L));
+    assertThat(snapshot.toMap(), hasEntry("peakFrontier", 10L));
+    assertThat(snapshot.toMap(), hasEntry("walk.count", 1L));
+    assertThat(snapshot.toMap(), hasEntry("walk.maxNanos", 100L));
+    assertThat(snapshot.toMap(), hasEntry("minimize.count", 0L));
+  }
+
+  @Test
+  public void givenRecords_whenReset_thenEmpty() {
+    final DefaultSolverMetrics metrics = new DefaultSolverMetrics();
+    final DefaultSolverMetrics.Snapshot empty = metrics.snapshot();
+    metrics.recordVisited(3L);
+    metrics.recordPhase(SolverMetrics.Phase.SEARCH, 100L);
+    metrics.reset();
+
+    assertThat(metrics.snapshot(), is(empty));
+  }
+
+  @Test
+  public void givenNone_whenIsEnabled_thenFalse() {
+    assertThat(SolverMetrics.none().isEnabled(), is(false));
+    assertThat(new DefaultSolverMetrics().isEnabled(), is(true));
+  }
+
+  @Test
+  public void givenSharedMetrics_whenSolve_thenReportEachLookupOnce() {
+    final DefaultSolverMetrics walkerOnly = new DefaultSolverMetrics();
+    new NaiveDeductiveMinimalArgumentSolver<String, String>(
+        new NaiveDepthFirstDeductiveWalker<>(BitSetDeductiveWalk.factory(), walkerOnly))
+            .solve(Sets.of("A"), new DefaultRuleSet<>(diamondRules()), Sets.of("C"));
+
+    final DefaultSolverMetrics shared = new DefaultSolverMetrics();
+    new NaiveDeductiveMinimalArgumentSolver<String, String>(
+        new NaiveDepthFirstDeductiveWalker<>(BitSetDeductiveWalk.factory(), shared), shared)
+            .solve(Sets.of("A"), new DefaultRuleSet<>(diamondRules()), Sets.of("C"));
+
+    final DefaultSolverMetrics.Snapshot snapshot = shared.snapshot();
+    assertThat(snapshot.getLookups(), greaterThan(0L));
+    assertThat(snapshot.getLookups(), is(walkerOnly.snapshot().getLookups()));
+    assertThat(snapshot.getVisited(), is(walkerOnly.snapshot().getVisited()));
+    assertThat(snapshot.getPhase(SolverMetrics.Phase.WALK).getCount(), is(1L));
+    assertThat(snapshot.getPhase(SolverMetrics.Phase.SEARCH).getCount(), is(1L));
+
+    // The solver keeps its solutions minimal as it finds them, so it has nothing left to minimize.
+    assertThat(snapshot.getPhase(SolverMetrics.Phase.MINIMIZE).getCount(), is(0L));
+  }
+
+  @Test
+  public void givenCompiledRules_whenForwardChain_thenReportSearchAndLookups() {
+    final DefaultSolverMetrics metrics = new DefaultSolverMetrics();
+    new ForwardChainingDeductiveClosureSolver<String, String>(metrics).deduct(Sets.of("A"),
+        CompiledRuleSet.fromRules(diamondRules().stream()));
+
+    final DefaultSolverMetrics.Snapshot snapshot = metrics.snapshot();
+    assertThat(snapshot.getPhase(SolverMetrics.Phase.SEARCH).getCount(), is(1L));
+    // One scan of the unconditional rules, then one scan per proposition on the agenda.
+    assertThat(snapshot.getLookups(), is(4L));
+    assertThat(snapshot.getPeakFrontier(), is(1L));
+  }
+}
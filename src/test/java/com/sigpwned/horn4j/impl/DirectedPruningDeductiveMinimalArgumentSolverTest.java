@@ -0,0 +1,86 @@
+/*-
+ * =================================LICENSE_START==================================
+ * horn4j
+ * ====================================SECTION=====================================
+ * Copyright (C) 2024 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.horn4j.impl;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.junit.Test;
+import com.sigpwned.horn4j.DeductiveMinimalArgumentSolver;
+import com.sigpwned.horn4j.DeductiveWalk;
+import com.sigpwned.horn4j.RuleSet;
+import com.sigpwned.horn4j.SearchBudget;
+import com.sigpwned.horn4j.util.Sets;
+
+public class DirectedPruningDeductiveMinimalArgumentSolverTest {
+  @Test
+  public void givenManyArguments_whenSolveWithListenerThatStops_thenStopEarly() {
+    // Two diamonds in a row, so there are 16 minimal arguments for the bottom of the second.
+    final RuleSet<Integer, Integer> rules =
+        SyntheticRuleSets.toRuleSet(SyntheticRuleSets.diamonds(16, 4));
+
+    final DefaultSolverMetrics all = new DefaultSolverMetrics();
+    final Set<DeductiveWalk<Integer, Integer>> arguments =
+        new DirectedPruningDeductiveMinimalArgumentSolver<Integer, Integer>(
+            new NaiveBreadthFirstDeductiveWalker<>(BitSetDeductiveWalk.factory(),
+                Memoization.disabled(), all)).solve(Sets.of(0), rules, Sets.of(10));
+    assertThat(arguments.size(), is(16));
+
+    final DefaultSolverMetrics first = new DefaultSolverMetrics();
+    final List<DeductiveWalk<Integer, Integer>> emitted = new ArrayList<>();
+    final SearchBudget.Limit limit =
+        new DirectedPruningDeductiveMinimalArgumentSolver<Integer, Integer>(
+            new NaiveBreadthFirstDeductiveWalker<>(BitSetDeductiveWalk.factory(),
+                Memoization.disabled(), first)).solve(Sets.of(0), rules, Sets.of(10),
+                    SearchBudget.unlimited(), argument -> {
+                      emitted.add(argument);
+                      return false;
+                    });
+
+    assertThat(limit, is((SearchBudget.Limit) null));
+    assertThat(emitted.size(), is(1));
+    assertThat(arguments.contains(emitted.get(0)), is(true));
+    assertThat(first.snapshot().getVisited(), lessThan(all.snapshot().getVisited()));
+  }
+
+  @Test
+  public void givenRandomRules_whenSolveWithListener_thenSameArgumentsAsSolve() {
+    for (long seed = 0L; seed < 20L; seed++) {
+      final RuleSet<Integer, Integer> rules =
+          SyntheticRuleSets.toRuleSet(SyntheticRuleSets.powerLaw(12, 10, 2, 1.0, seed));
+      for (int goal = 2; goal < 10; goal++) {
+        final DeductiveMinimalArgumentSolver<Integer, Integer> solver =
+            new DirectedPruningDeductiveMinimalArgumentSolver<>();
+        final List<DeductiveWalk<Integer, Integer>> emitted = new ArrayList<>();
+        final SearchBudget.Limit limit = solver.solve(Sets.of(0, 1), rules, Sets.of(goal),
+            SearchBudget.unlimited(), emitted::add);
+
+        assertThat(limit, is((SearchBudget.Limit) null));
+        assertThat(new HashSet<>(emitted).size(), is(emitted.size()));
+        assertThat(new HashSet<>(emitted),
+            is(solver.solve(Sets.of(0, 1), rules, Sets.of(goal))));
+      }
+    }
+  }
+}
@@ -0,0 +1,108 @@
+/*-
+ * =================================LICENSE_START==================================
+ * horn4j
+ * ====================================SECTION=====================================
+ * Copyright (C) 2024 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.horn4j.impl;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.SplittableRandom;
+import org.junit.Test;
+import com.sigpwned.horn4j.DeductiveClosureSolver;
+import com.sigpwned.horn4j.DeductiveReasonerTestBase;
+import com.sigpwned.horn4j.DeductiveWalk;
+import com.sigpwned.horn4j.IndexedRuleSet;
+import com.sigpwned.horn4j.Rule;
+import com.sigpwned.horn4j.RuleSet;
+import com.sigpwned.horn4j.util.Sets;
+
+public class ForwardChainingDeductiveReasonerTest extends DeductiveReasonerTestBase {
+  /**
+   * @return a view of the given rule set that is not an {@link IndexedRuleSet}
+   */
+  @SuppressWarnings("unchecked")
+  private static <RuleIdT, PropositionT> RuleSet<RuleIdT, PropositionT> unindexed(
+      RuleSet<RuleIdT, PropositionT> rules) {
+    return (RuleSet<RuleIdT, PropositionT>) Proxy.newProxyInstance(RuleSet.class.getClassLoader(),
+        new Class<?>[] {RuleSet.class}, (proxy, method, args) -> method.invoke(rules, args));
+  }
+
+  /**
+   * @return a few rules over a few propositions, so that cycles and rules whose consequents are
+   *         already satisfied are common
+   */
+  private static DefaultRuleSet<Integer, Integer> randomRules(long seed) {
+    final SplittableRandom random = new SplittableRandom(seed);
+    final Set<Rule<Integer, Integer>> rules = new HashSet<>();
+    for (int id = 0, n = 1 + random.nextInt(6); id < n; id++) {
+      final int consequent = random.nextInt(7);
+      final Set<Integer> antecedents = new HashSet<>();
+      for (int i = 0, m = random.nextInt(3); i < m; i++) {
+        final int antecedent = random.nextInt(7);
+        if (antecedent != consequent)
+          antecedents.add(antecedent);
+      }
+      rules.add(new Rule<>(id, antecedents, consequent));
+    }
+    return new DefaultRuleSet<>(rules);
+  }
+  @Override
+  public DeductiveClosureSolver<String, String> newDeductiveReasoner() {
+    return new ForwardChainingDeductiveClosureSolver<String, String>();
+  }
+
+  @Test
+  public void givenCircularRule_whenDeduct_thenRuleDoesNotFire() {
+    final Rule<Integer, Integer> rule0 = new Rule<>(0, Sets.of(0, 6), 3);
+    final Rule<Integer, Integer> rule1 = new Rule<>(1, Sets.of(4), 6);
+    final Rule<Integer, Integer> rule2 = new Rule<>(2, Sets.of(), 3);
+    final Rule<Integer, Integer> rule3 = new Rule<>(3, Sets.of(0, 3), 6);
+    final RuleSet<Integer, Integer> rules =
+        new DefaultRuleSet<>(Sets.of(rule0, rule1, rule2, rule3));
+
+    // Rule 0 needs 6, which only follows from 3, so no walk fires rule 0 after rule 2.
+    final DeductiveWalk<Integer, Integer> expected =
+        new DeductiveWalk<>(Sets.of(0), new LinkedHashSet<>(Arrays.asList(rule2, rule3)),
+            Sets.of(3, 6));
+
+    assertThat(new NaiveDeductiveClosureSolver<Integer, Integer>().deduct(Sets.of(0), rules),
+        is(expected));
+    assertThat(new ForwardChainingDeductiveClosureSolver<Integer, Integer>().deduct(Sets.of(0),
+        rules), is(expected));
+    assertThat(new ForwardChainingDeductiveClosureSolver<Integer, Integer>().deduct(Sets.of(0),
+        unindexed(rules)), is(expected));
+  }
+
+  @Test
+  public void givenRandomRules_whenDeduct_thenSameWalkAsNaiveSolver() {
+    for (long seed = 0L; seed < 2000L; seed++) {
+      final DefaultRuleSet<Integer, Integer> rules = randomRules(seed);
+      final DeductiveWalk<Integer, Integer> expected =
+          new NaiveDeductiveClosureSolver<Integer, Integer>().deduct(Sets.of(0), rules);
+      assertThat(new ForwardChainingDeductiveClosureSolver<Integer, Integer>().deduct(Sets.of(0),
+          rules), is(expected));
+      assertThat(new ForwardChainingDeductiveClosureSolver<Integer, Integer>().deduct(Sets.of(0),
+          unindexed(rules)), is(expected));
+    }
+  }
+}
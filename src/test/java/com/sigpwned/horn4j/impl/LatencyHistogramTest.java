@@ -0,0 +1,87 @@
+/*-
+ * =================================LICENSE_START==================================
+ * horn4j
+ * ====================================SECTION=====================================
+ * Copyright (C) 2024 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.horn4j.impl;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import org.junit.Test;
+
+public class LatencyHistogramTest {
+  @Test
+  public void givenDurations_whenBucketOf_thenBucketByPowerOfTwo() {
+    assertThat(LatencyHistogram.bucketOf(0L), is(0));
+    assertThat(LatencyHistogram.bucketOf(1L), is(1));
+    assertThat(LatencyHistogram.bucketOf(2L), is(2));
+    assertThat(LatencyHistogram.bucketOf(3L), is(2));
+    assertThat(LatencyHistogram.bucketOf(4L), is(3));
+    assertThat(LatencyHistogram.bucketOf(Long.MAX_VALUE), is(63));
+    for (int i = 1; i < LatencyHistogram.BUCKET_COUNT; i++)
+      assertThat(LatencyHistogram.bucketOf(LatencyHistogram.bucketUpperBound(i)), is(i));
+  }
+
+  @Test
+  public void givenRecordedDurations_whenSnapshot_thenSummarize() {
+    final LatencyHistogram histogram = new LatencyHistogram();
+    for (int i = 0; i < 90; i++)
+      histogram.record(100L);
+    for (int i = 0; i < 10; i++)
+      histogram.record(5000L);
+
+    final LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+    assertThat(snapshot.getCount(), is(100L));
+    assertThat(snapshot.getTotalNanos(), is(90L * 100L + 10L * 5000L));
+    assertThat(snapshot.getMaxNanos(), is(5000L));
+    assertThat(snapshot.getMeanNanos(), is(590.0));
+    assertThat(snapshot.getBucketCount(LatencyHistogram.bucketOf(100L)), is(90L));
+
+    // Percentiles report the top of the bucket, but never more than the maximum.
+    assertThat(snapshot.getPercentileNanos(50.0), is(127L));
+    assertThat(snapshot.getPercentileNanos(90.0), is(127L));
+    assertThat(snapshot.getPercentileNanos(99.0), is(5000L));
+    assertThat(snapshot.getPercentileNanos(0.0), is(127L));
+  }
+
+  @Test
+  public void givenNegativeDuration_whenRecord_thenCountAsZero() {
+    final LatencyHistogram histogram = new LatencyHistogram();
+    histogram.record(-10L);
+
+    final LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+    assertThat(snapshot.getBucketCount(0), is(1L));
+    assertThat(snapshot.getTotalNanos(), is(0L));
+  }
+
+  @Test
+  public void givenRecordedDurations_whenReset_thenEmpty() {
+    final LatencyHistogram histogram = new LatencyHistogram();
+    final LatencyHistogram.Snapshot empty = histogram.snapshot();
+    histogram.record(100L);
+    histogram.reset();
+
+    assertThat(histogram.snapshot(), is(empty));
+    assertThat(empty.getCount(), is(0L));
+    assertThat(empty.getPercentileNanos(50.0), is(0L));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void givenBadPercentile_whenGetPercentile_thenThrow() {
+    new LatencyHistogram().snapshot().getPercentileNanos(101.0);
+  }
+}
@@ -0,0 +1,33 @@
+/*-
+ * =================================LICENSE_START==================================
+ * horn4j
+ * ====================================SECTION=====================================
+ * Copyright (C) 2024 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.horn4j.impl;
+
+import com.sigpwned.horn4j.DeductiveClosureSolver;
+import com.sigpwned.horn4j.DeductiveReasonerTestBase;
+
+public class MemoizedDeductiveReasonerTest extends DeductiveReasonerTestBase {
+  @Override
+  public DeductiveClosureSolver<String, String> newDeductiveReasoner() {
+    // The closure needs every rule that fires, so have the walker report duplicates.
+    return new NaiveDeductiveClosureSolver<String, String>(
+        () -> new NaiveBreadthFirstDeductiveWalker<>(BitSetDeductiveWalk.factory(),
+            Memoization.enabled(Memoization.DEFAULT_MAX_BYTES, true)));
+  }
+}
@@ -0,0 +1,61 @@
+/*-
+ * =================================LICENSE_START==================================
+ * horn4j
+ * ====================================SECTION=====================================
+ * Copyright (C) 2024 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.horn4j.impl;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import org.junit.Test;
+import com.sigpwned.horn4j.AbductiveWalk;
+import com.sigpwned.horn4j.DeductiveWalk;
+import com.sigpwned.horn4j.Rule;
+import com.sigpwned.horn4j.util.Sets;
+
+public class MinimalArgumentsTest {
+  private static final Rule<String, String> AB = new Rule<>("AB", Sets.of("A"), "B");
+  private static final Rule<String, String> AC = new Rule<>("AC", Sets.of("A"), "C");
+  private static final Rule<String, String> BD = new Rule<>("BD", Sets.of("B"), "D");
+
+  @Test
+  public void givenNecessaryRules_whenCheckDeductive_thenMinimal() {
+    final DeductiveWalk<String, String> argument =
+        new DeductiveWalk<>(Sets.of("A"), Sets.newLinkedHashSet(AB, BD), Sets.of("B", "D"));
+    assertThat(MinimalArguments.isMinimal(argument, Sets.of("D")), is(true));
+  }
+
+  @Test
+  public void givenUnnecessaryRule_whenCheckDeductive_thenNotMinimal() {
+    final DeductiveWalk<String, String> argument = new DeductiveWalk<>(Sets.of("A"),
+        Sets.newLinkedHashSet(AB, AC, BD), Sets.of("B", "C", "D"));
+    assertThat(MinimalArguments.isMinimal(argument, Sets.of("D")), is(false));
+  }
+
+  @Test
+  public void givenUnnecessaryPostulate_whenCheckAbductive_thenNotMinimal() {
+    // Both walks explain G with X, but the second also postulated the hypothesis H, which nothing
+    // explains. Only X is a goal, so dropping the postulate H still leaves it.
+    final Rule<String, String> g = new Rule<>("G", Sets.of("X"), "G");
+    final AbductiveWalk<String, String> necessary =
+        new AbductiveWalk<>(Sets.of("G"), Sets.newLinkedHashSet(g), Sets.of("X"));
+    final AbductiveWalk<String, String> unnecessary =
+        new AbductiveWalk<>(Sets.of("G", "H"), Sets.newLinkedHashSet(g), Sets.of("X", "H"));
+    assertThat(MinimalArguments.isMinimal(necessary, Sets.of("X")), is(true));
+    assertThat(MinimalArguments.isMinimal(unnecessary, Sets.of("X")), is(false));
+  }
+}
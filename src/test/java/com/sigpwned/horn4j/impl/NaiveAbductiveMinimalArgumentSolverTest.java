@@ -0,0 +1,83 @@
+/*-
+ * =================================LICENSE_START==================================
+ * horn4j
+ * ====================================SECTION=====================================
+ * Copyright (C) 2024 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.horn4j.impl;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.junit.Test;
+import com.sigpwned.horn4j.AbductiveMinimalArgumentSolver;
+import com.sigpwned.horn4j.AbductiveWalk;
+import com.sigpwned.horn4j.Rule;
+import com.sigpwned.horn4j.RuleSet;
+import com.sigpwned.horn4j.SearchBudget;
+import com.sigpwned.horn4j.util.Sets;
+
+public class NaiveAbductiveMinimalArgumentSolverTest {
+  /**
+   * Two rules explain G the same way.
+   */
+  private static RuleSet<String, String> diamondRules() {
+    final Set<Rule<String, String>> rules = new HashSet<>();
+    rules.add(new Rule<>("G1", Sets.of("X"), "G"));
+    rules.add(new Rule<>("G2", Sets.of("X"), "G"));
+    return new DefaultRuleSet<>(rules);
+  }
+
+  @Test
+  public void givenDiamondRules_whenSolveWithListenerThatStops_thenEmitOnlyOne() {
+    final AbductiveMinimalArgumentSolver<String, String> solver =
+        new NaiveAbductiveMinimalArgumentSolver<>(new NaiveAbductiveWalker<>());
+    assertThat(solver.solve(Sets.of("G"), diamondRules(), Sets.of("X")).size(), is(2));
+
+    final List<AbductiveWalk<String, String>> emitted = new ArrayList<>();
+    final SearchBudget.Limit limit = solver.solve(Sets.of("G"), diamondRules(), Sets.of("X"),
+        SearchBudget.unlimited(), argument -> {
+          emitted.add(argument);
+          return false;
+        });
+
+    assertThat(limit, is((SearchBudget.Limit) null));
+    assertThat(emitted.size(), is(1));
+    assertThat(emitted.get(0).getEvidence(), is(Sets.of("X")));
+  }
+
+  @Test
+  public void givenRandomRules_whenSolveWithListener_thenSameArgumentsAsSolve() {
+    for (long seed = 0L; seed < 20L; seed++) {
+      final RuleSet<Integer, Integer> rules =
+          SyntheticRuleSets.toRuleSet(SyntheticRuleSets.powerLaw(12, 10, 2, 1.0, seed));
+      for (int goal = 2; goal < 10; goal++) {
+        final AbductiveMinimalArgumentSolver<Integer, Integer> solver =
+            new NaiveAbductiveMinimalArgumentSolver<>();
+        final List<AbductiveWalk<Integer, Integer>> emitted = new ArrayList<>();
+        final SearchBudget.Limit limit = solver.solve(Sets.of(goal), rules, Sets.of(1),
+            SearchBudget.unlimited(), emitted::add);
+
+        assertThat(limit, is((SearchBudget.Limit) null));
+        assertThat(new HashSet<>(emitted).size(), is(emitted.size()));
+        assertThat(new HashSet<>(emitted), is(solver.solve(Sets.of(goal), rules, Sets.of(1))));
+      }
+    }
+  }
+}
@@ -0,0 +1,106 @@
+/*-
+ * =================================LICENSE_START==================================
+ * horn4j
+ * ====================================SECTION=====================================
+ * Copyright (C) 2024 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.horn4j.impl;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+import com.sigpwned.horn4j.AbductiveWalker;
+import com.sigpwned.horn4j.AbductiveWalker.Instruction;
+import com.sigpwned.horn4j.Rule;
+import com.sigpwned.horn4j.RuleSet;
+import com.sigpwned.horn4j.SearchBudget;
+import com.sigpwned.horn4j.util.Sets;
+
+public class NaiveAbductiveWalkerTest {
+  /**
+   * Two rules explain G the same way, so the walks that fire them reach the same state.
+   */
+  private static RuleSet<String, String> diamondRules() {
+    final Set<Rule<String, String>> rules = new HashSet<>();
+    rules.add(new Rule<>("G1", Sets.of("X"), "G"));
+    rules.add(new Rule<>("G2", Sets.of("X"), "G"));
+    return new DefaultRuleSet<>(rules);
+  }
+
+  private static int countVisits(AbductiveWalker<String, String> walker) {
+    final AtomicInteger visited = new AtomicInteger();
+    walker.walk(Sets.of("G"), diamondRules(), walk -> {
+      visited.incrementAndGet();
+      return Instruction.CONTINUE;
+    });
+    return visited.get();
+  }
+
+  @Test
+  public void givenDiamondRules_whenWalk_thenVisitEveryPath() {
+    // The start, one walk per rule, then one walk per rule that postulates X.
+    assertThat(countVisits(new NaiveAbductiveWalker<>()), is(5));
+  }
+
+  @Test
+  public void givenDiamondRules_whenWalkMemoized_thenExpandEachStateOnce() {
+    assertThat(countVisits(new NaiveAbductiveWalker<>(Memoization.enabled())), is(3));
+  }
+
+  @Test
+  public void givenDiamondRules_whenWalkMemoizedAndReportDuplicates_thenVisitButDoNotExpand() {
+    assertThat(countVisits(new NaiveAbductiveWalker<>(
+        Memoization.enabled(Memoization.DEFAULT_MAX_BYTES, true))), is(4));
+  }
+
+  @Test
+  public void givenDiamondRules_whenWalkMemoizedWithNoRoom_thenVisitEveryPath() {
+    assertThat(countVisits(new NaiveAbductiveWalker<>(Memoization.enabled(0L, false))), is(5));
+  }
+
+  @Test
+  public void givenFrontierBudget_whenWalk_thenStopAtLimit() {
+    final AtomicInteger visited = new AtomicInteger();
+    final SearchBudget.Limit limit = new NaiveAbductiveWalker<String, String>().walk(Sets.of("G"),
+        diamondRules(), walk -> {
+          visited.incrementAndGet();
+          return Instruction.CONTINUE;
+        }, SearchBudget.unlimited().withMaxFrontier(1L));
+
+    assertThat(limit, is(SearchBudget.Limit.FRONTIER));
+    assertThat(visited.get(), is(1));
+  }
+
+  @Test
+  public void givenVisitBudget_whenWalkMemoizedAndReportDuplicates_thenChargeDuplicates() {
+    final DefaultSolverMetrics metrics = new DefaultSolverMetrics();
+    final AtomicInteger visited = new AtomicInteger();
+    final SearchBudget.Limit limit = new NaiveAbductiveWalker<String, String>(
+        Memoization.enabled(Memoization.DEFAULT_MAX_BYTES, true), metrics).walk(Sets.of("G"),
+            diamondRules(), walk -> {
+              visited.incrementAndGet();
+              return Instruction.CONTINUE;
+            }, SearchBudget.unlimited().withMaxVisited(2L));
+
+    // The start, one walk per rule, and the second of those is a duplicate.
+    assertThat(limit, is(SearchBudget.Limit.VISITED));
+    assertThat(visited.get(), is(2));
+    assertThat(metrics.snapshot().getVisited(), is(2L));
+  }
+}
@@ -20,17 +20,22 @@
 package com.sigpwned.horn4j.impl;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.lessThan;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.Test;
 import com.sigpwned.horn4j.DeductiveWalk;
 import com.sigpwned.horn4j.DeductiveWalker;
 import com.sigpwned.horn4j.DeductiveWalker.Instruction;
 import com.sigpwned.horn4j.Rule;
+import com.sigpwned.horn4j.RuleSet;
+import com.sigpwned.horn4j.SearchBudget;
 import com.sigpwned.horn4j.util.Sets;
 
 public class NaiveBreadthFirstDeductiveWalkerTest {
@@ -76,4 +81,161 @@ public class NaiveBreadthFirstDeductiveWalkerTest {
     assertThat(bi, lessThan(ei));
     assertThat(ci, lessThan(di));
   }
+
+  @Test
+  public void givenRuleThatNeedsItsOwnConsequent_whenWalk_thenNeverFireIt() {
+    // Once R concludes B, S is satisfied, but it concludes B, too, so it must not fire. Rule only
+    // checks for such rules when assertions are enabled, so add B to the antecedents of S after the
+    // fact to get one.
+    final Set<String> antecedents = new HashSet<>(Sets.of("A"));
+    final Rule<String, String> s = new Rule<>("S", antecedents, "B");
+    antecedents.add("B");
+
+    final Set<Rule<String, String>> rules = new HashSet<>();
+    rules.add(new Rule<>("R", Sets.of("A"), "B"));
+    rules.add(s);
+
+    final Set<Set<String>> seen = new HashSet<>();
+    new NaiveBreadthFirstDeductiveWalker<String, String>().walk(Sets.of("A"), new DefaultRuleSet<>(rules),
+        walk -> {
+          final Set<String> fired = new HashSet<>();
+          for (Rule<String, String> rule : walk.getFired())
+            fired.add(rule.getId());
+          seen.add(fired);
+          return Instruction.CONTINUE;
+        });
+
+    assertThat(seen, is(Sets.of(Sets.of(), Sets.of("R"))));
+  }
+
+  @Test
+  public void givenIndependentRules_whenWalkOrderInsensitive_thenVisitEachSetOfRulesOnce() {
+    // B, C, and D are independent, and E has two rules that conclude it.
+    final Set<Rule<String, String>> rules = new HashSet<>();
+    rules.add(new Rule<>("B", Sets.of("A"), "B"));
+    rules.add(new Rule<>("C", Sets.of("A"), "C"));
+    rules.add(new Rule<>("D", Sets.of("A"), "D"));
+    rules.add(new Rule<>("E1", Sets.of("B"), "E"));
+    rules.add(new Rule<>("E2", Sets.of("C"), "E"));
+    final RuleSet<String, String> ruleset = new DefaultRuleSet<>(rules);
+
+    // This walker already visits each set once, since it merges equal walks in each layer. Partial
+    // order reduction only saves it from building the duplicates in the first place.
+    final Set<Set<Rule<String, String>>> expected = new HashSet<>();
+    new NaiveBreadthFirstDeductiveWalker<String, String>().walk(Sets.of("A"), ruleset,
+        walk -> {
+          expected.add(new HashSet<>(walk.getFired()));
+          return Instruction.CONTINUE;
+        });
+
+    final Set<Set<Rule<String, String>>> observed = ConcurrentHashMap.newKeySet();
+    final AtomicInteger observedCount = new AtomicInteger();
+    new NaiveBreadthFirstDeductiveWalker<String, String>().walk(Sets.of("A"), ruleset,
+        DeductiveWalker.Visitor.orderInsensitive(walk -> {
+          observed.add(new HashSet<>(walk.getFired()));
+          observedCount.incrementAndGet();
+          return Instruction.CONTINUE;
+        }));
+
+    assertThat(observed, is(expected));
+    assertThat(observedCount.get(), is(expected.size()));
+  }
+
+  /**
+   * Two rules conclude B from A, so the walks that fire them have the same conclusions.
+   */
+  private static int countDiamondVisits(Memoization memoization) {
+    final Set<Rule<String, String>> rules = new HashSet<>();
+    rules.add(new Rule<>("B1", Sets.of("A"), "B"));
+    rules.add(new Rule<>("B2", Sets.of("A"), "B"));
+    rules.add(new Rule<>("C", Sets.of("B"), "C"));
+
+    final AtomicInteger visited = new AtomicInteger();
+    new NaiveBreadthFirstDeductiveWalker<String, String>(BitSetDeductiveWalk.factory(), memoization)
+        .walk(Sets.of("A"), new DefaultRuleSet<>(rules), walk -> {
+          visited.incrementAndGet();
+          return Instruction.CONTINUE;
+        });
+    return visited.get();
+  }
+
+  @Test
+  public void givenDiamondRules_whenWalk_thenVisitEveryPath() {
+    // The start, one walk per rule for B, then one walk per rule for B that also fires C.
+    assertThat(countDiamondVisits(Memoization.disabled()), is(5));
+  }
+
+  @Test
+  public void givenDiamondRules_whenWalkMemoized_thenExpandEachConclusionSetOnce() {
+    assertThat(countDiamondVisits(Memoization.enabled()), is(3));
+  }
+
+  @Test
+  public void givenDiamondRules_whenWalkMemoizedAndReportDuplicates_thenVisitButDoNotExpand() {
+    assertThat(countDiamondVisits(Memoization.enabled(Memoization.DEFAULT_MAX_BYTES, true)),
+        is(4));
+  }
+
+  @Test
+  public void givenDiamondRules_whenWalkMemoizedWithNoRoom_thenVisitEveryPath() {
+    assertThat(countDiamondVisits(Memoization.enabled(0L, false)), is(5));
+  }
+
+  @Test
+  public void givenDiamondRulesAndMetrics_whenWalkMemoized_thenCountDeduplicated() {
+    final Set<Rule<String, String>> rules = new HashSet<>();
+    rules.add(new Rule<>("B1", Sets.of("A"), "B"));
+    rules.add(new Rule<>("B2", Sets.of("A"), "B"));
+    rules.add(new Rule<>("C", Sets.of("B"), "C"));
+
+    final DefaultSolverMetrics metrics = new DefaultSolverMetrics();
+    new NaiveBreadthFirstDeductiveWalker<String, String>(BitSetDeductiveWalk.factory(),
+        Memoization.enabled(), metrics).walk(Sets.of("A"), new DefaultRuleSet<>(rules),
+            walk -> Instruction.CONTINUE);
+
+    final DefaultSolverMetrics.Snapshot snapshot = metrics.snapshot();
+    assertThat(snapshot.getVisited(), is(3L));
+    assertThat(snapshot.getDeduplicated(), is(1L));
+    assertThat(snapshot.getPeakFrontier(), is(2L));
+  }
+
+  @Test
+  public void givenVisitBudget_whenWalkMemoizedAndReportDuplicates_thenChargeDuplicates() {
+    final Set<Rule<String, String>> rules = new HashSet<>();
+    rules.add(new Rule<>("B1", Sets.of("A"), "B"));
+    rules.add(new Rule<>("B2", Sets.of("A"), "B"));
+    rules.add(new Rule<>("C", Sets.of("B"), "C"));
+
+    final DefaultSolverMetrics metrics = new DefaultSolverMetrics();
+    final AtomicInteger visited = new AtomicInteger();
+    final SearchBudget.Limit limit = new NaiveBreadthFirstDeductiveWalker<String, String>(
+        BitSetDeductiveWalk.factory(), Memoization.enabled(Memoization.DEFAULT_MAX_BYTES, true),
+        metrics).walk(Sets.of("A"), new DefaultRuleSet<>(rules), walk -> {
+          visited.incrementAndGet();
+          return Instruction.CONTINUE;
+        }, SearchBudget.unlimited().withMaxVisited(2L));
+
+    // The start, one walk per rule for B, and the second of those is a duplicate.
+    assertThat(limit, is(SearchBudget.Limit.VISITED));
+    assertThat(visited.get(), is(2));
+    assertThat(metrics.snapshot().getVisited(), is(2L));
+  }
+
+  @Test
+  public void givenFrontierBudget_whenWalk_thenStopBeforeNextLayer() {
+    final Set<Rule<String, String>> rules = new HashSet<>();
+    rules.add(new Rule<>("B", Sets.of("A"), "B"));
+    rules.add(new Rule<>("C", Sets.of("A"), "C"));
+    rules.add(new Rule<>("D", Sets.of("A"), "D"));
+
+    final AtomicInteger visited = new AtomicInteger();
+    final SearchBudget.Limit limit = new NaiveBreadthFirstDeductiveWalker<String, String>().walk(
+        Sets.of("A"), new DefaultRuleSet<>(rules), walk -> {
+          visited.incrementAndGet();
+          return Instruction.CONTINUE;
+        }, SearchBudget.unlimited().withMaxFrontier(2L));
+
+    assertThat(limit, is(SearchBudget.Limit.FRONTIER));
+    assertThat(visited.get(), is(1));
+  }
 }
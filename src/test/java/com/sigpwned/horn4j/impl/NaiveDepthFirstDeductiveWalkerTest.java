@@ -21,16 +21,23 @@ package com.sigpwned.horn4j.impl;
 
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.Test;
 import com.sigpwned.horn4j.DeductiveWalk;
 import com.sigpwned.horn4j.DeductiveWalker;
 import com.sigpwned.horn4j.DeductiveWalker.Instruction;
 import com.sigpwned.horn4j.Rule;
+import com.sigpwned.horn4j.RuleSet;
+import com.sigpwned.horn4j.SearchBudget;
+import com.sigpwned.horn4j.SolverMetrics;
 import com.sigpwned.horn4j.util.Lists;
 import com.sigpwned.horn4j.util.Sets;
 
@@ -82,4 +89,129 @@ public class NaiveDepthFirstDeductiveWalkerTest {
 
     assertThat(actualOrder, equalTo(expectedOrder));
   }
+
+  @Test
+  public void givenRuleThatNeedsItsOwnConsequent_whenWalk_thenNeverFireIt() {
+    // Once R concludes B, S is satisfied, but it concludes B, too, so it must not fire. Rule only
+    // checks for such rules when assertions are enabled, so add B to the antecedents of S after the
+    // fact to get one.
+    final Set<String> antecedents = new HashSet<>(Sets.of("A"));
+    final Rule<String, String> s = new Rule<>("S", antecedents, "B");
+    antecedents.add("B");
+
+    final Set<Rule<String, String>> rules = new HashSet<>();
+    rules.add(new Rule<>("R", Sets.of("A"), "B"));
+    rules.add(s);
+
+    final Set<Set<String>> seen = new HashSet<>();
+    new NaiveDepthFirstDeductiveWalker<String, String>().walk(Sets.of("A"), new DefaultRuleSet<>(rules),
+        walk -> {
+          final Set<String> fired = new HashSet<>();
+          for (Rule<String, String> rule : walk.getFired())
+            fired.add(rule.getId());
+          seen.add(fired);
+          return Instruction.CONTINUE;
+        });
+
+    assertThat(seen, is(Sets.of(Sets.of(), Sets.of("R"))));
+  }
+
+  @Test
+  public void givenIndependentRules_whenWalkOrderInsensitive_thenVisitEachSetOfRulesOnce() {
+    // B, C, and D are independent, and E has two rules that conclude it.
+    final Set<Rule<String, String>> rules = new HashSet<>();
+    rules.add(new Rule<>("B", Sets.of("A"), "B"));
+    rules.add(new Rule<>("C", Sets.of("A"), "C"));
+    rules.add(new Rule<>("D", Sets.of("A"), "D"));
+    rules.add(new Rule<>("E1", Sets.of("B"), "E"));
+    rules.add(new Rule<>("E2", Sets.of("C"), "E"));
+    final RuleSet<String, String> ruleset = new DefaultRuleSet<>(rules);
+
+    final Set<Set<Rule<String, String>>> expected = new HashSet<>();
+    final AtomicInteger expectedCount = new AtomicInteger();
+    new NaiveDepthFirstDeductiveWalker<String, String>().walk(Sets.of("A"), ruleset,
+        walk -> {
+          expected.add(new HashSet<>(walk.getFired()));
+          expectedCount.incrementAndGet();
+          return Instruction.CONTINUE;
+        });
+
+    final Set<Set<Rule<String, String>>> observed = ConcurrentHashMap.newKeySet();
+    final AtomicInteger observedCount = new AtomicInteger();
+    new NaiveDepthFirstDeductiveWalker<String, String>().walk(Sets.of("A"), ruleset,
+        DeductiveWalker.Visitor.orderInsensitive(walk -> {
+          observed.add(new HashSet<>(walk.getFired()));
+          observedCount.incrementAndGet();
+          return Instruction.CONTINUE;
+        }));
+
+    assertThat(observed, is(expected));
+    assertThat(observedCount.get(), is(expected.size()));
+    assertThat(observedCount.get(), lessThan(expectedCount.get()));
+  }
+
+  @Test
+  public void givenMetrics_whenWalkAndPrune_thenCountVisitedAndPruned() {
+    final Set<Rule<String, String>> rules = new HashSet<>();
+    rules.add(new Rule<>("B", Sets.of("A"), "B"));
+    rules.add(new Rule<>("C", Sets.of("A"), "C"));
+    rules.add(new Rule<>("D", Sets.of("B"), "D"));
+
+    final DefaultSolverMetrics metrics = new DefaultSolverMetrics();
+    final AtomicInteger visited = new AtomicInteger();
+    new NaiveDepthFirstDeductiveWalker<String, String>(BitSetDeductiveWalk.factory(), metrics)
+        .walk(Sets.of("A"), new DefaultRuleSet<>(rules), walk -> {
+          visited.incrementAndGet();
+          return walk.getConclusions().contains("B") ? Instruction.PRUNE : Instruction.CONTINUE;
+        });
+
+    final DefaultSolverMetrics.Snapshot snapshot = metrics.snapshot();
+    assertThat(snapshot.getVisited(), is((long) visited.get()));
+    assertThat(snapshot.getPruned(), is(2L));
+    assertThat(snapshot.getPeakFrontier(), is(2L));
+    assertThat(snapshot.getPhase(SolverMetrics.Phase.WALK).getCount(), is(1L));
+  }
+
+  @Test
+  public void givenVisitBudget_whenWalk_thenStopAtLimit() {
+    final Set<Rule<String, String>> rules = new HashSet<>();
+    rules.add(new Rule<>("B", Sets.of("A"), "B"));
+    rules.add(new Rule<>("C", Sets.of("A"), "C"));
+    rules.add(new Rule<>("D", Sets.of("B"), "D"));
+
+    final AtomicInteger visited = new AtomicInteger();
+    final SearchBudget.Limit limit = new NaiveDepthFirstDeductiveWalker<String, String>().walk(
+        Sets.of("A"), new DefaultRuleSet<>(rules), walk -> {
+          visited.incrementAndGet();
+          return Instruction.CONTINUE;
+        }, SearchBudget.unlimited().withMaxVisited(2L));
+
+    assertThat(limit, is(SearchBudget.Limit.VISITED));
+    assertThat(visited.get(), is(2));
+  }
+
+  @Test
+  public void givenFrontierBudget_whenWalk_thenStopAtLimit() {
+    final Set<Rule<String, String>> rules = new HashSet<>();
+    rules.add(new Rule<>("B", Sets.of("A"), "B"));
+    rules.add(new Rule<>("C", Sets.of("A"), "C"));
+
+    final SearchBudget.Limit limit = new NaiveDepthFirstDeductiveWalker<String, String>().walk(
+        Sets.of("A"), new DefaultRuleSet<>(rules), walk -> Instruction.CONTINUE,
+        SearchBudget.unlimited().withMaxFrontier(1L));
+
+    assertThat(limit, is(SearchBudget.Limit.FRONTIER));
+  }
+
+  @Test
+  public void givenEnoughBudget_whenWalk_thenReportNoLimit() {
+    final Set<Rule<String, String>> rules = new HashSet<>();
+    rules.add(new Rule<>("B", Sets.of("A"), "B"));
+
+    final SearchBudget.Limit limit = new NaiveDepthFirstDeductiveWalker<String, String>().walk(
+        Sets.of("A"), new DefaultRuleSet<>(rules), walk -> Instruction.CONTINUE,
+        SearchBudget.unlimited().withMaxVisited(10L).withMaxFrontier(10L));
+
+    assertThat(limit, is((SearchBudget.Limit) null));
+  }
 }
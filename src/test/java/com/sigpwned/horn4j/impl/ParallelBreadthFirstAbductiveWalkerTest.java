@@ -0,0 +1,222 @@
+/*-
+ * =================================LICENSE_START==================================
+ * horn4j
+ * ====================================SECTION=====================================
+ * Copyright (C) 2024 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.horn4j.impl;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import com.sigpwned.horn4j.AbductiveWalk;
+import com.sigpwned.horn4j.AbductiveWalker;
+import com.sigpwned.horn4j.AbductiveWalker.Instruction;
+import com.sigpwned.horn4j.Rule;
+import com.sigpwned.horn4j.RuleSet;
+import com.sigpwned.horn4j.util.Sets;
+
+public class ParallelBreadthFirstAbductiveWalkerTest {
+  private static ForkJoinPool pool;
+
+  @BeforeClass
+  public static void setupParallelBreadthFirstAbductiveWalkerTestClass() {
+    pool = new ForkJoinPool(4);
+  }
+
+  @AfterClass
+  public static void cleanupParallelBreadthFirstAbductiveWalkerTestClass() {
+    pool.shutdown();
+  }
+
+  /**
+   * The graph looks like this:
+   * 
+   * <pre>
+   * G
+   * ├── X
+   * │   └── A
+   * └── Y
+   *     └── B
+   * </pre>
+   */
+  private static RuleSet<String, String> simpleRules() {
+    final Set<Rule<String, String>> rules = new HashSet<>();
+    rules.add(new Rule<>("G", Sets.of("X", "Y"), "G"));
+    rules.add(new Rule<>("X", Sets.of("A"), "X"));
+    rules.add(new Rule<>("Y", Sets.of("B"), "Y"));
+    return new DefaultRuleSet<>(rules);
+  }
+
+  /**
+   * @return how many times the walker visits each walk, as plain walks
+   */
+  private static Map<AbductiveWalk<Integer, Integer>, Integer> visits(
+      AbductiveWalker<Integer, Integer> walker, Set<Integer> hypotheses,
+      RuleSet<Integer, Integer> rules, boolean orderSensitive) {
+    final Map<AbductiveWalk<Integer, Integer>, Integer> result = new ConcurrentHashMap<>();
+    final AbductiveWalker.Visitor<Integer, Integer> visitor = walk -> {
+      final AbductiveWalk<Integer, Integer> copy = new AbductiveWalk<>(walk.getHypotheses(),
+          Sets.newLinkedHashSet(walk.getFired()), new HashSet<>(walk.getEvidence()));
+      result.merge(copy, 1, Integer::sum);
+      return Instruction.CONTINUE;
+    };
+    walker.walk(hypotheses, rules,
+        orderSensitive ? visitor : AbductiveWalker.Visitor.orderInsensitive(visitor));
+    return result;
+  }
+
+  @Test
+  public void givenSimpleRules_whenWalkAndPruneFirstLayer_thenVisitOnlyFirstLayer() {
+    final AtomicInteger visited = new AtomicInteger();
+    new ParallelBreadthFirstAbductiveWalker<String, String>(pool).walk(Sets.of("G"),
+        simpleRules(), walk -> {
+          visited.incrementAndGet();
+          return walk.getFired().isEmpty() ? Instruction.CONTINUE : Instruction.PRUNE;
+        });
+
+    // The start, then the one walk that explains G.
+    assertThat(visited.get(), is(2));
+  }
+
+  @Test
+  public void givenSimpleRules_whenWalkAndStop_thenVisitNoMoreWalks() {
+    final AtomicInteger visited = new AtomicInteger();
+    final AtomicInteger deepest = new AtomicInteger();
+    new ParallelBreadthFirstAbductiveWalker<String, String>(pool).walk(Sets.of("G"),
+        simpleRules(), walk -> {
+          visited.incrementAndGet();
+          deepest.accumulateAndGet(walk.getFired().size(), Math::max);
+          return walk.getFired().size() < 2 ? Instruction.CONTINUE : Instruction.STOP;
+        });
+
+    // Workers already visiting a walk in the third layer may finish, but nothing deeper starts.
+    assertThat(visited.get(), lessThan(5));
+    assertThat(deepest.get(), is(2));
+  }
+
+  @Test
+  public void givenVisitorThatThrows_whenWalk_thenNoVisitsAfterWalkThrows()
+      throws InterruptedException {
+    // G has many explanations, so the second layer is wide enough to spread across the workers.
+    final Set<Rule<String, String>> rules = new HashSet<>();
+    for (int i = 0; i < 32; i++)
+      rules.add(new Rule<>("G" + i, Sets.of("X" + i), "G"));
+
+    final AtomicInteger visiting = new AtomicInteger();
+    final AtomicInteger visited = new AtomicInteger();
+    boolean thrown = false;
+    try {
+      new ParallelBreadthFirstAbductiveWalker<String, String>(pool).walk(Sets.of("G"),
+          new DefaultRuleSet<>(rules), walk -> {
+            visiting.incrementAndGet();
+            try {
+              Thread.sleep(1L);
+              if (!walk.getFired().isEmpty())
+                throw new IllegalStateException();
+              return Instruction.CONTINUE;
+            } catch (InterruptedException e) {
+              throw new AssertionError(e);
+            } finally {
+              visited.incrementAndGet();
+              visiting.decrementAndGet();
+            }
+          });
+    } catch (IllegalStateException e) {
+      thrown = true;
+    }
+
+    assertThat(thrown, is(true));
+    assertThat(visiting.get(), is(0));
+    final int count = visited.get();
+    Thread.sleep(50L);
+    assertThat(visited.get(), is(count));
+  }
+
+  @Test
+  public void givenRuleThatNeedsExplainedHypothesis_whenSolve_thenFindEveryArgument() {
+    // Explaining 1 with R2, then 0 with R0, puts 1 back on the queue, so R3 can explain it again.
+    final Set<Rule<Integer, Integer>> rules = new HashSet<>();
+    rules.add(new Rule<>(0, Sets.of(1), 0));
+    rules.add(new Rule<>(1, Sets.of(4), 0));
+    rules.add(new Rule<>(2, Sets.of(4), 1));
+    rules.add(new Rule<>(3, Sets.of(2), 1));
+    final RuleSet<Integer, Integer> ruleset = new DefaultRuleSet<>(rules);
+
+    final Set<AbductiveWalk<Integer, Integer>> arguments =
+        new NaiveAbductiveMinimalArgumentSolver<Integer, Integer>(
+            new ParallelBreadthFirstAbductiveWalker<>(pool)).solve(Sets.of(0, 1), ruleset,
+                Sets.of(2, 4));
+
+    assertThat(arguments.size(), is(2));
+    assertThat(arguments, is(new NaiveAbductiveMinimalArgumentSolver<Integer, Integer>()
+        .solve(Sets.of(0, 1), ruleset, Sets.of(2, 4))));
+  }
+
+  @Test
+  public void givenRandomRules_whenWalk_thenSameWalksAsNaiveWalker() {
+    for (long seed = 0L; seed < 10L; seed++) {
+      final RuleSet<Integer, Integer> rules =
+          SyntheticRuleSets.toRuleSet(SyntheticRuleSets.powerLaw(10, 8, 2, 1.0, seed));
+      for (int goal = 0; goal < 8; goal++) {
+        // 100 is not in any rule, so both walkers must postulate it.
+        final Set<Integer> hypotheses = Sets.of(goal, 100);
+        assertThat(visits(new ParallelBreadthFirstAbductiveWalker<>(pool), hypotheses, rules, true),
+            is(visits(new NaiveAbductiveWalker<>(), hypotheses, rules, true)));
+      }
+    }
+  }
+
+  @Test
+  public void givenRandomRules_whenWalkOrderInsensitive_thenSameWalksAsBitSetWalker() {
+    for (long seed = 0L; seed < 10L; seed++) {
+      final RuleSet<Integer, Integer> rules =
+          SyntheticRuleSets.toRuleSet(SyntheticRuleSets.powerLaw(10, 8, 2, 1.0, seed));
+      for (int goal = 0; goal < 8; goal++) {
+        final Set<Integer> hypotheses = Sets.of(goal, 100);
+        assertThat(
+            visits(new ParallelBreadthFirstAbductiveWalker<>(pool), hypotheses, rules, false)
+                .keySet(),
+            is(visits(new BitSetAbductiveWalker<>(), hypotheses, rules, false).keySet()));
+      }
+    }
+  }
+
+  @Test
+  public void givenRandomRules_whenSolve_thenSameArgumentsAsNaiveWalker() {
+    for (long seed = 0L; seed < 10L; seed++) {
+      final RuleSet<Integer, Integer> rules =
+          SyntheticRuleSets.toRuleSet(SyntheticRuleSets.powerLaw(12, 10, 2, 1.0, seed));
+      for (int goal = 2; goal < 10; goal++) {
+        assertThat(
+            new NaiveAbductiveMinimalArgumentSolver<Integer, Integer>(
+                new ParallelBreadthFirstAbductiveWalker<>(pool)).solve(Sets.of(goal), rules,
+                    Sets.of(1)),
+            is(new NaiveAbductiveMinimalArgumentSolver<Integer, Integer>().solve(Sets.of(goal),
+                rules, Sets.of(1))));
+      }
+    }
+  }
+}
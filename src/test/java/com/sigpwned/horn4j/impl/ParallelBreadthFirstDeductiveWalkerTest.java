@@ -0,0 +1,205 @@
+/*-
+ * =================================LICENSE_START==================================
+ * horn4j
+ * ====================================SECTION=====================================
+ * Copyright (C) 2024 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.horn4j.impl;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import com.sigpwned.horn4j.DeductiveWalker;
+import com.sigpwned.horn4j.DeductiveWalker.Instruction;
+import com.sigpwned.horn4j.Rule;
+import com.sigpwned.horn4j.RuleSet;
+import com.sigpwned.horn4j.util.Sets;
+
+public class ParallelBreadthFirstDeductiveWalkerTest {
+  private static ForkJoinPool pool;
+
+  @BeforeClass
+  public static void setupParallelBreadthFirstDeductiveWalkerTestClass() {
+    pool = new ForkJoinPool(4);
+  }
+
+  @AfterClass
+  public static void cleanupParallelBreadthFirstDeductiveWalkerTestClass() {
+    pool.shutdown();
+  }
+
+  /**
+   * The graph looks like this:
+   * 
+   * <pre>
+   * A
+   * ├── B
+   * │   └── D
+   * └── C
+   *     └── E
+   * </pre>
+   */
+  private static Set<Rule<String, String>> simpleRules() {
+    final Set<Rule<String, String>> rules = new HashSet<>();
+    rules.add(new Rule<>("B", Sets.of("A"), "B"));
+    rules.add(new Rule<>("C", Sets.of("A"), "C"));
+    rules.add(new Rule<>("D", Sets.of("B"), "D"));
+    rules.add(new Rule<>("E", Sets.of("C"), "E"));
+    return rules;
+  }
+
+  @Test
+  public void givenSimpleRules_whenWalk_thenVisitLayersInOrder() {
+    final List<Integer> sizes = new CopyOnWriteArrayList<>();
+    new ParallelBreadthFirstDeductiveWalker<String, String>(pool).walk(Sets.of("A"),
+        new DefaultRuleSet<>(simpleRules()), walk -> {
+          sizes.add(walk.getFired().size());
+          return Instruction.CONTINUE;
+        });
+
+    // Same walks as the sequential walker: {}, {B}, {C}, {B,C}, {B,D}, {C,E}, ...
+    final Set<Integer> seen = new HashSet<>();
+    int last = 0;
+    for (int size : sizes) {
+      assertThat(size < last, is(false));
+      last = size;
+      seen.add(size);
+    }
+    assertThat(seen, is(Sets.of(0, 1, 2, 3, 4)));
+  }
+
+  @Test
+  public void givenSimpleRules_whenWalkAndPruneFirstLayer_thenVisitOnlyFirstLayer() {
+    final AtomicInteger visited = new AtomicInteger();
+    new ParallelBreadthFirstDeductiveWalker<String, String>(pool).walk(Sets.of("A"),
+        new DefaultRuleSet<>(simpleRules()), walk -> {
+          visited.incrementAndGet();
+          return walk.getFired().isEmpty() ? Instruction.CONTINUE : Instruction.PRUNE;
+        });
+
+    // The empty walk, then one walk each for B and C.
+    assertThat(visited.get(), is(3));
+  }
+
+  @Test
+  public void givenSimpleRules_whenWalkAndStop_thenVisitNoMoreWalks() {
+    final AtomicInteger visited = new AtomicInteger();
+    final AtomicInteger deepest = new AtomicInteger();
+    new ParallelBreadthFirstDeductiveWalker<String, String>(pool).walk(Sets.of("A"),
+        new DefaultRuleSet<>(simpleRules()), walk -> {
+          visited.incrementAndGet();
+          deepest.accumulateAndGet(walk.getFired().size(), Math::max);
+          return walk.getFired().isEmpty() ? Instruction.CONTINUE : Instruction.STOP;
+        });
+
+    // Workers already visiting a walk in the first layer may finish, but nothing deeper starts.
+    assertThat(visited.get(), lessThan(4));
+    assertThat(deepest.get(), is(1));
+  }
+
+  @Test
+  public void givenVisitorThatThrows_whenWalk_thenNoVisitsAfterWalkThrows()
+      throws InterruptedException {
+    // Many rules fire from A, so the second layer is wide enough to spread across the workers.
+    final Set<Rule<String, String>> rules = new HashSet<>();
+    for (int i = 0; i < 32; i++)
+      rules.add(new Rule<>("B" + i, Sets.of("A"), "B" + i));
+
+    final AtomicInteger visiting = new AtomicInteger();
+    final AtomicInteger visited = new AtomicInteger();
+    boolean thrown = false;
+    try {
+      new ParallelBreadthFirstDeductiveWalker<String, String>(pool).walk(Sets.of("A"),
+          new DefaultRuleSet<>(rules), walk -> {
+            visiting.incrementAndGet();
+            try {
+              Thread.sleep(1L);
+              if (!walk.getFired().isEmpty())
+                throw new IllegalStateException();
+              return Instruction.CONTINUE;
+            } catch (InterruptedException e) {
+              throw new AssertionError(e);
+            } finally {
+              visited.incrementAndGet();
+              visiting.decrementAndGet();
+            }
+          });
+    } catch (IllegalStateException e) {
+      thrown = true;
+    }
+
+    assertThat(thrown, is(true));
+    assertThat(visiting.get(), is(0));
+    final int count = visited.get();
+    Thread.sleep(50L);
+    assertThat(visited.get(), is(count));
+  }
+
+  @Test
+  public void givenNoRules_whenWalk_thenVisitOnlyEmptyWalk() {
+    final AtomicInteger visited = new AtomicInteger();
+    new ParallelBreadthFirstDeductiveWalker<String, String>(pool).walk(Sets.of("A"),
+        new DefaultRuleSet<>(Collections.emptySet()), walk -> {
+          visited.incrementAndGet();
+          return Instruction.CONTINUE;
+        });
+    assertThat(visited.get(), is(1));
+  }
+
+  @Test
+  public void givenIndependentRules_whenWalkOrderInsensitive_thenVisitEachSetOfRulesOnce() {
+    // B, C, and D are independent, and E has two rules that conclude it.
+    final Set<Rule<String, String>> rules = new HashSet<>();
+    rules.add(new Rule<>("B", Sets.of("A"), "B"));
+    rules.add(new Rule<>("C", Sets.of("A"), "C"));
+    rules.add(new Rule<>("D", Sets.of("A"), "D"));
+    rules.add(new Rule<>("E1", Sets.of("B"), "E"));
+    rules.add(new Rule<>("E2", Sets.of("C"), "E"));
+    final RuleSet<String, String> ruleset = new DefaultRuleSet<>(rules);
+
+    // This walker already visits each set once, since it merges equal walks in each layer. Partial
+    // order reduction only saves it from building the duplicates in the first place.
+    final Set<Set<Rule<String, String>>> expected = ConcurrentHashMap.newKeySet();
+    new ParallelBreadthFirstDeductiveWalker<String, String>(pool).walk(Sets.of("A"), ruleset,
+        walk -> {
+          expected.add(new HashSet<>(walk.getFired()));
+          return Instruction.CONTINUE;
+        });
+
+    final Set<Set<Rule<String, String>>> observed = ConcurrentHashMap.newKeySet();
+    final AtomicInteger observedCount = new AtomicInteger();
+    new ParallelBreadthFirstDeductiveWalker<String, String>(pool).walk(Sets.of("A"), ruleset,
+        DeductiveWalker.Visitor.orderInsensitive(walk -> {
+          observed.add(new HashSet<>(walk.getFired()));
+          observedCount.incrementAndGet();
+          return Instruction.CONTINUE;
+        }));
+
+    assertThat(observed, is(expected));
+    assertThat(observedCount.get(), is(expected.size()));
+  }
+}
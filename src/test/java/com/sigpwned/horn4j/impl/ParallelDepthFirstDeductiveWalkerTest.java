@@ -0,0 +1,258 @@
+/*-
+ * =================================LICENSE_START==================================
+ * horn4j
+ * ====================================SECTION=====================================
+ * Copyright (C) 2024 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.horn4j.impl;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import com.sigpwned.horn4j.DeductiveWalk;
+import com.sigpwned.horn4j.DeductiveWalker;
+import com.sigpwned.horn4j.DeductiveWalker.Instruction;
+import com.sigpwned.horn4j.Rule;
+import com.sigpwned.horn4j.RuleSet;
+import com.sigpwned.horn4j.SearchBudget;
+import com.sigpwned.horn4j.SearchResult;
+import com.sigpwned.horn4j.SolverMetrics;
+import com.sigpwned.horn4j.util.Sets;
+
+public class ParallelDepthFirstDeductiveWalkerTest {
+  private static ForkJoinPool pool;
+
+  @BeforeClass
+  public static void setupParallelDepthFirstDeductiveWalkerTestClass() {
+    pool = new ForkJoinPool(4);
+  }
+
+  @AfterClass
+  public static void cleanupParallelDepthFirstDeductiveWalkerTestClass() {
+    pool.shutdown();
+  }
+
+  /**
+   * The graph looks like this:
+   * 
+   * <pre>
+   * A
+   * ├── B
+   * │   └── D
+   * └── C
+   *     └── E
+   * </pre>
+   */
+  private static RuleSet<String, String> simpleRules() {
+    final Set<Rule<String, String>> rules = new HashSet<>();
+    rules.add(new Rule<>("B", Sets.of("A"), "B"));
+    rules.add(new Rule<>("C", Sets.of("A"), "C"));
+    rules.add(new Rule<>("D", Sets.of("B"), "D"));
+    rules.add(new Rule<>("E", Sets.of("C"), "E"));
+    return new DefaultRuleSet<>(rules);
+  }
+
+  @Test
+  public void givenSimpleRules_whenWalk_thenVisitSameWalksAsSequentialWalker() {
+    final Set<DeductiveWalk<String, String>> expected = new HashSet<>();
+    final AtomicInteger expectedCount = new AtomicInteger();
+    new NaiveDepthFirstDeductiveWalker<String, String>().walk(Sets.of("A"), simpleRules(),
+        walk -> {
+          expected.add(walk);
+          expectedCount.incrementAndGet();
+          return Instruction.CONTINUE;
+        });
+
+    final Set<DeductiveWalk<String, String>> observed = ConcurrentHashMap.newKeySet();
+    final AtomicInteger observedCount = new AtomicInteger();
+    new ParallelDepthFirstDeductiveWalker<String, String>(pool).walk(Sets.of("A"), simpleRules(),
+        walk -> {
+          observed.add(walk);
+          observedCount.incrementAndGet();
+          return Instruction.CONTINUE;
+        });
+
+    assertThat(observed, is(expected));
+    assertThat(observedCount.get(), is(expectedCount.get()));
+  }
+
+  @Test
+  public void givenSimpleRules_whenWalkAndPruneFirstLayer_thenVisitOnlyFirstLayer() {
+    final AtomicInteger visited = new AtomicInteger();
+    new ParallelDepthFirstDeductiveWalker<String, String>(pool).walk(Sets.of("A"), simpleRules(),
+        walk -> {
+          visited.incrementAndGet();
+          return walk.getFired().isEmpty() ? Instruction.CONTINUE : Instruction.PRUNE;
+        });
+
+    // The empty walk, then one walk each for B and C.
+    assertThat(visited.get(), is(3));
+  }
+
+  @Test
+  public void givenSimpleRules_whenWalkAndStopAtRoot_thenVisitOnlyRoot() {
+    final AtomicInteger visited = new AtomicInteger();
+    new ParallelDepthFirstDeductiveWalker<String, String>(pool).walk(Sets.of("A"), simpleRules(),
+        walk -> {
+          visited.incrementAndGet();
+          return Instruction.STOP;
+        });
+    assertThat(visited.get(), is(1));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void givenThrowingVisitor_whenWalk_thenRethrow() {
+    new ParallelDepthFirstDeductiveWalker<String, String>(pool).walk(Sets.of("A"), simpleRules(),
+        walk -> {
+          if (walk.getFired().size() == 2)
+            throw new IllegalStateException();
+          return Instruction.CONTINUE;
+        });
+  }
+
+  @Test
+  public void givenVisitorThatThrows_whenWalk_thenNoVisitsAfterWalkThrows()
+      throws InterruptedException {
+    // Many rules fire from A, so there are plenty of forked walks for the other workers to steal.
+    final Set<Rule<String, String>> rules = new HashSet<>();
+    for (int i = 0; i < 32; i++)
+      rules.add(new Rule<>("B" + i, Sets.of("A"), "B" + i));
+
+    final AtomicInteger visiting = new AtomicInteger();
+    final AtomicInteger visited = new AtomicInteger();
+    boolean thrown = false;
+    try {
+      new ParallelDepthFirstDeductiveWalker<String, String>(pool).walk(Sets.of("A"),
+          new DefaultRuleSet<>(rules), walk -> {
+            visiting.incrementAndGet();
+            try {
+              Thread.sleep(1L);
+              if (walk.getFired().size() == 2)
+                throw new IllegalStateException();
+              return Instruction.CONTINUE;
+            } catch (InterruptedException e) {
+              throw new AssertionError(e);
+            } finally {
+              visited.incrementAndGet();
+              visiting.decrementAndGet();
+            }
+          });
+    } catch (IllegalStateException e) {
+      thrown = true;
+    }
+
+    assertThat(thrown, is(true));
+    assertThat(visiting.get(), is(0));
+    final int count = visited.get();
+    Thread.sleep(50L);
+    assertThat(visited.get(), is(count));
+  }
+
+  @Test
+  public void givenSimpleRules_whenSolveMinimalArguments_thenFindShortestArgument() {
+    final Set<DeductiveWalk<String, String>> solutions =
+        new NaiveDeductiveMinimalArgumentSolver<String, String>(
+            new ParallelDepthFirstDeductiveWalker<>(pool)).solve(Sets.of("A"), simpleRules(),
+                Sets.of("D"));
+
+    assertThat(solutions.size(), is(1));
+    assertThat(solutions.iterator().next().getConclusions(), is(Sets.of("B", "D")));
+  }
+
+  @Test
+  public void givenIndependentRules_whenWalkOrderInsensitive_thenVisitEachSetOfRulesOnce() {
+    // B, C, and D are independent, and E has two rules that conclude it.
+    final Set<Rule<String, String>> rules = new HashSet<>();
+    rules.add(new Rule<>("B", Sets.of("A"), "B"));
+    rules.add(new Rule<>("C", Sets.of("A"), "C"));
+    rules.add(new Rule<>("D", Sets.of("A"), "D"));
+    rules.add(new Rule<>("E1", Sets.of("B"), "E"));
+    rules.add(new Rule<>("E2", Sets.of("C"), "E"));
+    final RuleSet<String, String> ruleset = new DefaultRuleSet<>(rules);
+
+    final Set<Set<Rule<String, String>>> expected = ConcurrentHashMap.newKeySet();
+    final AtomicInteger expectedCount = new AtomicInteger();
+    new ParallelDepthFirstDeductiveWalker<String, String>(pool).walk(Sets.of("A"), ruleset,
+        walk -> {
+          expected.add(new HashSet<>(walk.getFired()));
+          expectedCount.incrementAndGet();
+          return Instruction.CONTINUE;
+        });
+
+    final Set<Set<Rule<String, String>>> observed = ConcurrentHashMap.newKeySet();
+    final AtomicInteger observedCount = new AtomicInteger();
+    new ParallelDepthFirstDeductiveWalker<String, String>(pool).walk(Sets.of("A"), ruleset,
+        DeductiveWalker.Visitor.orderInsensitive(walk -> {
+          observed.add(new HashSet<>(walk.getFired()));
+          observedCount.incrementAndGet();
+          return Instruction.CONTINUE;
+        }));
+
+    assertThat(observed, is(expected));
+    assertThat(observedCount.get(), is(expected.size()));
+    assertThat(observedCount.get(), lessThan(expectedCount.get()));
+  }
+
+  @Test
+  public void givenSimpleRulesAndMetrics_whenWalk_thenCountEveryVisit() {
+    final DefaultSolverMetrics metrics = new DefaultSolverMetrics();
+    final AtomicInteger visited = new AtomicInteger();
+    new ParallelDepthFirstDeductiveWalker<String, String>(pool, BitSetDeductiveWalk.factory(),
+        metrics).walk(Sets.of("A"), simpleRules(), walk -> {
+          visited.incrementAndGet();
+          return Instruction.CONTINUE;
+        });
+
+    final DefaultSolverMetrics.Snapshot snapshot = metrics.snapshot();
+    assertThat(snapshot.getVisited(), is((long) visited.get()));
+    assertThat(snapshot.getLookups(), greaterThan(0L));
+    assertThat(snapshot.getPhase(SolverMetrics.Phase.WALK).getCount(), is(1L));
+  }
+
+  @Test
+  public void givenVisitBudget_whenWalk_thenVisitNoMoreThanLimit() {
+    final AtomicInteger visited = new AtomicInteger();
+    final SearchBudget.Limit limit = new ParallelDepthFirstDeductiveWalker<String, String>(pool)
+        .walk(Sets.of("A"), simpleRules(), walk -> {
+          visited.incrementAndGet();
+          return Instruction.CONTINUE;
+        }, SearchBudget.unlimited().withMaxVisited(3L));
+
+    assertThat(limit, is(SearchBudget.Limit.VISITED));
+    assertThat(visited.get(), is(3));
+  }
+
+  @Test
+  public void givenVisitBudget_whenSolveMinimalArguments_thenReturnPartialResult() {
+    final SearchResult<Set<DeductiveWalk<String, String>>> result =
+        new NaiveDeductiveMinimalArgumentSolver<String, String>(
+            new ParallelDepthFirstDeductiveWalker<>(pool)).solve(Sets.of("A"), simpleRules(),
+                Sets.of("D"), SearchBudget.unlimited().withMaxVisited(1L));
+
+    assertThat(result.isComplete(), is(false));
+    assertThat(result.getLimit(), is(SearchBudget.Limit.VISITED));
+    assertThat(result.getResult(), is(Sets.of()));
+  }
+}
@@ -0,0 +1,85 @@
+/*-
+ * =================================LICENSE_START==================================
+ * horn4j
+ * ====================================SECTION=====================================
+ * Copyright (C) 2024 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.horn4j.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import java.util.ArrayList;
+import org.junit.Test;
+import com.sigpwned.horn4j.DeductiveWalk;
+import com.sigpwned.horn4j.Rule;
+import com.sigpwned.horn4j.util.Lists;
+import com.sigpwned.horn4j.util.Sets;
+
+public class PersistentDeductiveWalkTest {
+  private static final Rule<String, String> AB = new Rule<>("0", Sets.of("a"), "b");
+  private static final Rule<String, String> BC = new Rule<>("1", Sets.of("b"), "c");
+  private static final Rule<String, String> AD = new Rule<>("2", Sets.of("a"), "d");
+  private static final Rule<String, String> BDE = new Rule<>("3", Sets.of("b", "d"), "e");
+
+  @Test
+  public void givenSteps_whenStep_thenEqualToDefaultWalk() {
+    DeductiveWalk<String, String> expected =
+        DeductiveWalk.<String, String>start(Sets.of("a")).step(AB).step(BC);
+    DeductiveWalk<String, String> result =
+        PersistentDeductiveWalk.<String, String>start(Sets.of("a")).step(AB).step(BC);
+    assertEquals(expected, result);
+    assertEquals(result, expected);
+    assertEquals(expected.hashCode(), result.hashCode());
+    assertEquals(Lists.of(AB, BC), new ArrayList<>(result.getFired()));
+    assertEquals(Lists.of("b", "c"), new ArrayList<>(result.getConclusions()));
+  }
+
+  @Test
+  public void givenSiblingWalks_whenStep_thenShareParent() {
+    PersistentDeductiveWalk<String, String> parent =
+        PersistentDeductiveWalk.<String, String>start(Sets.of("a")).step(AB);
+    PersistentDeductiveWalk<String, String> child1 = parent.step(BC);
+    PersistentDeductiveWalk<String, String> child2 = parent.step(AD);
+    assertSame(parent, child1.getParent());
+    assertSame(parent, child2.getParent());
+    assertFalse(child1.equals(child2));
+    assertTrue(child1.contains(parent));
+    assertFalse(parent.contains(child1));
+  }
+
+  @Test
+  public void givenDifferentOrders_whenStep_thenEqual() {
+    DeductiveWalk<String, String> walk1 =
+        PersistentDeductiveWalk.<String, String>start(Sets.of("a")).step(AB).step(AD).step(BDE);
+    DeductiveWalk<String, String> walk2 =
+        PersistentDeductiveWalk.<String, String>start(Sets.of("a")).step(AD).step(AB).step(BDE);
+    assertEquals(walk1, walk2);
+    assertEquals(walk1.hashCode(), walk2.hashCode());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void givenMissingAntecedents_whenStep_thenThrowException() {
+    PersistentDeductiveWalk.<String, String>start(Sets.of("a")).step(AB).step(BDE);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void givenConcludedConsequent_whenStep_thenThrowException() {
+    PersistentDeductiveWalk.<String, String>start(Sets.of("a")).step(AB)
+        .step(new Rule<>("4", Sets.of("a"), "b"));
+  }
+}
@@ -0,0 +1,251 @@
+/*-
+ * =================================LICENSE_START==================================
+ * horn4j
+ * ====================================SECTION=====================================
+ * Copyright (C) 2024 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.horn4j.impl;
+
+import static java.util.stream.Collectors.toCollection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import com.sigpwned.horn4j.Rule;
+
+/**
+ * Generates synthetic rule bases of a given shape and size, e.g., for benchmarks and stress tests.
+ * 
+ * <p>
+ * Each generator returns a lazy stream of exactly the requested number of rules. The rules and
+ * propositions are numbered from zero, and rule {@code i} has id {@code i}. Each rule depends only
+ * on its number, the shape parameters, and the seed, so the same arguments always produce the same
+ * rules, and the streams are safe to process in parallel. Nothing is materialized until the caller
+ * collects the stream, so a rule base of millions of rules costs no more memory than the rule set
+ * it ends up in. Collect the stream with {@link #toRuleSet(Stream)}, or compile it directly with
+ * {@link CompiledRuleSet#fromRules(Stream)}.
+ * 
+ * <p>
+ * Every shape documents which propositions to use as assumptions for deduction. Usually these are
+ * its sources, i.e., the propositions that no rule concludes.
+ * 
+ * <p>
+ * This class is a test fixture, not part of the library. It ships in the test jar, which the
+ * benchmarks depend on.
+ */
+public final class SyntheticRuleSets {
+  private SyntheticRuleSets() {}
+
+  /**
+   * A long chain, where rule {@code i} concludes {@code i + 1} from {@code i}. The only source is
+   * proposition {@code 0}, and the deductive closure of the source concludes every proposition up
+   * to {@code ruleCount}.
+   */
+  public static Stream<Rule<Integer, Integer>> chain(int ruleCount) {
+    if (ruleCount < 0)
+      throw new IllegalArgumentException("ruleCount must not be negative");
+    return IntStream.range(0, ruleCount).mapToObj(i -> rule(i, Collections.singleton(i), i + 1));
+  }
+
+  /**
+   * A chain of wide diamonds. Each diamond has a top, {@code width} propositions in the middle that
+   * each follow from the top, and a bottom that follows from each of the middle propositions, so
+   * there are {@code width} alternative arguments for each bottom. Each diamond has
+   * {@code 2 * width} rules, and the bottom of each diamond is the top of the next. The only source
+   * is proposition {@code 0}, the top of the first diamond.
+   */
+  public static Stream<Rule<Integer, Integer>> diamonds(int ruleCount, int width) {
+    if (ruleCount < 0)
+      throw new IllegalArgumentException("ruleCount must not be negative");
+    if (width < 1)
+      throw new IllegalArgumentException("width must be at least 1");
+    return IntStream.range(0, ruleCount).mapToObj(i -> {
+      final int diamond = i / (2 * width);
+      final int j = i % (2 * width);
+      final int top = diamond * (width + 1);
+      final int bottom = top + width + 1;
+      if (j < width)
+        return rule(i, Collections.singleton(top), top + 1 + j);
+      return rule(i, Collections.singleton(top + 1 + j - width), bottom);
+    });
+  }
+
+  /**
+   * A layered DAG. The rules are split evenly across {@code depth} layers, and each rule concludes
+   * a proposition in its layer from {@code fanIn} distinct propositions in the layer before it,
+   * chosen at random. The layers of propositions are wide enough that each proposition is an
+   * antecedent of {@code fanOut} rules in the next layer on average. The sources are the
+   * propositions in the first layer, i.e., {@code 0} up to the {@link #layerWidth width} of a
+   * layer.
+   * 
+   * <p>
+   * Each proposition is the consequent of {@code fanOut / fanIn} rules on average. If
+   * {@code fanIn} is greater than {@code fanOut}, then that is less than one, so some propositions
+   * are not the consequent of any rule, and any rule that depends on them never fires.
+   */
+  public static Stream<Rule<Integer, Integer>> layered(int ruleCount, int depth, int fanIn,
+      int fanOut, long seed) {
+    if (ruleCount < 0)
+      throw new IllegalArgumentException("ruleCount must not be negative");
+    if (depth < 1)
+      throw new IllegalArgumentException("depth must be at least 1");
+    if (fanIn < 1)
+      throw new IllegalArgumentException("fanIn must be at least 1");
+    if (fanOut < 1)
+      throw new IllegalArgumentException("fanOut must be at least 1");
+    final int rulesPerLayer = Math.max(1, (int) ((ruleCount + (long) depth - 1L) / depth));
+    final int width = layerWidth(rulesPerLayer, fanIn, fanOut);
+    return IntStream.range(0, ruleCount).mapToObj(i -> {
+      final SplittableRandom random = random(seed, i);
+      final int layer = i / rulesPerLayer + 1;
+      final int previous = (layer - 1) * width;
+      final Set<Integer> antecedents = new HashSet<>(fanIn * 2);
+      while (antecedents.size() < fanIn)
+        antecedents.add(previous + random.nextInt(width));
+      return rule(i, antecedents, layer * width + i % rulesPerLayer % width);
+    });
+  }
+
+  /**
+   * Returns the number of propositions in each layer of a {@link #layered layered} rule base with
+   * the given parameters, so that callers can find the sources and the propositions in the last
+   * layer.
+   */
+  public static int layerWidth(int ruleCount, int depth, int fanIn, int fanOut) {
+    if (ruleCount < 0)
+      throw new IllegalArgumentException("ruleCount must not be negative");
+    if (depth < 1)
+      throw new IllegalArgumentException("depth must be at least 1");
+    if (fanIn < 1)
+      throw new IllegalArgumentException("fanIn must be at least 1");
+    if (fanOut < 1)
+      throw new IllegalArgumentException("fanOut must be at least 1");
+    final int rulesPerLayer = Math.max(1, (int) ((ruleCount + (long) depth - 1L) / depth));
+    return layerWidth(rulesPerLayer, fanIn, fanOut);
+  }
+
+  private static int layerWidth(int rulesPerLayer, int fanIn, int fanOut) {
+    final long width = ((long) rulesPerLayer * fanIn + fanOut - 1L) / fanOut;
+    return (int) Math.max(fanIn, width);
+  }
+
+  /**
+   * A chain of strongly connected components. Each component is a cycle of {@code cycleLength}
+   * propositions, where each proposition follows from the one before it, plus one rule that
+   * concludes the first proposition of the next component from a proposition of this component,
+   * chosen at random. Each component has {@code cycleLength + 1} rules. There are no sources, since
+   * every proposition is in a cycle, so start from proposition {@code 0}, whose deductive closure
+   * concludes every proposition.
+   */
+  public static Stream<Rule<Integer, Integer>> cycles(int ruleCount, int cycleLength, long seed) {
+    if (ruleCount < 0)
+      throw new IllegalArgumentException("ruleCount must not be negative");
+    if (cycleLength < 2)
+      throw new IllegalArgumentException("cycleLength must be at least 2");
+    return IntStream.range(0, ruleCount).mapToObj(i -> {
+      final int component = i / (cycleLength + 1);
+      final int j = i % (cycleLength + 1);
+      final int first = component * cycleLength;
+      if (j < cycleLength)
+        return rule(i, Collections.singleton(first + j), first + (j + 1) % cycleLength);
+      final int exit = first + random(seed, i).nextInt(cycleLength);
+      return rule(i, Collections.singleton(exit), first + cycleLength);
+    });
+  }
+
+  /**
+   * A DAG whose consequents follow a power law, like a production rule base where a few popular
+   * conclusions have many alternative rules and most have only one or two. The propositions from
+   * {@code fanIn} up to {@code propositionCount} are ranked in order, and each rule draws its
+   * consequent from them with probability proportional to {@code 1 / rank^exponent}. Each rule
+   * draws {@code fanIn} distinct antecedents uniformly from the propositions numbered below its
+   * consequent, so there are no cycles. The sources are propositions {@code 0} up to {@code fanIn},
+   * plus any proposition that happens not to be the consequent of any rule.
+   * 
+   * <p>
+   * The ranks are drawn by inverting the continuous power law, so the distribution is approximate,
+   * but drawing costs constant time and memory, whatever the number of propositions.
+   */
+  public static Stream<Rule<Integer, Integer>> powerLaw(int ruleCount, int propositionCount,
+      int fanIn, double exponent, long seed) {
+    if (ruleCount < 0)
+      throw new IllegalArgumentException("ruleCount must not be negative");
+    if (fanIn < 0)
+      throw new IllegalArgumentException("fanIn must not be negative");
+    if (propositionCount <= fanIn)
+      throw new IllegalArgumentException("propositionCount must be greater than fanIn");
+    if (!(exponent >= 0.0))
+      throw new IllegalArgumentException("exponent must not be negative");
+    final int ranks = propositionCount - fanIn;
+    return IntStream.range(0, ruleCount).mapToObj(i -> {
+      final SplittableRandom random = random(seed, i);
+      final int consequent = fanIn + rank(random.nextDouble(), ranks, exponent) - 1;
+      final Set<Integer> antecedents = new HashSet<>(fanIn * 2);
+      while (antecedents.size() < fanIn)
+        antecedents.add(random.nextInt(consequent));
+      return rule(i, antecedents, consequent);
+    });
+  }
+
+  /**
+   * Draws a rank from 1 to {@code ranks}, inclusive, from the given uniform sample.
+   */
+  private static int rank(double u, int ranks, double exponent) {
+    final double x;
+    if (exponent == 1.0) {
+      x = Math.pow(ranks + 1.0, u);
+    } else {
+      final double a = 1.0 - exponent;
+      x = Math.pow(1.0 + u * (Math.pow(ranks + 1.0, a) - 1.0), 1.0 / a);
+    }
+    return (int) Math.min(ranks, Math.max(1.0, Math.floor(x)));
+  }
+
+  /**
+   * Collects the given rules into a new {@link DefaultRuleSet}. The rule set keeps the collected
+   * set of rules, so this makes no intermediate copies.
+   */
+  public static <RuleIdT, PropositionT> DefaultRuleSet<RuleIdT, PropositionT> toRuleSet(
+      Stream<Rule<RuleIdT, PropositionT>> rules) {
+    if (rules == null)
+      throw new NullPointerException();
+    return new DefaultRuleSet<>(rules.collect(toCollection(HashSet::new)));
+  }
+
+  private static Rule<Integer, Integer> rule(int id, Set<Integer> antecedents, int consequent) {
+    return new Rule<>(id, antecedents, consequent);
+  }
+
+  /**
+   * Returns a random number generator for the given rule. Each rule gets its own generator, seeded
+   * from the rule number and the seed, so that the rules do not depend on the order in which they
+   * are generated.
+   */
+  private static SplittableRandom random(long seed, int rule) {
+    return new SplittableRandom(mix(seed ^ mix(rule + 0x9E3779B97F4A7C15L)));
+  }
+
+  /**
+   * The finalizer from MurmurHash3, which spreads the bits of nearby inputs across the output.
+   */
+  private static long mix(long x) {
+    x = (x ^ (x >>> 33)) * 0xFF51AFD7ED558CCDL;
+    x = (x ^ (x >>> 33)) * 0xC4CEB9FE1A85EC53L;
+    return x ^ (x >>> 33);
+  }
+}
@@ -0,0 +1,142 @@
+/*-
+ * =================================LICENSE_START==================================
+ * horn4j
+ * ====================================SECTION=====================================
+ * Copyright (C) 2024 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.horn4j.impl;
+
+import static java.util.stream.Collectors.counting;
+import static java.util.stream.Collectors.groupingBy;
+import static java.util.stream.Collectors.toList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.not;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.Test;
+import com.sigpwned.horn4j.DeductiveWalk;
+import com.sigpwned.horn4j.Rule;
+import com.sigpwned.horn4j.util.Sets;
+
+public class SyntheticRuleSetsTest {
+  private static Set<Integer> range(int fromInclusive, int toExclusive) {
+    return IntStream.range(fromInclusive, toExclusive).boxed().collect(Collectors.toSet());
+  }
+
+  private static Set<Integer> deduct(Set<Integer> assumptions,
+      DefaultRuleSet<Integer, Integer> rules) {
+    final DeductiveWalk<Integer, Integer> closure =
+        new ForwardChainingDeductiveClosureSolver<Integer, Integer>().deduct(assumptions, rules);
+    return Sets.union(closure.getAssumptions(), closure.getConclusions());
+  }
+
+  @Test
+  public void givenChain_whenDeduct_thenConcludeEveryProposition() {
+    final DefaultRuleSet<Integer, Integer> rules =
+        SyntheticRuleSets.toRuleSet(SyntheticRuleSets.chain(100));
+    assertThat(rules.getRuleCount(), is(100));
+    assertThat(deduct(Sets.of(0), rules), is(range(0, 101)));
+  }
+
+  @Test
+  public void givenDiamonds_whenGenerate_thenEachBottomHasWidthRules() {
+    final DefaultRuleSet<Integer, Integer> rules =
+        SyntheticRuleSets.toRuleSet(SyntheticRuleSets.diamonds(40, 5));
+
+    // Four diamonds, with tops at 0, 6, 12, and 18, and the last bottom at 24.
+    assertThat(rules.findByConsequent(6).size(), is(5));
+    assertThat(rules.findByConsequent(24).size(), is(5));
+    assertThat(deduct(Sets.of(0), rules), is(range(0, 25)));
+  }
+
+  @Test
+  public void givenLayered_whenGenerate_thenRulesHaveFanInFromPreviousLayer() {
+    final int width = SyntheticRuleSets.layerWidth(1000, 4, 3, 2);
+    final List<Rule<Integer, Integer>> rules =
+        SyntheticRuleSets.layered(1000, 4, 3, 2, 0L).collect(toList());
+    assertThat(rules.size(), is(1000));
+    for (Rule<Integer, Integer> rule : rules) {
+      final int layer = rule.getConsequent() / width;
+      assertThat(layer, greaterThan(0));
+      assertThat(rule.getAntecedents().size(), is(3));
+      assertThat(rule.getAntecedents().stream().map(a -> a / width).collect(toList()),
+          everyItem(is(layer - 1)));
+    }
+  }
+
+  @Test
+  public void givenLayered_whenGenerateTwiceWithSameSeed_thenSameRules() {
+    assertThat(SyntheticRuleSets.layered(500, 5, 2, 2, 42L).collect(toList()),
+        is(SyntheticRuleSets.layered(500, 5, 2, 2, 42L).collect(toList())));
+    assertThat(SyntheticRuleSets.layered(500, 5, 2, 2, 42L).collect(toList()),
+        is(not(SyntheticRuleSets.layered(500, 5, 2, 2, 43L).collect(toList()))));
+  }
+
+  @Test
+  public void givenLayered_whenGenerateInParallel_thenSameRules() {
+    assertThat(SyntheticRuleSets.layered(500, 5, 2, 2, 42L).parallel().collect(toList()),
+        is(SyntheticRuleSets.layered(500, 5, 2, 2, 42L).collect(toList())));
+  }
+
+  @Test
+  public void givenCycles_whenDeduct_thenConcludeEveryProposition() {
+    final DefaultRuleSet<Integer, Integer> rules =
+        SyntheticRuleSets.toRuleSet(SyntheticRuleSets.cycles(40, 4, 0L));
+
+    // Eight components of four propositions each, plus the first proposition of the ninth.
+    assertThat(deduct(Sets.of(0), rules), is(range(0, 33)));
+
+    // The only rule that concludes the source is the one that closes the first cycle.
+    assertThat(rules.findByConsequent(0).size(), is(1));
+  }
+
+  @Test
+  public void givenPowerLaw_whenGenerate_thenFirstRankIsMostPopularConsequent() {
+    final Map<Integer, Long> frequencies = SyntheticRuleSets.powerLaw(10000, 1000, 2, 1.0, 0L)
+        .collect(groupingBy(Rule::getConsequent, counting()));
+    final long first = frequencies.get(2);
+    assertThat(frequencies.values().stream().filter(f -> f > first).count(), is(0L));
+    assertThat(frequencies.getOrDefault(999, 0L), lessThan(first / 10));
+    assertThat(frequencies.keySet(), not(hasItem(0)));
+    assertThat(frequencies.keySet(), not(hasItem(1)));
+  }
+
+  @Test
+  public void givenPowerLaw_whenGenerate_thenAntecedentsPrecedeConsequent() {
+    SyntheticRuleSets.powerLaw(10000, 1000, 3, 1.5, 0L).forEach(rule -> {
+      assertThat(rule.getAntecedents().size(), is(3));
+      assertThat(rule.getAntecedents(), everyItem(lessThan(rule.getConsequent())));
+    });
+  }
+
+  @Test
+  public void givenLargeLayered_whenDeduct_thenConcludeLastLayer() {
+    // Every proposition in each layer is the consequent of two rules, so every proposition is
+    // concluded.
+    final int width = SyntheticRuleSets.layerWidth(100000, 10, 2, 4);
+    final DefaultRuleSet<Integer, Integer> rules =
+        SyntheticRuleSets.toRuleSet(SyntheticRuleSets.layered(100000, 10, 2, 4, 0L));
+    assertThat(deduct(range(0, width), rules), is(range(0, 11 * width)));
+  }
+}
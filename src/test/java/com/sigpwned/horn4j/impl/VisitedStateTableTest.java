@@ -0,0 +1,83 @@
+/*-
+ * =================================LICENSE_START==================================
+ * horn4j
+ * ====================================SECTION=====================================
+ * Copyright (C) 2024 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.horn4j.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+import com.sigpwned.horn4j.util.Bitsets;
+import com.sigpwned.horn4j.util.Sets;
+
+public class VisitedStateTableTest {
+  @Test
+  public void givenNewFingerprint_whenAdd_thenContains() {
+    VisitedStateTable<Object> table = new VisitedStateTable<>(Memoization.DEFAULT_MAX_BYTES);
+    assertFalse(table.contains(Sets.of("A", "B")));
+    assertTrue(table.add(Sets.of("A", "B")));
+    assertTrue(table.contains(Sets.of("B", "A")));
+    assertEquals(1, table.size());
+    assertTrue(table.getBytes() > 0L);
+  }
+
+  @Test
+  public void givenSameFingerprint_whenAddTwice_thenCountOnce() {
+    VisitedStateTable<Object> table = new VisitedStateTable<>(Memoization.DEFAULT_MAX_BYTES);
+    table.add(Sets.of("A"));
+    final long bytes = table.getBytes();
+    assertTrue(table.add(Sets.of("A")));
+    assertEquals(1, table.size());
+    assertEquals(bytes, table.getBytes());
+  }
+
+  @Test
+  public void givenFullTable_whenAdd_thenRejectButKeepExisting() {
+    VisitedStateTable<Object> table = new VisitedStateTable<>(Memoization.DEFAULT_MAX_BYTES);
+    table.add(Sets.of("A"));
+    final long bytes = table.getBytes();
+
+    table = new VisitedStateTable<>(bytes);
+    assertTrue(table.add(Sets.of("A")));
+    assertFalse(table.add(Sets.of("B")));
+    assertTrue(table.contains(Sets.of("A")));
+    assertFalse(table.contains(Sets.of("B")));
+    assertTrue(table.getBytes() <= table.getMaxBytes());
+  }
+
+  @Test
+  public void givenTable_whenClear_thenForgetEverything() {
+    VisitedStateTable<Object> table = new VisitedStateTable<>(Memoization.DEFAULT_MAX_BYTES);
+    table.add(Sets.of("A"));
+    table.clear();
+    assertFalse(table.contains(Sets.of("A")));
+    assertEquals(0, table.size());
+    assertEquals(0L, table.getBytes());
+  }
+
+  @Test
+  public void givenBitsetsOfDifferentLengths_whenFingerprint_thenEqual() {
+    long[] xs = Bitsets.with(Bitsets.of(10), 3);
+    long[] ys = Bitsets.with(Bitsets.of(200), 3);
+    VisitedStateTable<Object> table = new VisitedStateTable<>(Memoization.DEFAULT_MAX_BYTES);
+    table.add(VisitedStateTable.fingerprint(xs));
+    assertTrue(table.contains(VisitedStateTable.fingerprint(ys)));
+    assertFalse(table.contains(VisitedStateTable.fingerprint(Bitsets.with(ys, 150))));
+  }
+}
@@ -0,0 +1,79 @@
+/*-
+ * =================================LICENSE_START==================================
+ * horn4j
+ * ====================================SECTION=====================================
+ * Copyright (C) 2024 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.horn4j.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Function;
+import org.junit.Test;
+
+public class AntichainTest {
+  @Test
+  public void givenSmallerCandidate_whenAdd_thenEvictSupersets() {
+    Antichain<Set<Integer>> antichain = new Antichain<>(Function.identity());
+    assertTrue(antichain.add(Sets.of(1, 2, 3)));
+    assertTrue(antichain.add(Sets.of(2, 3, 4)));
+    assertTrue(antichain.add(Sets.of(5)));
+    assertTrue(antichain.add(Sets.of(2, 3)));
+
+    assertEquals(new HashSet<>(Arrays.asList(Sets.of(2, 3), Sets.of(5))),
+        new HashSet<>(antichain.toList()));
+  }
+
+  @Test
+  public void givenLargerCandidate_whenAdd_thenFalse() {
+    Antichain<Set<Integer>> antichain = new Antichain<>(Function.identity());
+    assertTrue(antichain.add(Sets.of(1, 2)));
+    assertTrue(antichain.containsSubsetOf(Sets.of(1, 2, 3)));
+    assertFalse(antichain.add(Sets.of(1, 2, 3)));
+    assertFalse(antichain.add(Sets.of(2, 1)));
+    assertEquals(1, antichain.size());
+  }
+
+  @Test
+  public void givenRandomSets_whenAdd_thenSameAsMinimal() {
+    Random random = new Random(0L);
+    for (int trial = 0; trial < 20; trial++) {
+      List<Set<Integer>> sets = new ArrayList<>();
+      for (int i = 0; i < 50; i++) {
+        Set<Integer> set = new HashSet<>();
+        int size = random.nextInt(5);
+        while (set.size() < size)
+          set.add(random.nextInt(10));
+        sets.add(set);
+      }
+      Collections.shuffle(sets, random);
+
+      Antichain<Set<Integer>> antichain = new Antichain<>(Function.identity());
+      for (Set<Integer> set : sets)
+        antichain.add(set);
+
+      assertEquals(new HashSet<>(Antichains.minimal(sets)), new HashSet<>(antichain.toList()));
+    }
+  }
+}
@@ -0,0 +1,51 @@
+/*-
+ * =================================LICENSE_START==================================
+ * horn4j
+ * ====================================SECTION=====================================
+ * Copyright (C) 2024 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.horn4j.util;
+
+import static org.junit.Assert.assertEquals;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.junit.Test;
+
+public class AntichainsTest {
+  @Test
+  public void givenNestedSets_whenMinimal_thenKeepOnlySmallest() {
+    List<Set<Integer>> sets = Arrays.asList(Sets.of(1, 2, 3), Sets.of(1, 2), Sets.of(2, 3, 4),
+        Sets.of(4), Sets.of(1, 4));
+    assertEquals(Arrays.asList(Sets.of(4), Sets.of(1, 2)), Antichains.minimal(sets));
+  }
+
+  @Test
+  public void givenDuplicateSets_whenMinimal_thenKeepOne() {
+    List<Set<Integer>> sets = Arrays.asList(Sets.of(1, 2), Sets.of(2, 1), Sets.of(3));
+    assertEquals(new HashSet<>(Arrays.asList(Sets.of(1, 2), Sets.of(3))),
+        new HashSet<>(Antichains.minimal(sets)));
+    assertEquals(2, Antichains.minimal(sets).size());
+  }
+
+  @Test
+  public void givenElementFunction_whenMinimal_thenCompareByElements() {
+    List<String> words = Arrays.asList("abc", "ba", "cab", "d", "bd");
+    assertEquals(Arrays.asList("d", "ba"),
+        Antichains.minimal(words, word -> new HashSet<>(Arrays.asList(word.split("")))));
+  }
+}
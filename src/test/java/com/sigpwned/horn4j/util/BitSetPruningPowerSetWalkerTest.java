@@ -0,0 +1,125 @@
+/*-
+ * =================================LICENSE_START==================================
+ * horn4j
+ * ====================================SECTION=====================================
+ * Copyright (C) 2024 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.horn4j.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Predicate;
+import org.junit.Test;
+
+public class BitSetPruningPowerSetWalkerTest {
+  /**
+   * @return how many times the walker visits each subset, as a sorted list, since sets of integers
+   *         with the same sum have the same hash code
+   */
+  private static Map<List<Integer>, Integer> visits(PruningPowerSetWalker<Integer> walker,
+      Set<Integer> xs, Predicate<Set<Integer>> prune) {
+    Map<List<Integer>, Integer> result = new HashMap<>();
+    walker.prunedWalk(xs, subset -> {
+      List<Integer> sorted = new ArrayList<>(subset);
+      Collections.sort(sorted);
+      result.merge(sorted, 1, Integer::sum);
+      return prune.test(subset);
+    });
+    return result;
+  }
+
+  private static Set<Integer> range(int n) {
+    Set<Integer> result = new HashSet<>();
+    for (int i = 0; i < n; i++)
+      result.add(i);
+    return result;
+  }
+
+  @Test
+  public void givenThreeElementSet_whenPrunedWalk_thenPruneSubsets() {
+    Set<Set<String>> visited = new HashSet<>();
+    new BitSetPruningPowerSetWalker<String>().prunedWalk(Sets.of("a", "b", "c"), subset -> {
+      visited.add(Sets.copyOf(subset));
+      return subset.equals(Sets.of("a"));
+    });
+
+    assertEquals(Sets.of(Sets.of(), Sets.of("a"), Sets.of("b"), Sets.of("c"), Sets.of("b", "c")),
+        visited);
+  }
+
+  @Test
+  public void givenRandomPruning_whenPrunedWalk_thenSameSubsetsAsPruningPowerSetWalker() {
+    Random random = new Random(0L);
+    for (int trial = 0; trial < 20; trial++) {
+      // Prune subsets by a fixed random rule, so both walkers see the same decisions.
+      Set<Integer> input = range(4 + random.nextInt(8));
+      Map<Set<Integer>, Boolean> decisions = new HashMap<>();
+      Random coin = new Random(random.nextLong());
+      Predicate<Set<Integer>> prune = subset -> !subset.isEmpty()
+          && decisions.computeIfAbsent(Sets.copyOf(subset), s -> coin.nextInt(4) == 0);
+
+      assertEquals(visits(new PruningPowerSetWalker<>(), input, prune),
+          visits(new BitSetPruningPowerSetWalker<>(), input, prune));
+    }
+  }
+
+  @Test
+  public void givenLargeSets_whenPrunedWalk_thenSameSubsetsAsPruningPowerSetWalker() {
+    // Prune every pair of elements with an even sum, so no subset has more than one even and one
+    // odd element, which keeps the walk small. The sizes cover one word, two words, and the
+    // fallback.
+    Predicate<Set<Integer>> prune = subset -> {
+      for (int x : subset)
+        for (int y : subset)
+          if (x < y && (x + y) % 2 == 0)
+            return true;
+      return false;
+    };
+    for (int n : new int[] {40, 64, 65, 100, 128, 129}) {
+      Set<Integer> input = range(n);
+      assertEquals(visits(new PruningPowerSetWalker<>(), input, prune),
+          visits(new BitSetPruningPowerSetWalker<>(), input, prune));
+    }
+  }
+
+  @Test
+  public void givenSubset_whenVisit_thenViewBehavesLikeSet() {
+    List<Set<Integer>> copies = new ArrayList<>();
+    new BitSetPruningPowerSetWalker<Integer>().prunedWalk(range(70), subset -> {
+      Set<Integer> copy = new HashSet<>(subset);
+      assertEquals(copy, subset);
+      assertEquals(copy.hashCode(), subset.hashCode());
+      for (int i = 0; i < 70; i++)
+        assertEquals(copy.contains(i), subset.contains(i));
+      assertFalse(subset.contains("x"));
+      if (subset.size() == 2)
+        copies.add(copy);
+      return subset.size() == 2;
+    });
+
+    assertEquals(70 * 69 / 2, copies.size());
+    assertTrue(copies.contains(Sets.of(0, 69)));
+  }
+}
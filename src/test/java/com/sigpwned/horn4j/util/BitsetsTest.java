@@ -0,0 +1,103 @@
+/*-
+ * =================================LICENSE_START==================================
+ * horn4j
+ * ====================================SECTION=====================================
+ * Copyright (C) 2024 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.horn4j.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+public class BitsetsTest {
+  @Test
+  public void givenBitset_whenWith_thenSetBitAndLeaveOriginal() {
+    long[] bits = Bitsets.of(10);
+    long[] result = Bitsets.with(bits, 3);
+    assertTrue(Bitsets.get(result, 3));
+    assertFalse(Bitsets.get(bits, 3));
+  }
+
+  @Test
+  public void givenBitIndexBeyondLength_whenWith_thenGrow() {
+    long[] result = Bitsets.with(Bitsets.of(10), 130);
+    assertEquals(3, result.length);
+    assertTrue(Bitsets.get(result, 130));
+    assertFalse(Bitsets.get(result, 129));
+    assertFalse(Bitsets.get(result, 1000));
+  }
+
+  @Test
+  public void givenBitset_whenWithAllAndWithout_thenChangeCopyOnly() {
+    long[] bits = Bitsets.with(Bitsets.of(10), 3);
+    long[] grown = Bitsets.withAll(bits, new int[] {5, 70});
+    assertEquals(2, grown.length);
+    assertTrue(Bitsets.get(grown, 3));
+    assertTrue(Bitsets.get(grown, 5));
+    assertTrue(Bitsets.get(grown, 70));
+    assertFalse(Bitsets.get(bits, 5));
+
+    long[] shrunk = Bitsets.without(grown, 3);
+    assertFalse(Bitsets.get(shrunk, 3));
+    assertTrue(Bitsets.get(grown, 3));
+    assertTrue(Bitsets.equals(grown, Bitsets.without(grown, 200)));
+  }
+
+  @Test
+  public void givenDifferentLengths_whenUnion_thenSetBitsOfBoth() {
+    long[] union =
+        Bitsets.union(Bitsets.with(Bitsets.of(10), 3), Bitsets.with(Bitsets.of(10), 130));
+    assertEquals(2, Bitsets.cardinality(union));
+    assertTrue(Bitsets.get(union, 3));
+    assertTrue(Bitsets.get(union, 130));
+  }
+
+  @Test
+  public void givenDifferentLengths_whenEquals_thenCompareBitsOnly() {
+    long[] xs = Bitsets.with(Bitsets.of(10), 3);
+    long[] ys = Bitsets.with(Bitsets.of(200), 3);
+    assertTrue(Bitsets.equals(xs, ys));
+    assertFalse(Bitsets.equals(xs, Bitsets.with(ys, 150)));
+  }
+
+  @Test
+  public void givenDifferentLengths_whenHashCode_thenHashBitsOnly() {
+    long[] xs = Bitsets.with(Bitsets.of(10), 3);
+    long[] ys = Bitsets.with(Bitsets.of(200), 3);
+    assertEquals(Bitsets.hashCode(xs), Bitsets.hashCode(ys));
+  }
+
+  @Test
+  public void givenSubset_whenContainsAll_thenTrue() {
+    long[] xs = Bitsets.with(Bitsets.with(Bitsets.of(100), 3), 70);
+    long[] ys = Bitsets.with(Bitsets.of(10), 3);
+    assertTrue(Bitsets.containsAll(xs, ys));
+    assertFalse(Bitsets.containsAll(ys, xs));
+    assertFalse(Bitsets.disjoint(xs, ys));
+  }
+
+  @Test
+  public void givenBits_whenNextSetBit_thenVisitInOrder() {
+    long[] bits = Bitsets.with(Bitsets.with(Bitsets.with(Bitsets.of(200), 0), 64), 199);
+    assertEquals(0, Bitsets.nextSetBit(bits, 0));
+    assertEquals(64, Bitsets.nextSetBit(bits, 1));
+    assertEquals(199, Bitsets.nextSetBit(bits, 65));
+    assertEquals(-1, Bitsets.nextSetBit(bits, 200));
+    assertEquals(3, Bitsets.cardinality(bits));
+  }
+}
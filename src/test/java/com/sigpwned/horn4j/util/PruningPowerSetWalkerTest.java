@@ -20,7 +20,10 @@
 package com.sigpwned.horn4j.util;
 
 import static org.junit.Assert.assertEquals;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
 import java.util.Set;
 import org.junit.Test;
 
@@ -98,4 +101,43 @@ public class PruningPowerSetWalkerTest {
             Sets.of("b", "c"), Sets.of("c", "d"), Sets.of("b", "d"), Sets.of("b", "c", "d")),
         visited);
   }
+
+  @Test
+  public void givenRandomPruning_whenPrunedWalk_thenVisitSubsetsWithNoPrunedSubset() {
+    Random random = new Random(0L);
+    Set<Integer> input = new HashSet<>();
+    for (int i = 0; i < 10; i++)
+      input.add(i);
+
+    for (int trial = 0; trial < 20; trial++) {
+      // Prune a random fifth of the subsets the walker visits, and remember which.
+      final long seed = random.nextLong();
+      List<Set<Integer>> visited = new ArrayList<>();
+      List<Set<Integer>> pruned = new ArrayList<>();
+      Random coin = new Random(seed);
+      new PruningPowerSetWalker<Integer>().prunedWalk(input, subset -> {
+        Set<Integer> copy = Sets.copyOf(subset);
+        visited.add(copy);
+        if (!subset.isEmpty() && coin.nextInt(5) == 0) {
+          pruned.add(copy);
+          return true;
+        }
+        return false;
+      });
+
+      // The walker visits subsets in order of size, so it must visit exactly the subsets that
+      // contain no pruned subset, and visit each of them once.
+      Set<Set<Integer>> expected = new HashSet<>();
+      for (int mask = 0; mask < 1 << 10; mask++) {
+        Set<Integer> subset = new HashSet<>();
+        for (int i = 0; i < 10; i++)
+          if ((mask & (1 << i)) != 0)
+            subset.add(i);
+        if (pruned.stream().noneMatch(p -> !p.equals(subset) && subset.containsAll(p)))
+          expected.add(subset);
+      }
+      assertEquals(expected, new HashSet<>(visited));
+      assertEquals(visited.size(), new HashSet<>(visited).size());
+    }
+  }
 }
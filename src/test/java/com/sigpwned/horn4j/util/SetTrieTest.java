@@ -0,0 +1,189 @@
+/*-
+ * =================================LICENSE_START==================================
+ * horn4j
+ * ====================================SECTION=====================================
+ * Copyright (C) 2024 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.horn4j.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import org.junit.Test;
+
+public class SetTrieTest {
+  @Test
+  public void givenEmptyTrie_whenContainsSubsetOf_thenFalse() {
+    SetTrie<String> trie = new SetTrie<>();
+    assertTrue(trie.isEmpty());
+    assertFalse(trie.containsSubsetOf(Sets.of("a", "b")));
+    assertFalse(trie.containsSubsetOf(Sets.of()));
+  }
+
+  @Test
+  public void givenEmptySet_whenContainsSubsetOf_thenAlwaysTrue() {
+    SetTrie<String> trie = new SetTrie<>();
+    trie.add(Sets.of());
+    assertTrue(trie.containsSubsetOf(Sets.of()));
+    assertTrue(trie.containsSubsetOf(Sets.of("x")));
+  }
+
+  @Test
+  public void givenSets_whenContainsSubsetOf_thenOnlySupersetsMatch() {
+    SetTrie<String> trie = new SetTrie<>();
+    trie.add(Sets.of("a", "c"));
+    trie.add(Sets.of("b", "d", "e"));
+
+    assertTrue(trie.containsSubsetOf(Sets.of("a", "c")));
+    assertTrue(trie.containsSubsetOf(Sets.of("a", "b", "c")));
+    assertTrue(trie.containsSubsetOf(Sets.of("b", "d", "e", "z")));
+    assertFalse(trie.containsSubsetOf(Sets.of("a", "b", "d")));
+    assertFalse(trie.containsSubsetOf(Sets.of("c", "z")));
+  }
+
+  @Test
+  public void givenDuplicateSet_whenAdd_thenFalse() {
+    SetTrie<String> trie = new SetTrie<>();
+    assertTrue(trie.add(Sets.of("a", "b")));
+    assertFalse(trie.add(Sets.of("b", "a")));
+    assertTrue(trie.add(Sets.of("a")));
+    assertEquals(2, trie.size());
+
+    assertTrue(trie.contains(Sets.of("a", "b")));
+    assertTrue(trie.contains(Sets.of("a")));
+    assertFalse(trie.contains(Sets.of("b")));
+    assertFalse(trie.contains(Sets.of("a", "z")));
+  }
+
+  @Test
+  public void givenSets_whenRemoveSupersetsOf_thenRemoveOnlySupersets() {
+    SetTrie<String> trie = new SetTrie<>();
+    trie.add(Sets.of("a", "b", "c"));
+    trie.add(Sets.of("a", "c"));
+    trie.add(Sets.of("b", "c"));
+    trie.add(Sets.of("a"));
+
+    assertEquals(new HashSet<>(Arrays.asList(Sets.of("a", "b", "c"), Sets.of("a", "c"))),
+        new HashSet<>(trie.removeSupersetsOf(Sets.of("c", "a"))));
+    assertEquals(2, trie.size());
+    assertFalse(trie.contains(Sets.of("a", "b", "c")));
+    assertFalse(trie.contains(Sets.of("a", "c")));
+    assertTrue(trie.contains(Sets.of("b", "c")));
+    assertTrue(trie.contains(Sets.of("a")));
+
+    assertTrue(trie.removeSupersetsOf(Sets.of("z")).isEmpty());
+    assertEquals(2, trie.removeSupersetsOf(Sets.of()).size());
+    assertTrue(trie.isEmpty());
+    assertFalse(trie.containsSubsetOf(Sets.of("a", "b", "c")));
+  }
+
+  @Test
+  public void givenRandomSets_whenContainsSubsetOf_thenSameAsScan() {
+    Random random = new Random(0L);
+    SetTrie<Integer> trie = new SetTrie<>();
+    List<Set<Integer>> sets = new ArrayList<>();
+    for (int i = 0; i < 200; i++) {
+      Set<Integer> set = randomSet(random, 3);
+      trie.add(set);
+      sets.add(set);
+    }
+
+    for (int i = 0; i < 1000; i++) {
+      Set<Integer> query = randomSet(random, 8);
+      assertEquals(sets.stream().anyMatch(query::containsAll), trie.containsSubsetOf(query));
+    }
+  }
+
+  @Test
+  public void givenRandomSets_whenPushAndPopCursor_thenSameAsScan() {
+    Random random = new Random(0L);
+    List<Integer> order = new ArrayList<>();
+    for (int i = 0; i < 20; i++)
+      order.add(i);
+    SetTrie<Integer> trie = new SetTrie<>(order);
+    List<Set<Integer>> sets = new ArrayList<>();
+    for (int i = 0; i < 200; i++) {
+      Set<Integer> set = randomSet(random, 3);
+      trie.add(set);
+      sets.add(set);
+    }
+
+    // Walk every subset of the first 12 elements, checking each one as it grows and shrinks.
+    assertEquals(1 << 12, walk(trie.cursor(), new ArrayList<>(), 0, 12, sets));
+  }
+
+  /**
+   * Pushes each subset of the given elements that extends the current set in ascending order, and
+   * checks the cursor against a scan of the given sets each time.
+   * 
+   * @return the number of sets visited, including the current one
+   */
+  private static int walk(SetTrie<Integer>.Cursor cursor, List<Integer> current, int from, int to,
+      List<Set<Integer>> sets) {
+    Set<Integer> query = new HashSet<>(current);
+    assertEquals(sets.stream().anyMatch(query::containsAll), cursor.containsSubset());
+    assertEquals(current.size(), cursor.size());
+
+    int result = 1;
+    for (int i = from; i < to; i++) {
+      current.add(i);
+      cursor.push(i);
+      result = result + walk(cursor, current, i + 1, to, sets);
+      cursor.pop();
+      current.remove(current.size() - 1);
+    }
+
+    return result;
+  }
+
+  @Test
+  public void givenCursor_whenPushUnknownElement_thenNoMatch() {
+    SetTrie<String> trie = new SetTrie<>(Arrays.asList("a", "b", "c"));
+    trie.add(Sets.of("a", "c"));
+
+    SetTrie<String>.Cursor cursor = trie.cursor();
+    assertFalse(cursor.push("a"));
+    assertFalse(cursor.push("z"));
+    assertTrue(cursor.push("c"));
+    cursor.pop();
+    cursor.pop();
+    assertFalse(cursor.containsSubset());
+    assertFalse(cursor.push("b"));
+    assertTrue(cursor.push("c"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void givenCursor_whenPushOutOfOrder_thenException() {
+    SetTrie<String> trie = new SetTrie<>(Arrays.asList("a", "b"));
+    SetTrie<String>.Cursor cursor = trie.cursor();
+    cursor.push("b");
+    cursor.push("a");
+  }
+
+  private static Set<Integer> randomSet(Random random, int maxSize) {
+    Set<Integer> result = new HashSet<>();
+    int size = 1 + random.nextInt(maxSize);
+    while (result.size() < size)
+      result.add(random.nextInt(20));
+    return result;
+  }
+}
@@ -92,4 +92,15 @@ public class SetsTest {
     Set<Integer> result = Sets.difference(set1, set2);
     assertEquals(expected, result);
   }
+
+  @Test
+  public void givenOverlappingSets_whenUnionView_thenGetUnion() {
+    Set<Integer> set1 = new HashSet<>(Arrays.asList(1, 2, 3));
+    Set<Integer> set2 = new HashSet<>(Arrays.asList(2, 3, 4));
+    Set<Integer> expected = new HashSet<>(Arrays.asList(1, 2, 3, 4));
+
+    Set<Integer> result = Sets.unionView(set1, set2);
+    assertEquals(expected, result);
+    assertEquals(4, result.size());
+  }
 }